@@ -0,0 +1,123 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Migration V4 : clés de recherche normalisées des noms (colonne nom_recherche)
+ *
+ * La clé (CleRecherche) ne s'exprime pas en SQL portable (accents, ligatures, "St"/"Saint") :
+ * cette migration est écrite en Java pour calculer celle des lignes existantes. Ensuite,
+ * les entités la recalculent à chaque écriture et les imports JDBC la renseignent.
+ *
+ * La migration garde sa propre copie de l'algorithme, figée telle qu'il était à sa création,
+ * et n'appelle pas CleRecherche : une migration appliquée doit produire le même résultat sur
+ * toute base, quelle que soit la version de l'application. Une évolution de CleRecherche est
+ * livrée par une nouvelle migration qui recalcule les clés (ou un recalcul applicatif).
+ *
+ * - ville.nom_recherche, obligatoire : index (nom_recherche, nb_habs, id_dept), qui sert la
+ *   recherche exacte (ville la plus peuplée d'abord), par préfixe et les doublons à l'import
+ * - departement.nom_recherche, null pour un département sans nom : index (nom_recherche)
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class V4__cles_recherche extends BaseJavaMigration {
+
+    private static final int TAILLE_LOT = 1000;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connexion = context.getConnection();
+        try (Statement ddl = connexion.createStatement()) {
+            // La valeur par défaut ne sert qu'à ajouter la colonne obligatoire sur une table remplie
+            ddl.execute("ALTER TABLE ville ADD COLUMN nom_recherche VARCHAR(150) NOT NULL DEFAULT ''");
+            ddl.execute("ALTER TABLE departement ADD COLUMN nom_recherche VARCHAR(150) NULL");
+
+            calculerCles(connexion, "ville");
+            calculerCles(connexion, "departement");
+
+            ddl.execute("ALTER TABLE ville ALTER COLUMN nom_recherche DROP DEFAULT");
+            ddl.execute("CREATE INDEX idx_ville_nom_recherche ON ville (nom_recherche, nb_habs, id_dept)");
+            ddl.execute("CREATE INDEX idx_departement_nom_recherche ON departement (nom_recherche)");
+        }
+    }
+
+    /**
+     * Calcule la clé de chaque ligne nommée de la table, par lots
+     */
+    private static void calculerCles(Connection connexion, String table) throws SQLException {
+        try (Statement lecture = connexion.createStatement();
+             ResultSet rs = lecture.executeQuery("SELECT id, nom FROM " + table + " WHERE nom IS NOT NULL");
+             PreparedStatement maj = connexion.prepareStatement(
+                     "UPDATE " + table + " SET nom_recherche = ? WHERE id = ?")) {
+            int enAttente = 0;
+            while (rs.next()) {
+                maj.setString(1, cle(rs.getString(2)));
+                maj.setLong(2, rs.getLong(1));
+                maj.addBatch();
+                if (++enAttente == TAILLE_LOT) {
+                    maj.executeBatch();
+                    enAttente = 0;
+                }
+            }
+            if (enAttente > 0) {
+                maj.executeBatch();
+            }
+        }
+    }
+
+    // ==================== CLÉ DE RECHERCHE (COPIE FIGÉE) ====================
+
+    private static final Map<String, String> ABREVIATIONS = Map.of(
+            "st", "saint", "ste", "sainte", "sts", "saints", "stes", "saintes");
+
+    /**
+     * Clé normalisée d'un nom : minuscules sans accents ni ligatures, séparateurs réduits à
+     * un espace, abréviations St, Ste, Sts, Stes développées (CleRecherche.normaliser en V4)
+     */
+    private static String cle(String nom) {
+        String decompose = Normalizer.normalize(nom.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder cle = new StringBuilder(decompose.length());
+        boolean espace = true;
+        for (int i = 0; i < decompose.length(); i++) {
+            char c = decompose.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'œ') {
+                cle.append("oe");
+                espace = false;
+            } else if (c == 'æ') {
+                cle.append("ae");
+                espace = false;
+            } else if (Character.isLetterOrDigit(c)) {
+                cle.append(c);
+                espace = false;
+            } else if (!espace) {
+                cle.append(' ');
+                espace = true;
+            }
+        }
+        int longueur = cle.length();
+        String replie = espace && longueur > 0 ? cle.substring(0, longueur - 1) : cle.toString();
+        if (!replie.contains("st")) {
+            return replie;
+        }
+        String[] mots = replie.split(" ");
+        for (int i = 0; i < mots.length; i++) {
+            mots[i] = ABREVIATIONS.getOrDefault(mots[i], mots[i]);
+        }
+        return String.join(" ", mots);
+    }
+}
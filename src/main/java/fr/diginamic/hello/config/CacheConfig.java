@@ -0,0 +1,122 @@
+package fr.diginamic.hello.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Configuration des caches
+ *
+ * - Cache applicatif (Spring Cache) : le gestionnaire Caffeine, les caches et leur
+ *   politique d'éviction sont déclarés dans application.properties (spring.cache.*).
+ * - Cache de second niveau Hibernate (JCache, implémentation Caffeine) : les régions
+ *   sont créées ici avec une taille maximale et une durée de vie communes
+ *   (departement.cache.l2.*), y compris la région par défaut du cache de requêtes. La région
+ *   des horodatages du cache de requêtes n'expire pas, comme l'exige Hibernate.
+ * - Les compteurs dénormalisés (nombre de villes, population) ne sont pas portés par les
+ *   entités en cache mais par CompteursDepartement et CompteursRegion, hors cache : leurs
+ *   mises à jour natives déclarent les espaces ESPACE_COMPTEURS_* et n'invalident ni les
+ *   entités Departement et Region ni les requêtes par zone.
+ * - Chaque contexte Spring a son propre gestionnaire, pour ne pas partager d'entrées
+ *   entre deux bases (contextes de test notamment).
+ *
+ * @author Votre nom
+ * @version 1.1
+ * @since 2.0
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Région des entités Departement
+     */
+    public static final String REGION_DEPARTEMENT = "departement";
+
+    /**
+     * Région de l'identifiant naturel (code → id) des départements
+     */
+    public static final String REGION_DEPARTEMENT_CODE = "departement-code";
+
+    /**
+     * Région des requêtes par zone géographique (métropole, outre-mer, Corse)
+     */
+    public static final String REGION_REQUETES_DEPARTEMENTS = "departements-regions";
+
+    /**
+     * Région des entités Region (régions administratives)
+     */
+    public static final String REGION_REGION = "region";
+
+    /**
+     * Région par défaut du cache de requêtes (requêtes cachables sans région nommée)
+     */
+    public static final String REGION_REQUETES_DEFAUT = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+
+    /**
+     * Régions du cache de second niveau soumises à la taille maximale et à la durée de vie
+     */
+    public static final List<String> REGIONS_HIBERNATE = List.of(
+            REGION_DEPARTEMENT, REGION_DEPARTEMENT_CODE, REGION_REQUETES_DEPARTEMENTS, REGION_REGION,
+            REGION_REQUETES_DEFAUT);
+
+    /**
+     * Espace de requêtes des compteurs des départements (colonnes nombre_villes et
+     * population_totale de departement), déclaré par leurs mises à jour natives
+     */
+    public static final String ESPACE_COMPTEURS_DEPARTEMENT = "departement_compteurs";
+
+    /**
+     * Espace de requêtes des compteurs des régions (colonnes nombre_villes et
+     * population_totale de region)
+     */
+    public static final String ESPACE_COMPTEURS_REGION = "region_compteurs";
+
+    /**
+     * Gestionnaire JCache dédié au cache de second niveau Hibernate
+     * @param tailleMax nombre maximal d'entrées par région
+     * @param ttl durée de vie d'une entrée après écriture
+     * @return CacheManager
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerHibernate(
+            @Value("${departement.cache.l2.taille-max:1000}") long tailleMax,
+            @Value("${departement.cache.l2.ttl:1h}") Duration ttl) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-l2-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (String region : REGIONS_HIBERNATE) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(tailleMax));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            cacheManager.createCache(region, configuration);
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    /**
+     * Fournit à Hibernate le gestionnaire JCache configuré ci-dessus
+     * @param cacheManagerHibernate gestionnaire JCache
+     * @return HibernatePropertiesCustomizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer cacheSecondNiveauCustomizer(CacheManager cacheManagerHibernate) {
+        return proprietes -> proprietes.put(ConfigSettings.CACHE_MANAGER, cacheManagerHibernate);
+    }
+}
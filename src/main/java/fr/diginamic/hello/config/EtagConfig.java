@@ -0,0 +1,35 @@
+package fr.diginamic.hello.config;
+
+import fr.diginamic.hello.services.DepartementCacheService;
+import fr.diginamic.hello.services.VersionsDonnees;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration des ETag et GET conditionnels sur les routes de l'API
+ *
+ * Les statistiques du cache sont exclues : elles évoluent à chaque lecture,
+ * indépendamment des versions des données.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Configuration
+public class EtagConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private VersionsDonnees versionsDonnees;
+
+    @Autowired
+    private DepartementCacheService departementCacheService;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new VersionEtagInterceptor(versionsDonnees, departementCacheService))
+                .addPathPatterns("/villes", "/villes/**", "/departements", "/departements/**", "/regions", "/regions/**")
+                .excludePathPatterns("/departements/cache/**");
+    }
+}
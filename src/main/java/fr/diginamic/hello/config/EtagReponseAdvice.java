@@ -0,0 +1,52 @@
+package fr.diginamic.hello.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Ajoute l'ETag calculé par VersionEtagInterceptor aux seules réponses 2xx
+ *
+ * Appelé juste avant l'écriture du corps, une fois le statut connu (y compris pour les
+ * réponses d'erreur de GlobalExceptionHandler) : une réponse 4xx ou 5xx est renvoyée sans
+ * ETag ni Cache-Control.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@ControllerAdvice
+public class EtagReponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest requeteServlet
+                && response instanceof ServletServerHttpResponse reponseServlet) {
+            HttpServletRequest requete = requeteServlet.getServletRequest();
+            HttpServletResponse reponse = reponseServlet.getServletResponse();
+            Object etag = requete.getAttribute(VersionEtagInterceptor.ATTRIBUT_ETAG);
+            if (etag != null && HttpStatusCode.valueOf(reponse.getStatus()).is2xxSuccessful()) {
+                response.getHeaders().setETag((String) etag);
+                response.getHeaders().setCacheControl("no-cache");
+            }
+        }
+        return body;
+    }
+}
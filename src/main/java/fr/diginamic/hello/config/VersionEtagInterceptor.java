@@ -0,0 +1,109 @@
+package fr.diginamic.hello.config;
+
+import fr.diginamic.hello.services.DepartementCacheService;
+import fr.diginamic.hello.services.VersionsDonnees;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Enumeration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * GET conditionnels (If-None-Match) à partir des compteurs de VersionsDonnees
+ *
+ * Avant l'appel du contrôleur : calcule l'ETag de la route (version du département pour
+ * les routes limitées à un département, version globale sinon) et répond 304 sans exécuter
+ * le contrôleur si le client a déjà cette version. Aucune requête en base pour un département
+ * connu : son id ou son code est résolu par le cache ; un département inconnu n'a pas d'ETag.
+ *
+ * Sinon l'ETag est conservé dans la requête (ATTRIBUT_ETAG) ; EtagReponseAdvice ne l'ajoute
+ * à la réponse, avec Cache-Control: no-cache, que pour un statut 2xx. Une erreur (404, 400...)
+ * ne porte pas d'ETag : un client ne présente en If-None-Match que la version d'une réponse
+ * 2xx de la même URL, que le 304 confirme tant que les données n'ont pas changé, et ne peut
+ * pas faire revalider une réponse d'erreur.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class VersionEtagInterceptor implements HandlerInterceptor {
+
+    /**
+     * Attribut de requête portant l'ETag calculé, lu par EtagReponseAdvice
+     */
+    public static final String ATTRIBUT_ETAG = VersionEtagInterceptor.class.getName() + ".ETAG";
+
+    private static final Pattern DEPARTEMENT_PAR_ID = Pattern.compile("^/departements/(\\d+)(/.*)?$");
+    private static final Pattern DEPARTEMENT_PAR_CODE =
+            Pattern.compile("^/(?:departements/code|villes/departement)/([^/]+)(/.*)?$");
+
+    private final VersionsDonnees versionsDonnees;
+    private final DepartementCacheService departementCacheService;
+
+    public VersionEtagInterceptor(VersionsDonnees versionsDonnees, DepartementCacheService departementCacheService) {
+        this.versionsDonnees = versionsDonnees;
+        this.departementCacheService = departementCacheService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        String etag = etag(request.getRequestURI().substring(request.getContextPath().length()));
+        if (etag == null) {
+            return true;
+        }
+        if (connuDuClient(request, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            return false;
+        }
+        request.setAttribute(ATTRIBUT_ETAG, etag);
+        return true;
+    }
+
+    /**
+     * Vrai si l'un des ETag de If-None-Match (comparaison faible) ou "*" correspond
+     */
+    private static boolean connuDuClient(HttpServletRequest request, String etag) {
+        Enumeration<String> entetes = request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+        while (entetes.hasMoreElements()) {
+            for (String valeur : entetes.nextElement().split(",")) {
+                String candidat = valeur.trim();
+                if (candidat.equals("*") || sansPrefixeFaible(candidat).equals(sansPrefixeFaible(etag))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String sansPrefixeFaible(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * ETag de la route : version du département concerné, ou version globale
+     * null pour un département inconnu : ni ETag ni 304, la route répond son erreur
+     */
+    private String etag(String chemin) {
+        Matcher parId = DEPARTEMENT_PAR_ID.matcher(chemin);
+        if (parId.matches()) {
+            Long departementId = Long.valueOf(parId.group(1));
+            return departementCacheService.findById(departementId).isPresent()
+                    ? versionsDonnees.etagDepartement(departementId) : null;
+        }
+        Matcher parCode = DEPARTEMENT_PAR_CODE.matcher(chemin);
+        if (parCode.matches()) {
+            return departementCacheService.findByCode(parCode.group(1))
+                    .map(departement -> versionsDonnees.etagDepartement(departement.getId()))
+                    .orElse(null);
+        }
+        return versionsDonnees.etagGlobal();
+    }
+}
@@ -1,11 +1,15 @@
 package fr.diginamic.hello.controlers;
 
 import fr.diginamic.hello.dto.DepartementDTO;
+import fr.diginamic.hello.dto.DepartementResumeDTO;
+import fr.diginamic.hello.dto.PageCurseurDTO;
+import fr.diginamic.hello.dto.StatistiquesDepartementDTO;
 import fr.diginamic.hello.dto.VilleDTO;
 import fr.diginamic.hello.mappers.DepartementMapper;
 import fr.diginamic.hello.mappers.VilleMapper;
 import fr.diginamic.hello.models.Departement;
 import fr.diginamic.hello.models.Ville;
+import fr.diginamic.hello.services.DepartementCacheService;
 import fr.diginamic.hello.services.DepartementService;
 import fr.diginamic.hello.services.VilleService;
 import jakarta.validation.Valid;
@@ -17,7 +21,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -50,6 +53,9 @@ public class DepartementController {
     @Autowired
     private DepartementService departementService;
 
+    @Autowired
+    private DepartementCacheService departementCacheService;
+
     @Autowired
     private VilleService villeService;
 
@@ -62,18 +68,38 @@ public class DepartementController {
     // ==================== ROUTES CRUD DE BASE ====================
 
     /**
-     * GET /departements - Récupère tous les départements avec pagination
+     * GET /departements - Récupère les résumés des départements avec pagination
+     *
+     * Chaque résumé (code, nom, nombre de villes, population totale) lit les compteurs
+     * persistés du département, sans charger ses villes.
+     *
      * @param page numéro de la page (défaut: 0)
      * @param size taille de la page (défaut: 20)
      * @param sort tri (défaut: nom) - Valeurs possibles: nom, code, population, nombreVilles
-     * @return Page<DepartementDTO> Page des départements
+     * @return Page<DepartementResumeDTO>
      */
-    @GetMapping
-    public Page<DepartementDTO> getAllDepartements(
+    @GetMapping(params = "avecVilles!=true")
+    public Page<DepartementResumeDTO> getAllDepartements(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "nom") String sort) {
+        return departementService.findResumesWithSort(page, size, sort);
+    }
+
+    /**
+     * GET /departements?avecVilles=true - Récupère les départements et la liste complète de
+     * leurs villes, avec pagination
+     *
+     * @param page numéro de la page (défaut: 0)
+     * @param size taille de la page (défaut: 20)
+     * @param sort tri (défaut: nom) - Valeurs possibles: nom, code, population, nombreVilles
+     * @return Page<DepartementDTO>
+     */
+    @GetMapping(params = "avecVilles=true")
+    public Page<DepartementDTO> getAllDepartementsAvecVilles(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "nom") String sort) {
-        
         Page<Departement> departements = departementService.findAllWithSort(page, size, sort);
         return departements.map(departementMapper::toDTO);
     }
@@ -110,7 +136,7 @@ public class DepartementController {
     @PostMapping
     public DepartementDTO createDepartement(@Valid @RequestBody DepartementDTO departementDTO) {
         Departement departement = departementMapper.toEntity(departementDTO);
-        Departement savedDepartement = departementService.save(departement);
+        Departement savedDepartement = departementService.save(departement, departementDTO.getCodeRegion());
         return departementMapper.toDTO(savedDepartement);
     }
 
@@ -129,7 +155,7 @@ public class DepartementController {
 
         Departement departement = departementMapper.toEntity(departementDTO);
         departement.setId(id); // S'assurer que l'ID est correct
-        Departement updatedDepartement = departementService.save(departement);
+        Departement updatedDepartement = departementService.save(departement, departementDTO.getCodeRegion());
         return departementMapper.toDTO(updatedDepartement);
     }
 
@@ -162,14 +188,18 @@ public class DepartementController {
     }
 
     /**
-     * GET /departements/search?q=herault - Recherche par nom ou code (partielle, insensible à la casse)
+     * GET /departements/search?q=herault&page=0&size=20 - Recherche par nom ou code
+     * (partielle, insensible à la casse, aux accents et aux tirets)
      * @param q terme de recherche
-     * @return List<DepartementDTO>
+     * @param page numéro de page
+     * @param size taille de la page (1 à 100)
+     * @return Page<DepartementDTO> classée par pertinence puis code
      */
     @GetMapping("/search")
-    public List<DepartementDTO> searchDepartements(@RequestParam String q) {
-        List<Departement> departements = departementService.searchDepartements(q);
-        return departementMapper.toDTOList(departements);
+    public Page<DepartementDTO> searchDepartements(@RequestParam String q,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "20") int size) {
+        return departementService.searchDepartements(q, page, size).map(departementMapper::toDTO);
     }
 
     /**
@@ -270,30 +300,47 @@ public class DepartementController {
     // ==================== ROUTES DES VILLES PAR DÉPARTEMENT ====================
 
     /**
-     * GET /departements/{id}/villes - Toutes les villes d'un département
+     * GET /departements/{id}/villes?sort=nom&size=50&curseur=... - Villes d'un département par tranches
+     * Pagination keyset sur (sort, id) : passer curseurSuivant de la réponse pour la tranche suivante
      * @param id identifiant du département
-     * @return List<VilleDTO>
+     * @param size taille de la tranche (défaut: 50)
+     * @param sort tri : id, nom ou nbHabitants (défaut: nom)
+     * @param curseur curseur opaque de la tranche suivante (absent pour la première)
+     * @return PageCurseurDTO<VilleDTO>
      */
     @GetMapping("/{id}/villes")
-    public List<VilleDTO> getVillesByDepartement(@PathVariable Long id) {
+    public PageCurseurDTO<VilleDTO> getVillesByDepartement(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "nom") String sort,
+            @RequestParam(required = false) String curseur) {
         Optional<Departement> departement = departementService.findById(id);
         if (departement.isEmpty()) {
             throw ExceptionFonctionnelle.ressourceNonTrouvee("Département", id);
         }
 
-        List<Ville> villes = villeService.exportVillesByDepartement(departement.get().getCode());
-        return villeMapper.toDTOList(villes);
+        return villeService.findTrancheByDepartement(id, sort, curseur, size).map(villeMapper::toDTO);
     }
 
     /**
-     * GET /departements/code/{code}/villes - Toutes les villes d'un département par code
+     * GET /departements/code/{code}/villes?sort=nom&size=50&curseur=... - Villes d'un département
+     * par code, par tranches (même pagination keyset que GET /departements/{id}/villes)
      * @param code code du département
-     * @return List<VilleDTO>
+     * @param size taille de la tranche (défaut: 50)
+     * @param sort tri : id, nom ou nbHabitants (défaut: nom)
+     * @param curseur curseur opaque de la tranche suivante (absent pour la première)
+     * @return PageCurseurDTO<VilleDTO>
      */
     @GetMapping("/code/{code}/villes")
-    public List<VilleDTO> getVillesByDepartementCode(@PathVariable String code) {
-        List<Ville> villes = villeService.exportVillesByDepartement(code);
-        return villeMapper.toDTOList(villes);
+    public PageCurseurDTO<VilleDTO> getVillesByDepartementCode(
+            @PathVariable String code,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "nom") String sort,
+            @RequestParam(required = false) String curseur) {
+        Departement departement = departementCacheService.findByCode(code)
+                .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Département", code));
+
+        return villeService.findTrancheByDepartement(departement.getId(), sort, curseur, size).map(villeMapper::toDTO);
     }
 
     /**
@@ -311,21 +358,33 @@ public class DepartementController {
     }
 
     /**
-     * GET /departements/code/{code}/villes/population?min=10000 - Villes avec population min
+     * GET /departements/villes/top?n=10&codes=34,30 - Top N villes de chaque département,
+     * en une seule requête
+     * @param n nombre de villes par département (défaut: 10)
+     * @param codes codes des départements (optionnel, tous par défaut)
+     * @return Map code du département → List<VilleDTO>
+     */
+    @GetMapping("/villes/top")
+    public Map<String, List<VilleDTO>> getTopVillesParDepartement(
+            @RequestParam(defaultValue = "10") int n,
+            @RequestParam(required = false) List<String> codes) {
+        return villeService.findTopNVillesParDepartement(n, codes);
+    }
+
+    /**
+     * GET /departements/code/{code}/villes/population?min=10000&size=50 - Villes avec population min,
+     * par population décroissante, au plus size villes
      * @param code code du département
-     * @param min population minimum (optionnel)
+     * @param min population minimum (optionnel : les plus peuplées)
+     * @param size nombre maximum de villes (défaut: 50, maximum VilleService.TAILLE_MAX_TRANCHE)
      * @return List<VilleDTO>
      */
     @GetMapping("/code/{code}/villes/population")
     public List<VilleDTO> getVillesByDepartementAndPopulation(
             @PathVariable String code,
-            @RequestParam(required = false) Integer min) {
-        List<Ville> villes;
-        if (min != null) {
-            villes = villeService.findByDepartementAndMinPopulation(code, min);
-        } else {
-            villes = villeService.exportVillesByDepartement(code);
-        }
+            @RequestParam(required = false) Integer min,
+            @RequestParam(defaultValue = "50") int size) {
+        List<Ville> villes = villeService.findByDepartementAndMinPopulation(code, min, size);
         return villeMapper.toDTOList(villes);
     }
 
@@ -356,25 +415,48 @@ public class DepartementController {
         return departementService.count();
     }
 
+    /**
+     * GET /departements/cache/stats - Statistiques du cache des départements (par code, par id)
+     * @return Map nom du cache → taille, succès, échecs, taux de succès, évictions
+     */
+    @GetMapping("/cache/stats")
+    public Map<String, Map<String, Object>> getCacheStats() {
+        return departementCacheService.statistiques();
+    }
+
+
+    /**
+     * GET /departements/stats - Statistiques de tous les départements en une requête
+     * (mêmes valeurs que /departements/code/{code}/stats), triées et filtrées
+     * @param sort critère de tri (défaut: code)
+     * @param direction sens du tri, asc ou desc (défaut: asc)
+     * @param minVilles nombre minimum de villes (optionnel)
+     * @param minPopulation population totale minimum (optionnelle)
+     * @param maxPopulation population totale maximum (optionnelle)
+     * @return List<StatistiquesDepartementDTO>
+     */
+    @GetMapping("/stats")
+    public List<StatistiquesDepartementDTO> getStatsDepartements(
+            @RequestParam(defaultValue = "code") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) Long minVilles,
+            @RequestParam(required = false) Long minPopulation,
+            @RequestParam(required = false) Long maxPopulation) {
+        return villeService.getStatistiquesDepartements(sort, direction, minVilles, minPopulation, maxPopulation);
+    }
 
     /**
      * GET /departements/code/{code}/stats - Statistiques détaillées d'un département
+     * (nombre de villes, population totale, minimale, maximale, moyenne, ville la plus peuplée)
      * @param code code du département
-     * @return Map avec les statistiques
+     * @return StatistiquesDepartementDTO
      */
     @GetMapping("/code/{code}/stats")
-    public Map<String, Object> getStatsByCode(@PathVariable String code) {
-        Optional<Departement> departement = departementService.findByCode(code);
-        if (departement.isEmpty()) {
+    public StatistiquesDepartementDTO getStatsByCode(@PathVariable String code) {
+        StatistiquesDepartementDTO stats = villeService.getDepartementStats(code);
+        if (stats == null) {
             throw ExceptionFonctionnelle.ressourceNonTrouvee("Département", code);
         }
-
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("code", departement.get().getCode());
-        stats.put("nom", departement.get().getNom());
-        stats.put("nombreVilles", departementService.countVillesById(departement.get().getId()));
-        stats.put("populationTotale", departementService.getTotalPopulationById(departement.get().getId()));
-        
         return stats;
     }
 
@@ -385,7 +467,7 @@ public class DepartementController {
      */
     @GetMapping("/code/{code}/population-totale")
     public Long getPopulationTotalByCode(@PathVariable String code) {
-        Optional<Departement> departement = departementService.findByCode(code);
+        Optional<Departement> departement = departementCacheService.findByCode(code);
         if (departement.isEmpty()) {
             throw ExceptionFonctionnelle.ressourceNonTrouvee("Département", code);
         }
@@ -400,7 +482,7 @@ public class DepartementController {
      */
     @GetMapping("/code/{code}/nombre-villes")
     public Long getNombreVillesByCode(@PathVariable String code) {
-        Optional<Departement> departement = departementService.findByCode(code);
+        Optional<Departement> departement = departementCacheService.findByCode(code);
         if (departement.isEmpty()) {
             throw ExceptionFonctionnelle.ressourceNonTrouvee("Département", code);
         }
@@ -446,6 +528,16 @@ public class DepartementController {
         return "Noms des départements mis à jour avec succès";
     }
 
+    /**
+     * PUT /departements/recalcul-compteurs - Recalcule les compteurs persistés de tous les départements
+     * @return String
+     */
+    @PutMapping("/recalcul-compteurs")
+    public String recalculerCompteurs() {
+        int nombre = departementService.recalculerCompteurs();
+        return "Compteurs recalculés pour " + nombre + " département(s)";
+    }
+
     /**
      * GET /departements/exists/code/{code} - Vérifie si un département existe
      * @param code code du département
@@ -0,0 +1,73 @@
+package fr.diginamic.hello.controlers;
+
+import fr.diginamic.hello.dto.DepartementResumeDTO;
+import fr.diginamic.hello.dto.RegionDTO;
+import fr.diginamic.hello.dto.TotauxFranceDTO;
+import fr.diginamic.hello.models.ZoneRegion;
+import fr.diginamic.hello.services.RegionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Contrôleur REST des régions et des totaux nationaux (lecture seule)
+ *
+ * Les nombres de villes et populations renvoyés sont les compteurs persistés des régions
+ * et des départements (les totaux nationaux en sont la somme) : chaque route se lit sans
+ * agrégation sur les villes.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@RestController
+@RequestMapping("/regions")
+public class RegionController {
+
+    // ==================== INJECTION DES DÉPENDANCES ====================
+
+    @Autowired
+    private RegionService regionService;
+
+    // ==================== LECTURES ====================
+
+    /**
+     * GET /regions?zone=METROPOLE - Liste des régions (d'une zone), triées par code
+     * @param zone zone géographique (METROPOLE, CORSE, OUTRE_MER), toutes si absente
+     * @return List<RegionDTO>
+     */
+    @GetMapping
+    public List<RegionDTO> getRegions(@RequestParam(required = false) ZoneRegion zone) {
+        return regionService.findAll(zone);
+    }
+
+    /**
+     * GET /regions/france - Totaux nationaux (nombre de villes, population)
+     * @return TotauxFranceDTO
+     */
+    @GetMapping("/france")
+    public TotauxFranceDTO getTotauxFrance() {
+        return regionService.getTotauxFrance();
+    }
+
+    /**
+     * GET /regions/{code} - Région par code INSEE
+     * @param code code de la région
+     * @return RegionDTO
+     */
+    @GetMapping("/{code}")
+    public RegionDTO getRegion(@PathVariable String code) {
+        return regionService.findByCode(code);
+    }
+
+    /**
+     * GET /regions/{code}/departements - Résumés des départements de la région
+     * @param code code de la région
+     * @return List<DepartementResumeDTO>
+     */
+    @GetMapping("/{code}/departements")
+    public List<DepartementResumeDTO> getDepartements(@PathVariable String code) {
+        return regionService.findDepartements(code);
+    }
+}
@@ -1,19 +1,40 @@
 package fr.diginamic.hello.controlers;
 
+import fr.diginamic.hello.dto.CroissanceDepartementDTO;
+import fr.diginamic.hello.dto.PageCurseurDTO;
+import fr.diginamic.hello.dto.RapportImportDTO;
+import fr.diginamic.hello.dto.SeriePopulationDTO;
+import fr.diginamic.hello.dto.StatistiquesDepartementDTO;
+import fr.diginamic.hello.dto.TuileVillesDTO;
 import fr.diginamic.hello.dto.VilleDTO;
+import fr.diginamic.hello.dto.VilleProcheDTO;
 import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
 import fr.diginamic.hello.mappers.VilleMapper;
 import fr.diginamic.hello.models.Ville;
-import fr.diginamic.hello.repositories.VilleRepositoryHelper;
+import fr.diginamic.hello.services.ChargeurCsvInsee;
+import fr.diginamic.hello.services.ExportVillesService;
+import fr.diginamic.hello.services.ImportPopulationsService;
+import fr.diginamic.hello.services.ImportVillesService;
 import fr.diginamic.hello.services.VilleService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 
@@ -40,26 +61,60 @@ public class VilleController {
     @Autowired
     private VilleMapper villeMapper;
 
+    @Autowired
+    private ExportVillesService exportVillesService;
+
+    @Autowired
+    private ImportVillesService importVillesService;
+
+    @Autowired
+    private ChargeurCsvInsee chargeurCsvInsee;
+
+    @Autowired
+    private ImportPopulationsService importPopulationsService;
+
     // ==================== ROUTES CRUD DE BASE ====================
 
     /**
-     * GET /villes - Récupère toutes les villes avec pagination
+     * GET /villes - Récupère toutes les villes avec pagination classique par numéro de page
+     * (sans paramètre curseur, voir getTrancheVilles)
+     *
      * @param page numéro de la page (défaut: 0)
      * @param size taille de la page (défaut: 20)
      * @param sort tri (défaut: id)
-     * @return Page<VilleDTO> Page des villes
+     * @return Page<VilleDTO>
      */
-    @GetMapping
+    @GetMapping(params = "!curseur")
     public Page<VilleDTO> getAllVilles(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "id") String sort) {
-        
+
         Pageable pageable = PageRequest.of(page, size, Sort.by(sort));
         Page<Ville> villesPage = villeService.findAll(pageable);
         return villesPage.map(villeMapper::toDTO);
     }
 
+    /**
+     * GET /villes?curseur= - Récupère une tranche de villes par pagination keyset
+     *
+     * Avec curseur (vide pour la première tranche) : pagination sur (sort, id), sans OFFSET
+     * ni COUNT ; la réponse fournit curseurSuivant pour la tranche suivante.
+     * Tris acceptés : id, nom, nbHabitants.
+     *
+     * @param size taille de la tranche (défaut: 20)
+     * @param sort tri (défaut: id)
+     * @param curseur curseur opaque de la tranche suivante (vide pour la première)
+     * @return PageCurseurDTO<VilleDTO>
+     */
+    @GetMapping(params = "curseur")
+    public PageCurseurDTO<VilleDTO> getTrancheVilles(
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam String curseur) {
+        return villeService.findTranche(sort, curseur, size).map(villeMapper::toDTO);
+    }
+
     /**
      * GET /villes/{id} - Récupère une ville par son ID
      * @param id identifiant de la ville
@@ -132,25 +187,120 @@ public class VilleController {
     }
 
     /**
-     * GET /villes/search/nom-contient?nom=Saint - Recherche par nom partiel
-     * @param nom nom partiel de la ville
-     * @return List<VilleDTO>
+     * GET /villes/search/nom-contient?nom=Saint&page=0&size=20 - Recherche par nom partiel
+     * @param nom nom partiel (casse, accents et tirets ignorés)
+     * @param page numéro de page
+     * @param size taille de la page (1 à 100)
+     * @return Page<VilleDTO> classée par pertinence puis population
      */
     @GetMapping("/search/nom-contient")
-    public List<VilleDTO> findByNomContaining(@RequestParam String nom) {
-        List<Ville> villes = villeService.findByNomContaining(nom);
-        return villeMapper.toDTOList(villes);
+    public Page<VilleDTO> findByNomContaining(@RequestParam String nom,
+                                              @RequestParam(defaultValue = "0") int page,
+                                              @RequestParam(defaultValue = "20") int size) {
+        return villeService.findByNomContaining(nom, page, size);
     }
 
     /**
-     * GET /villes/search/nom-commence?prefix=Saint - Recherche des villes dont le nom commence par...
-     * @param prefix préfixe du nom
-     * @return List<VilleDTO> villes triées par nom
+     * GET /villes/search/nom-commence?prefix=Saint&limit=10 - Autocomplétion des villes dont le nom commence par...
+     * @param prefix préfixe du nom (casse, accents et tirets ignorés)
+     * @param limit nombre maximal de villes
+     * @return List<VilleDTO> villes les plus peuplées d'abord
      */
     @GetMapping("/search/nom-commence")
-    public List<VilleDTO> findByNomStartingWith(@RequestParam String prefix) {
-        List<Ville> villes = villeService.findByNomStartingWith(prefix);
-        return villeMapper.toDTOList(villes);
+    public List<VilleDTO> findByNomStartingWith(@RequestParam String prefix,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        return villeService.findByNomStartingWith(prefix, limit);
+    }
+
+    /**
+     * GET /villes/search/nom-approche?nom=Montpelier&distance=2&limit=10 - Recherche tolérant les fautes de frappe
+     * @param nom nom saisi (casse, accents et tirets ignorés)
+     * @param distance nombre maximal de fautes (insertions, suppressions, substitutions)
+     * @param limit nombre maximal de villes
+     * @return List<VilleDTO> noms les plus proches d'abord, puis les plus peuplés
+     */
+    @GetMapping("/search/nom-approche")
+    public List<VilleDTO> findByNomApproche(@RequestParam String nom,
+                                            @RequestParam(defaultValue = "2") int distance,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        return villeService.findByNomApproche(nom, distance, limit);
+    }
+
+    /**
+     * GET /villes/search/nom-phonetique?nom=Bordo&limit=10 - Recherche des villes dont le nom se prononce comme la saisie
+     * @param nom nom tel qu'entendu
+     * @param limit nombre maximal de villes
+     * @return List<VilleDTO> villes les plus peuplées d'abord
+     */
+    @GetMapping("/search/nom-phonetique")
+    public List<VilleDTO> findByNomPhonetique(@RequestParam String nom,
+                                              @RequestParam(defaultValue = "10") int limit) {
+        return villeService.findByNomPhonetique(nom, limit);
+    }
+
+    /**
+     * GET /villes/search/proches?lat=45.76&lon=4.84&k=10 - Les k villes les plus proches d'un point
+     * @param lat latitude du point (degrés décimaux)
+     * @param lon longitude du point (degrés décimaux)
+     * @param k nombre de villes
+     * @return List<VilleProcheDTO> villes et distances (km), les plus proches d'abord
+     */
+    @GetMapping("/search/proches")
+    public List<VilleProcheDTO> findPlusProches(@RequestParam double lat,
+                                                @RequestParam double lon,
+                                                @RequestParam(defaultValue = "10") int k) {
+        return villeService.findPlusProches(lat, lon, k);
+    }
+
+    /**
+     * GET /villes/search/rayon?lat=45.76&lon=4.84&km=20&limit=100 - Villes situées à au plus km kilomètres d'un point
+     * @param lat latitude du point (degrés décimaux)
+     * @param lon longitude du point (degrés décimaux)
+     * @param km rayon en kilomètres
+     * @param limit nombre maximal de villes
+     * @return List<VilleProcheDTO> villes et distances (km), les plus proches d'abord
+     */
+    @GetMapping("/search/rayon")
+    public List<VilleProcheDTO> findDansRayon(@RequestParam double lat,
+                                              @RequestParam double lon,
+                                              @RequestParam double km,
+                                              @RequestParam(defaultValue = "100") int limit) {
+        return villeService.findDansRayon(lat, lon, km, limit);
+    }
+
+    /**
+     * GET /villes/tuiles/{z}/{x}/{y}?departement=34 - Tuile de carte (Web Mercator) : villes regroupées par cellule
+     * @param z zoom
+     * @param x colonne de la tuile
+     * @param y ligne de la tuile
+     * @param departement code du département (facultatif)
+     * @return TuileVillesDTO groupes avec nombre de villes et population
+     */
+    @GetMapping("/tuiles/{z}/{x}/{y}")
+    public TuileVillesDTO getTuile(@PathVariable int z, @PathVariable int x, @PathVariable int y,
+                                   @RequestParam(required = false) String departement) {
+        return villeService.getTuile(z, x, y, departement);
+    }
+
+    /**
+     * GET /villes/{id}/populations - Historique des populations d'une ville
+     * @param id identifiant de la ville
+     * @return SeriePopulationDTO population par année de recensement
+     */
+    @GetMapping("/{id}/populations")
+    public SeriePopulationDTO getSeriePopulation(@PathVariable Long id) {
+        return villeService.getSeriePopulation(id);
+    }
+
+    /**
+     * GET /villes/populations/croissance?debut=2010&fin=2021 - Évolution de la population par département
+     * @param debut première année
+     * @param fin seconde année
+     * @return List<CroissanceDepartementDTO> un élément par département, par code
+     */
+    @GetMapping("/populations/croissance")
+    public List<CroissanceDepartementDTO> getCroissanceParDepartement(@RequestParam int debut, @RequestParam int fin) {
+        return villeService.getCroissanceParDepartement(debut, fin);
     }
 
     /**
@@ -178,23 +328,19 @@ public class VilleController {
     }
 
     /**
-     * GET /villes/departement/{code}?min=10000 - Villes d'un département avec population > min
+     * GET /villes/departement/{code}?min=10000&size=50 - Villes d'un département avec population > min
+     * Liste bornée à size villes ; toutes les villes du département : GET /villes/export?departement={code}
      * @param code code du département (ex: "75", "13")
-     * @param min population minimum (optionnel)
+     * @param min population minimum (optionnel : les plus peuplées)
+     * @param size nombre maximum de villes (défaut: 50, maximum VilleService.TAILLE_MAX_TRANCHE)
      * @return List<VilleDTO> villes du département triées par population décroissante
      */
     @GetMapping("/departement/{code}")
     public List<VilleDTO> findByDepartementAndMinPopulation(
             @PathVariable String code,
-            @RequestParam(required = false) Integer min) {
-
-        List<Ville> villes;
-        if (min != null) {
-            villes = villeService.findByDepartementAndMinPopulation(code, min);
-        } else {
-            // Si pas de minimum, récupérer toutes les villes du département
-            villes = villeService.exportVillesByDepartement(code);
-        }
+            @RequestParam(required = false) Integer min,
+            @RequestParam(defaultValue = "50") int size) {
+        List<Ville> villes = villeService.findByDepartementAndMinPopulation(code, min, size);
         return villeMapper.toDTOList(villes);
     }
 
@@ -244,11 +390,11 @@ public class VilleController {
     /**
      * GET /villes/departement/{code}/stats - Statistiques d'un département
      * @param code code du département
-     * @return VilleRepositoryHelper.DepartementStats
+     * @return StatistiquesDepartementDTO
      */
     @GetMapping("/departement/{code}/stats")
-    public VilleRepositoryHelper.DepartementStats getDepartementStats(@PathVariable String code) {
-        VilleRepositoryHelper.DepartementStats stats = villeService.getDepartementStats(code);
+    public StatistiquesDepartementDTO getDepartementStats(@PathVariable String code) {
+        StatistiquesDepartementDTO stats = villeService.getDepartementStats(code);
         if (stats == null) {
             throw ExceptionFonctionnelle.ressourceNonTrouvee("Département", code);
         }
@@ -300,62 +446,123 @@ public class VilleController {
 
     /**
      * POST /villes/import - Import en lot de villes
-     * @param villesDTO liste de villes à importer
-     * @return List<VilleDTO>
+     * Le département de chaque ville est désigné par son id ou son code.
+     * Le corps (tableau JSON ou NDJSON, éventuellement compressé en gzip) est lu en flux :
+     * les villes sont validées et insérées par lots au fil de la lecture, sans charger
+     * tout le document en mémoire. Les lignes invalides sont listées dans le rapport
+     * sans empêcher l'import des autres.
+     * @param corps corps de la requête
+     * @return RapportImportDTO
      */
-    @PostMapping("/import")
-    public List<VilleDTO> importVilles(@RequestBody List<VilleDTO> villesDTO) {
-        List<Ville> villes = villeMapper.toEntityList(villesDTO);
-        List<Ville> villesImportees = villeService.importVilles(villes);
-        return villeMapper.toDTOList(villesImportees);
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            "application/gzip", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public RapportImportDTO importVilles(InputStream corps) {
+        return importVillesService.importerJson(corps);
+    }
+
+    /**
+     * POST /villes/import/csv - Import d'un fichier CSV du recensement INSEE (multipart, champ "fichier")
+     * Le fichier est projeté en mémoire et analysé en parallèle ; les départements absents sont créés.
+     * @param fichier fichier CSV séparé par des points-virgules, avec en-tête
+     * @return RapportImportDTO
+     * @throws IOException si le fichier ne peut pas être enregistré ou lu
+     */
+    @PostMapping(value = "/import/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public RapportImportDTO importVillesCsv(@RequestParam("fichier") MultipartFile fichier) throws IOException {
+        Path temporaire = Files.createTempFile("import-villes-", ".csv");
+        try {
+            fichier.transferTo(temporaire);
+            return chargeurCsvInsee.charger(temporaire);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    /**
+     * POST /villes/populations/import/csv - Import de l'historique des populations (multipart, champ "fichier")
+     * Une ligne par ville (id, ou code département et nom), une colonne par année ; lu en flux.
+     * @param fichier fichier CSV séparé par des points-virgules, avec en-tête
+     * @return RapportImportDTO (villesImportees : villes dont la série a été enregistrée)
+     * @throws IOException si le fichier ne peut pas être lu
+     */
+    @PostMapping(value = "/populations/import/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public RapportImportDTO importPopulationsCsv(@RequestParam("fichier") MultipartFile fichier) throws IOException {
+        try (InputStream entree = fichier.getInputStream()) {
+            return importPopulationsService.importerCsv(entree);
+        }
     }
 
     /**
      * GET /villes/export/departement/{code} - Export de toutes les villes d'un département
+     * Équivaut à GET /villes/export?departement={code} : NDJSON écrit en flux, sans liste en mémoire
      * @param code code du département
-     * @return List<VilleDTO>
+     * @return ResponseEntity<StreamingResponseBody>
      */
     @GetMapping("/export/departement/{code}")
-    public List<VilleDTO> exportVillesByDepartement(@PathVariable String code) {
-        List<Ville> villes = villeService.exportVillesByDepartement(code);
-        return villeMapper.toDTOList(villes);
+    public ResponseEntity<StreamingResponseBody> exportVillesByDepartement(@PathVariable String code) {
+        return exportVillesFlux(ExportVillesService.Format.NDJSON.getExtension(), code, false);
+    }
+
+    /**
+     * GET /villes/export?format=ndjson&departement=34&gzip=false - Export en flux continu
+     *
+     * Les villes sont lues par curseur JDBC et écrites au fil de l'eau : la mémoire utilisée
+     * ne dépend pas du nombre de villes, que l'export porte sur un département ou toute la France.
+     *
+     * @param format ndjson (défaut) ou csv
+     * @param departement code du département (absent pour toute la France)
+     * @param gzip compresser la réponse (Content-Encoding: gzip)
+     * @return ResponseEntity<StreamingResponseBody>
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportVillesFlux(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String departement,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        ExportVillesService.Format formatExport = ExportVillesService.Format.depuis(format);
+        exportVillesService.verifierPerimetre(departement);
+
+        String nomFichier = "villes-" + (departement != null ? departement : "france") + "." + formatExport.getExtension();
+        HttpHeaders entetes = new HttpHeaders();
+        entetes.set(HttpHeaders.CONTENT_TYPE, formatExport.getTypeContenu());
+        entetes.setContentDisposition(ContentDisposition.attachment().filename(nomFichier).build());
+        if (gzip) {
+            entetes.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        StreamingResponseBody corps = sortie -> exportVillesService.exporter(departement, formatExport, gzip, sortie);
+        return ResponseEntity.ok().headers(entetes).body(corps);
     }
 
     // ==================== ROUTES DE RECHERCHE AVANCÉE ====================
 
     /**
-     * GET /villes/search/avancee?nom=&minPop=&maxPop=&dept= - Recherche multi-critères
-     * @param nom nom (optionnel)
+     * GET /villes/search/avancee?nom=&minPop=&maxPop=&dept=&page=0&size=20&sort=nom&direction=asc
+     * Recherche multi-critères : tous les critères fournis sont combinés en une seule requête SQL
+     * paginée (sans COUNT), limitée aux VilleService.RESULTATS_MAX_RECHERCHE premiers résultats.
+     * @param nom texte contenu dans le nom (optionnel)
      * @param minPop population minimum (optionnel)
      * @param maxPop population maximum (optionnel)
      * @param dept code département (optionnel)
-     * @return List<VilleDTO>
+     * @param page numéro de page (défaut: 0)
+     * @param size taille de la page (défaut: 20, maximum 100)
+     * @param sort tri : id, nom ou nbHabitants (défaut: nom)
+     * @param direction sens du tri : asc ou desc (défaut: asc)
+     * @return Slice<VilleDTO>
      */
     @GetMapping("/search/avancee")
-    public List<VilleDTO> rechercheAvancee(
+    public Slice<VilleDTO> rechercheAvancee(
             @RequestParam(required = false) String nom,
             @RequestParam(required = false) Integer minPop,
             @RequestParam(required = false) Integer maxPop,
-            @RequestParam(required = false) String dept) {
-
-        List<Ville> villes;
-
-        // Logique de recherche selon les critères fournis
-        if (dept != null && minPop != null && maxPop != null) {
-            villes = villeService.findByDepartementAndPopulationRange(dept, minPop, maxPop);
-        } else if (dept != null && minPop != null) {
-            villes = villeService.findByDepartementAndMinPopulation(dept, minPop);
-        } else if (minPop != null && maxPop != null) {
-            villes = villeService.findByPopulationBetween(minPop, maxPop);
-        } else if (minPop != null) {
-            villes = villeService.findByPopulationGreaterThan(minPop);
-        } else if (nom != null) {
-            villes = villeService.findByNomContaining(nom);
-        } else {
-            villes = villeService.findAll();
-        }
-
-        return villeMapper.toDTOList(villes);
+            @RequestParam(required = false) String dept,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "nom") String sort,
+            @RequestParam(defaultValue = "asc") String direction) {
+        return villeService.rechercher(nom, minPop, maxPop, dept, page, size, sort, direction)
+                .map(villeMapper::toDTO);
     }
 
     // ==================== GESTION DES ERREURS ====================
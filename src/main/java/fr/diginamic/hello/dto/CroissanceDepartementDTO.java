@@ -0,0 +1,142 @@
+package fr.diginamic.hello.dto;
+
+/**
+ * DTO de l'évolution de la population d'un département entre deux années de recensement
+ *
+ * Les populations sont sommées sur les seules villes connues aux deux années : l'évolution
+ * compare le même ensemble de villes.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class CroissanceDepartementDTO {
+
+    /**
+     * Département concerné (id, code, nom)
+     */
+    private VilleDTO.DepartementSimplifieDTO departement;
+
+    private int anneeDebut;
+    private int anneeFin;
+
+    /**
+     * Nombre de villes connues aux deux années
+     */
+    private int nombreVilles;
+
+    private long populationDebut;
+    private long populationFin;
+
+    /**
+     * Évolution entre les deux années (%, arrondie au centième ; null si la population de départ est nulle)
+     */
+    private Double evolutionPourcent;
+
+    /**
+     * Taux de croissance annuel moyen (%, arrondi au centième ; null si non calculable)
+     */
+    private Double tauxAnnuelMoyenPourcent;
+
+    /**
+     * Constructeur par défaut (obligatoire pour la sérialisation JSON)
+     */
+    public CroissanceDepartementDTO() {
+    }
+
+    /**
+     * Constructeur complet, évolutions calculées
+     * @param departement département (id, code, nom)
+     * @param anneeDebut première année
+     * @param anneeFin seconde année
+     * @param nombreVilles nombre de villes connues aux deux années
+     * @param populationDebut population de ces villes la première année
+     * @param populationFin population de ces villes la seconde année
+     */
+    public CroissanceDepartementDTO(VilleDTO.DepartementSimplifieDTO departement, int anneeDebut, int anneeFin,
+                                    int nombreVilles, long populationDebut, long populationFin) {
+        this.departement = departement;
+        this.anneeDebut = anneeDebut;
+        this.anneeFin = anneeFin;
+        this.nombreVilles = nombreVilles;
+        this.populationDebut = populationDebut;
+        this.populationFin = populationFin;
+        if (populationDebut > 0) {
+            double rapport = (double) populationFin / populationDebut;
+            this.evolutionPourcent = arrondir((rapport - 1) * 100);
+            if (anneeFin != anneeDebut) {
+                this.tauxAnnuelMoyenPourcent = arrondir((Math.pow(rapport, 1.0 / (anneeFin - anneeDebut)) - 1) * 100);
+            }
+        }
+    }
+
+    private static double arrondir(double pourcent) {
+        return Math.round(pourcent * 100) / 100.0;
+    }
+
+    // ========== GETTERS ET SETTERS ==========
+
+    public VilleDTO.DepartementSimplifieDTO getDepartement() {
+        return departement;
+    }
+
+    public void setDepartement(VilleDTO.DepartementSimplifieDTO departement) {
+        this.departement = departement;
+    }
+
+    public int getAnneeDebut() {
+        return anneeDebut;
+    }
+
+    public void setAnneeDebut(int anneeDebut) {
+        this.anneeDebut = anneeDebut;
+    }
+
+    public int getAnneeFin() {
+        return anneeFin;
+    }
+
+    public void setAnneeFin(int anneeFin) {
+        this.anneeFin = anneeFin;
+    }
+
+    public int getNombreVilles() {
+        return nombreVilles;
+    }
+
+    public void setNombreVilles(int nombreVilles) {
+        this.nombreVilles = nombreVilles;
+    }
+
+    public long getPopulationDebut() {
+        return populationDebut;
+    }
+
+    public void setPopulationDebut(long populationDebut) {
+        this.populationDebut = populationDebut;
+    }
+
+    public long getPopulationFin() {
+        return populationFin;
+    }
+
+    public void setPopulationFin(long populationFin) {
+        this.populationFin = populationFin;
+    }
+
+    public Double getEvolutionPourcent() {
+        return evolutionPourcent;
+    }
+
+    public void setEvolutionPourcent(Double evolutionPourcent) {
+        this.evolutionPourcent = evolutionPourcent;
+    }
+
+    public Double getTauxAnnuelMoyenPourcent() {
+        return tauxAnnuelMoyenPourcent;
+    }
+
+    public void setTauxAnnuelMoyenPourcent(Double tauxAnnuelMoyenPourcent) {
+        this.tauxAnnuelMoyenPourcent = tauxAnnuelMoyenPourcent;
+    }
+}
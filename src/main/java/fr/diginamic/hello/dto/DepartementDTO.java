@@ -56,6 +56,14 @@ public class DepartementDTO {
      */
     private Integer nombreVilles;
 
+    /**
+     * Code INSEE de la région du département (null si non rattaché)
+     * En création ou modification : région à laquelle rattacher le département,
+     * la région actuelle étant conservée si absent
+     */
+    @Size(min = 2, max = 3, message = "{departement.codeRegion.size}")
+    private String codeRegion;
+
     /**
      * Constructeur par défaut (obligatoire pour la sérialisation JSON)
      */
@@ -189,6 +197,22 @@ public class DepartementDTO {
         this.nombreVilles = nombreVilles;
     }
 
+    /**
+     * Récupère le code de la région
+     * @return code INSEE de la région (null si non rattaché)
+     */
+    public String getCodeRegion() {
+        return codeRegion;
+    }
+
+    /**
+     * Définit le code de la région
+     * @param codeRegion code INSEE de la région
+     */
+    public void setCodeRegion(String codeRegion) {
+        this.codeRegion = codeRegion;
+    }
+
     // ========== MÉTHODES UTILITAIRES ==========
 
     /**
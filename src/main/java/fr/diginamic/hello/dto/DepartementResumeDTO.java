@@ -0,0 +1,117 @@
+package fr.diginamic.hello.dto;
+
+/**
+ * DTO allégé pour l'affichage paginé des départements
+ *
+ * Contrairement à DepartementDTO, ce DTO ne contient pas la liste des villes :
+ * le nombre de villes et la population totale sont lus dans les compteurs persistés
+ * du département, pour toute la page en un seul aller-retour sans jointure.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class DepartementResumeDTO {
+
+    /**
+     * Identifiant unique du département
+     */
+    private Long id;
+
+    /**
+     * Code du département
+     */
+    private String code;
+
+    /**
+     * Nom du département
+     */
+    private String nom;
+
+    /**
+     * Nombre de villes dans le département (compteur persisté)
+     */
+    private Long nombreVilles;
+
+    /**
+     * Population totale du département (compteur persisté)
+     */
+    private Long populationTotale;
+
+    /**
+     * Constructeur par défaut (obligatoire pour la sérialisation JSON)
+     */
+    public DepartementResumeDTO() {
+    }
+
+    /**
+     * Constructeur complet, utilisé par les expressions "SELECT new" JPQL
+     * @param id identifiant du département
+     * @param code code du département
+     * @param nom nom du département
+     * @param nombreVilles nombre de villes
+     * @param populationTotale population totale
+     */
+    public DepartementResumeDTO(Long id, String code, String nom, Long nombreVilles, Long populationTotale) {
+        this.id = id;
+        this.code = code;
+        this.nom = nom;
+        this.nombreVilles = nombreVilles != null ? nombreVilles : 0L;
+        this.populationTotale = populationTotale != null ? populationTotale : 0L;
+    }
+
+    // ========== GETTERS ET SETTERS ==========
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public Long getNombreVilles() {
+        return nombreVilles;
+    }
+
+    public void setNombreVilles(Long nombreVilles) {
+        this.nombreVilles = nombreVilles;
+    }
+
+    public Long getPopulationTotale() {
+        return populationTotale;
+    }
+
+    public void setPopulationTotale(Long populationTotale) {
+        this.populationTotale = populationTotale;
+    }
+
+    // ========== MÉTHODES STANDARD ==========
+
+    @Override
+    public String toString() {
+        return "DepartementResumeDTO{" +
+                "id=" + id +
+                ", code='" + code + '\'' +
+                ", nom='" + nom + '\'' +
+                ", nombreVilles=" + nombreVilles +
+                ", populationTotale=" + populationTotale +
+                '}';
+    }
+}
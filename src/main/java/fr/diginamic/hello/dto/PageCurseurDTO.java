@@ -0,0 +1,116 @@
+package fr.diginamic.hello.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Tranche de résultats paginée par curseur (keyset)
+ *
+ * Contrairement à Page, aucune position absolue ni total n'est calculé :
+ * le client transmet curseurSuivant pour obtenir la tranche suivante.
+ * curseurSuivant vaut null sur la dernière tranche.
+ *
+ * @param <T> type des éléments
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class PageCurseurDTO<T> {
+
+    /**
+     * Éléments de la tranche
+     */
+    private List<T> contenu;
+
+    /**
+     * Critère de tri de la tranche (id, nom ou nbHabitants)
+     */
+    private String tri;
+
+    /**
+     * Taille demandée de la tranche
+     */
+    private int taille;
+
+    /**
+     * Curseur opaque de la tranche suivante (null si dernière tranche)
+     */
+    private String curseurSuivant;
+
+    /**
+     * Constructeur par défaut (obligatoire pour la sérialisation JSON)
+     */
+    public PageCurseurDTO() {
+    }
+
+    /**
+     * Constructeur complet
+     * @param contenu éléments de la tranche
+     * @param tri critère de tri
+     * @param taille taille demandée
+     * @param curseurSuivant curseur de la tranche suivante
+     */
+    public PageCurseurDTO(List<T> contenu, String tri, int taille, String curseurSuivant) {
+        this.contenu = contenu;
+        this.tri = tri;
+        this.taille = taille;
+        this.curseurSuivant = curseurSuivant;
+    }
+
+    /**
+     * Convertit les éléments de la tranche en conservant le curseur
+     * @param conversion fonction de conversion
+     * @param <R> type cible
+     * @return PageCurseurDTO<R>
+     */
+    public <R> PageCurseurDTO<R> map(Function<? super T, ? extends R> conversion) {
+        List<R> converti = contenu.stream().<R>map(conversion).toList();
+        return new PageCurseurDTO<>(converti, tri, taille, curseurSuivant);
+    }
+
+    // ========== GETTERS ET SETTERS ==========
+
+    public List<T> getContenu() {
+        return contenu;
+    }
+
+    public void setContenu(List<T> contenu) {
+        this.contenu = contenu;
+    }
+
+    public String getTri() {
+        return tri;
+    }
+
+    public void setTri(String tri) {
+        this.tri = tri;
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    public void setTaille(int taille) {
+        this.taille = taille;
+    }
+
+    public String getCurseurSuivant() {
+        return curseurSuivant;
+    }
+
+    public void setCurseurSuivant(String curseurSuivant) {
+        this.curseurSuivant = curseurSuivant;
+    }
+
+    // ========== MÉTHODES STANDARD ==========
+
+    @Override
+    public String toString() {
+        return "PageCurseurDTO{" +
+                "taille=" + taille +
+                ", tri='" + tri + '\'' +
+                ", elements=" + (contenu != null ? contenu.size() : 0) +
+                ", curseurSuivant='" + curseurSuivant + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,221 @@
+package fr.diginamic.hello.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rapport d'un import de villes en lot
+ *
+ * L'import n'est pas "tout ou rien" : chaque lot valide est validé en base
+ * et les lignes rejetées sont listées avec leur numéro et la raison du rejet.
+ * Le détail des erreurs est limité à ERREURS_MAX entrées (le compteur reste exact).
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class RapportImportDTO {
+
+    /**
+     * Nombre maximal d'erreurs détaillées dans le rapport
+     */
+    public static final int ERREURS_MAX = 1000;
+
+    /**
+     * Nombre de lignes lues
+     */
+    private long lignesLues;
+
+    /**
+     * Nombre de villes insérées
+     */
+    private long villesImportees;
+
+    /**
+     * Nombre de lignes rejetées
+     */
+    private long lignesRejetees;
+
+    /**
+     * Nombre de lots validés en base
+     */
+    private int lots;
+
+    /**
+     * Durée de l'import en millisecondes
+     */
+    private long dureeMs;
+
+    /**
+     * Détail des lignes rejetées (tronqué à ERREURS_MAX)
+     */
+    private List<ErreurLigneDTO> erreurs = new ArrayList<>();
+
+    /**
+     * Constructeur par défaut (obligatoire pour la sérialisation JSON)
+     */
+    public RapportImportDTO() {
+    }
+
+    /**
+     * Enregistre le rejet d'une ligne
+     * @param ligne numéro de la ligne (à partir de 1)
+     * @param nom nom de la ville (peut être null)
+     * @param message raison du rejet
+     */
+    public void rejeter(long ligne, String nom, String message) {
+        lignesRejetees++;
+        if (erreurs.size() < ERREURS_MAX) {
+            erreurs.add(new ErreurLigneDTO(ligne, nom, message));
+        }
+    }
+
+    /**
+     * Comptabilise un lot inséré
+     * @param nombreVilles nombre de villes du lot
+     */
+    public void lotImporte(int nombreVilles) {
+        villesImportees += nombreVilles;
+        lots++;
+    }
+
+    /**
+     * Comptabilise une ligne lue
+     */
+    public void ligneLue() {
+        lignesLues++;
+    }
+
+    // ========== GETTERS ET SETTERS ==========
+
+    public long getLignesLues() {
+        return lignesLues;
+    }
+
+    public void setLignesLues(long lignesLues) {
+        this.lignesLues = lignesLues;
+    }
+
+    public long getVillesImportees() {
+        return villesImportees;
+    }
+
+    public void setVillesImportees(long villesImportees) {
+        this.villesImportees = villesImportees;
+    }
+
+    public long getLignesRejetees() {
+        return lignesRejetees;
+    }
+
+    public void setLignesRejetees(long lignesRejetees) {
+        this.lignesRejetees = lignesRejetees;
+    }
+
+    public int getLots() {
+        return lots;
+    }
+
+    public void setLots(int lots) {
+        this.lots = lots;
+    }
+
+    public long getDureeMs() {
+        return dureeMs;
+    }
+
+    public void setDureeMs(long dureeMs) {
+        this.dureeMs = dureeMs;
+    }
+
+    public List<ErreurLigneDTO> getErreurs() {
+        return erreurs;
+    }
+
+    public void setErreurs(List<ErreurLigneDTO> erreurs) {
+        this.erreurs = erreurs;
+    }
+
+    // ========== MÉTHODES STANDARD ==========
+
+    @Override
+    public String toString() {
+        return "RapportImportDTO{" +
+                "lignesLues=" + lignesLues +
+                ", villesImportees=" + villesImportees +
+                ", lignesRejetees=" + lignesRejetees +
+                ", lots=" + lots +
+                ", dureeMs=" + dureeMs +
+                '}';
+    }
+
+    // ========== CLASSE INTERNE POUR LES ERREURS ==========
+
+    /**
+     * Erreur sur une ligne de l'import
+     */
+    public static class ErreurLigneDTO {
+
+        /**
+         * Numéro de la ligne dans les données importées (à partir de 1)
+         */
+        private long ligne;
+
+        /**
+         * Nom de la ville rejetée
+         */
+        private String nom;
+
+        /**
+         * Raison du rejet
+         */
+        private String message;
+
+        /**
+         * Constructeur par défaut
+         */
+        public ErreurLigneDTO() {
+        }
+
+        /**
+         * Constructeur complet
+         * @param ligne numéro de la ligne
+         * @param nom nom de la ville
+         * @param message raison du rejet
+         */
+        public ErreurLigneDTO(long ligne, String nom, String message) {
+            this.ligne = ligne;
+            this.nom = nom;
+            this.message = message;
+        }
+
+        public long getLigne() {
+            return ligne;
+        }
+
+        public void setLigne(long ligne) {
+            this.ligne = ligne;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+
+        public void setNom(String nom) {
+            this.nom = nom;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return "ErreurLigneDTO{ligne=" + ligne + ", nom='" + nom + "', message='" + message + "'}";
+        }
+    }
+}
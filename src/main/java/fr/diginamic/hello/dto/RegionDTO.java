@@ -0,0 +1,120 @@
+package fr.diginamic.hello.dto;
+
+import fr.diginamic.hello.models.ZoneRegion;
+
+/**
+ * DTO d'une région administrative avec ses compteurs persistés
+ *
+ * Le nombre de villes et la population sont lus dans les compteurs de la région, tenus à
+ * jour à chaque écriture sur ville : aucune agrégation à la lecture.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class RegionDTO {
+
+    /**
+     * Identifiant unique de la région
+     */
+    private Long id;
+
+    /**
+     * Code INSEE de la région
+     */
+    private String code;
+
+    /**
+     * Nom de la région
+     */
+    private String nom;
+
+    /**
+     * Zone géographique (métropole, Corse, outre-mer)
+     */
+    private ZoneRegion zone;
+
+    /**
+     * Nombre de villes de la région (compteur persisté)
+     */
+    private Long nombreVilles;
+
+    /**
+     * Population totale de la région (compteur persisté)
+     */
+    private Long populationTotale;
+
+    /**
+     * Constructeur par défaut (obligatoire pour la sérialisation JSON)
+     */
+    public RegionDTO() {
+    }
+
+    /**
+     * Constructeur complet
+     * @param id identifiant de la région
+     * @param code code INSEE
+     * @param nom nom de la région
+     * @param zone zone géographique
+     * @param nombreVilles nombre de villes
+     * @param populationTotale population totale
+     */
+    public RegionDTO(Long id, String code, String nom, ZoneRegion zone, Long nombreVilles, Long populationTotale) {
+        this.id = id;
+        this.code = code;
+        this.nom = nom;
+        this.zone = zone;
+        this.nombreVilles = nombreVilles;
+        this.populationTotale = populationTotale;
+    }
+
+    // ========== GETTERS ET SETTERS ==========
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public ZoneRegion getZone() {
+        return zone;
+    }
+
+    public void setZone(ZoneRegion zone) {
+        this.zone = zone;
+    }
+
+    public Long getNombreVilles() {
+        return nombreVilles;
+    }
+
+    public void setNombreVilles(Long nombreVilles) {
+        this.nombreVilles = nombreVilles;
+    }
+
+    public Long getPopulationTotale() {
+        return populationTotale;
+    }
+
+    public void setPopulationTotale(Long populationTotale) {
+        this.populationTotale = populationTotale;
+    }
+}
@@ -0,0 +1,73 @@
+package fr.diginamic.hello.dto;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DTO de l'historique des populations d'une ville
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class SeriePopulationDTO {
+
+    /**
+     * Identifiant de la ville
+     */
+    private Long villeId;
+
+    /**
+     * Nom de la ville
+     */
+    private String nom;
+
+    /**
+     * Population par année de recensement (années croissantes)
+     */
+    private Map<Integer, Integer> populations = new TreeMap<>();
+
+    /**
+     * Constructeur par défaut (obligatoire pour la sérialisation JSON)
+     */
+    public SeriePopulationDTO() {
+    }
+
+    /**
+     * Constructeur complet
+     * @param villeId identifiant de la ville
+     * @param nom nom de la ville
+     * @param populations population par année
+     */
+    public SeriePopulationDTO(Long villeId, String nom, Map<Integer, Integer> populations) {
+        this.villeId = villeId;
+        this.nom = nom;
+        this.populations = populations;
+    }
+
+    // ========== GETTERS ET SETTERS ==========
+
+    public Long getVilleId() {
+        return villeId;
+    }
+
+    public void setVilleId(Long villeId) {
+        this.villeId = villeId;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public Map<Integer, Integer> getPopulations() {
+        return populations;
+    }
+
+    public void setPopulations(Map<Integer, Integer> populations) {
+        this.populations = populations;
+    }
+}
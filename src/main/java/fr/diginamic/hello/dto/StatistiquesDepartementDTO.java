@@ -0,0 +1,144 @@
+package fr.diginamic.hello.dto;
+
+/**
+ * DTO des statistiques d'un département
+ *
+ * Toutes les valeurs sont calculées sur la table ville (et non lues dans les compteurs
+ * persistés du département), en une seule requête : agrégats, médiane et ville la plus peuplée.
+ * Pour un département sans ville : nombreVilles et populationTotale valent 0,
+ * les autres valeurs sont null.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class StatistiquesDepartementDTO {
+
+    /**
+     * Département concerné (id, code, nom)
+     */
+    private VilleDTO.DepartementSimplifieDTO departement;
+
+    /**
+     * Nombre de villes du département
+     */
+    private Long nombreVilles;
+
+    /**
+     * Population totale du département
+     */
+    private Long populationTotale;
+
+    /**
+     * Population de la ville la moins peuplée
+     */
+    private Integer populationMin;
+
+    /**
+     * Population de la ville la plus peuplée
+     */
+    private Integer populationMax;
+
+    /**
+     * Population moyenne par ville
+     */
+    private Double populationMoyenne;
+
+    /**
+     * Population médiane (moyenne des deux valeurs centrales pour un nombre pair de villes)
+     */
+    private Double populationMediane;
+
+    /**
+     * Ville la plus peuplée (la plus petite id en cas d'égalité)
+     */
+    private VilleDTO villeLaPlusPeuplee;
+
+    /**
+     * Constructeur par défaut (obligatoire pour la sérialisation JSON)
+     */
+    public StatistiquesDepartementDTO() {
+    }
+
+    // ========== GETTERS ET SETTERS ==========
+
+    public VilleDTO.DepartementSimplifieDTO getDepartement() {
+        return departement;
+    }
+
+    public void setDepartement(VilleDTO.DepartementSimplifieDTO departement) {
+        this.departement = departement;
+    }
+
+    public Long getNombreVilles() {
+        return nombreVilles;
+    }
+
+    public void setNombreVilles(Long nombreVilles) {
+        this.nombreVilles = nombreVilles;
+    }
+
+    public Long getPopulationTotale() {
+        return populationTotale;
+    }
+
+    public void setPopulationTotale(Long populationTotale) {
+        this.populationTotale = populationTotale;
+    }
+
+    public Integer getPopulationMin() {
+        return populationMin;
+    }
+
+    public void setPopulationMin(Integer populationMin) {
+        this.populationMin = populationMin;
+    }
+
+    public Integer getPopulationMax() {
+        return populationMax;
+    }
+
+    public void setPopulationMax(Integer populationMax) {
+        this.populationMax = populationMax;
+    }
+
+    public Double getPopulationMoyenne() {
+        return populationMoyenne;
+    }
+
+    public void setPopulationMoyenne(Double populationMoyenne) {
+        this.populationMoyenne = populationMoyenne;
+    }
+
+    public Double getPopulationMediane() {
+        return populationMediane;
+    }
+
+    public void setPopulationMediane(Double populationMediane) {
+        this.populationMediane = populationMediane;
+    }
+
+    public VilleDTO getVilleLaPlusPeuplee() {
+        return villeLaPlusPeuplee;
+    }
+
+    public void setVilleLaPlusPeuplee(VilleDTO villeLaPlusPeuplee) {
+        this.villeLaPlusPeuplee = villeLaPlusPeuplee;
+    }
+
+    // ========== MÉTHODES STANDARD ==========
+
+    @Override
+    public String toString() {
+        return "StatistiquesDepartementDTO{" +
+                "departement=" + (departement != null ? departement.getCode() : null) +
+                ", nombreVilles=" + nombreVilles +
+                ", populationTotale=" + populationTotale +
+                ", populationMin=" + populationMin +
+                ", populationMax=" + populationMax +
+                ", populationMoyenne=" + populationMoyenne +
+                ", populationMediane=" + populationMediane +
+                ", villeLaPlusPeuplee=" + (villeLaPlusPeuplee != null ? villeLaPlusPeuplee.getNom() : null) +
+                '}';
+    }
+}
@@ -0,0 +1,57 @@
+package fr.diginamic.hello.dto;
+
+/**
+ * DTO des totaux nationaux (nombre de villes et population de la France)
+ *
+ * Somme des compteurs des régions et de ceux des départements sans région, tenus à jour
+ * à chaque écriture sur ville (aucune ligne nationale unique).
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class TotauxFranceDTO {
+
+    /**
+     * Nombre de villes
+     */
+    private long nombreVilles;
+
+    /**
+     * Population totale
+     */
+    private long populationTotale;
+
+    /**
+     * Constructeur par défaut (obligatoire pour la sérialisation JSON)
+     */
+    public TotauxFranceDTO() {
+    }
+
+    /**
+     * @param nombreVilles nombre de villes
+     * @param populationTotale population totale
+     */
+    public TotauxFranceDTO(long nombreVilles, long populationTotale) {
+        this.nombreVilles = nombreVilles;
+        this.populationTotale = populationTotale;
+    }
+
+    // ========== GETTERS ET SETTERS ==========
+
+    public long getNombreVilles() {
+        return nombreVilles;
+    }
+
+    public void setNombreVilles(long nombreVilles) {
+        this.nombreVilles = nombreVilles;
+    }
+
+    public long getPopulationTotale() {
+        return populationTotale;
+    }
+
+    public void setPopulationTotale(long populationTotale) {
+        this.populationTotale = populationTotale;
+    }
+}
@@ -0,0 +1,186 @@
+package fr.diginamic.hello.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO d'une tuile de carte z/x/y : villes regroupées par cellule
+ *
+ * Chaque groupe est placé à la position moyenne de ses villes et porte leur nombre et la somme
+ * de leurs populations. Les totaux de la tuile sont ceux de ses groupes.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class TuileVillesDTO {
+
+    /**
+     * Zoom de la tuile
+     */
+    private int z;
+
+    /**
+     * Colonne de la tuile
+     */
+    private int x;
+
+    /**
+     * Ligne de la tuile (0 au nord)
+     */
+    private int y;
+
+    /**
+     * Nombre de villes de la tuile
+     */
+    private long nombreVilles;
+
+    /**
+     * Population totale des villes de la tuile
+     */
+    private long population;
+
+    /**
+     * Groupes de villes, un par cellule non vide
+     */
+    private List<GroupeVillesDTO> groupes = new ArrayList<>();
+
+    /**
+     * Constructeur par défaut (obligatoire pour la sérialisation JSON)
+     */
+    public TuileVillesDTO() {
+    }
+
+    /**
+     * Tuile vide
+     * @param z zoom
+     * @param x colonne
+     * @param y ligne
+     */
+    public TuileVillesDTO(int z, int x, int y) {
+        this.z = z;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Ajoute un groupe et le compte dans les totaux de la tuile
+     * @param groupe groupe de villes
+     */
+    public void ajouterGroupe(GroupeVillesDTO groupe) {
+        groupes.add(groupe);
+        nombreVilles += groupe.getNombreVilles();
+        population += groupe.getPopulation();
+    }
+
+    // ========== GETTERS ET SETTERS ==========
+
+    public int getZ() {
+        return z;
+    }
+
+    public void setZ(int z) {
+        this.z = z;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public void setX(int x) {
+        this.x = x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public void setY(int y) {
+        this.y = y;
+    }
+
+    public long getNombreVilles() {
+        return nombreVilles;
+    }
+
+    public void setNombreVilles(long nombreVilles) {
+        this.nombreVilles = nombreVilles;
+    }
+
+    public long getPopulation() {
+        return population;
+    }
+
+    public void setPopulation(long population) {
+        this.population = population;
+    }
+
+    public List<GroupeVillesDTO> getGroupes() {
+        return groupes;
+    }
+
+    public void setGroupes(List<GroupeVillesDTO> groupes) {
+        this.groupes = groupes;
+    }
+
+    // ========== CLASSE INTERNE ==========
+
+    /**
+     * Groupe de villes d'une cellule de la tuile
+     */
+    public static class GroupeVillesDTO {
+
+        private double latitude;
+        private double longitude;
+        private int nombreVilles;
+        private long population;
+
+        public GroupeVillesDTO() {
+        }
+
+        /**
+         * @param latitude latitude moyenne des villes du groupe
+         * @param longitude longitude moyenne des villes du groupe
+         * @param nombreVilles nombre de villes
+         * @param population somme des populations
+         */
+        public GroupeVillesDTO(double latitude, double longitude, int nombreVilles, long population) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.nombreVilles = nombreVilles;
+            this.population = population;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public void setLatitude(double latitude) {
+            this.latitude = latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public void setLongitude(double longitude) {
+            this.longitude = longitude;
+        }
+
+        public int getNombreVilles() {
+            return nombreVilles;
+        }
+
+        public void setNombreVilles(int nombreVilles) {
+            this.nombreVilles = nombreVilles;
+        }
+
+        public long getPopulation() {
+            return population;
+        }
+
+        public void setPopulation(long population) {
+            this.population = population;
+        }
+    }
+}
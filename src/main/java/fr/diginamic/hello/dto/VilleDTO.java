@@ -1,6 +1,8 @@
 package fr.diginamic.hello.dto;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -41,6 +43,20 @@ public class VilleDTO {
     @Max(value = 50000000, message = "{ville.nbHabitants.max}")
     private Integer nbHabitants;
 
+    /**
+     * Latitude en degrés décimaux (WGS 84), facultative
+     */
+    @DecimalMin(value = "-90.0", message = "{ville.latitude.range}")
+    @DecimalMax(value = "90.0", message = "{ville.latitude.range}")
+    private Double latitude;
+
+    /**
+     * Longitude en degrés décimaux (WGS 84), facultative
+     */
+    @DecimalMin(value = "-180.0", message = "{ville.longitude.range}")
+    @DecimalMax(value = "180.0", message = "{ville.longitude.range}")
+    private Double longitude;
+
     /**
      * Informations du département associé à cette ville
      * DTO imbriqué pour éviter les références circulaires
@@ -119,6 +135,38 @@ public class VilleDTO {
         this.nbHabitants = nbHabitants;
     }
 
+    /**
+     * Récupère la latitude
+     * @return latitude en degrés, null si inconnue
+     */
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * Définit la latitude
+     * @param latitude latitude en degrés (-90 à 90)
+     */
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    /**
+     * Récupère la longitude
+     * @return longitude en degrés, null si inconnue
+     */
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Définit la longitude
+     * @param longitude longitude en degrés (-180 à 180)
+     */
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
     /**
      * Récupère les informations du département
      * @return département associé
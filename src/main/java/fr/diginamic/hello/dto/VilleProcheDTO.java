@@ -0,0 +1,66 @@
+package fr.diginamic.hello.dto;
+
+/**
+ * DTO d'une ville trouvée par une recherche géographique, avec sa distance au point recherché
+ *
+ * La distance est celle du grand cercle (formule de haversine, rayon terrestre moyen),
+ * arrondie au mètre.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class VilleProcheDTO {
+
+    /**
+     * Distance au point recherché (km)
+     */
+    private double distanceKm;
+
+    /**
+     * Ville trouvée
+     */
+    private VilleDTO ville;
+
+    /**
+     * Constructeur par défaut (obligatoire pour la sérialisation JSON)
+     */
+    public VilleProcheDTO() {
+    }
+
+    /**
+     * Constructeur complet
+     * @param distanceKm distance au point (km, arrondie au mètre)
+     * @param ville ville trouvée
+     */
+    public VilleProcheDTO(double distanceKm, VilleDTO ville) {
+        this.distanceKm = Math.round(distanceKm * 1000) / 1000.0;
+        this.ville = ville;
+    }
+
+    // ========== GETTERS ET SETTERS ==========
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    public VilleDTO getVille() {
+        return ville;
+    }
+
+    public void setVille(VilleDTO ville) {
+        this.ville = ville;
+    }
+
+    @Override
+    public String toString() {
+        return "VilleProcheDTO{" +
+                "distanceKm=" + distanceKm +
+                ", ville=" + ville +
+                '}';
+    }
+}
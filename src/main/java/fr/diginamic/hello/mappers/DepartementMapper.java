@@ -49,6 +49,7 @@ public class DepartementMapper {
         dto.setId(departement.getId());
         dto.setCode(departement.getCode());
         dto.setNom(departement.getNom());
+        dto.setCodeRegion(departement.getRegion() != null ? departement.getRegion().getCode() : null);
 
         // Conversion des villes associées en DTO simplifiés
         if (departement.getVilles() != null) {
@@ -87,6 +88,7 @@ public class DepartementMapper {
         departement.setCode(departementDTO.getCode());
         departement.setNom(departementDTO.getNom());
 
+        // Note: La région (codeRegion) est résolue par DepartementService.save
         // Note: La liste des villes n'est généralement pas convertie lors de la création/modification
         // Les relations sont gérées séparément par les services
 
@@ -41,6 +41,8 @@ public class VilleMapper {
         dto.setId(ville.getId());
         dto.setNom(ville.getNom());
         dto.setNbHabitants(ville.getNbHabitants());
+        dto.setLatitude(ville.getLatitude());
+        dto.setLongitude(ville.getLongitude());
 
         // Conversion du département associé en DTO simplifié
         if (ville.getDepartement() != null) {
@@ -69,6 +71,8 @@ public class VilleMapper {
         // L'ID n'est pas défini lors de la conversion - il sera généré automatiquement par JPA
         ville.setNom(villeDTO.getNom());
         ville.setNbHabitants(villeDTO.getNbHabitants());
+        ville.setLatitude(villeDTO.getLatitude());
+        ville.setLongitude(villeDTO.getLongitude());
 
         // Conversion du département DTO en entité
         if (villeDTO.getDepartement() != null) {
@@ -136,6 +140,12 @@ public class VilleMapper {
             villeExistante.setNbHabitants(villeDTO.getNbHabitants());
         }
 
+        // Les coordonnées vont par paire
+        if (villeDTO.getLatitude() != null && villeDTO.getLongitude() != null) {
+            villeExistante.setLatitude(villeDTO.getLatitude());
+            villeExistante.setLongitude(villeDTO.getLongitude());
+        }
+
         // Mise à jour du département si fourni
         if (villeDTO.getDepartement() != null && villeDTO.getDepartement().getId() != null) {
             // Le département sera résolu par le service via son ID
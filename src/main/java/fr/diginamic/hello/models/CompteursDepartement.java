@@ -0,0 +1,84 @@
+package fr.diginamic.hello.models;
+
+import fr.diginamic.hello.config.CacheConfig;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+/**
+ * Compteurs dénormalisés d'un département (lecture seule)
+ *
+ * Structure SQL correspondante :
+ * - Table : departement
+ * - Colonnes : id, nombre_villes, population_totale
+ *
+ * Les compteurs sont écrits uniquement par les requêtes natives de DepartementRepository,
+ * dans la transaction de chaque écriture sur ville. Ils ne sont pas mappés sur Departement,
+ * entité en cache de second niveau : ces mises à jour déclarent l'espace
+ * CacheConfig.ESPACE_COMPTEURS_DEPARTEMENT, qui n'invalide ni l'entité Departement ni les
+ * requêtes par zone. Cette entité n'est pas en cache : les compteurs sont toujours lus en base.
+ * Son espace de requêtes se limite à celui des compteurs, sans la table departement : Hibernate
+ * étend l'invalidation d'une mise à jour native à tous les espaces des entités touchées.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Entity
+@Immutable
+@Subselect("SELECT id, nombre_villes, population_totale FROM departement")
+@Synchronize(CacheConfig.ESPACE_COMPTEURS_DEPARTEMENT)
+public class CompteursDepartement {
+
+    /**
+     * ID du département - colonne "id"
+     */
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * Nombre de villes du département (compteur maintenu par VilleService)
+     */
+    @Column(name = "nombre_villes")
+    private Long nombreVilles;
+
+    /**
+     * Population totale du département (compteur maintenu par VilleService)
+     */
+    @Column(name = "population_totale")
+    private Long populationTotale;
+
+    // ==================== CONSTRUCTEURS ====================
+
+    /**
+     * Constructeur par défaut (obligatoire pour JPA)
+     */
+    protected CompteursDepartement() {
+    }
+
+    // ==================== GETTERS ====================
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Récupère le nombre de villes du département
+     * @return nombre de villes
+     */
+    public Long getNombreVilles() {
+        return nombreVilles;
+    }
+
+    /**
+     * Récupère la population totale du département
+     * @return somme des habitants de toutes les villes
+     */
+    public Long getPopulationTotale() {
+        return populationTotale;
+    }
+}
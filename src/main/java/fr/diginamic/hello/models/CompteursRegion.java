@@ -0,0 +1,84 @@
+package fr.diginamic.hello.models;
+
+import fr.diginamic.hello.config.CacheConfig;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+/**
+ * Compteurs dénormalisés d'une région (lecture seule)
+ *
+ * Structure SQL correspondante :
+ * - Table : region (V7__regions)
+ * - Colonnes : id, nombre_villes, population_totale
+ *
+ * Les compteurs sont écrits uniquement par les requêtes natives de DepartementRepository, avec
+ * ceux des départements. Ils ne sont pas mappés sur Region, entité en cache de second niveau
+ * chargée avec chaque département : ces mises à jour déclarent l'espace
+ * CacheConfig.ESPACE_COMPTEURS_REGION, qui n'invalide ni l'entité Region ni les requêtes par
+ * zone. Cette entité n'est pas en cache : les compteurs sont toujours lus en base.
+ * Son espace de requêtes se limite à celui des compteurs, sans la table region : Hibernate
+ * étend l'invalidation d'une mise à jour native à tous les espaces des entités touchées.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Entity
+@Immutable
+@Subselect("SELECT id, nombre_villes, population_totale FROM region")
+@Synchronize(CacheConfig.ESPACE_COMPTEURS_REGION)
+public class CompteursRegion {
+
+    /**
+     * ID de la région - colonne "id"
+     */
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * Nombre de villes de la région (compteur maintenu par VilleService)
+     */
+    @Column(name = "nombre_villes")
+    private Long nombreVilles;
+
+    /**
+     * Population totale de la région (compteur maintenu par VilleService)
+     */
+    @Column(name = "population_totale")
+    private Long populationTotale;
+
+    // ==================== CONSTRUCTEURS ====================
+
+    /**
+     * Constructeur par défaut (obligatoire pour JPA)
+     */
+    protected CompteursRegion() {
+    }
+
+    // ==================== GETTERS ====================
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Récupère le nombre de villes de la région
+     * @return nombre de villes
+     */
+    public Long getNombreVilles() {
+        return nombreVilles;
+    }
+
+    /**
+     * Récupère la population totale de la région
+     * @return somme des habitants des villes de la région
+     */
+    public Long getPopulationTotale() {
+        return populationTotale;
+    }
+}
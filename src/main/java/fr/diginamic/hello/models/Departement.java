@@ -1,8 +1,16 @@
 package fr.diginamic.hello.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import fr.diginamic.hello.config.CacheConfig;
+import fr.diginamic.hello.services.CleRecherche;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,13 +21,37 @@ import java.util.List;
  *
  * Structure SQL correspondante :
  * - Table : departement
- * - Colonnes : id, code, nom
+ * - Colonnes : id, code, nom, nombre_villes, population_totale, id_region
+ *
+ * Les colonnes nombre_villes et population_totale sont des compteurs dénormalisés,
+ * écrits uniquement par les requêtes de mise à jour de DepartementRepository, appelées dans
+ * la transaction de chaque écriture de VilleService. Elles ne sont pas mappées ici mais
+ * sur CompteursDepartement, hors cache.
+ *
+ * Le schéma (table, contrainte d'unicité du code, index) est créé par les migrations
+ * Flyway (db/migration) et seulement validé par Hibernate. La colonne nom_recherche
+ * (clé normalisée du nom, voir CleRecherche) est recalculée avant chaque écriture.
+ *
+ * Le département appartient à une région (clé étrangère indexée id_region, V7__regions),
+ * chargée avec lui ; null pour un département créé sans région, compté seulement au niveau
+ * national.
+ *
+ * Le département est mis en cache de second niveau (entité et code, identifiant naturel) ;
+ * sans les compteurs, ses entrées ne sont invalidées que par les écritures sur le département
+ * lui-même, pas par celles sur ses villes.
  *
  * Note : Dans le fichier SQL, la colonne 'nom' est NULL,
  * mais on la garde nullable pour permettre d'ajouter les noms plus tard
  */
 @Entity
-@Table(name = "departement")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.REGION_DEPARTEMENT)
+@NaturalIdCache(region = CacheConfig.REGION_DEPARTEMENT_CODE)
+@Table(name = "departement", indexes = {
+        @Index(name = "idx_departement_nom", columnList = "nom"),
+        @Index(name = "idx_departement_nom_recherche", columnList = "nom_recherche"),
+        @Index(name = "idx_departement_region", columnList = "id_region")
+})
 public class Departement {
 
     /**
@@ -34,9 +66,10 @@ public class Departement {
      * Code du département - correspond à la colonne "code" du SQL
      * Ex: "75", "13", "2A", "974"
      */
+    @NaturalId(mutable = true)
     @NotNull(message = "{departement.code.notnull}")
     @Size(min = 2, max = 3, message = "{departement.code.size}")
-    @Column(name = "code", unique = true, nullable = false)
+    @Column(name = "code", unique = true, nullable = false, length = 3)
     private String code;
 
     /**
@@ -44,15 +77,33 @@ public class Departement {
      * Dans le fichier SQL original, cette colonne est NULL, donc on la rend nullable
      */
     @Size(max = 100, message = "{departement.nom.size}")
-    @Column(name = "nom", nullable = true)
+    @Column(name = "nom", nullable = true, length = 100)
     private String nom;
 
+    /**
+     * Clé de recherche du nom - colonne "nom_recherche", calculée à l'écriture (null sans nom)
+     */
+    @JsonIgnore
+    @Column(name = "nom_recherche", nullable = true, length = 150)
+    private String nomRecherche;
+
+    /**
+     * Région du département - colonne "id_region" (null si non rattaché)
+     * Chargée avec le département : entité en cache de second niveau, lue par le mapper
+     * après la fin de la transaction
+     */
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "id_region", nullable = true)
+    private Region region;
+
     /**
      * Liste des villes appartenant à ce département
      * Relation One-to-Many bidirectionnelle
      * mappedBy fait référence à l'attribut 'departement' dans la classe Ville
+     * @BatchSize : les collections d'une page de départements sont chargées par lots
      */
     @OneToMany(mappedBy = "departement", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JsonManagedReference // Gestion des références circulaires JSON
     private List<Ville> villes = new ArrayList<>();
 
@@ -132,6 +183,31 @@ public class Departement {
         this.nom = nom;
     }
 
+    /**
+     * Récupère la région du département
+     * @return région (null si non rattaché)
+     */
+    public Region getRegion() {
+        return region;
+    }
+
+    /**
+     * Définit la région du département
+     * Les compteurs des régions sont transférés par DepartementService.save
+     * @param region nouvelle région
+     */
+    public void setRegion(Region region) {
+        this.region = region;
+    }
+
+    /**
+     * Récupère la clé de recherche du nom (à jour après insertion ou mise à jour)
+     * @return clé normalisée (null si le département n'a pas de nom)
+     */
+    public String getNomRecherche() {
+        return nomRecherche;
+    }
+
     /**
      * Récupère la liste des villes du département
      * @return liste des villes
@@ -150,6 +226,15 @@ public class Departement {
 
     // ==================== MÉTHODES UTILITAIRES ====================
 
+    /**
+     * Recalcule la clé de recherche avant chaque insertion ou mise à jour
+     */
+    @PrePersist
+    @PreUpdate
+    void calculerNomRecherche() {
+        this.nomRecherche = nom != null ? CleRecherche.normaliser(nom) : null;
+    }
+
     /**
      * Ajoute une ville à ce département
      * Gère la relation bidirectionnelle
@@ -173,24 +258,6 @@ public class Departement {
         }
     }
 
-    /**
-     * Calcule la population totale du département
-     * @return somme des habitants de toutes les villes
-     */
-    public Integer getPopulationTotale() {
-        return villes.stream()
-                .mapToInt(ville -> ville.getNbHabitants() != null ? ville.getNbHabitants() : 0)
-                .sum();
-    }
-
-    /**
-     * Récupère le nombre de villes dans le département
-     * @return nombre de villes
-     */
-    public int getNombreVilles() {
-        return villes.size();
-    }
-
     // ==================== MÉTHODES STANDARD ====================
 
     /**
@@ -202,7 +269,6 @@ public class Departement {
                 "id=" + id +
                 ", code='" + code + '\'' +
                 ", nom='" + nom + '\'' +
-                ", nombreVilles=" + villes.size() +
                 '}';
     }
 
@@ -0,0 +1,139 @@
+package fr.diginamic.hello.models;
+
+import fr.diginamic.hello.config.CacheConfig;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+/**
+ * Classe représentant une région administrative (niveau au-dessus du département)
+ *
+ * Structure SQL correspondante (V7__regions) :
+ * - Table : region
+ * - Colonnes : id, code (code INSEE), nom, zone, nombre_villes, population_totale
+ *
+ * Les régions sont créées par la migration. Comme pour le département, nombre_villes et
+ * population_totale sont des compteurs dénormalisés, écrits par les requêtes de mise à jour
+ * de DepartementRepository dans la transaction de chaque écriture sur ville : les vues par
+ * région se lisent sans parcourir la table ville. Ils sont mappés sur CompteursRegion, hors
+ * cache, et non ici : la région reste en cache de second niveau malgré les écritures sur ville.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.REGION_REGION)
+@Table(name = "region")
+public class Region {
+
+    /**
+     * ID de la région - colonne "id"
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * Code INSEE de la région - colonne "code", ex: "11", "94"
+     */
+    @Column(name = "code", unique = true, nullable = false, length = 3)
+    private String code;
+
+    /**
+     * Nom de la région - colonne "nom"
+     */
+    @Column(name = "nom", nullable = false, length = 100)
+    private String nom;
+
+    /**
+     * Zone géographique - colonne "zone"
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "zone", nullable = false, length = 20)
+    private ZoneRegion zone;
+
+    // ==================== CONSTRUCTEURS ====================
+
+    /**
+     * Constructeur par défaut (obligatoire pour JPA)
+     */
+    public Region() {
+    }
+
+    /**
+     * Constructeur complet
+     * @param code code INSEE de la région
+     * @param nom nom de la région
+     * @param zone zone géographique
+     */
+    public Region(String code, String nom, ZoneRegion zone) {
+        this.code = code;
+        this.nom = nom;
+        this.zone = zone;
+    }
+
+    // ==================== GETTERS ET SETTERS ====================
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public void setNom(String nom) {
+        this.nom = nom;
+    }
+
+    public ZoneRegion getZone() {
+        return zone;
+    }
+
+    public void setZone(ZoneRegion zone) {
+        this.zone = zone;
+    }
+
+    // ==================== MÉTHODES STANDARD ====================
+
+    @Override
+    public String toString() {
+        return "Region{" +
+                "id=" + id +
+                ", code='" + code + '\'' +
+                ", nom='" + nom + '\'' +
+                ", zone=" + zone +
+                '}';
+    }
+
+    /**
+     * Méthode equals basée sur le code de la région
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Region)) return false;
+        Region that = (Region) o;
+        return code != null ? code.equals(that.code) : that.code == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return code != null ? code.hashCode() : 0;
+    }
+}
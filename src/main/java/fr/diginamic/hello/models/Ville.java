@@ -1,6 +1,8 @@
 package fr.diginamic.hello.models;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import fr.diginamic.hello.services.CleRecherche;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 
@@ -11,11 +13,36 @@ import jakarta.validation.constraints.*;
  * Structure SQL correspondante :
  * - Table : ville
  * - Colonnes : id, nom, id_dept, nb_habs
+ *
+ * Le graphe nommé "Ville.departement" permet aux lectures qui produisent des VilleDTO
+ * de charger le département dans la même requête (jointure) au lieu d'un select par ville.
+ *
+ * Le schéma est créé par les migrations Flyway (db/migration) et seulement validé par
+ * Hibernate. Les index déclarés ici reprennent ceux de V2__index_requetes.sql : chacun
+ * contient les quatre colonnes de la table (InnoDB y ajoute implicitement l'id), ce qui
+ * couvre les tris (clé, id) de la pagination par curseur sans accès à la table.
+ *
+ * La colonne nom_recherche (V4__cles_recherche) contient la clé normalisée du nom
+ * (CleRecherche : sans casse, accents ni tirets, "St" développé en "Saint"), recalculée
+ * avant chaque insertion ou mise à jour : les recherches par nom comparent cette colonne
+ * indexée au lieu d'appliquer LOWER() à chaque ligne.
  */
 @Entity
-@Table(name = "ville")
+@Table(name = "ville", indexes = {
+        @Index(name = "idx_ville_nom", columnList = "nom, nb_habs, id_dept"),
+        @Index(name = "idx_ville_nb_habs", columnList = "nb_habs, nom, id_dept"),
+        @Index(name = "idx_ville_dept_nom", columnList = "id_dept, nom, nb_habs"),
+        @Index(name = "idx_ville_dept_nb_habs", columnList = "id_dept, nb_habs, nom"),
+        @Index(name = "idx_ville_nom_recherche", columnList = "nom_recherche, nb_habs, id_dept")
+})
+@NamedEntityGraph(name = Ville.GRAPHE_DEPARTEMENT, attributeNodes = @NamedAttributeNode("departement"))
 public class Ville {
 
+    /**
+     * Nom du graphe d'entité chargeant le département avec la ville
+     */
+    public static final String GRAPHE_DEPARTEMENT = "Ville.departement";
+
     /**
      * ID de la ville - correspond à la colonne "id" du SQL
      */
@@ -28,18 +55,41 @@ public class Ville {
      */
     @NotNull(message = "{ville.nom.notnull}")
     @Size(min = 2, max = 100, message = "{ville.nom.size}")
-    @Column(name = "nom")
+    @Column(name = "nom", nullable = false, length = 100)
     private String nom;
 
+    /**
+     * Clé de recherche du nom - colonne "nom_recherche", calculée à l'écriture
+     */
+    @JsonIgnore
+    @Column(name = "nom_recherche", nullable = false, length = 150)
+    private String nomRecherche;
+
     /**
      * Nombre d'habitants - correspond à la colonne "nb_habs" du SQL
      */
     @NotNull(message = "{ville.nbHabitants.notnull}")
     @Min(value = 1, message = "{ville.nbHabitants.min}")
     @Max(value = 50000000, message = "{ville.nbHabitants.max}")
-    @Column(name = "nb_habs")
+    @Column(name = "nb_habs", nullable = false)
     private Integer nbHabitants;
 
+    /**
+     * Latitude en degrés décimaux (WGS 84) - colonne "latitude", null si inconnue
+     */
+    @DecimalMin(value = "-90.0", message = "{ville.latitude.range}")
+    @DecimalMax(value = "90.0", message = "{ville.latitude.range}")
+    @Column(name = "latitude")
+    private Double latitude;
+
+    /**
+     * Longitude en degrés décimaux (WGS 84) - colonne "longitude", null si inconnue
+     */
+    @DecimalMin(value = "-180.0", message = "{ville.longitude.range}")
+    @DecimalMax(value = "180.0", message = "{ville.longitude.range}")
+    @Column(name = "longitude")
+    private Double longitude;
+
     /**
      * Département - correspond à la colonne "id_dept" du SQL (clé étrangère)
      * Relation Many-to-One vers Departement
@@ -69,7 +119,7 @@ public class Ville {
     }
 
     /**
-     * Constructeur complet pour data.sql
+     * Constructeur complet (données initiales, tests)
      * @param id id de la ville
      * @param nom nom de la ville
      * @param departement département de rattachement
@@ -127,6 +177,14 @@ public class Ville {
         this.nom = nom;
     }
 
+    /**
+     * Récupère la clé de recherche du nom (à jour après insertion ou mise à jour)
+     * @return clé normalisée
+     */
+    public String getNomRecherche() {
+        return nomRecherche;
+    }
+
     /**
      * Récupère le nombre d'habitants
      * @return nombre d'habitants
@@ -143,6 +201,38 @@ public class Ville {
         this.nbHabitants = nbHabitants;
     }
 
+    /**
+     * Récupère la latitude
+     * @return latitude en degrés, null si inconnue
+     */
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * Définit la latitude
+     * @param latitude latitude en degrés (-90 à 90)
+     */
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    /**
+     * Récupère la longitude
+     * @return longitude en degrés, null si inconnue
+     */
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Définit la longitude
+     * @param longitude longitude en degrés (-180 à 180)
+     */
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
     /**
      * Récupère le département
      * @return département de la ville
@@ -161,6 +251,15 @@ public class Ville {
 
     // ==================== MÉTHODES UTILITAIRES ====================
 
+    /**
+     * Recalcule la clé de recherche avant chaque insertion ou mise à jour
+     */
+    @PrePersist
+    @PreUpdate
+    void calculerNomRecherche() {
+        this.nomRecherche = CleRecherche.normaliser(nom);
+    }
+
     /**
      * Représentation textuelle de la ville
      */
@@ -0,0 +1,15 @@
+package fr.diginamic.hello.models;
+
+/**
+ * Zone géographique d'une région, qui partage les départements entre métropole
+ * (hors Corse), Corse et outre-mer
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public enum ZoneRegion {
+    METROPOLE,
+    CORSE,
+    OUTRE_MER
+}
@@ -1,10 +1,17 @@
 package fr.diginamic.hello.repositories;
 
+import fr.diginamic.hello.config.CacheConfig;
+import fr.diginamic.hello.dto.DepartementResumeDTO;
+import fr.diginamic.hello.models.CompteursDepartement;
 import fr.diginamic.hello.models.Departement;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -19,9 +26,15 @@ import java.util.Optional;
  *
  * Remplace l'ancien DepartementDao pour une approche plus moderne
  * et plus simple avec Spring Data.
+ *
+ * Les requêtes par zone (métropole, outre-mer, Corse), qui suivent la région du département,
+ * sont mises en cache de requêtes Hibernate. Les compteurs sont lus par jointure sur
+ * CompteursDepartement (entité hors cache) ; chaque mise à jour native des compteurs déclare
+ * l'espace de compteurs qu'elle modifie (CacheConfig.ESPACE_COMPTEURS_*) et non la table
+ * departement ou region : elle ne vide ni les entités en cache ni ces requêtes.
  */
 @Repository
-public interface DepartementRepository extends JpaRepository<Departement, Long> {
+public interface DepartementRepository extends JpaRepository<Departement, Long>, DepartementRepositoryCustom {
 
     // ==================== MÉTHODES DE RECHERCHE DE BASE ====================
 
@@ -33,21 +46,21 @@ public interface DepartementRepository extends JpaRepository<Departement, Long>
     Optional<Departement> findByCode(String code);
 
     /**
-     * Recherche un département par son nom (si le nom n'est pas null)
-     * @param nom nom du département
+     * Recherche un département par la clé de recherche de son nom (colonne nom_recherche indexée)
+     * @param cle nom normalisé (CleRecherche.normaliser)
      * @return Optional<Departement>
      */
-    Optional<Departement> findByNom(String nom);
+    Optional<Departement> findFirstByNomRecherche(String cle);
 
     /**
-     * Recherche des départements par nom ou code contenant la chaîne de recherche (insensible à la casse)
-     * @param searchTerm terme de recherche
+     * Recherche des départements dont la clé de recherche du nom ou le code contient le texte
+     * @param cle texte normalisé (CleRecherche.normaliserSaisie)
      * @return List<Departement>
      */
     @Query("SELECT d FROM Departement d WHERE " +
-            "LOWER(d.nom) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(d.code) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Departement> findByNomContainingOrCodeContainingIgnoreCase(@Param("searchTerm") String searchTerm);
+            "d.nomRecherche LIKE CONCAT('%', :cle, '%') OR " +
+            "LOWER(d.code) LIKE CONCAT('%', :cle, '%')")
+    List<Departement> findByNomRechercheContainingOrCodeContaining(@Param("cle") String cle);
 
     /**
      * Recherche tous les départements qui ont un nom (nom non null)
@@ -72,19 +85,22 @@ public interface DepartementRepository extends JpaRepository<Departement, Long>
 
     /**
      * Recherche les départements par nombre minimum de villes
+     * Utilise le compteur persisté nombre_villes (index idx_departement_nombre_villes)
      * @param minNombreVilles nombre minimum de villes
      * @return List<Departement>
      */
-    @Query("SELECT d FROM Departement d WHERE SIZE(d.villes) >= :minNombreVilles")
-    List<Departement> findDepartementsWithMinVilles(@Param("minNombreVilles") int minNombreVilles);
+    @Query("SELECT d FROM Departement d JOIN CompteursDepartement c ON c.id = d.id " +
+           "WHERE c.nombreVilles >= :minNombreVilles")
+    List<Departement> findDepartementsWithMinVilles(@Param("minNombreVilles") long minNombreVilles);
 
     /**
      * Recherche les départements par population totale minimum
+     * Utilise le compteur persisté population_totale (index idx_departement_population_totale)
      * @param minPopulation population minimum totale
      * @return List<Departement>
      */
-    @Query("SELECT d FROM Departement d WHERE " +
-            "(SELECT SUM(v.nbHabitants) FROM Ville v WHERE v.departement = d) >= :minPopulation")
+    @Query("SELECT d FROM Departement d JOIN CompteursDepartement c ON c.id = d.id " +
+           "WHERE c.populationTotale >= :minPopulation")
     List<Departement> findDepartementsWithMinPopulation(@Param("minPopulation") Long minPopulation);
 
     /**
@@ -103,6 +119,14 @@ public interface DepartementRepository extends JpaRepository<Departement, Long>
     @Query("SELECT SUM(v.nbHabitants) FROM Ville v WHERE v.departement = :departement")
     Long getTotalPopulationByDepartement(@Param("departement") Departement departement);
 
+    /**
+     * Compteurs persistés d'un département (nombre de villes, population totale)
+     * @param id identifiant du département
+     * @return Optional<CompteursDepartement> vide si le département n'existe pas
+     */
+    @Query("SELECT c FROM CompteursDepartement c WHERE c.id = :id")
+    Optional<CompteursDepartement> findCompteursById(@Param("id") Long id);
+
     // ==================== RECHERCHES PAR CODE ====================
 
     /**
@@ -121,26 +145,46 @@ public interface DepartementRepository extends JpaRepository<Departement, Long>
     List<Departement> findByCodeStartingWith(String prefix);
 
     /**
-     * Recherche les départements métropolitains (codes numériques à 2 chiffres)
+     * Recherche les départements métropolitains (régions de la zone METROPOLE, hors Corse)
      * @return List<Departement>
      */
-    @Query("SELECT d FROM Departement d WHERE d.code NOT LIKE '97%' AND d.code NOT LIKE '2%'")
+    @Query("SELECT d FROM Departement d WHERE d.region.zone = fr.diginamic.hello.models.ZoneRegion.METROPOLE")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.REGION_REQUETES_DEPARTEMENTS)
+    })
     List<Departement> findDepartementsMetropolitains();
 
     /**
-     * Recherche les départements d'outre-mer (codes commençant par 97)
+     * Recherche les départements d'outre-mer (régions de la zone OUTRE_MER)
      * @return List<Departement>
      */
-    @Query("SELECT d FROM Departement d WHERE d.code LIKE '97%'")
+    @Query("SELECT d FROM Departement d WHERE d.region.zone = fr.diginamic.hello.models.ZoneRegion.OUTRE_MER")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.REGION_REQUETES_DEPARTEMENTS)
+    })
     List<Departement> findDepartementsOutreMer();
 
     /**
-     * Recherche les départements corses (codes 2A et 2B)
+     * Recherche les départements corses (région de la zone CORSE)
      * @return List<Departement>
      */
-    @Query("SELECT d FROM Departement d WHERE d.code IN ('2A', '2B')")
+    @Query("SELECT d FROM Departement d WHERE d.region.zone = fr.diginamic.hello.models.ZoneRegion.CORSE")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.REGION_REQUETES_DEPARTEMENTS)
+    })
     List<Departement> findDepartementsCorse();
 
+    /**
+     * Identifiant de la région d'un département, lu en base (avant une modification)
+     * @param id identifiant du département
+     * @return Optional<Long> vide si le département n'existe pas ou n'a pas de région
+     */
+    @Query("SELECT d.region.id FROM Departement d WHERE d.id = :id")
+    Optional<Long> findRegionIdById(@Param("id") Long id);
+
     // ==================== REQUÊTES POUR TRI AVEC PAGINATION ====================
 
     /**
@@ -164,8 +208,9 @@ public interface DepartementRepository extends JpaRepository<Departement, Long>
      * @param pageable informations de pagination
      * @return Page<Departement>
      */
-    @Query("SELECT d FROM Departement d " +
-           "ORDER BY (SELECT COALESCE(SUM(v.nbHabitants), 0) FROM Ville v WHERE v.departement = d) DESC")
+    @Query(value = "SELECT d FROM Departement d JOIN CompteursDepartement c ON c.id = d.id " +
+                   "ORDER BY c.populationTotale DESC",
+           countQuery = "SELECT COUNT(d) FROM Departement d")
     Page<Departement> findAllOrderByPopulation(Pageable pageable);
 
     /**
@@ -173,7 +218,168 @@ public interface DepartementRepository extends JpaRepository<Departement, Long>
      * @param pageable informations de pagination
      * @return Page<Departement>
      */
-    @Query("SELECT d FROM Departement d " +
-           "ORDER BY (SELECT COUNT(v) FROM Ville v WHERE v.departement = d) DESC")
+    @Query(value = "SELECT d FROM Departement d JOIN CompteursDepartement c ON c.id = d.id " +
+                   "ORDER BY c.nombreVilles DESC",
+           countQuery = "SELECT COUNT(d) FROM Departement d")
     Page<Departement> findAllOrderByNombreVilles(Pageable pageable);
-}
\ No newline at end of file
+
+    // ==================== RÉSUMÉS AVEC PAGINATION ====================
+
+    /**
+     * Résumés des départements (code, nom, nombre de villes, population) triés par nom
+     * Lit les compteurs persistés : une seule requête pour toute la page, sans jointure sur ville
+     * (CompteursDepartement porte sur la même table : la jointure est sur la clé primaire)
+     * @param pageable informations de pagination
+     * @return Page<DepartementResumeDTO>
+     */
+    @Query(value = "SELECT new fr.diginamic.hello.dto.DepartementResumeDTO(" +
+                   "d.id, d.code, d.nom, c.nombreVilles, c.populationTotale) " +
+                   "FROM Departement d JOIN CompteursDepartement c ON c.id = d.id ORDER BY d.nom ASC",
+           countQuery = "SELECT COUNT(d) FROM Departement d")
+    Page<DepartementResumeDTO> findResumesOrderByNom(Pageable pageable);
+
+    /**
+     * Résumés des départements triés par code
+     * @param pageable informations de pagination
+     * @return Page<DepartementResumeDTO>
+     */
+    @Query(value = "SELECT new fr.diginamic.hello.dto.DepartementResumeDTO(" +
+                   "d.id, d.code, d.nom, c.nombreVilles, c.populationTotale) " +
+                   "FROM Departement d JOIN CompteursDepartement c ON c.id = d.id ORDER BY d.code ASC",
+           countQuery = "SELECT COUNT(d) FROM Departement d")
+    Page<DepartementResumeDTO> findResumesOrderByCode(Pageable pageable);
+
+    /**
+     * Résumés des départements triés par population totale (décroissant)
+     * @param pageable informations de pagination
+     * @return Page<DepartementResumeDTO>
+     */
+    @Query(value = "SELECT new fr.diginamic.hello.dto.DepartementResumeDTO(" +
+                   "d.id, d.code, d.nom, c.nombreVilles, c.populationTotale) " +
+                   "FROM Departement d JOIN CompteursDepartement c ON c.id = d.id ORDER BY c.populationTotale DESC",
+           countQuery = "SELECT COUNT(d) FROM Departement d")
+    Page<DepartementResumeDTO> findResumesOrderByPopulation(Pageable pageable);
+
+    /**
+     * Résumés des départements triés par nombre de villes (décroissant)
+     * @param pageable informations de pagination
+     * @return Page<DepartementResumeDTO>
+     */
+    @Query(value = "SELECT new fr.diginamic.hello.dto.DepartementResumeDTO(" +
+                   "d.id, d.code, d.nom, c.nombreVilles, c.populationTotale) " +
+                   "FROM Departement d JOIN CompteursDepartement c ON c.id = d.id ORDER BY c.nombreVilles DESC",
+           countQuery = "SELECT COUNT(d) FROM Departement d")
+    Page<DepartementResumeDTO> findResumesOrderByNombreVilles(Pageable pageable);
+
+    /**
+     * Résumés des départements d'une région triés par code (index idx_departement_region)
+     * @param codeRegion code INSEE de la région
+     * @return List<DepartementResumeDTO>
+     */
+    @Query("SELECT new fr.diginamic.hello.dto.DepartementResumeDTO(" +
+           "d.id, d.code, d.nom, c.nombreVilles, c.populationTotale) " +
+           "FROM Departement d JOIN CompteursDepartement c ON c.id = d.id WHERE d.region.code = :codeRegion ORDER BY d.code ASC")
+    List<DepartementResumeDTO> findResumesByRegionCode(@Param("codeRegion") String codeRegion);
+
+    // ==================== MAINTENANCE DES COMPTEURS DÉNORMALISÉS ====================
+
+    /**
+     * Applique un delta aux compteurs d'un département et de sa région (les totaux nationaux en
+     * sont la somme : RegionService.getTotauxFrance)
+     * Doit être appelée dans la transaction de l'écriture sur ville correspondante
+     * @param id identifiant du département
+     * @param deltaVilles variation du nombre de villes
+     * @param deltaPopulation variation de la population totale
+     * @return nombre de lignes de département modifiées
+     */
+    default int incrementerCompteurs(Long id, long deltaVilles, long deltaPopulation) {
+        int modifies = incrementerCompteursDepartement(id, deltaVilles, deltaPopulation);
+        incrementerCompteursRegion(id, deltaVilles, deltaPopulation);
+        return modifies;
+    }
+
+    /**
+     * Applique un delta aux compteurs d'un département (mise à jour atomique en base)
+     * @param id identifiant du département
+     * @param deltaVilles variation du nombre de villes
+     * @param deltaPopulation variation de la population totale
+     * @return nombre de lignes modifiées
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.ESPACE_COMPTEURS_DEPARTEMENT))
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE departement SET nombre_villes = nombre_villes + :deltaVilles, " +
+                   "population_totale = population_totale + :deltaPopulation WHERE id = :id",
+           nativeQuery = true)
+    int incrementerCompteursDepartement(@Param("id") Long id,
+                                        @Param("deltaVilles") long deltaVilles,
+                                        @Param("deltaPopulation") long deltaPopulation);
+
+    /**
+     * Applique un delta aux compteurs de la région d'un département (aucune ligne sans région)
+     * @param id identifiant du département
+     * @param deltaVilles variation du nombre de villes
+     * @param deltaPopulation variation de la population totale
+     * @return nombre de lignes modifiées
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.ESPACE_COMPTEURS_REGION))
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE region SET nombre_villes = nombre_villes + :deltaVilles, " +
+                   "population_totale = population_totale + :deltaPopulation " +
+                   "WHERE id = (SELECT d.id_region FROM departement d WHERE d.id = :id)",
+           nativeQuery = true)
+    int incrementerCompteursRegion(@Param("id") Long id,
+                                   @Param("deltaVilles") long deltaVilles,
+                                   @Param("deltaPopulation") long deltaPopulation);
+
+    /**
+     * Ajoute (signe 1) ou retire (signe -1) les compteurs d'un département à ceux de sa région
+     * actuelle en base : appelée avant puis après un changement de région du département
+     * @param id identifiant du département
+     * @param signe 1 ou -1
+     * @return nombre de lignes modifiées
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.ESPACE_COMPTEURS_REGION))
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE region SET " +
+                   "nombre_villes = nombre_villes + :signe * (SELECT d.nombre_villes FROM departement d WHERE d.id = :id), " +
+                   "population_totale = population_totale + :signe * (SELECT d.population_totale FROM departement d WHERE d.id = :id) " +
+                   "WHERE id = (SELECT d.id_region FROM departement d WHERE d.id = :id)",
+           nativeQuery = true)
+    int reporterCompteursSurRegion(@Param("id") Long id, @Param("signe") int signe);
+
+    /**
+     * Recalcule tous les compteurs (départements, régions) à partir de la table ville
+     * (réparation d'une dérive)
+     * @return nombre de départements mis à jour
+     */
+    default int recalculerCompteurs() {
+        int departements = recalculerCompteursDepartements();
+        recalculerCompteursRegions();
+        return departements;
+    }
+
+    /**
+     * Recalcule les compteurs de tous les départements à partir de la table ville
+     * @return nombre de départements mis à jour
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.ESPACE_COMPTEURS_DEPARTEMENT))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE departement d SET " +
+                   "nombre_villes = (SELECT COUNT(*) FROM ville v WHERE v.id_dept = d.id), " +
+                   "population_totale = (SELECT COALESCE(SUM(v.nb_habs), 0) FROM ville v WHERE v.id_dept = d.id)",
+           nativeQuery = true)
+    int recalculerCompteursDepartements();
+
+    /**
+     * Recalcule les compteurs de toutes les régions à partir de ceux de leurs départements
+     * (à appeler après recalculerCompteursDepartements)
+     * @return nombre de régions mises à jour
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.ESPACE_COMPTEURS_REGION))
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE region r SET " +
+                   "nombre_villes = (SELECT COALESCE(SUM(d.nombre_villes), 0) FROM departement d WHERE d.id_region = r.id), " +
+                   "population_totale = (SELECT COALESCE(SUM(d.population_totale), 0) FROM departement d WHERE d.id_region = r.id)",
+           nativeQuery = true)
+    int recalculerCompteursRegions();
+}
@@ -0,0 +1,20 @@
+package fr.diginamic.hello.repositories;
+
+import fr.diginamic.hello.models.Departement;
+
+import java.util.Optional;
+
+/**
+ * Méthodes de DepartementRepository implémentées à la main (DepartementRepositoryCustomImpl)
+ */
+public interface DepartementRepositoryCustom {
+
+    /**
+     * Recherche un département par son code, identifiant naturel de l'entité
+     * Contrairement à findByCode (requête JPQL), passe par le cache de second niveau
+     * du code puis de l'entité : aucune requête quand les deux sont en cache.
+     * @param code code du département
+     * @return Optional<Departement>
+     */
+    Optional<Departement> findByCodeNaturalId(String code);
+}
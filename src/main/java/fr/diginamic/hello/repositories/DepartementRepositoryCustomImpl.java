@@ -0,0 +1,29 @@
+package fr.diginamic.hello.repositories;
+
+import fr.diginamic.hello.models.Departement;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Implémentation des méthodes personnalisées de DepartementRepository
+ */
+public class DepartementRepositoryCustomImpl implements DepartementRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Departement> findByCodeNaturalId(String code) {
+        if (code == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Departement.class)
+                .loadOptional(code);
+    }
+}
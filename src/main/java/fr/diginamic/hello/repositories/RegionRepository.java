@@ -0,0 +1,69 @@
+package fr.diginamic.hello.repositories;
+
+import fr.diginamic.hello.dto.RegionDTO;
+import fr.diginamic.hello.models.Region;
+import fr.diginamic.hello.models.ZoneRegion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interface Repository pour l'entité Region
+ *
+ * Les régions sont créées par la migration V7__regions ; leurs compteurs sont mis à jour
+ * par DepartementRepository avec ceux des départements, et lus ici par jointure sur
+ * CompteursRegion (entité hors cache).
+ */
+@Repository
+public interface RegionRepository extends JpaRepository<Region, Long> {
+
+    /**
+     * Recherche une région par son code INSEE
+     * @param code code de la région (ex: "11", "94")
+     * @return Optional<Region>
+     */
+    Optional<Region> findByCode(String code);
+
+    /**
+     * Région d'un département d'après son code (table de correspondance region_departement,
+     * créée par V7__regions et partagée avec l'import CSV)
+     * @param codeDepartement code du département (ex: "34", "2A", "971")
+     * @return Optional<Region> vide pour un code hors correspondance
+     */
+    @Query(value = "SELECT r.* FROM region r JOIN region_departement rd ON rd.code_region = r.code " +
+                   "WHERE rd.code_departement = :codeDepartement",
+           nativeQuery = true)
+    Optional<Region> findByCodeDepartement(@Param("codeDepartement") String codeDepartement);
+
+    // ==================== RÉGIONS AVEC COMPTEURS ====================
+
+    /**
+     * Toutes les régions avec leurs compteurs, triées par code
+     * @return List<RegionDTO>
+     */
+    @Query("SELECT new fr.diginamic.hello.dto.RegionDTO(r.id, r.code, r.nom, r.zone, c.nombreVilles, c.populationTotale) " +
+           "FROM Region r JOIN CompteursRegion c ON c.id = r.id ORDER BY r.code ASC")
+    List<RegionDTO> findDtos();
+
+    /**
+     * Régions d'une zone avec leurs compteurs, triées par code
+     * @param zone zone géographique
+     * @return List<RegionDTO>
+     */
+    @Query("SELECT new fr.diginamic.hello.dto.RegionDTO(r.id, r.code, r.nom, r.zone, c.nombreVilles, c.populationTotale) " +
+           "FROM Region r JOIN CompteursRegion c ON c.id = r.id WHERE r.zone = :zone ORDER BY r.code ASC")
+    List<RegionDTO> findDtosByZone(@Param("zone") ZoneRegion zone);
+
+    /**
+     * Région avec ses compteurs, par code INSEE
+     * @param code code de la région
+     * @return Optional<RegionDTO>
+     */
+    @Query("SELECT new fr.diginamic.hello.dto.RegionDTO(r.id, r.code, r.nom, r.zone, c.nombreVilles, c.populationTotale) " +
+           "FROM Region r JOIN CompteursRegion c ON c.id = r.id WHERE r.code = :code")
+    Optional<RegionDTO> findDtoByCode(@Param("code") String code);
+}
@@ -5,6 +5,7 @@ import fr.diginamic.hello.models.Departement;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,38 +21,73 @@ import java.util.Optional;
  * des méthodes de base (save, findById, findAll, delete, etc.)
  *
  * Méthodes personnalisées selon les besoins du TP :
- * - Recherche par nom (exact et par préfixe)
+ * - Recherche par nom (exact et par préfixe, sur la clé normalisée nom_recherche)
  * - Recherche par population (min, max, plage)
  * - Recherche par département avec filtres de population
  * - Recherche des N villes les plus peuplées d'un département
+ *
+ * Toutes les lectures dont le résultat est converti en VilleDTO utilisent le graphe
+ * Ville.GRAPHE_DEPARTEMENT : le département est chargé par jointure dans la même requête,
+ * ce qui borne le nombre de requêtes SQL quel que soit le nombre de villes retournées.
  */
 @Repository
-public interface VilleRepository extends JpaRepository<Ville, Long> {
+public interface VilleRepository extends JpaRepository<Ville, Long>, VilleRepositoryCustom {
 
     // ==================== MÉTHODES DE BASE ====================
 
     /**
-     * Recherche une ville par son nom exact (méthode générée automatiquement)
-     * @param nom nom de la ville
+     * Recherche une ville par son ID avec son département (une seule requête)
+     * @param id identifiant de la ville
+     * @return Optional<Ville>
+     */
+    @Override
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    Optional<Ville> findById(Long id);
+
+    /**
+     * Récupère toutes les villes avec leur département (une seule requête)
+     * @return List<Ville>
+     */
+    @Override
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    List<Ville> findAll();
+
+    /**
+     * Recherche une ville par la clé de recherche de son nom (colonne nom_recherche indexée) ;
+     * si plusieurs villes portent ce nom, la plus peuplée
+     * @param cle nom normalisé (CleRecherche.normaliser)
      * @return Optional<Ville>
      */
-    Optional<Ville> findByNom(String nom);
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    Optional<Ville> findFirstByNomRechercheOrderByNbHabitantsDesc(String cle);
+
+    /**
+     * Vérifie si une ville du département porte déjà ce nom normalisé
+     * (même règle que les doublons de l'import : couple département, nom_recherche)
+     * @param departementId identifiant du département
+     * @param cle nom normalisé (CleRecherche.normaliser)
+     * @return true si une telle ville existe
+     */
+    boolean existsByDepartementIdAndNomRecherche(Long departementId, String cle);
 
     /**
-     * Recherche toutes les villes par nom (si plusieurs villes ont le même nom)
-     * @param nom nom de la ville
+     * Recherche toutes les villes dont la clé de recherche contient le texte
+     * @param cle texte normalisé (CleRecherche.normaliserSaisie)
      * @return List<Ville>
      */
-    List<Ville> findByNomContainingIgnoreCase(String nom);
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    List<Ville> findByNomRechercheContaining(String cle);
 
     // ==================== RECHERCHES PAR PRÉFIXE ====================
 
     /**
-     * Recherche de toutes les villes dont le nom commence par une chaîne de caractères donnée
-     * @param prefix chaîne de caractères de début
-     * @return List<Ville> triée par nom
+     * Recherche de toutes les villes dont la clé de recherche commence par un préfixe
+     * (parcours d'une plage de l'index idx_ville_nom_recherche)
+     * @param cle préfixe normalisé (CleRecherche.normaliserSaisie)
+     * @return List<Ville> triée par clé de recherche
      */
-    List<Ville> findByNomStartingWithIgnoreCaseOrderByNom(String prefix);
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    List<Ville> findByNomRechercheStartingWithOrderByNomRecherche(String cle);
 
     // ==================== RECHERCHES PAR POPULATION ====================
 
@@ -61,6 +97,7 @@ public interface VilleRepository extends JpaRepository<Ville, Long> {
      * @param minPopulation population minimum
      * @return List<Ville> triée par population décroissante
      */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
     List<Ville> findByNbHabitantsGreaterThanOrderByNbHabitantsDesc(Integer minPopulation);
 
     /**
@@ -70,19 +107,22 @@ public interface VilleRepository extends JpaRepository<Ville, Long> {
      * @param maxPopulation population maximum (incluse)
      * @return List<Ville> triée par population décroissante
      */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
     List<Ville> findByNbHabitantsBetweenOrderByNbHabitantsDesc(Integer minPopulation, Integer maxPopulation);
 
     // ==================== RECHERCHES PAR DÉPARTEMENT ====================
 
     /**
-     * Recherche de toutes les villes d'un département dont la population est supérieure à min
-     * Les villes sont retournées par population descendante
+     * Recherche des villes d'un département dont la population est supérieure à min
+     * Les villes sont retournées par population descendante, dans la limite du pageable
      * @param departement le département
      * @param minPopulation population minimum
+     * @param pageable nombre maximum de villes
      * @return List<Ville> triée par population décroissante
      */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
     List<Ville> findByDepartementAndNbHabitantsGreaterThanOrderByNbHabitantsDesc(
-            Departement departement, Integer minPopulation);
+            Departement departement, Integer minPopulation, Pageable pageable);
 
     /**
      * Recherche de toutes les villes d'un département dont la population est entre min et max
@@ -92,6 +132,7 @@ public interface VilleRepository extends JpaRepository<Ville, Long> {
      * @param maxPopulation population maximum (incluse)
      * @return List<Ville> triée par population décroissante
      */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
     List<Ville> findByDepartementAndNbHabitantsBetweenOrderByNbHabitantsDesc(
             Departement departement, Integer minPopulation, Integer maxPopulation);
 
@@ -104,6 +145,7 @@ public interface VilleRepository extends JpaRepository<Ville, Long> {
      * @param limit nombre maximum de villes à retourner
      * @return List<Ville> des n villes les plus peuplées du département
      */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
     @Query("SELECT v FROM Ville v WHERE v.departement = :departement ORDER BY v.nbHabitants DESC")
     List<Ville> findTopNVillesByDepartementOrderByPopulation(
             @Param("departement") Departement departement,
@@ -116,6 +158,7 @@ public interface VilleRepository extends JpaRepository<Ville, Long> {
      * @param limit nombre de villes à retourner
      * @return List<Ville>
      */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
     @Query("SELECT v FROM Ville v WHERE v.departement.code = :codeDepartement ORDER BY v.nbHabitants DESC")
     List<Ville> findTopNVillesByCodeDepartement(
             @Param("codeDepartement") String codeDepartement,
@@ -143,6 +186,7 @@ public interface VilleRepository extends JpaRepository<Ville, Long> {
      * @param departement le département
      * @return Optional<Ville> la ville la plus peuplée
      */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
     @Query("SELECT v FROM Ville v WHERE v.departement = :departement ORDER BY v.nbHabitants DESC")
     List<Ville> findVillesByDepartementOrderByPopulationDesc(@Param("departement") Departement departement, Pageable pageable);
     
@@ -158,6 +202,7 @@ public interface VilleRepository extends JpaRepository<Ville, Long> {
      * @param pageable informations de pagination
      * @return Page<Ville>
      */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
     Page<Ville> findAll(Pageable pageable);
 
     /**
@@ -166,8 +211,110 @@ public interface VilleRepository extends JpaRepository<Ville, Long> {
      * @param pageable informations de pagination
      * @return Page<Ville>
      */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
     Page<Ville> findByDepartement(Departement departement, Pageable pageable);
 
+    // ==================== PAGINATION PAR CURSEUR (KEYSET) ====================
+    // Les tranches suivantes reprennent après le couple (clé de tri, id) de la dernière ville
+    // reçue : pas d'OFFSET ni de COUNT, le coût d'une tranche ne dépend pas de sa position.
+    // Le Pageable ne sert qu'à limiter le nombre de lignes (toujours page 0).
+
+    /**
+     * Première tranche de villes, triée selon le Sort du pageable (complété par id)
+     * @param pageable limite et tri
+     * @return List<Ville>
+     */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    @Query("SELECT v FROM Ville v")
+    List<Ville> findPremiereTranche(Pageable pageable);
+
+    /**
+     * Villes suivantes dans l'ordre des identifiants
+     * @param id identifiant de la dernière ville reçue
+     * @param pageable limite
+     * @return List<Ville>
+     */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    @Query("SELECT v FROM Ville v WHERE v.id > :id ORDER BY v.id")
+    List<Ville> findTrancheApresId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Villes suivantes dans l'ordre (nom, id)
+     * @param nom nom de la dernière ville reçue
+     * @param id identifiant de la dernière ville reçue
+     * @param pageable limite
+     * @return List<Ville>
+     */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    @Query("SELECT v FROM Ville v WHERE v.nom > :nom OR (v.nom = :nom AND v.id > :id) ORDER BY v.nom, v.id")
+    List<Ville> findTrancheApresNom(@Param("nom") String nom, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Villes suivantes dans l'ordre (nbHabitants, id)
+     * @param nbHabitants population de la dernière ville reçue
+     * @param id identifiant de la dernière ville reçue
+     * @param pageable limite
+     * @return List<Ville>
+     */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    @Query("SELECT v FROM Ville v WHERE v.nbHabitants > :nbHabitants " +
+           "OR (v.nbHabitants = :nbHabitants AND v.id > :id) ORDER BY v.nbHabitants, v.id")
+    List<Ville> findTrancheApresNbHabitants(@Param("nbHabitants") Integer nbHabitants, @Param("id") Long id,
+                                            Pageable pageable);
+
+    /**
+     * Première tranche des villes d'un département, triée selon le Sort du pageable
+     * @param departementId identifiant du département
+     * @param pageable limite et tri
+     * @return List<Ville>
+     */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    @Query("SELECT v FROM Ville v WHERE v.departement.id = :departementId")
+    List<Ville> findPremiereTrancheByDepartementId(@Param("departementId") Long departementId, Pageable pageable);
+
+    /**
+     * Villes suivantes d'un département dans l'ordre des identifiants
+     * @param departementId identifiant du département
+     * @param id identifiant de la dernière ville reçue
+     * @param pageable limite
+     * @return List<Ville>
+     */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    @Query("SELECT v FROM Ville v WHERE v.departement.id = :departementId AND v.id > :id ORDER BY v.id")
+    List<Ville> findTrancheByDepartementIdApresId(@Param("departementId") Long departementId,
+                                                  @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Villes suivantes d'un département dans l'ordre (nom, id)
+     * @param departementId identifiant du département
+     * @param nom nom de la dernière ville reçue
+     * @param id identifiant de la dernière ville reçue
+     * @param pageable limite
+     * @return List<Ville>
+     */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    @Query("SELECT v FROM Ville v WHERE v.departement.id = :departementId " +
+           "AND (v.nom > :nom OR (v.nom = :nom AND v.id > :id)) ORDER BY v.nom, v.id")
+    List<Ville> findTrancheByDepartementIdApresNom(@Param("departementId") Long departementId,
+                                                   @Param("nom") String nom, @Param("id") Long id,
+                                                   Pageable pageable);
+
+    /**
+     * Villes suivantes d'un département dans l'ordre (nbHabitants, id)
+     * @param departementId identifiant du département
+     * @param nbHabitants population de la dernière ville reçue
+     * @param id identifiant de la dernière ville reçue
+     * @param pageable limite
+     * @return List<Ville>
+     */
+    @EntityGraph(Ville.GRAPHE_DEPARTEMENT)
+    @Query("SELECT v FROM Ville v WHERE v.departement.id = :departementId " +
+           "AND (v.nbHabitants > :nbHabitants OR (v.nbHabitants = :nbHabitants AND v.id > :id)) " +
+           "ORDER BY v.nbHabitants, v.id")
+    List<Ville> findTrancheByDepartementIdApresNbHabitants(@Param("departementId") Long departementId,
+                                                           @Param("nbHabitants") Integer nbHabitants,
+                                                           @Param("id") Long id, Pageable pageable);
+
     // ==================== REQUÊTES NATIVES (OPTIONNELLES) ====================
 
     /**
@@ -0,0 +1,23 @@
+package fr.diginamic.hello.repositories;
+
+import fr.diginamic.hello.models.Ville;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Méthodes de VilleRepository implémentées à la main (VilleRepositoryCustomImpl)
+ */
+public interface VilleRepositoryCustom {
+
+    /**
+     * Recherche multi-critères paginée, en une seule requête SQL
+     * Contrairement à JpaSpecificationExecutor.findAll(spec, pageable), aucun COUNT n'est
+     * exécuté : une ligne de plus que la page est lue pour savoir s'il en reste.
+     * Le département est chargé dans la même requête (graphe Ville.GRAPHE_DEPARTEMENT).
+     * @param criteres critères combinés
+     * @param pageable page, taille et tri
+     * @return Slice<Ville>
+     */
+    Slice<Ville> rechercher(Specification<Ville> criteres, Pageable pageable);
+}
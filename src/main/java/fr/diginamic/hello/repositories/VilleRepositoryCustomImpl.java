@@ -0,0 +1,50 @@
+package fr.diginamic.hello.repositories;
+
+import fr.diginamic.hello.models.Ville;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Implémentation des méthodes personnalisées de VilleRepository
+ */
+public class VilleRepositoryCustomImpl implements VilleRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Ville> rechercher(Specification<Ville> criteres, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Ville> query = cb.createQuery(Ville.class);
+        Root<Ville> root = query.from(Ville.class);
+        query.select(root);
+
+        Predicate predicat = criteres.toPredicate(root, query, cb);
+        if (predicat != null) {
+            query.where(predicat);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<Ville> villes = entityManager.createQuery(query)
+                .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph(Ville.GRAPHE_DEPARTEMENT))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean suivante = villes.size() > pageable.getPageSize();
+        return new SliceImpl<>(suivante ? villes.subList(0, pageable.getPageSize()) : villes, pageable, suivante);
+    }
+}
@@ -1,13 +1,24 @@
 package fr.diginamic.hello.repositories;
 
+import fr.diginamic.hello.dto.StatistiquesDepartementDTO;
+import fr.diginamic.hello.dto.VilleDTO;
 import fr.diginamic.hello.models.Ville;
 import fr.diginamic.hello.models.Departement;
+import fr.diginamic.hello.services.DepartementCacheService;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -23,7 +34,10 @@ public class VilleRepositoryHelper {
     private VilleRepository villeRepository;
 
     @Autowired
-    private DepartementRepository departementRepository;
+    private DepartementCacheService departementCacheService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
 
     // ==================== MÉTHODES SIMPLIFIÉES POUR LES CAS D'USAGE DU TP ====================
 
@@ -50,6 +64,46 @@ public class VilleRepositoryHelper {
         return villeRepository.findTopNVillesByDepartementOrderByPopulation(departement, pageable);
     }
 
+    /**
+     * Top N de chaque département en une requête : ROW_NUMBER numérote les villes de chaque
+     * département par population décroissante (départage par id), seuls les N premiers rangs
+     * sont renvoyés. %s : restriction facultative à une liste de codes.
+     */
+    private static final String SQL_TOP_VILLES_PAR_DEPARTEMENT =
+            "SELECT r.id, r.nom, r.nb_habs, d.id AS departement_id, d.code, d.nom AS departement_nom " +
+            "FROM (" +
+            "  SELECT v.id, v.nom, v.nb_habs, v.id_dept, " +
+            "    ROW_NUMBER() OVER (PARTITION BY v.id_dept ORDER BY v.nb_habs DESC, v.id) AS rang " +
+            "  FROM ville v %s" +
+            ") r JOIN departement d ON d.id = r.id_dept " +
+            "WHERE r.rang <= :n ORDER BY d.code, r.rang";
+
+    /**
+     * Recherche des N villes les plus peuplées de chaque département, en une seule requête
+     * @param n nombre de villes par département
+     * @param codes codes des départements (tous si null ou vide)
+     * @return Map code du département → villes par population décroissante, par code croissant ;
+     *         les départements inconnus ou sans ville sont absents
+     */
+    public Map<String, List<VilleDTO>> findTopNVillesParDepartement(int n, Collection<String> codes) {
+        Map<String, Object> parametres = new HashMap<>();
+        parametres.put("n", n);
+        String restriction = "";
+        if (codes != null && !codes.isEmpty()) {
+            restriction = "JOIN departement dv ON dv.id = v.id_dept WHERE dv.code IN (:codes)";
+            parametres.put("codes", codes);
+        }
+
+        Map<String, List<VilleDTO>> resultat = new LinkedHashMap<>();
+        namedJdbcTemplate.query(String.format(SQL_TOP_VILLES_PAR_DEPARTEMENT, restriction), parametres, rs -> {
+            VilleDTO.DepartementSimplifieDTO departement = new VilleDTO.DepartementSimplifieDTO(
+                    rs.getLong("departement_id"), rs.getString("code"), rs.getString("departement_nom"));
+            resultat.computeIfAbsent(departement.getCode(), code -> new ArrayList<>())
+                    .add(new VilleDTO(rs.getLong("id"), rs.getString("nom"), rs.getInt("nb_habs"), departement));
+        });
+        return resultat;
+    }
+
     /**
      * Recherche d'un département par code avec gestion d'erreur
      * @param code code du département
@@ -57,23 +111,24 @@ public class VilleRepositoryHelper {
      * @throws RuntimeException si le département n'existe pas
      */
     public Departement findDepartementByCodeOrThrow(String code) {
-        return departementRepository.findByCode(code)
+        return departementCacheService.findByCode(code)
                 .orElseThrow(() -> new RuntimeException("Département non trouvé avec le code : " + code));
     }
 
     /**
-     * Recherche des villes d'un département par code département et population minimum
-     * @param codeDepartement code du département
-     * @param minPopulation population minimum
+     * Recherche des villes d'un département par population décroissante, au plus limite
+     * @param departement le département
+     * @param minPopulation population minimum (null : les plus peuplées, sans minimum)
+     * @param limite nombre maximum de villes
      * @return List<Ville>
      */
-    public List<Ville> findVillesByCodeDepartementAndMinPopulation(String codeDepartement, Integer minPopulation) {
-        Optional<Departement> departement = departementRepository.findByCode(codeDepartement);
-        if (departement.isPresent()) {
-            return villeRepository.findByDepartementAndNbHabitantsGreaterThanOrderByNbHabitantsDesc(
-                    departement.get(), minPopulation);
+    public List<Ville> findVillesByDepartementAndMinPopulation(Departement departement, Integer minPopulation, int limite) {
+        Pageable pageable = PageRequest.of(0, limite);
+        if (minPopulation == null) {
+            return villeRepository.findTopNVillesByDepartementOrderByPopulation(departement, pageable);
         }
-        return List.of(); // Retourne une liste vide si le département n'existe pas
+        return villeRepository.findByDepartementAndNbHabitantsGreaterThanOrderByNbHabitantsDesc(
+                departement, minPopulation, pageable);
     }
 
     /**
@@ -85,7 +140,7 @@ public class VilleRepositoryHelper {
      */
     public List<Ville> findVillesByCodeDepartementAndPopulationRange(
             String codeDepartement, Integer minPopulation, Integer maxPopulation) {
-        Optional<Departement> departement = departementRepository.findByCode(codeDepartement);
+        Optional<Departement> departement = departementCacheService.findByCode(codeDepartement);
         if (departement.isPresent()) {
             return villeRepository.findByDepartementAndNbHabitantsBetweenOrderByNbHabitantsDesc(
                     departement.get(), minPopulation, maxPopulation);
@@ -96,54 +151,116 @@ public class VilleRepositoryHelper {
     // ==================== MÉTHODES D'AGRÉGATION ====================
 
     /**
-     * Récupère des statistiques complètes sur un département
+     * Critères de tri des statistiques par département (paramètre → colonne)
+     */
+    public static final Map<String, String> TRIS_STATISTIQUES = Map.of(
+            "code", "d.code",
+            "nom", "d.nom",
+            "nombreVilles", "nombre_villes",
+            "populationTotale", "population_totale",
+            "populationMoyenne", "s.population_moyenne",
+            "populationMediane", "s.population_mediane");
+
+    /**
+     * Statistiques par département en un seul passage sur les villes :
+     * - sous-requête fenêtrée : nombre de villes et rang par population décroissante (départage par id)
+     * - GROUP BY : agrégats, médiane (une ou deux valeurs centrales selon la parité du rang)
+     *   et ville de rang 1
+     * - jointure externe : les départements sans ville sont conservés
+     * %s : restriction facultative des villes lues (un seul département)
+     */
+    private static final String SQL_STATISTIQUES =
+            "SELECT d.id, d.code, d.nom, COALESCE(s.nombre_villes, 0) AS nombre_villes, " +
+            "COALESCE(s.population_totale, 0) AS population_totale, s.population_min, s.population_max, " +
+            "s.population_moyenne, s.population_mediane, s.ville_id, s.ville_nom, s.ville_nb_habs " +
+            "FROM departement d LEFT JOIN (" +
+            "  SELECT r.id_dept, COUNT(*) AS nombre_villes, SUM(r.nb_habs) AS population_totale, " +
+            "    MIN(r.nb_habs) AS population_min, MAX(r.nb_habs) AS population_max, " +
+            "    AVG(r.nb_habs * 1.0) AS population_moyenne, " +
+            "    AVG(CASE WHEN r.rang IN (FLOOR((r.nombre + 1) / 2), FLOOR((r.nombre + 2) / 2)) " +
+            "      THEN r.nb_habs * 1.0 END) AS population_mediane, " +
+            "    MAX(CASE WHEN r.rang = 1 THEN r.id END) AS ville_id, " +
+            "    MAX(CASE WHEN r.rang = 1 THEN r.nom END) AS ville_nom, " +
+            "    MAX(CASE WHEN r.rang = 1 THEN r.nb_habs END) AS ville_nb_habs " +
+            "  FROM (" +
+            "    SELECT v.id, v.nom, v.nb_habs, v.id_dept, " +
+            "      COUNT(*) OVER (PARTITION BY v.id_dept) AS nombre, " +
+            "      ROW_NUMBER() OVER (PARTITION BY v.id_dept ORDER BY v.nb_habs DESC, v.id) AS rang " +
+            "    FROM ville v %s" +
+            "  ) r GROUP BY r.id_dept" +
+            ") s ON s.id_dept = d.id ";
+
+    /**
+     * Récupère des statistiques complètes sur un département en une seule requête :
+     * nombre de villes, population totale, minimale, maximale, moyenne, médiane et ville la plus peuplée
      * @param codeDepartement code du département
-     * @return DepartementStats objet contenant les statistiques
+     * @return StatistiquesDepartementDTO, ou null si le département n'existe pas
      */
-    public DepartementStats getDepartementStats(String codeDepartement) {
-        Optional<Departement> deptOpt = departementRepository.findByCode(codeDepartement);
-        if (deptOpt.isEmpty()) {
-            return null;
+    public StatistiquesDepartementDTO getDepartementStats(String codeDepartement) {
+        String sql = String.format(SQL_STATISTIQUES,
+                "JOIN departement dv ON dv.id = v.id_dept WHERE dv.code = :code") + "WHERE d.code = :code";
+        List<StatistiquesDepartementDTO> resultats = namedJdbcTemplate.query(sql,
+                Map.of("code", codeDepartement), VilleRepositoryHelper::lireStatistiques);
+        return resultats.isEmpty() ? null : resultats.get(0);
+    }
+
+    /**
+     * Récupère les statistiques de tous les départements en une seule requête
+     * @param tri critère de tri (clé de TRIS_STATISTIQUES), départage par code
+     * @param decroissant true pour un tri décroissant
+     * @param minVilles nombre minimum de villes (ignoré si null)
+     * @param minPopulation population totale minimum (ignorée si null)
+     * @param maxPopulation population totale maximum (ignorée si null)
+     * @return List<StatistiquesDepartementDTO>
+     */
+    public List<StatistiquesDepartementDTO> getStatistiquesDepartements(String tri, boolean decroissant,
+            Long minVilles, Long minPopulation, Long maxPopulation) {
+        Map<String, Object> parametres = new HashMap<>();
+        List<String> conditions = new ArrayList<>();
+        if (minVilles != null) {
+            conditions.add("COALESCE(s.nombre_villes, 0) >= :minVilles");
+            parametres.put("minVilles", minVilles);
+        }
+        if (minPopulation != null) {
+            conditions.add("COALESCE(s.population_totale, 0) >= :minPopulation");
+            parametres.put("minPopulation", minPopulation);
+        }
+        if (maxPopulation != null) {
+            conditions.add("COALESCE(s.population_totale, 0) <= :maxPopulation");
+            parametres.put("maxPopulation", maxPopulation);
         }
 
-        Departement dept = deptOpt.get();
-        Long nombreVilles = villeRepository.countByDepartement(dept);
-        Long populationTotale = villeRepository.sumPopulationByDepartement(dept);
-        Optional<Ville> villeLaPlusPeuplee = villeRepository.findMostPopulatedVilleInDepartement(dept);
+        StringBuilder sql = new StringBuilder(String.format(SQL_STATISTIQUES, ""));
+        if (!conditions.isEmpty()) {
+            sql.append("WHERE ").append(String.join(" AND ", conditions)).append(' ');
+        }
+        String sens = decroissant ? " DESC" : " ASC";
+        sql.append("ORDER BY ").append(TRIS_STATISTIQUES.get(tri)).append(sens).append(", d.code").append(sens);
 
-        return new DepartementStats(dept, nombreVilles, populationTotale, villeLaPlusPeuplee.orElse(null));
+        return namedJdbcTemplate.query(sql.toString(), parametres, VilleRepositoryHelper::lireStatistiques);
     }
 
-    // ==================== CLASSE INTERNE POUR LES STATISTIQUES ====================
-
     /**
-     * Classe interne pour encapsuler les statistiques d'un département
+     * Construit les statistiques d'un département à partir d'une ligne de SQL_STATISTIQUES
      */
-    public static class DepartementStats {
-        private final Departement departement;
-        private final Long nombreVilles;
-        private final Long populationTotale;
-        private final Ville villeLaPlusPeuplee;
-
-        public DepartementStats(Departement departement, Long nombreVilles,
-                                Long populationTotale, Ville villeLaPlusPeuplee) {
-            this.departement = departement;
-            this.nombreVilles = nombreVilles;
-            this.populationTotale = populationTotale;
-            this.villeLaPlusPeuplee = villeLaPlusPeuplee;
-        }
+    private static StatistiquesDepartementDTO lireStatistiques(ResultSet rs, int ligne) throws SQLException {
+        VilleDTO.DepartementSimplifieDTO departement = new VilleDTO.DepartementSimplifieDTO(
+                rs.getLong("id"), rs.getString("code"), rs.getString("nom"));
+
+        StatistiquesDepartementDTO stats = new StatistiquesDepartementDTO();
+        stats.setDepartement(departement);
+        stats.setNombreVilles(rs.getLong("nombre_villes"));
+        stats.setPopulationTotale(rs.getLong("population_totale"));
+        stats.setPopulationMin(rs.getObject("population_min", Integer.class));
+        stats.setPopulationMax(rs.getObject("population_max", Integer.class));
+        stats.setPopulationMoyenne(rs.getObject("population_moyenne", Double.class));
+        stats.setPopulationMediane(rs.getObject("population_mediane", Double.class));
 
-        // Getters
-        public Departement getDepartement() { return departement; }
-        public Long getNombreVilles() { return nombreVilles; }
-        public Long getPopulationTotale() { return populationTotale; }
-        public Ville getVilleLaPlusPeuplee() { return villeLaPlusPeuplee; }
-
-        @Override
-        public String toString() {
-            return String.format("DepartementStats{departement=%s (%s), nombreVilles=%d, populationTotale=%d, villeLaPlusPeuplee=%s}",
-                    departement.getNom(), departement.getCode(), nombreVilles, populationTotale,
-                    villeLaPlusPeuplee != null ? villeLaPlusPeuplee.getNom() : "N/A");
+        long villeId = rs.getLong("ville_id");
+        if (!rs.wasNull()) {
+            stats.setVilleLaPlusPeuplee(new VilleDTO(villeId, rs.getString("ville_nom"),
+                    rs.getInt("ville_nb_habs"), departement));
         }
+        return stats;
     }
-}
\ No newline at end of file
+}
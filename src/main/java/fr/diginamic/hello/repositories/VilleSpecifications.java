@@ -0,0 +1,73 @@
+package fr.diginamic.hello.repositories;
+
+import fr.diginamic.hello.models.Ville;
+import fr.diginamic.hello.services.CleRecherche;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Critères de recherche de villes, combinables en une seule requête (Specification.allOf)
+ *
+ * Chaque critère porte sur une colonne de la table ville, sans jointure :
+ * le département est filtré par sa clé étrangère (index idx_ville_dept_nom et idx_ville_dept_nb_habs),
+ * la population par nb_habs (index idx_ville_nb_habs).
+ *
+ * Le nom contenu ne peut pas utiliser d'index (LIKE '%x%') : VilleService le traduit par
+ * idParmi, avec les identifiants de l'index des trigrammes (IndexTrigrammesVilles), et ne
+ * garde nomContient, parcours de la table, que pour une saisie trop peu sélective.
+ */
+public final class VilleSpecifications {
+
+    private VilleSpecifications() {
+    }
+
+    /**
+     * Nom contenant le texte donné, sans tenir compte de la casse, des accents ni des tirets :
+     * comparaison sur la colonne nom_recherche, sans fonction appliquée à chaque ligne
+     * (la clé normalisée ne contient ni % ni _). Le motif commence par % : aucun index ne sert
+     * ce critère, la requête parcourt la table (ou les lignes retenues par un autre critère)
+     * @param texte texte recherché
+     * @return Specification<Ville>
+     */
+    public static Specification<Ville> nomContient(String texte) {
+        String motif = "%" + CleRecherche.normaliserSaisie(texte) + "%";
+        return (root, query, cb) -> cb.like(root.get("nomRecherche"), motif);
+    }
+
+    /**
+     * Villes dont l'identifiant est dans la liste (clé primaire)
+     * @param ids identifiants, non vide
+     * @return Specification<Ville>
+     */
+    public static Specification<Ville> idParmi(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * Population supérieure ou égale au minimum
+     * @param min population minimum
+     * @return Specification<Ville>
+     */
+    public static Specification<Ville> populationMin(Integer min) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("nbHabitants"), min);
+    }
+
+    /**
+     * Population inférieure ou égale au maximum
+     * @param max population maximum
+     * @return Specification<Ville>
+     */
+    public static Specification<Ville> populationMax(Integer max) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("nbHabitants"), max);
+    }
+
+    /**
+     * Villes d'un département, filtrées sur la clé étrangère
+     * @param departementId identifiant du département
+     * @return Specification<Ville>
+     */
+    public static Specification<Ville> departement(Long departementId) {
+        return (root, query, cb) -> cb.equal(root.get("departement").get("id"), departementId);
+    }
+}
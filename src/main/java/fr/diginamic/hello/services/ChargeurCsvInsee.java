@@ -0,0 +1,514 @@
+package fr.diginamic.hello.services;
+
+import fr.diginamic.hello.dto.RapportImportDTO;
+import fr.diginamic.hello.dto.VilleDTO;
+import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Chargement des fichiers CSV du recensement INSEE dans les tables ville et departement
+ *
+ * Le fichier est projeté en mémoire (FileChannel.map) et découpé en tranches de quelques
+ * mégaoctets alignées sur les fins de ligne. Un premier passage parallèle ne décode que la
+ * colonne département, pour créer les départements absents dont le code est valide
+ * (DepartementService.isValidCodeDepartement ; nom connu ou à compléter, comme dans
+ * tp-spring-07-recensement.sql). Un code invalide ne crée rien : ses lignes sont rejetées
+ * dans le rapport (département non trouvé). Le second analyse les tranches en parallèle, au plus
+ * FENETRE_PAR_COEUR tranches d'avance par cœur, et les remet dans l'ordre du fichier à
+ * ImportVillesService au fur et à mesure (codes résolus sur la table code → id préchargée,
+ * insertion par batch JDBC et commit par lot) : la mémoire utilisée est bornée par la fenêtre,
+ * pas par la taille du fichier.
+ *
+ * Séparateur ';', en-tête obligatoire. Colonnes reconnues (la première trouvée l'emporte) :
+ * - département : "Code département", "codeDepartement", "departementCode"
+ * - nom : "Nom de la commune", "nom"
+ * - population : "Population totale", "Population municipale", "nbHabitants"
+ * - latitude et longitude, facultatives : "latitude", "lat" et "longitude", "lon", "lng"
+ * Les séparateurs de milliers (espaces) sont acceptés dans les populations, la virgule
+ * décimale dans les coordonnées.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Service
+public class ChargeurCsvInsee {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChargeurCsvInsee.class);
+
+    private static final List<String> COLONNES_DEPARTEMENT = List.of("code département", "codedepartement", "departementcode");
+    private static final List<String> COLONNES_NOM = List.of("nom de la commune", "nom");
+    private static final List<String> COLONNES_POPULATION = List.of("population totale", "population municipale", "nbhabitants");
+    private static final List<String> COLONNES_LATITUDE = List.of("latitude", "lat");
+    private static final List<String> COLONNES_LONGITUDE = List.of("longitude", "lon", "lng");
+
+    private static final byte SEPARATEUR = ';';
+
+    /**
+     * Taille d'une tranche (projection mémoire analysée d'un bloc par un cœur)
+     */
+    private static final long TAILLE_TRANCHE = 8L << 20;
+
+    /**
+     * Nombre de tranches analysées d'avance, par cœur, pendant l'import des précédentes
+     */
+    private static final int FENETRE_PAR_COEUR = 2;
+
+    // ==================== INJECTION DES DÉPENDANCES ====================
+
+    @Autowired
+    private ImportVillesService importVillesService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DepartementCacheService departementCacheService;
+
+    @Autowired
+    private VersionsDonnees versionsDonnees;
+
+    @Autowired
+    private IndexTrigrammesDepartements indexTrigrammesDepartements;
+
+    // ==================== CHARGEMENT ====================
+
+    /**
+     * Charge un fichier CSV INSEE
+     * @param fichier chemin du fichier
+     * @return RapportImportDTO (les numéros de ligne comptent les lignes de données, hors en-tête)
+     * @throws IOException si le fichier est illisible
+     */
+    public RapportImportDTO charger(Path fichier) throws IOException {
+        long debut = System.currentTimeMillis();
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long taille = canal.size();
+            if (taille == 0) {
+                return importVillesService.importer(Collections.emptyIterator());
+            }
+
+            long finEntete = chercherFinDeLigne(canal, 0, taille);
+            byte[] entete = new byte[(int) finEntete];
+            canal.read(ByteBuffer.wrap(entete), 0);
+            int[] colonnes = colonnes(new String(entete, StandardCharsets.UTF_8));
+            long[] bornes = decouper(canal, Math.min(finEntete + 1, taille), taille);
+
+            Set<String> codes = codesDepartements(canal, bornes, colonnes[0]);
+            LOGGER.info("Fichier {} : {} tranches, {} département(s) ({} ms)",
+                    fichier.getFileName(), bornes.length - 1, codes.size(), System.currentTimeMillis() - debut);
+            creerDepartementsManquants(codes);
+
+            VillesParTranches villes = new VillesParTranches(canal, bornes, colonnes);
+            try {
+                RapportImportDTO rapport = importVillesService.importer(villes);
+                rapport.setDureeMs(System.currentTimeMillis() - debut);
+                return rapport;
+            } finally {
+                villes.abandonner();
+            }
+        }
+    }
+
+    // ==================== ANALYSE PARALLÈLE ====================
+
+    /**
+     * Premier passage : codes département du fichier, seule colonne décodée
+     */
+    private Set<String> codesDepartements(FileChannel canal, long[] bornes, int colonneCode) {
+        return IntStream.range(0, bornes.length - 1).parallel()
+                .mapToObj(i -> {
+                    Set<String> codes = new HashSet<>();
+                    parcourirLignes(projeter(canal, bornes, i), (ligne, longueur) -> {
+                        String code = normaliserCode(champ(ligne, longueur, colonneCode));
+                        if (code != null) {
+                            codes.add(code);
+                        }
+                    });
+                    return codes;
+                })
+                .flatMap(Set::stream)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * Projection en lecture seule de la tranche i
+     */
+    private static MappedByteBuffer projeter(FileChannel canal, long[] bornes, int i) {
+        try {
+            return canal.map(FileChannel.MapMode.READ_ONLY, bornes[i], bornes[i + 1] - bornes[i]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Calcule les bornes des tranches, chacune commençant au début d'une ligne
+     */
+    private long[] decouper(FileChannel canal, long debut, long fin) throws IOException {
+        long volume = fin - debut;
+        long nombre = Math.max(1, (volume + TAILLE_TRANCHE - 1) / TAILLE_TRANCHE);
+
+        List<Long> bornes = new ArrayList<>();
+        bornes.add(debut);
+        for (int i = 1; i < nombre; i++) {
+            long cible = debut + volume * i / nombre;
+            long borne = Math.min(chercherFinDeLigne(canal, cible, fin) + 1, fin);
+            if (borne > bornes.get(bornes.size() - 1) && borne < fin) {
+                bornes.add(borne);
+            }
+        }
+        bornes.add(fin);
+        return bornes.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Position du prochain '\n' à partir de la position donnée (ou fin du fichier)
+     */
+    private long chercherFinDeLigne(FileChannel canal, long position, long fin) throws IOException {
+        ByteBuffer tampon = ByteBuffer.allocate(8192);
+        long courant = position;
+        while (courant < fin) {
+            tampon.clear();
+            int lus = canal.read(tampon, courant);
+            if (lus <= 0) {
+                break;
+            }
+            for (int i = 0; i < lus; i++) {
+                if (tampon.get(i) == '\n') {
+                    return courant + i;
+                }
+            }
+            courant += lus;
+        }
+        return fin;
+    }
+
+    /**
+     * Analyse une tranche ligne à ligne ; seuls les champs utiles sont décodés
+     */
+    private static List<VilleDTO> analyserTranche(MappedByteBuffer tranche, int[] colonnes) {
+        List<VilleDTO> villes = new ArrayList<>();
+        parcourirLignes(tranche, (ligne, longueur) -> ajouterLigne(ligne, longueur, colonnes, villes));
+        return villes;
+    }
+
+    /**
+     * Passe chaque ligne de la tranche (sans fin de ligne) au traitement
+     */
+    private static void parcourirLignes(MappedByteBuffer tranche, TraitementLigne traitement) {
+        byte[] ligne = new byte[256];
+        int longueur = 0;
+        while (tranche.hasRemaining()) {
+            byte octet = tranche.get();
+            if (octet == '\n') {
+                traiterLigne(ligne, longueur, traitement);
+                longueur = 0;
+            } else {
+                if (longueur == ligne.length) {
+                    ligne = Arrays.copyOf(ligne, ligne.length * 2);
+                }
+                ligne[longueur++] = octet;
+            }
+        }
+        traiterLigne(ligne, longueur, traitement);
+    }
+
+    private static void traiterLigne(byte[] ligne, int longueur, TraitementLigne traitement) {
+        if (longueur > 0 && ligne[longueur - 1] == '\r') {
+            longueur--;
+        }
+        if (longueur > 0) {
+            traitement.traiter(ligne, longueur);
+        }
+    }
+
+    /**
+     * Texte du champ d'indice donné (guillemets gérés), null si la ligne est plus courte
+     */
+    private static String champ(byte[] ligne, int longueur, int index) {
+        int champ = 0;
+        int debut = 0;
+        boolean entreGuillemets = false;
+        for (int i = 0; i <= longueur; i++) {
+            if (i < longueur && ligne[i] == '"') {
+                entreGuillemets = !entreGuillemets;
+            } else if (i == longueur || (ligne[i] == SEPARATEUR && !entreGuillemets)) {
+                if (champ == index) {
+                    return texte(ligne, debut, i);
+                }
+                champ++;
+                debut = i + 1;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Découpe une ligne en champs (guillemets gérés) et construit la ville
+     */
+    private static void ajouterLigne(byte[] ligne, int longueur, int[] colonnes, List<VilleDTO> villes) {
+        String[] valeurs = new String[colonnes.length];
+        int champ = 0;
+        int debut = 0;
+        boolean entreGuillemets = false;
+        for (int i = 0; i <= longueur; i++) {
+            if (i < longueur && ligne[i] == '"') {
+                entreGuillemets = !entreGuillemets;
+            } else if (i == longueur || (ligne[i] == SEPARATEUR && !entreGuillemets)) {
+                for (int c = 0; c < colonnes.length; c++) {
+                    if (colonnes[c] == champ) {
+                        valeurs[c] = texte(ligne, debut, i);
+                    }
+                }
+                champ++;
+                debut = i + 1;
+            }
+        }
+
+        VilleDTO ville = new VilleDTO();
+        ville.setNom(valeurs[1]);
+        ville.setNbHabitants(population(valeurs[2]));
+        ville.setLatitude(coordonnee(valeurs[3]));
+        ville.setLongitude(coordonnee(valeurs[4]));
+        ville.setDepartement(new VilleDTO.DepartementSimplifieDTO(null, normaliserCode(valeurs[0]), null));
+        villes.add(ville);
+    }
+
+    // ==================== DÉPARTEMENTS ====================
+
+    /**
+     * Crée en une requête batch les départements du fichier absents de la base, rattachés à la
+     * région de leur code (table region_departement, comme DepartementService.save)
+     * Les codes invalides sont écartés : les lignes qui les portent seront rejetées par l'import.
+     */
+    private void creerDepartementsManquants(Set<String> codesFichier) {
+        Set<String> codes = new TreeSet<>(codesFichier);
+        codes.removeAll(importVillesService.chargerDepartements().getCodes());
+        Set<String> invalides = new TreeSet<>();
+        codes.removeIf(code -> !DepartementService.isValidCodeDepartement(code) && invalides.add(code));
+        if (!invalides.isEmpty()) {
+            LOGGER.warn("{} code(s) département invalide(s), lignes rejetées : {}", invalides.size(), invalides);
+        }
+        if (codes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO departement (code, nom, id_region) VALUES (?, ?, (SELECT r.id FROM region r "
+                        + "JOIN region_departement rd ON rd.code_region = r.code WHERE rd.code_departement = ?))",
+                new ArrayList<>(codes), codes.size(),
+                (ps, code) -> {
+                    ps.setString(1, code);
+                    ps.setString(2, DepartementService.getNomDepartementParCode(code));
+                    ps.setString(3, code);
+                });
+        departementCacheService.invaliderApresEcritureSql();
+        indexTrigrammesDepartements.invalider();
+        versionsDonnees.tousDepartementsModifies();
+        LOGGER.info("{} département(s) créé(s) : {}", codes.size(), codes);
+    }
+
+    // ==================== UTILITAIRES ====================
+
+    /**
+     * Position des colonnes département, nom, population, latitude et longitude dans l'en-tête
+     * (-1 pour une colonne facultative absente)
+     */
+    private static int[] colonnes(String entete) {
+        if (!entete.isEmpty() && entete.charAt(0) == '\uFEFF') {
+            entete = entete.substring(1);
+        }
+        List<String> noms = new ArrayList<>();
+        for (String nom : entete.split(";", -1)) {
+            noms.add(nom.replace("\"", "").trim().toLowerCase());
+        }
+        return new int[]{
+                colonne(noms, COLONNES_DEPARTEMENT),
+                colonne(noms, COLONNES_NOM),
+                colonne(noms, COLONNES_POPULATION),
+                colonneFacultative(noms, COLONNES_LATITUDE),
+                colonneFacultative(noms, COLONNES_LONGITUDE)
+        };
+    }
+
+    private static int colonne(List<String> noms, List<String> candidats) {
+        int index = colonneFacultative(noms, candidats);
+        if (index >= 0) {
+            return index;
+        }
+        throw ExceptionFonctionnelle.donneesInvalides(
+                "En-tête CSV invalide : colonne " + candidats.get(0) + " introuvable");
+    }
+
+    private static int colonneFacultative(List<String> noms, List<String> candidats) {
+        for (String candidat : candidats) {
+            int index = noms.indexOf(candidat);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static String texte(byte[] ligne, int debut, int fin) {
+        if (fin - debut >= 2 && ligne[debut] == '"' && ligne[fin - 1] == '"') {
+            return new String(ligne, debut + 1, fin - debut - 2, StandardCharsets.UTF_8).replace("\"\"", "\"").trim();
+        }
+        return new String(ligne, debut, fin - debut, StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Population sans séparateurs de milliers, null si illisible
+     */
+    private static Integer population(String valeur) {
+        if (valeur == null) {
+            return null;
+        }
+        StringBuilder chiffres = new StringBuilder(valeur.length());
+        for (int i = 0; i < valeur.length(); i++) {
+            char c = valeur.charAt(i);
+            if (c >= '0' && c <= '9') {
+                chiffres.append(c);
+            } else if (!Character.isSpaceChar(c)) {
+                return null;
+            }
+        }
+        if (chiffres.isEmpty() || chiffres.length() > 9) {
+            return null;
+        }
+        return Integer.valueOf(chiffres.toString());
+    }
+
+    /**
+     * Coordonnée en degrés décimaux (point ou virgule), null si absente, NaN si illisible
+     * (la ligne est alors rejetée par la validation de l'import)
+     */
+    private static Double coordonnee(String valeur) {
+        if (valeur == null || valeur.isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.valueOf(valeur.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Code département en majuscules, sur deux caractères au moins ("1" devient "01", "2a" "2A")
+     */
+    private static String normaliserCode(String code) {
+        if (code == null || code.isEmpty()) {
+            return null;
+        }
+        String majuscules = code.toUpperCase();
+        return majuscules.length() == 1 ? "0" + majuscules : majuscules;
+    }
+
+    // ==================== CLASSES INTERNES ====================
+
+    /**
+     * Traitement d'une ligne du fichier (octets de la ligne, sans fin de ligne)
+     */
+    @FunctionalInterface
+    private interface TraitementLigne {
+        void traiter(byte[] ligne, int longueur);
+    }
+
+    /**
+     * Villes du fichier dans l'ordre, analysées tranche par tranche en parallèle
+     *
+     * Au plus FENETRE_PAR_COEUR tranches par cœur sont projetées et analysées d'avance ;
+     * la suivante est lancée à chaque tranche consommée par l'import.
+     */
+    private static final class VillesParTranches implements Iterator<VilleDTO> {
+
+        private final FileChannel canal;
+        private final long[] bornes;
+        private final int[] colonnes;
+        private final int fenetre = FENETRE_PAR_COEUR * Runtime.getRuntime().availableProcessors();
+        private final Deque<CompletableFuture<List<VilleDTO>>> enCours = new ArrayDeque<>();
+        private int prochaine;
+        private Iterator<VilleDTO> courante = Collections.emptyIterator();
+
+        VillesParTranches(FileChannel canal, long[] bornes, int[] colonnes) {
+            this.canal = canal;
+            this.bornes = bornes;
+            this.colonnes = colonnes;
+            lancer();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!courante.hasNext()) {
+                CompletableFuture<List<VilleDTO>> tranche = enCours.poll();
+                if (tranche == null) {
+                    return false;
+                }
+                courante = attendre(tranche).iterator();
+                lancer();
+            }
+            return true;
+        }
+
+        @Override
+        public VilleDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return courante.next();
+        }
+
+        /**
+         * Annule les analyses encore en cours (import interrompu)
+         */
+        void abandonner() {
+            enCours.forEach(tranche -> tranche.cancel(false));
+            enCours.clear();
+        }
+
+        private void lancer() {
+            while (enCours.size() < fenetre && prochaine < bornes.length - 1) {
+                int i = prochaine++;
+                enCours.add(CompletableFuture.supplyAsync(() -> analyserTranche(projeter(canal, bornes, i), colonnes)));
+            }
+        }
+
+        private static List<VilleDTO> attendre(CompletableFuture<List<VilleDTO>> tranche) {
+            try {
+                return tranche.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+}
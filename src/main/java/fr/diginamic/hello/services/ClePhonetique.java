@@ -0,0 +1,117 @@
+package fr.diginamic.hello.services;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Clé phonétique française des noms de communes (inspirée de Soundex 2 et Phonex)
+ *
+ * Le nom est d'abord ramené à sa clé de recherche (CleRecherche, "ç" lu comme "s", "é", "è"
+ * et "ê" comme "ei"), lettres doublées réduites. Chaque mot est ensuite transcrit en sons par
+ * des règles appliquées dans l'ordre : consonnes selon la voyelle qui suit ("c", "g"), lettres
+ * muettes en fin de mot, graphies d'un même son ("eau", "au" ; "ph", "f"), voyelles nasales
+ * ("in", "ain", "ein" ; "an", "en" ; "on"). Les mots sont accolés : "Saint-Ouen" et
+ * "Sin Ouan" donnent "S1U2", "Chambéry" et "Shambéri" donnent "X2BERI".
+ *
+ * La clé est en majuscules (sons) et chiffres (voyelles nasales 1, 2, 3) : les règles, qui
+ * lisent des minuscules, ne s'appliquent pas deux fois au même son.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public final class ClePhonetique {
+
+    /**
+     * Voyelles, écrites ou déjà transcrites (une nasale n'est pas suivie d'une voyelle)
+     */
+    private static final String VOYELLES = "aeiouyAEIOUWY";
+
+    /**
+     * Règles appliquées dans l'ordre à chaque mot
+     */
+    private static final List<Regle> REGLES = List.of(
+            // consonnes adoucies par la voyelle qui suit (avant la chute du "e" final)
+            new Regle("sc(?=[eiy])|c(?=[eiy])", "S"),
+            new Regle("gu(?=[eiy])", "G"),
+            new Regle("ge(?=[aou])|g(?=[eiy])", "J"),
+            // lettres muettes en fin de mot (une consonne suivie d'un "e" se prononce)
+            new Regle("(?<=.)s$", ""),
+            new Regle("e[rz]$", "E"),
+            new Regle("eaux?$|aux?$", "O"),
+            new Regle("(?<=r)g$|(?<=..)[tdpxz]$", ""),
+            new Regle("(?<=..)e$", ""),
+            // "il" mouillé après une voyelle (Marseille, Versailles)
+            new Regle("(?<=[aeou])ill|(?<=[aeou])il$", "I"),
+            // graphies de plusieurs lettres
+            new Regle("eau|au", "O"),
+            new Regle("oeu|oe|eu", "E"),
+            new Regle("ou", "U"),
+            new Regle("o[iy]", "WA"),
+            new Regle("ph", "F"),
+            new Regle("th", "T"),
+            new Regle("sch|sh|ch", "X"),
+            new Regle("qu|ck|q|k", "K"),
+            new Regle("gn", "NI"),
+            // voyelles nasales (non suivies d'une voyelle ni d'un n ou m)
+            new Regle("[ae]i[nm](?![" + VOYELLES + "nm])|[iyu][nm](?![" + VOYELLES + "nm])", "1"),
+            new Regle("[ae][nm](?![" + VOYELLES + "nm])", "2"),
+            new Regle("o[nm](?![" + VOYELLES + "nm])", "3"),
+            new Regle("ai|ei|ay|ey", "E"),
+            // lettres simples
+            new Regle("h", ""),
+            new Regle("x", "KS"),
+            new Regle("[zs]", "S"),
+            new Regle("c", "K"),
+            new Regle("w", "V"),
+            new Regle("y", "I"),
+            new Regle("u", "Y")
+    );
+
+    /**
+     * Lettres doublées ("nn", "ss"...) réduites avant les règles, sauf "ll" (lu par la règle
+     * du "il" mouillé)
+     */
+    private static final Pattern LETTRES_DOUBLEES = Pattern.compile("([a-km-z])\\1+");
+
+    /**
+     * Sons répétés, réduits après les règles
+     */
+    private static final Pattern DOUBLES = Pattern.compile("(.)\\1+");
+
+    private ClePhonetique() {
+    }
+
+    /**
+     * Clé phonétique d'un nom ou d'une saisie
+     * @param nom nom ou saisie
+     * @return clé phonétique (vide si le nom ne contient ni lettre ni chiffre)
+     */
+    public static String coder(String nom) {
+        if (nom == null) {
+            return "";
+        }
+        String minuscules = nom.toLowerCase(Locale.ROOT).replace("ç", "s")
+                .replace("é", "ei").replace("è", "ei").replace("ê", "ei");
+        String cle = LETTRES_DOUBLEES.matcher(CleRecherche.normaliser(minuscules)).replaceAll("$1");
+        StringBuilder code = new StringBuilder(cle.length());
+        for (String mot : cle.split(" ")) {
+            for (Regle regle : REGLES) {
+                mot = regle.motif.matcher(mot).replaceAll(regle.remplacement);
+            }
+            code.append(mot);
+        }
+        return DOUBLES.matcher(code.toString().toUpperCase(Locale.ROOT)).replaceAll("$1");
+    }
+
+    private static final class Regle {
+        private final Pattern motif;
+        private final String remplacement;
+
+        Regle(String motif, String remplacement) {
+            this.motif = Pattern.compile(motif);
+            this.remplacement = remplacement;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package fr.diginamic.hello.services;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Clé de recherche des noms (villes, départements), partagée par les index en mémoire
+ *
+ * Minuscules, sans accents ni ligatures, tout caractère autre que lettre ou chiffre
+ * remplacé par un espace, espaces multiples réduits : "Saint-Étienne" et "SAINT ETIENNE"
+ * donnent "saint etienne". Les abréviations "St", "Ste", "Sts" et "Stes" sont développées :
+ * "St-Étienne" donne aussi "saint etienne".
+ *
+ * Calculée à l'écriture dans la colonne nom_recherche de ville et departement (indexée),
+ * et par les index en mémoire pour les saisies. Les clés déjà en base ont été calculées par
+ * la migration V4__cles_recherche, qui en garde une copie figée : toute modification de
+ * l'algorithme doit être livrée avec une nouvelle migration qui recalcule nom_recherche.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public final class CleRecherche {
+
+    private CleRecherche() {
+    }
+
+    /**
+     * Abréviations développées lorsqu'elles forment un mot entier
+     */
+    private static final Map<String, String> ABREVIATIONS = Map.of(
+            "st", "saint", "ste", "sainte", "sts", "saints", "stes", "saintes");
+
+    /**
+     * Clé normalisée d'un nom (valeur de la colonne nom_recherche)
+     * @param nom nom
+     * @return clé normalisée (vide si nom est null)
+     */
+    public static String normaliser(String nom) {
+        return developper(replier(nom), true);
+    }
+
+    /**
+     * Clé normalisée d'une saisie en cours de frappe : le dernier mot, s'il n'est pas suivi
+     * d'un séparateur, n'est pas développé ("st" peut encore devenir "strasbourg")
+     * @param saisie saisie de l'utilisateur
+     * @return clé normalisée (vide si saisie est null)
+     */
+    public static String normaliserSaisie(String saisie) {
+        String cle = replier(saisie);
+        boolean termine = !cle.isEmpty() && !Character.isLetterOrDigit(saisie.charAt(saisie.length() - 1));
+        return developper(cle, termine);
+    }
+
+    /**
+     * Minuscules sans accents ni ligatures, séparateurs réduits à un espace
+     */
+    private static String replier(String nom) {
+        if (nom == null) {
+            return "";
+        }
+        String decompose = Normalizer.normalize(nom.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder cle = new StringBuilder(decompose.length());
+        boolean espace = true;
+        for (int i = 0; i < decompose.length(); i++) {
+            char c = decompose.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'œ') {
+                cle.append("oe");
+                espace = false;
+            } else if (c == 'æ') {
+                cle.append("ae");
+                espace = false;
+            } else if (Character.isLetterOrDigit(c)) {
+                cle.append(c);
+                espace = false;
+            } else if (!espace) {
+                cle.append(' ');
+                espace = true;
+            }
+        }
+        int longueur = cle.length();
+        return espace && longueur > 0 ? cle.substring(0, longueur - 1) : cle.toString();
+    }
+
+    /**
+     * Développe les abréviations de la clé (sauf le dernier mot si dernierMot est false)
+     */
+    private static String developper(String cle, boolean dernierMot) {
+        if (!cle.contains("st")) {
+            return cle;
+        }
+        String[] mots = cle.split(" ");
+        int fin = dernierMot ? mots.length : mots.length - 1;
+        for (int i = 0; i < fin; i++) {
+            mots[i] = ABREVIATIONS.getOrDefault(mots[i], mots[i]);
+        }
+        return String.join(" ", mots);
+    }
+}
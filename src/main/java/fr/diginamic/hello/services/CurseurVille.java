@@ -0,0 +1,102 @@
+package fr.diginamic.hello.services;
+
+import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
+import fr.diginamic.hello.models.Ville;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Curseur de pagination keyset sur les villes
+ *
+ * Mémorise le critère de tri, l'id et la clé de tri de la dernière ville d'une tranche.
+ * Il est transmis au client sous forme opaque (Base64 URL de "tri:id:valeur") ;
+ * la valeur est placée en dernier car un nom de ville peut contenir ':'.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public final class CurseurVille {
+
+    /**
+     * Critères de tri acceptés
+     */
+    public static final List<String> TRIS = List.of("id", "nom", "nbHabitants");
+
+    private final String tri;
+    private final Long id;
+    private final String valeur;
+
+    private CurseurVille(String tri, Long id, String valeur) {
+        this.tri = tri;
+        this.id = id;
+        this.valeur = valeur;
+    }
+
+    /**
+     * Construit le curseur positionné après la ville donnée
+     * @param ville dernière ville de la tranche
+     * @param tri critère de tri
+     * @return CurseurVille
+     */
+    public static CurseurVille apres(Ville ville, String tri) {
+        String valeur = switch (tri) {
+            case "nom" -> ville.getNom();
+            case "nbHabitants" -> String.valueOf(ville.getNbHabitants());
+            default -> String.valueOf(ville.getId());
+        };
+        return new CurseurVille(tri, ville.getId(), valeur);
+    }
+
+    /**
+     * Décode un curseur reçu du client
+     * @param jeton curseur opaque
+     * @return CurseurVille
+     * @throws ExceptionFonctionnelle si le curseur est illisible
+     */
+    public static CurseurVille decoder(String jeton) {
+        try {
+            String brut = new String(Base64.getUrlDecoder().decode(jeton), StandardCharsets.UTF_8);
+            String[] parties = brut.split(":", 3);
+            if (parties.length != 3 || !TRIS.contains(parties[0])) {
+                throw ExceptionFonctionnelle.donneesInvalides("Curseur de pagination invalide");
+            }
+            CurseurVille curseur = new CurseurVille(parties[0], Long.valueOf(parties[1]), parties[2]);
+            if ("nbHabitants".equals(curseur.tri)) {
+                Integer.valueOf(curseur.valeur);
+            }
+            return curseur;
+        } catch (IllegalArgumentException e) {
+            throw ExceptionFonctionnelle.donneesInvalides("Curseur de pagination invalide");
+        }
+    }
+
+    /**
+     * Encode le curseur sous forme opaque
+     * @return curseur Base64 URL sans remplissage
+     */
+    public String encoder() {
+        String brut = tri + ":" + id + ":" + valeur;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(brut.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ========== GETTERS ==========
+
+    public String getTri() {
+        return tri;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getNom() {
+        return valeur;
+    }
+
+    public Integer getNbHabitants() {
+        return Integer.valueOf(valeur);
+    }
+}
@@ -0,0 +1,178 @@
+package fr.diginamic.hello.services;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import fr.diginamic.hello.config.CacheConfig;
+import fr.diginamic.hello.models.Departement;
+import fr.diginamic.hello.repositories.DepartementRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache en mémoire des départements, par code et par id
+ *
+ * Sert à résoudre un département sur les chemins de requête fréquents
+ * (création de ville, villes d'un département, routes /departements/code/{code}/...)
+ * sans interroger la base : une centaine de départements qui changent rarement.
+ *
+ * Le cache contient des copies réduites (id, code, nom), partagées entre les requêtes et
+ * jamais rattachées à une session : ni villes, ni compteurs. Elles servent d'identifiant,
+ * de paramètre de requête ou de référence pour une association ; l'affichage complet
+ * et les compteurs passent par DepartementService.
+ *
+ * Les départements absents ne sont pas mis en cache. Toute écriture sur un département
+ * (DepartementService) vide le cache, puis une seconde fois après la fin de la transaction
+ * pour ne pas garder une version lue entre-temps.
+ *
+ * En cas d'échec, la lecture passe par le cache de second niveau Hibernate (CacheConfig),
+ * qui ne voit pas les écritures SQL directes : après l'une d'elles, appeler
+ * invaliderApresEcritureSql. Les statistiques couvrent les deux niveaux.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Service
+@Transactional(readOnly = true)
+public class DepartementCacheService {
+
+    public static final String CACHE_PAR_CODE = "departementsParCode";
+    public static final String CACHE_PAR_ID = "departementsParId";
+
+    private static final List<String> CACHES = List.of(CACHE_PAR_CODE, CACHE_PAR_ID);
+
+    // ==================== INJECTION DES DÉPENDANCES ====================
+
+    @Autowired
+    private DepartementRepository departementRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // ==================== RECHERCHES EN CACHE ====================
+
+    /**
+     * Recherche un département par son code (cache departementsParCode)
+     * @param code code du département
+     * @return Optional<Departement> copie réduite
+     */
+    @Cacheable(cacheNames = CACHE_PAR_CODE, unless = "#result == null")
+    public Optional<Departement> findByCode(String code) {
+        return departementRepository.findByCodeNaturalId(code).map(DepartementCacheService::copier);
+    }
+
+    /**
+     * Recherche un département par son ID (cache departementsParId)
+     * @param id identifiant du département
+     * @return Optional<Departement> copie réduite
+     */
+    @Cacheable(cacheNames = CACHE_PAR_ID, unless = "#result == null")
+    public Optional<Departement> findById(Long id) {
+        return departementRepository.findById(id).map(DepartementCacheService::copier);
+    }
+
+    /**
+     * Copie id, code et nom, indépendante de la session qui a lu l'entité
+     */
+    private static Departement copier(Departement departement) {
+        Departement copie = new Departement(departement.getCode(), departement.getNom());
+        copie.setId(departement.getId());
+        return copie;
+    }
+
+    // ==================== INVALIDATION ====================
+
+    /**
+     * Vide les caches des départements, immédiatement et à la fin de la transaction en cours
+     */
+    public void invalider() {
+        vider();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    vider();
+                }
+            });
+        }
+    }
+
+    /**
+     * Vide les caches applicatifs et le cache de second niveau des départements
+     * (entités, codes, requêtes par région) après une écriture SQL hors Hibernate
+     */
+    public void invaliderApresEcritureSql() {
+        org.hibernate.Cache cacheHibernate = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cacheHibernate.evictEntityData(Departement.class);
+        cacheHibernate.evictNaturalIdData(Departement.class);
+        cacheHibernate.evictQueryRegion(CacheConfig.REGION_REQUETES_DEPARTEMENTS);
+        invalider();
+    }
+
+    private void vider() {
+        for (String nom : CACHES) {
+            Cache cache = cacheManager.getCache(nom);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    // ==================== STATISTIQUES ====================
+
+    /**
+     * Statistiques de chaque cache : taille, succès, échecs, taux de succès, évictions,
+     * puis de chaque région Hibernate (préfixe "hibernate.") si hibernate.generate_statistics est actif
+     * @return Map nom du cache → statistiques
+     */
+    public Map<String, Map<String, Object>> statistiques() {
+        Map<String, Map<String, Object>> resultat = new LinkedHashMap<>();
+        for (String nom : CACHES) {
+            if (cacheManager.getCache(nom) instanceof CaffeineCache cache) {
+                CacheStats stats = cache.getNativeCache().stats();
+                Map<String, Object> valeurs = new LinkedHashMap<>();
+                valeurs.put("taille", cache.getNativeCache().estimatedSize());
+                valeurs.put("succes", stats.hitCount());
+                valeurs.put("echecs", stats.missCount());
+                valeurs.put("tauxSucces", stats.hitRate());
+                valeurs.put("evictions", stats.evictionCount());
+                resultat.put(nom, valeurs);
+            }
+        }
+
+        Statistics statistiquesHibernate = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (statistiquesHibernate.isStatisticsEnabled()) {
+            for (String region : CacheConfig.REGIONS_HIBERNATE) {
+                CacheRegionStatistics stats = statistiquesHibernate.getCacheRegionStatistics(region);
+                if (stats != null) {
+                    long total = stats.getHitCount() + stats.getMissCount();
+                    Map<String, Object> valeurs = new LinkedHashMap<>();
+                    valeurs.put("succes", stats.getHitCount());
+                    valeurs.put("echecs", stats.getMissCount());
+                    valeurs.put("tauxSucces", total == 0 ? 1.0 : (double) stats.getHitCount() / total);
+                    valeurs.put("ecritures", stats.getPutCount());
+                    resultat.put("hibernate." + region, valeurs);
+                }
+            }
+        }
+        return resultat;
+    }
+}
@@ -1,17 +1,25 @@
 package fr.diginamic.hello.services;
 
+import fr.diginamic.hello.dto.DepartementResumeDTO;
 import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
 import fr.diginamic.hello.models.Departement;
+import fr.diginamic.hello.models.Region;
 import fr.diginamic.hello.repositories.DepartementRepository;
+import fr.diginamic.hello.repositories.RegionRepository;
 import fr.diginamic.hello.repositories.VilleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -36,6 +44,18 @@ public class DepartementService {
     @Autowired
     private VilleRepository villeRepository;
 
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private DepartementCacheService departementCacheService;
+
+    @Autowired
+    private VersionsDonnees versionsDonnees;
+
+    @Autowired
+    private IndexTrigrammesDepartements indexTrigrammes;
+
     // ==================== MÉTHODES CRUD DE BASE ====================
 
     /**
@@ -83,6 +103,32 @@ public class DepartementService {
         }
     }
 
+    /**
+     * Récupère les résumés des départements (sans les villes) avec pagination et tri
+     * Le nombre de villes et la population sont les compteurs persistés du département, lus par
+     * jointure sur CompteursDepartement : aucune agrégation sur la table ville
+     * @param page numéro de la page
+     * @param size taille de la page
+     * @param sort type de tri (nom, code, population, nombreVilles)
+     * @return Page<DepartementResumeDTO>
+     */
+    @Transactional(readOnly = true)
+    public Page<DepartementResumeDTO> findResumesWithSort(int page, int size, String sort) {
+        Pageable pageable = PageRequest.of(page, size);
+
+        switch (sort.toLowerCase()) {
+            case "code":
+                return departementRepository.findResumesOrderByCode(pageable);
+            case "population":
+                return departementRepository.findResumesOrderByPopulation(pageable);
+            case "nombrevilles":
+                return departementRepository.findResumesOrderByNombreVilles(pageable);
+            default:
+                // Par défaut, tri par nom
+                return departementRepository.findResumesOrderByNom(pageable);
+        }
+    }
+
     /**
      * Recherche un département par son ID
      * @param id identifiant du département
@@ -100,40 +146,109 @@ public class DepartementService {
      */
     @Transactional(readOnly = true)
     public Optional<Departement> findByCode(String code) {
-        return departementRepository.findByCode(code);
+        return departementRepository.findByCodeNaturalId(code);
     }
 
     /**
-     * Recherche un département par son nom
+     * Recherche un département par son nom, sans tenir compte de la casse, des accents
+     * ni des tirets (clé de recherche indexée)
      * @param nom nom du département
      * @return Optional<Departement>
      */
     @Transactional(readOnly = true)
     public Optional<Departement> findByNom(String nom) {
-        return departementRepository.findByNom(nom);
+        String cle = CleRecherche.normaliser(nom);
+        if (cle.isEmpty()) {
+            return Optional.empty();
+        }
+        return departementRepository.findFirstByNomRecherche(cle);
     }
 
+    /**
+     * Taille maximale d'une page de recherche de départements
+     */
+    public static final int TAILLE_MAX_RECHERCHE = 100;
+
     /**
      * Recherche des départements par nom ou code contenant la chaîne de recherche
+     * (index de trigrammes en mémoire, insensible à la casse, aux accents et aux tirets)
      * @param searchTerm terme de recherche
-     * @return List<Departement>
+     * @param page numéro de page (commence à 0)
+     * @param size taille de la page (1 à TAILLE_MAX_RECHERCHE)
+     * @return Page<Departement> classée : correspondance exacte, début, début d'un mot, ailleurs
+     * @throws ExceptionFonctionnelle si la pagination est invalide
      */
     @Transactional(readOnly = true)
-    public List<Departement> searchDepartements(String searchTerm) {
-        if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return List.of();
+    public Page<Departement> searchDepartements(String searchTerm, int page, int size) {
+        if (page < 0 || size < 1 || size > TAILLE_MAX_RECHERCHE) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Pagination invalide : page >= 0 et taille comprise entre 1 et " + TAILLE_MAX_RECHERCHE);
         }
-        return departementRepository.findByNomContainingOrCodeContainingIgnoreCase(searchTerm.trim());
+        Page<Long> ids = indexTrigrammes.rechercher(searchTerm, PageRequest.of(page, size));
+        Map<Long, Departement> parId = new HashMap<>();
+        for (Departement departement : departementRepository.findAllById(ids.getContent())) {
+            parId.put(departement.getId(), departement);
+        }
+        List<Departement> departements = new ArrayList<>(ids.getNumberOfElements());
+        for (Long id : ids.getContent()) {
+            // Un département supprimé entre la recherche et le chargement est ignoré
+            if (parId.containsKey(id)) {
+                departements.add(parId.get(id));
+            }
+        }
+        return new PageImpl<>(departements, ids.getPageable(), ids.getTotalElements());
     }
 
     /**
      * Sauvegarde ou met à jour un département
+     * Une mise à jour sans région conserve la région actuelle ; un département sans région
+     * (création, ancien département non rattaché) reçoit celle de son code dans la table de
+     * correspondance region_departement. Un changement de région transfère les compteurs du
+     * département de l'ancienne région à la nouvelle.
      * @param departement département à sauvegarder
      * @return Departement sauvegardé
      */
     public Departement save(Departement departement) {
         validateDepartement(departement);
-        return departementRepository.save(departement);
+        Long regionActuelle = departement.getId() != null
+                ? departementRepository.findRegionIdById(departement.getId()).orElse(null)
+                : null;
+        if (departement.getRegion() == null && regionActuelle != null) {
+            departement.setRegion(regionRepository.findById(regionActuelle).orElse(null));
+        }
+        if (departement.getRegion() == null) {
+            departement.setRegion(regionRepository.findByCodeDepartement(departement.getCode()).orElse(null));
+        }
+        Long nouvelleRegion = departement.getRegion() != null ? departement.getRegion().getId() : null;
+        boolean changementRegion = departement.getId() != null && !Objects.equals(regionActuelle, nouvelleRegion);
+
+        departementCacheService.invalider();
+        indexTrigrammes.invalider();
+        if (changementRegion) {
+            departementRepository.reporterCompteursSurRegion(departement.getId(), -1);
+        }
+        Departement sauvegarde = departementRepository.save(departement);
+        if (changementRegion) {
+            departementRepository.reporterCompteursSurRegion(sauvegarde.getId(), 1);
+        }
+        versionsDonnees.departementModifie(sauvegarde.getId());
+        return sauvegarde;
+    }
+
+    /**
+     * Sauvegarde ou met à jour un département rattaché à une région désignée par son code
+     * @param departement département à sauvegarder
+     * @param codeRegion code INSEE de la région (null : région inchangée, ou celle du code
+     *                   du département à la création)
+     * @return Departement sauvegardé
+     */
+    public Departement save(Departement departement, String codeRegion) {
+        if (codeRegion != null) {
+            Region region = regionRepository.findByCode(codeRegion)
+                    .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Région", codeRegion));
+            departement.setRegion(region);
+        }
+        return save(departement);
     }
 
     /**
@@ -153,6 +268,9 @@ public class DepartementService {
         }
 
         departementRepository.deleteById(id);
+        departementCacheService.invalider();
+        indexTrigrammes.invalider();
+        versionsDonnees.departementModifie(id);
     }
 
     // ==================== MÉTHODES DE RECHERCHE SPÉCIALISÉES ====================
@@ -255,27 +373,38 @@ public class DepartementService {
     }
 
     /**
-     * Compte le nombre de villes d'un département
+     * Compte le nombre de villes d'un département (compteur persisté)
      * @param id identifiant du département
      * @return nombre de villes
      */
     @Transactional(readOnly = true)
     public Long countVillesById(Long id) {
-        Departement departement = departementRepository.findById(id)
-                .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Département", id));
-        return villeRepository.countByDepartement(departement);
+        return departementRepository.findCompteursById(id)
+                .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Département", id))
+                .getNombreVilles();
     }
 
     /**
-     * Calcule la population totale d'un département
+     * Récupère la population totale d'un département (compteur persisté)
      * @param id identifiant du département
      * @return population totale
      */
     @Transactional(readOnly = true)
     public Long getTotalPopulationById(Long id) {
-        Departement departement = departementRepository.findById(id)
-                .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Département", id));
-        return villeRepository.sumPopulationByDepartement(departement);
+        return departementRepository.findCompteursById(id)
+                .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Département", id))
+                .getPopulationTotale();
+    }
+
+    /**
+     * Recalcule les compteurs persistés (nombre de villes, population totale)
+     * de tous les départements et des régions à partir de la table ville
+     * Sert à réparer une éventuelle dérive (écriture SQL directe, import externe...)
+     * @return nombre de départements mis à jour
+     */
+    public int recalculerCompteurs() {
+        versionsDonnees.tousDepartementsModifies();
+        return departementRepository.recalculerCompteurs();
     }
 
     /**
@@ -297,10 +426,13 @@ public class DepartementService {
      * @return Departement mis à jour
      */
     public Departement updateNom(String code, String nom) {
-        Departement departement = departementRepository.findByCode(code)
+        Departement departement = departementRepository.findByCodeNaturalId(code)
                 .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Département", code));
 
         departement.setNom(nom);
+        departementCacheService.invalider();
+        indexTrigrammes.invalider();
+        versionsDonnees.departementModifie(departement.getId());
         return departementRepository.save(departement);
     }
 
@@ -318,6 +450,9 @@ public class DepartementService {
                 departementRepository.save(dept);
             }
         }
+        departementCacheService.invalider();
+        indexTrigrammes.invalider();
+        versionsDonnees.tousDepartementsModifies();
     }
 
     // ==================== MÉTHODES DE VALIDATION ====================
@@ -354,15 +489,15 @@ public class DepartementService {
     }
 
     /**
-     * Valide le format d'un code département
-     * @param code code à valider
+     * Valide le format d'un code département (règle partagée avec l'import CSV)
+     * @param code code à valider, en majuscules
      * @return true si le format est valide
      */
-    private boolean isValidCodeDepartement(String code) {
+    public static boolean isValidCodeDepartement(String code) {
         // Codes métropolitains : 01-19, 21-95 (sauf 20)
         // Codes Corse : 2A, 2B
         // Codes DOM-TOM : 971, 972, 973, 974, 975, 976, 977, 978
-        return code.matches("^(0[1-9]|[1-8][0-9]|9[0-5]|2[AB]|97[1-8])$");
+        return code.matches("^(0[1-9]|1[0-9]|2[1-9AB]|[3-8][0-9]|9[0-5]|97[1-8])$");
     }
 
     // ==================== MÉTHODES UTILITAIRES ====================
@@ -372,7 +507,7 @@ public class DepartementService {
      * @param code code du département
      * @return nom du département ou null
      */
-    private String getNomDepartementParCode(String code) {
+    public static String getNomDepartementParCode(String code) {
         // Map des codes vers noms (simplifié pour l'exemple)
         return switch (code) {
             case "01" -> "Ain";
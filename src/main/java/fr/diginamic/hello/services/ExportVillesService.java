@@ -0,0 +1,290 @@
+package fr.diginamic.hello.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
+import fr.diginamic.hello.repositories.DepartementRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service d'export des villes en flux continu
+ *
+ * Aucune liste n'est construite : les lignes sont lues par un curseur JDBC en lecture seule
+ * et avance simple puis écrites une à une dans le flux de sortie (NDJSON ou CSV, gzip optionnel).
+ * La mémoire consommée ne dépend pas du nombre de villes exportées.
+ * Les coordonnées (latitude, longitude, nulles si inconnues) sont exportées : un export
+ * se recharge tel quel par /villes/import (NDJSON) ou par le chargeur CSV.
+ *
+ * Avec MySQL, une taille de fetch égale à Integer.MIN_VALUE active la lecture ligne à ligne
+ * (sinon le driver charge tout le résultat) ; elle est configurable via ville.export.fetch-size.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Service
+public class ExportVillesService {
+
+    /**
+     * Formats d'export disponibles
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String typeContenu;
+        private final String extension;
+
+        Format(String typeContenu, String extension) {
+            this.typeContenu = typeContenu;
+            this.extension = extension;
+        }
+
+        public String getTypeContenu() {
+            return typeContenu;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Convertit le paramètre de requête en format (insensible à la casse)
+         * @param valeur ndjson ou csv
+         * @return Format
+         */
+        public static Format depuis(String valeur) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(valeur)) {
+                    return format;
+                }
+            }
+            throw ExceptionFonctionnelle.donneesInvalides("Format d'export non supporté : " + valeur + " (ndjson, csv)");
+        }
+    }
+
+    private static final String SQL_EXPORT =
+            "SELECT v.id, v.nom, v.nb_habs, d.id, d.code, d.nom, v.latitude, v.longitude FROM ville v " +
+            "JOIN departement d ON d.id = v.id_dept";
+
+    private static final char SEPARATEUR_CSV = ';';
+
+    // ==================== INJECTION DES DÉPENDANCES ====================
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DepartementRepository departementRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${ville.export.fetch-size:" + Integer.MIN_VALUE + "}")
+    private int tailleFetch;
+
+    // ==================== EXPORT ====================
+
+    /**
+     * Vérifie le périmètre de l'export avant l'ouverture du flux
+     * @param codeDepartement code du département (null pour toute la France)
+     * @throws ExceptionFonctionnelle si le département n'existe pas
+     */
+    public void verifierPerimetre(String codeDepartement) {
+        if (codeDepartement != null && !departementRepository.existsByCode(codeDepartement)) {
+            throw ExceptionFonctionnelle.ressourceNonTrouvee("Département", codeDepartement);
+        }
+    }
+
+    /**
+     * Écrit les villes dans le flux, triées par identifiant
+     * @param codeDepartement code du département (null pour toute la France)
+     * @param format format de sortie
+     * @param gzip compresser la sortie
+     * @param sortie flux de sortie (non fermé par cette méthode)
+     * @return nombre de villes écrites
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public long exporter(String codeDepartement, Format format, boolean gzip, OutputStream sortie) throws IOException {
+        GZIPOutputStream compression = gzip ? new GZIPOutputStream(sortie, 8192) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                compression != null ? compression : sortie, StandardCharsets.UTF_8), 8192);
+
+        EcritureLigne ecriture = format == Format.CSV ? new EcritureCsv(writer) : new EcritureNdjson(writer);
+        ecriture.entete();
+
+        long[] compteur = new long[1];
+        try {
+            jdbcTemplate.query(connexion -> {
+                String sql = codeDepartement != null
+                        ? SQL_EXPORT + " WHERE d.code = ? ORDER BY v.id"
+                        : SQL_EXPORT + " ORDER BY v.id";
+                PreparedStatement ps = connexion.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(tailleFetch);
+                if (codeDepartement != null) {
+                    ps.setString(1, codeDepartement);
+                }
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    ecriture.ligne(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                compteur[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        writer.flush();
+        if (compression != null) {
+            compression.finish();
+        }
+        return compteur[0];
+    }
+
+    // ==================== ÉCRITURE DES FORMATS ====================
+
+    /**
+     * Écriture d'une ligne du résultat (colonnes : id, nom, nb_habs, id dept, code dept, nom dept,
+     * latitude, longitude)
+     */
+    private interface EcritureLigne {
+        void entete() throws IOException;
+
+        void ligne(ResultSet rs) throws SQLException, IOException;
+    }
+
+    /**
+     * Une ville JSON par ligne, au format de VilleDTO
+     */
+    private class EcritureNdjson implements EcritureLigne {
+
+        private final Writer writer;
+        private final JsonGenerator generateur;
+
+        EcritureNdjson(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generateur = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            // Le saut de ligne est écrit après chaque objet, pas de séparateur implicite
+            this.generateur.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void entete() {
+            // Pas d'en-tête en NDJSON
+        }
+
+        @Override
+        public void ligne(ResultSet rs) throws SQLException, IOException {
+            generateur.writeStartObject();
+            generateur.writeNumberField("id", rs.getLong(1));
+            generateur.writeStringField("nom", rs.getString(2));
+            generateur.writeNumberField("nbHabitants", rs.getInt(3));
+            coordonnee("latitude", rs.getDouble(7), rs.wasNull());
+            coordonnee("longitude", rs.getDouble(8), rs.wasNull());
+            generateur.writeObjectFieldStart("departement");
+            generateur.writeNumberField("id", rs.getLong(4));
+            generateur.writeStringField("code", rs.getString(5));
+            generateur.writeStringField("nom", rs.getString(6));
+            generateur.writeEndObject();
+            generateur.writeEndObject();
+            generateur.flush();
+            writer.write('\n');
+        }
+
+        /**
+         * Écrit une coordonnée, null si absente (comme VilleDTO)
+         */
+        private void coordonnee(String nom, double valeur, boolean absente) throws IOException {
+            if (absente) {
+                generateur.writeNullField(nom);
+            } else {
+                generateur.writeNumberField(nom, valeur);
+            }
+        }
+    }
+
+    /**
+     * CSV séparé par des points-virgules avec ligne d'en-tête
+     */
+    private static class EcritureCsv implements EcritureLigne {
+
+        private final Writer writer;
+
+        EcritureCsv(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void entete() throws IOException {
+            writer.write("id;nom;nbHabitants;latitude;longitude;departementId;departementCode;departementNom\n");
+        }
+
+        @Override
+        public void ligne(ResultSet rs) throws SQLException, IOException {
+            writer.write(Long.toString(rs.getLong(1)));
+            writer.write(SEPARATEUR_CSV);
+            champ(rs.getString(2));
+            writer.write(SEPARATEUR_CSV);
+            writer.write(Integer.toString(rs.getInt(3)));
+            writer.write(SEPARATEUR_CSV);
+            coordonnee(rs.getDouble(7), rs.wasNull());
+            writer.write(SEPARATEUR_CSV);
+            coordonnee(rs.getDouble(8), rs.wasNull());
+            writer.write(SEPARATEUR_CSV);
+            writer.write(Long.toString(rs.getLong(4)));
+            writer.write(SEPARATEUR_CSV);
+            champ(rs.getString(5));
+            writer.write(SEPARATEUR_CSV);
+            champ(rs.getString(6));
+            writer.write('\n');
+        }
+
+        /**
+         * Écrit une coordonnée (point décimal), champ vide si absente
+         */
+        private void coordonnee(double valeur, boolean absente) throws IOException {
+            if (!absente) {
+                writer.write(Double.toString(valeur));
+            }
+        }
+
+        /**
+         * Écrit un champ texte, entre guillemets s'il contient un séparateur, un guillemet ou un saut de ligne
+         */
+        private void champ(String valeur) throws IOException {
+            if (valeur == null) {
+                return;
+            }
+            if (valeur.indexOf(SEPARATEUR_CSV) < 0 && valeur.indexOf('"') < 0
+                    && valeur.indexOf('\n') < 0 && valeur.indexOf('\r') < 0) {
+                writer.write(valeur);
+                return;
+            }
+            writer.write('"');
+            writer.write(valeur.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package fr.diginamic.hello.services;
+
+import fr.diginamic.hello.dto.RapportImportDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Chargement des fichiers CSV INSEE au démarrage de l'application
+ *
+ * Les fichiers sont indiqués par la propriété ville.import.csv (chemins séparés par des virgules),
+ * par exemple en ligne de commande :
+ * java -jar hello.jar --ville.import.csv=/data/recensement.csv
+ *
+ * Le chargement a lieu une fois le contexte démarré (après les migrations Flyway et leurs données initiales).
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Component
+public class ImportCsvAuDemarrage implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportCsvAuDemarrage.class);
+
+    @Autowired
+    private ChargeurCsvInsee chargeurCsvInsee;
+
+    @Value("${ville.import.csv:}")
+    private List<String> fichiers;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        for (String fichier : fichiers) {
+            if (fichier.isBlank()) {
+                continue;
+            }
+            LOGGER.info("Chargement du fichier CSV {}", fichier);
+            RapportImportDTO rapport = chargeurCsvInsee.charger(Path.of(fichier.trim()));
+            LOGGER.info("Fichier {} chargé : {}", fichier, rapport);
+            rapport.getErreurs().stream().limit(20)
+                    .forEach(erreur -> LOGGER.warn("Ligne rejetée : {}", erreur));
+        }
+    }
+}
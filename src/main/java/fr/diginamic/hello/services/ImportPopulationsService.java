@@ -0,0 +1,376 @@
+package fr.diginamic.hello.services;
+
+import fr.diginamic.hello.dto.RapportImportDTO;
+import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Import en masse de l'historique des populations (table ville_population_history)
+ *
+ * Fichier CSV « large », comme les séries historiques de l'INSEE : une ligne par ville, une
+ * colonne par année de recensement. Séparateur ';', en-tête obligatoire :
+ * - ville : colonne "id", ou colonnes département ("Code département", "codeDepartement",
+ *   "departementCode") et nom ("Nom de la commune", "nom"), résolues sur la clé de recherche du nom
+ * - années : toute colonne dont le nom se termine par une année ("2021", "PMUN2021", "Population 2015")
+ * Une cellule vide laisse l'année inconnue pour la ville ; une valeur déjà présente est remplacée.
+ *
+ * Les lignes sont traitées par lots (ville.import.taille-lot), un commit par lot ; les villes
+ * inconnues et les populations illisibles sont rejetées dans le rapport (villesImportees compte
+ * les villes dont la série a été enregistrée). Le stockage en colonnes SeriesPopulationVilles
+ * est invalidé en fin d'import.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Service
+public class ImportPopulationsService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportPopulationsService.class);
+
+    private static final List<String> COLONNES_ID = List.of("id", "villeid", "id_ville");
+    private static final List<String> COLONNES_DEPARTEMENT = List.of("code département", "codedepartement", "departementcode");
+    private static final List<String> COLONNES_NOM = List.of("nom de la commune", "nom");
+
+    private static final Pattern COLONNE_ANNEE = Pattern.compile("^.*?(\\d{4})$");
+
+    private static final int ANNEE_MIN = 1790;
+    private static final int ANNEE_MAX = 2100;
+    private static final int POPULATION_MAX = 50000000;
+
+    private static final String SQL_SUPPRESSION = "DELETE FROM ville_population_history WHERE id_ville = ? AND annee = ?";
+    private static final String SQL_INSERTION = "INSERT INTO ville_population_history (id_ville, annee, nb_habs) VALUES (?, ?, ?)";
+
+    // ==================== INJECTION DES DÉPENDANCES ====================
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private VersionsDonnees versionsDonnees;
+
+    @Autowired
+    private SeriesPopulationVilles seriesPopulation;
+
+    @Value("${ville.import.taille-lot:1000}")
+    private int tailleLot;
+
+    // ==================== IMPORT ====================
+
+    /**
+     * Importe un fichier CSV d'historique des populations lu en flux (UTF-8)
+     * @param entree contenu du fichier
+     * @return RapportImportDTO (les numéros de ligne comptent les lignes de données, hors en-tête)
+     * @throws IOException si le flux est illisible
+     * @throws ExceptionFonctionnelle si l'en-tête ne désigne ni les villes ni au moins une année
+     */
+    public RapportImportDTO importerCsv(InputStream entree) throws IOException {
+        long debut = System.currentTimeMillis();
+        RapportImportDTO rapport = new RapportImportDTO();
+        BufferedReader lecteur = new BufferedReader(new InputStreamReader(entree, StandardCharsets.UTF_8), 65536);
+
+        String entete = lecteur.readLine();
+        if (entete == null) {
+            rapport.setDureeMs(System.currentTimeMillis() - debut);
+            return rapport;
+        }
+        Colonnes colonnes = colonnes(entete);
+        ReferentielVilles referentiel = chargerVilles();
+
+        List<LigneSerie> lot = new ArrayList<>(tailleLot);
+        long numero = 0;
+        String ligne;
+        while ((ligne = lecteur.readLine()) != null) {
+            if (ligne.isBlank()) {
+                continue;
+            }
+            numero++;
+            rapport.ligneLue();
+            LigneSerie serie = new LigneSerie(numero);
+            String erreur = analyser(champs(ligne), colonnes, referentiel, serie);
+            if (erreur != null) {
+                rapport.rejeter(numero, serie.nom, erreur);
+                continue;
+            }
+            lot.add(serie);
+            if (lot.size() == tailleLot) {
+                traiterLot(lot, rapport);
+                lot.clear();
+            }
+        }
+        if (!lot.isEmpty()) {
+            traiterLot(lot, rapport);
+        }
+        if (rapport.getVillesImportees() > 0) {
+            seriesPopulation.invalider();
+            versionsDonnees.tousDepartementsModifies();
+        }
+
+        rapport.setDureeMs(System.currentTimeMillis() - debut);
+        LOGGER.info("Import de l'historique des populations terminé : {}", rapport);
+        return rapport;
+    }
+
+    // ==================== TRAITEMENT ====================
+
+    /**
+     * Résout la ville et lit les populations d'une ligne
+     * @return message d'erreur ou null si la ligne est valide
+     */
+    private String analyser(String[] champs, Colonnes colonnes, ReferentielVilles referentiel, LigneSerie serie) {
+        Long villeId;
+        if (colonnes.id >= 0) {
+            String id = champ(champs, colonnes.id);
+            try {
+                villeId = id.isEmpty() ? null : Long.valueOf(id);
+            } catch (NumberFormatException e) {
+                return "Identifiant de ville illisible : " + id;
+            }
+            if (villeId == null || !referentiel.ids.contains(villeId)) {
+                return "Ville non trouvée : " + id;
+            }
+        } else {
+            serie.nom = champ(champs, colonnes.nom);
+            String code = normaliserCode(champ(champs, colonnes.departement));
+            villeId = referentiel.idsParCle.get(cle(code, CleRecherche.normaliser(serie.nom)));
+            if (villeId == null) {
+                return "Ville non trouvée dans le département " + code;
+            }
+        }
+        serie.villeId = villeId;
+
+        for (int a = 0; a < colonnes.annees.length; a++) {
+            String valeur = champ(champs, colonnes.positionsAnnees[a]);
+            if (valeur.isEmpty()) {
+                continue;
+            }
+            Integer population = population(valeur);
+            if (population == null || population > POPULATION_MAX) {
+                return "Population illisible pour " + colonnes.annees[a] + " : " + valeur;
+            }
+            serie.populations.put(colonnes.annees[a], population);
+        }
+        if (serie.populations.isEmpty()) {
+            return "Aucune population renseignée";
+        }
+        return null;
+    }
+
+    /**
+     * Remplace les valeurs d'un lot (suppression puis insertion par batch JDBC), dans une transaction
+     */
+    private void traiterLot(List<LigneSerie> lot, RapportImportDTO rapport) {
+        // Une ville présente plusieurs fois dans le lot : la dernière valeur l'emporte
+        Map<Long, int[]> valeurs = new LinkedHashMap<>();
+        for (LigneSerie serie : lot) {
+            serie.populations.forEach((annee, population) ->
+                    valeurs.put(serie.villeId << 16 | annee, new int[]{annee, population}));
+        }
+        List<Map.Entry<Long, int[]>> lignes = new ArrayList<>(valeurs.entrySet());
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(statut -> {
+                jdbcTemplate.batchUpdate(SQL_SUPPRESSION, lignes, lignes.size(), (ps, valeur) -> {
+                    ps.setLong(1, valeur.getKey() >>> 16);
+                    ps.setInt(2, valeur.getValue()[0]);
+                });
+                jdbcTemplate.batchUpdate(SQL_INSERTION, lignes, lignes.size(), (ps, valeur) -> {
+                    ps.setLong(1, valeur.getKey() >>> 16);
+                    ps.setInt(2, valeur.getValue()[0]);
+                    ps.setInt(3, valeur.getValue()[1]);
+                });
+            });
+            rapport.lotImporte(lot.size());
+        } catch (DataAccessException e) {
+            LOGGER.warn("Échec de l'import d'un lot de {} séries de population", lot.size(), e);
+            String message = "Lot rejeté par la base de données : " + e.getMostSpecificCause().getMessage();
+            for (LigneSerie serie : lot) {
+                rapport.rejeter(serie.numero, serie.nom, message);
+            }
+        }
+    }
+
+    /**
+     * Charge en une requête les villes existantes : identifiants et (code département, clé du nom)
+     */
+    private ReferentielVilles chargerVilles() {
+        ReferentielVilles referentiel = new ReferentielVilles();
+        jdbcTemplate.query("SELECT v.id, d.code, v.nom_recherche FROM ville v JOIN departement d ON d.id = v.id_dept",
+                rs -> {
+                    referentiel.ids.add(rs.getLong(1));
+                    referentiel.idsParCle.put(cle(rs.getString(2), rs.getString(3)), rs.getLong(1));
+                });
+        return referentiel;
+    }
+
+    // ==================== UTILITAIRES ====================
+
+    /**
+     * Position des colonnes ville et années dans l'en-tête
+     */
+    private static Colonnes colonnes(String entete) {
+        if (!entete.isEmpty() && entete.charAt(0) == '\uFEFF') {
+            entete = entete.substring(1);
+        }
+        List<String> noms = new ArrayList<>();
+        for (String nom : champs(entete)) {
+            noms.add(nom.toLowerCase());
+        }
+        Colonnes colonnes = new Colonnes();
+        colonnes.id = position(noms, COLONNES_ID);
+        colonnes.departement = position(noms, COLONNES_DEPARTEMENT);
+        colonnes.nom = position(noms, COLONNES_NOM);
+        if (colonnes.id < 0 && (colonnes.departement < 0 || colonnes.nom < 0)) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "En-tête CSV invalide : colonne id, ou colonnes code département et nom, introuvables");
+        }
+
+        List<int[]> annees = new ArrayList<>();
+        for (int i = 0; i < noms.size(); i++) {
+            Matcher matcher = COLONNE_ANNEE.matcher(noms.get(i));
+            if (i != colonnes.id && matcher.matches()) {
+                int annee = Integer.parseInt(matcher.group(1));
+                if (annee >= ANNEE_MIN && annee <= ANNEE_MAX) {
+                    annees.add(new int[]{annee, i});
+                }
+            }
+        }
+        if (annees.isEmpty()) {
+            throw ExceptionFonctionnelle.donneesInvalides("En-tête CSV invalide : aucune colonne d'année");
+        }
+        colonnes.annees = annees.stream().mapToInt(a -> a[0]).toArray();
+        colonnes.positionsAnnees = annees.stream().mapToInt(a -> a[1]).toArray();
+        return colonnes;
+    }
+
+    private static int position(List<String> noms, List<String> candidats) {
+        for (String candidat : candidats) {
+            int index = noms.indexOf(candidat);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Découpe une ligne en champs (séparateur ';', guillemets gérés), sans espaces autour
+     */
+    private static String[] champs(String ligne) {
+        List<String> champs = new ArrayList<>();
+        StringBuilder champ = new StringBuilder();
+        boolean entreGuillemets = false;
+        for (int i = 0; i < ligne.length(); i++) {
+            char c = ligne.charAt(i);
+            if (c == '"') {
+                if (entreGuillemets && i + 1 < ligne.length() && ligne.charAt(i + 1) == '"') {
+                    champ.append('"');
+                    i++;
+                } else {
+                    entreGuillemets = !entreGuillemets;
+                }
+            } else if (c == ';' && !entreGuillemets) {
+                champs.add(champ.toString().trim());
+                champ.setLength(0);
+            } else {
+                champ.append(c);
+            }
+        }
+        champs.add(champ.toString().trim());
+        return champs.toArray(new String[0]);
+    }
+
+    private static String champ(String[] champs, int position) {
+        return position < champs.length ? champs[position] : "";
+    }
+
+    /**
+     * Population sans séparateurs de milliers, null si illisible
+     */
+    private static Integer population(String valeur) {
+        StringBuilder chiffres = new StringBuilder(valeur.length());
+        for (int i = 0; i < valeur.length(); i++) {
+            char c = valeur.charAt(i);
+            if (c >= '0' && c <= '9') {
+                chiffres.append(c);
+            } else if (!Character.isSpaceChar(c)) {
+                return null;
+            }
+        }
+        if (chiffres.isEmpty() || chiffres.length() > 9) {
+            return null;
+        }
+        return Integer.valueOf(chiffres.toString());
+    }
+
+    /**
+     * Code département sur deux caractères au moins ("1" devient "01")
+     */
+    private static String normaliserCode(String code) {
+        return code.length() == 1 ? "0" + code : code;
+    }
+
+    private static String cle(String codeDepartement, String cleNom) {
+        return codeDepartement + "|" + cleNom;
+    }
+
+    // ==================== CLASSES INTERNES ====================
+
+    /**
+     * Positions des colonnes utiles (-1 si absente)
+     */
+    private static class Colonnes {
+        private int id;
+        private int departement;
+        private int nom;
+        private int[] annees;
+        private int[] positionsAnnees;
+    }
+
+    /**
+     * Ligne analysée : ville résolue et populations par année
+     */
+    private static class LigneSerie {
+        private final long numero;
+        private String nom;
+        private Long villeId;
+        private final Map<Integer, Integer> populations = new HashMap<>();
+
+        LigneSerie(long numero) {
+            this.numero = numero;
+        }
+    }
+
+    /**
+     * Villes existantes préchargées pour la durée d'un import
+     */
+    private static class ReferentielVilles {
+        private final Set<Long> ids = new HashSet<>();
+        private final Map<String, Long> idsParCle = new HashMap<>();
+    }
+}
@@ -0,0 +1,360 @@
+package fr.diginamic.hello.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.diginamic.hello.dto.RapportImportDTO;
+import fr.diginamic.hello.dto.VilleDTO;
+import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
+import fr.diginamic.hello.repositories.DepartementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service d'import de villes en masse
+ *
+ * Les lignes sont traitées par lots de taille fixe (ville.import.taille-lot) :
+ * - validation ensembliste : départements préchargés une fois (code → id),
+ *   doublons (département, clé de recherche du nom) recherchés en une requête IN par lot
+ * - insertion par batch JDBC (rewriteBatchedStatements côté MySQL)
+ * - un commit par lot, compteurs des départements mis à jour dans la même transaction
+ * - les lignes invalides sont rejetées individuellement dans le rapport
+ * - les index de villes en mémoire (IndexMemoireVilles) sont invalidés en fin d'import
+ *
+ * Les lots déjà validés sont visibles des suivants, ce qui suffit à détecter
+ * les doublons entre lots sans garder tous les noms en mémoire.
+ *
+ * Les coordonnées (latitude, longitude en degrés décimaux) sont facultatives mais vont ensemble.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Service
+public class ImportVillesService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImportVillesService.class);
+
+    private static final String SQL_INSERTION = "INSERT INTO ville (nom, nom_recherche, nb_habs, id_dept, latitude, longitude) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final int POPULATION_MAX = 50000000;
+
+    // ==================== INJECTION DES DÉPENDANCES ====================
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private DepartementRepository departementRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private VersionsDonnees versionsDonnees;
+
+    @Autowired
+    private List<IndexMemoireVilles> indexMemoire;
+
+    @Value("${ville.import.taille-lot:1000}")
+    private int tailleLot;
+
+    // ==================== IMPORT ====================
+
+    /**
+     * Importe des villes lues au fil de l'eau
+     * L'itérateur n'est parcouru qu'une fois ; seul le lot courant est gardé en mémoire.
+     * Il peut lever LigneIllisibleException (ligne rejetée) ou UncheckedIOException (lecture arrêtée).
+     * @param villes villes à importer (département identifié par id ou par code)
+     * @return RapportImportDTO
+     */
+    public RapportImportDTO importer(Iterator<VilleDTO> villes) {
+        long debut = System.currentTimeMillis();
+        RapportImportDTO rapport = new RapportImportDTO();
+        ReferentielDepartements referentiel = chargerDepartements();
+
+        List<LigneImport> lot = new ArrayList<>(tailleLot);
+        long numero = 0;
+        try {
+            while (villes.hasNext()) {
+                numero++;
+                VilleDTO ville;
+                try {
+                    ville = villes.next();
+                } catch (LigneIllisibleException e) {
+                    rapport.ligneLue();
+                    rapport.rejeter(numero, null, e.getMessage());
+                    continue;
+                }
+                rapport.ligneLue();
+                lot.add(new LigneImport(numero, ville));
+                if (lot.size() == tailleLot) {
+                    traiterLot(lot, referentiel, rapport);
+                    lot.clear();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            // Flux illisible : les lignes déjà lues restent importées, la suite est abandonnée
+            rapport.rejeter(numero, null, "Lecture interrompue : " + e.getCause().getMessage());
+        }
+        if (!lot.isEmpty()) {
+            traiterLot(lot, referentiel, rapport);
+        }
+        if (rapport.getVillesImportees() > 0) {
+            indexMemoire.forEach(IndexMemoireVilles::invalider);
+        }
+
+        rapport.setDureeMs(System.currentTimeMillis() - debut);
+        LOGGER.info("Import de villes terminé : {}", rapport);
+        return rapport;
+    }
+
+    /**
+     * Importe des villes JSON lues en flux (tableau ou NDJSON, gzip détecté automatiquement)
+     * @param entree corps de la requête
+     * @return RapportImportDTO
+     * @throws ExceptionFonctionnelle si le début du flux n'est pas du JSON exploitable
+     */
+    public RapportImportDTO importerJson(InputStream entree) {
+        LecteurVillesJson lecteur;
+        try {
+            lecteur = new LecteurVillesJson(objectMapper, entree);
+        } catch (IOException e) {
+            throw ExceptionFonctionnelle.donneesInvalides("Flux JSON illisible : " + e.getMessage());
+        }
+        try (lecteur) {
+            return importer(lecteur);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Charge la table des départements (code → id) en une requête
+     * @return ReferentielDepartements
+     */
+    public ReferentielDepartements chargerDepartements() {
+        ReferentielDepartements referentiel = new ReferentielDepartements();
+        jdbcTemplate.query("SELECT id, code FROM departement", rs -> {
+            referentiel.idsParCode.put(rs.getString(2), rs.getLong(1));
+            referentiel.ids.add(rs.getLong(1));
+        });
+        return referentiel;
+    }
+
+    // ==================== TRAITEMENT D'UN LOT ====================
+
+    /**
+     * Valide, insère et valide en base un lot de lignes
+     */
+    private void traiterLot(List<LigneImport> lot, ReferentielDepartements referentiel, RapportImportDTO rapport) {
+        List<LigneImport> valides = new ArrayList<>(lot.size());
+        for (LigneImport ligne : lot) {
+            String erreur = valider(ligne, referentiel);
+            if (erreur != null) {
+                rapport.rejeter(ligne.numero, ligne.ville != null ? ligne.ville.getNom() : null, erreur);
+            } else {
+                valides.add(ligne);
+            }
+        }
+
+        valides = rejeterDoublons(valides, rapport);
+        if (valides.isEmpty()) {
+            return;
+        }
+
+        List<LigneImport> aInserer = valides;
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(statut -> inserer(aInserer));
+            rapport.lotImporte(aInserer.size());
+        } catch (DataAccessException e) {
+            LOGGER.warn("Échec de l'insertion d'un lot de {} villes", aInserer.size(), e);
+            String message = "Lot rejeté par la base de données : " + e.getMostSpecificCause().getMessage();
+            for (LigneImport ligne : aInserer) {
+                rapport.rejeter(ligne.numero, ligne.ville.getNom(), message);
+            }
+        }
+    }
+
+    /**
+     * Contrôles unitaires d'une ligne, sans accès base (département résolu sur le référentiel)
+     * @return message d'erreur ou null si la ligne est valide
+     */
+    private String valider(LigneImport ligne, ReferentielDepartements referentiel) {
+        VilleDTO ville = ligne.ville;
+        if (ville == null) {
+            return "La ville ne peut pas être null";
+        }
+        String nom = ville.getNom() != null ? ville.getNom().trim() : null;
+        if (nom == null || nom.isEmpty()) {
+            return "Le nom de la ville est obligatoire";
+        }
+        if (nom.length() < 2 || nom.length() > 100) {
+            return "Le nom de la ville doit contenir entre 2 et 100 caractères";
+        }
+        if (ville.getNbHabitants() == null || ville.getNbHabitants() <= 0 || ville.getNbHabitants() > POPULATION_MAX) {
+            return "Le nombre d'habitants doit être compris entre 1 et " + POPULATION_MAX;
+        }
+        if ((ville.getLatitude() == null) != (ville.getLongitude() == null)) {
+            return "La latitude et la longitude vont ensemble : renseigner les deux ou aucune";
+        }
+        if (ville.getLatitude() != null && (!(ville.getLatitude() >= -90 && ville.getLatitude() <= 90)
+                || !(ville.getLongitude() >= -180 && ville.getLongitude() <= 180))) {
+            return "Coordonnées invalides : latitude entre -90 et 90, longitude entre -180 et 180";
+        }
+        if (ville.getDepartement() == null) {
+            return "Le département est obligatoire";
+        }
+        Long departementId = referentiel.resoudre(ville.getDepartement().getId(), ville.getDepartement().getCode());
+        if (departementId == null) {
+            Object identifiant = ville.getDepartement().getId() != null
+                    ? ville.getDepartement().getId() : ville.getDepartement().getCode();
+            return "Département non trouvé : " + identifiant;
+        }
+        ligne.nom = nom;
+        ligne.cle = CleRecherche.normaliser(nom);
+        ligne.departementId = departementId;
+        return null;
+    }
+
+    /**
+     * Rejette les villes déjà présentes (même clé de recherche du nom dans le même département),
+     * en base ou plus haut dans le lot, avec une seule requête (index idx_ville_nom_recherche)
+     */
+    private List<LigneImport> rejeterDoublons(List<LigneImport> valides, RapportImportDTO rapport) {
+        if (valides.isEmpty()) {
+            return valides;
+        }
+        Set<String> cles = new HashSet<>();
+        for (LigneImport ligne : valides) {
+            cles.add(ligne.cle);
+        }
+
+        Set<String> existantes = new HashSet<>();
+        namedJdbcTemplate.query("SELECT id_dept, nom_recherche FROM ville WHERE nom_recherche IN (:cles)",
+                Map.of("cles", cles), rs -> {
+                    existantes.add(cle(rs.getLong(1), rs.getString(2)));
+                });
+
+        List<LigneImport> retenues = new ArrayList<>(valides.size());
+        for (LigneImport ligne : valides) {
+            if (existantes.add(cle(ligne.departementId, ligne.cle))) {
+                retenues.add(ligne);
+            } else {
+                rapport.rejeter(ligne.numero, ligne.nom, "La ville existe déjà dans ce département");
+            }
+        }
+        return retenues;
+    }
+
+    /**
+     * Insertion par batch JDBC et mise à jour des compteurs, dans la transaction du lot
+     */
+    private void inserer(List<LigneImport> lignes) {
+        jdbcTemplate.batchUpdate(SQL_INSERTION, lignes, lignes.size(), (ps, ligne) -> {
+            ps.setString(1, ligne.nom);
+            ps.setString(2, ligne.cle);
+            ps.setInt(3, ligne.ville.getNbHabitants());
+            ps.setLong(4, ligne.departementId);
+            ps.setObject(5, ligne.ville.getLatitude(), Types.DOUBLE);
+            ps.setObject(6, ligne.ville.getLongitude(), Types.DOUBLE);
+        });
+
+        Map<Long, long[]> deltas = new HashMap<>();
+        for (LigneImport ligne : lignes) {
+            long[] delta = deltas.computeIfAbsent(ligne.departementId, k -> new long[2]);
+            delta[0]++;
+            delta[1] += ligne.ville.getNbHabitants();
+        }
+        deltas.forEach((departementId, delta) -> {
+            departementRepository.incrementerCompteurs(departementId, delta[0], delta[1]);
+            versionsDonnees.departementModifie(departementId);
+        });
+    }
+
+    private static String cle(long departementId, String cleNom) {
+        return departementId + "|" + cleNom;
+    }
+
+    // ==================== CLASSES INTERNES ====================
+
+    /**
+     * Levée par l'itérateur source pour une ligne illisible : seule cette ligne est rejetée
+     * (une UncheckedIOException interrompt au contraire la lecture)
+     */
+    public static class LigneIllisibleException extends RuntimeException {
+        public LigneIllisibleException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Ligne en cours d'import avec son numéro et son département résolu
+     */
+    private static class LigneImport {
+        private final long numero;
+        private final VilleDTO ville;
+        private String nom;
+        private String cle;
+        private Long departementId;
+
+        LigneImport(long numero, VilleDTO ville) {
+            this.numero = numero;
+            this.ville = ville;
+        }
+    }
+
+    /**
+     * Table des départements préchargée pour la durée d'un import
+     */
+    public static class ReferentielDepartements {
+
+        private final Map<String, Long> idsParCode = new HashMap<>();
+        private final Set<Long> ids = new HashSet<>();
+
+        /**
+         * Codes des départements existants
+         * @return Set<String>
+         */
+        public Set<String> getCodes() {
+            return idsParCode.keySet();
+        }
+
+        /**
+         * Résout l'identifiant du département, par id en priorité puis par code
+         * @param id identifiant fourni (peut être null)
+         * @param code code fourni (peut être null)
+         * @return identifiant existant ou null
+         */
+        public Long resoudre(Long id, String code) {
+            if (id != null) {
+                return ids.contains(id) ? id : null;
+            }
+            return code != null ? idsParCode.get(code.trim()) : null;
+        }
+    }
+}
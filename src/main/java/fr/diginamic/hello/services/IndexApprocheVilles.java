@@ -0,0 +1,278 @@
+package fr.diginamic.hello.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Index en mémoire des noms de villes pour la recherche approchée (fautes de frappe)
+ *
+ * BK-tree sur les clés de recherche des noms (CleRecherche), avec la distance de Levenshtein
+ * (insertion, suppression ou substitution d'un caractère) calculée par l'algorithme
+ * bit-parallèle de Myers. Chaque nœud porte une clé distincte et les villes homonymes ;
+ * ses enfants sont rangés par distance à cette clé. L'inégalité triangulaire limite la
+ * recherche à distance k aux enfants de rang d-k à d+k : seule une partie des clés est
+ * comparée à la saisie.
+ *
+ * Construction et mises à jour : voir IndexMemoireVilles. Une ville retirée quitte la liste de
+ * son nœud ; le nœud, même vide, reste dans l'arbre jusqu'à la prochaine reconstruction.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Component
+public class IndexApprocheVilles extends IndexMemoireVilles {
+
+    @Value("${ville.recherche-approchee.distance-max:2}")
+    private int distanceMax;
+
+    private Noeud racine;
+
+    // ==================== RECHERCHE ====================
+
+    /**
+     * Villes dont la clé de recherche est à au plus k modifications de celle du nom saisi
+     * @param nom nom saisi
+     * @param distance distance d'édition maximale k
+     * @param limite nombre maximal de villes
+     * @return villes par distance croissante, puis population décroissante, nom et id
+     */
+    public List<VilleApprochee> rechercher(String nom, int distance, int limite) {
+        String cle = CleRecherche.normaliser(nom);
+        if (cle.isEmpty()) {
+            return List.of();
+        }
+        return lire(() -> {
+            List<VilleApprochee> trouvees = new ArrayList<>();
+            if (racine == null) {
+                return trouvees;
+            }
+            Motif motif = new Motif(cle);
+            Deque<Noeud> aVisiter = new ArrayDeque<>();
+            aVisiter.push(racine);
+            while (!aVisiter.isEmpty()) {
+                Noeud noeud = aVisiter.pop();
+                int d = motif.distance(noeud.cle);
+                if (d <= distance) {
+                    for (VilleIndexee ville : noeud.villes) {
+                        trouvees.add(new VilleApprochee(ville, d));
+                    }
+                }
+                int fin = Math.min(d + distance, noeud.enfants.length - 1);
+                for (int i = Math.max(1, d - distance); i <= fin; i++) {
+                    if (noeud.enfants[i] != null) {
+                        aVisiter.push(noeud.enfants[i]);
+                    }
+                }
+            }
+            trouvees.sort(Comparator.comparingInt(VilleApprochee::getDistance)
+                    .thenComparing(v -> v.getVille().getNbHabitants(), Comparator.reverseOrder())
+                    .thenComparing(v -> v.getVille().getNom())
+                    .thenComparingLong(v -> v.getVille().getId()));
+            return trouvees.size() > limite ? new ArrayList<>(trouvees.subList(0, limite)) : trouvees;
+        });
+    }
+
+    /**
+     * Distance d'édition maximale acceptée par la recherche
+     * @return distance maximale
+     */
+    public int getDistanceMax() {
+        return distanceMax;
+    }
+
+    // ==================== ARBRE ====================
+
+    @Override
+    protected void vider() {
+        racine = null;
+    }
+
+    @Override
+    protected void ajouter(VilleIndexee ville, boolean construction) {
+        char[] cle = ville.getCle().toCharArray();
+        if (cle.length == 0) {
+            return;
+        }
+        if (racine == null) {
+            racine = new Noeud(cle);
+            racine.villes.add(ville);
+            return;
+        }
+        Motif motif = new Motif(ville.getCle());
+        Noeud noeud = racine;
+        while (true) {
+            int d = motif.distance(noeud.cle);
+            if (d == 0) {
+                noeud.villes.add(ville);
+                return;
+            }
+            if (d >= noeud.enfants.length) {
+                noeud.enfants = Arrays.copyOf(noeud.enfants, d + 1);
+            }
+            if (noeud.enfants[d] == null) {
+                noeud.enfants[d] = new Noeud(cle);
+                noeud.enfants[d].villes.add(ville);
+                return;
+            }
+            noeud = noeud.enfants[d];
+        }
+    }
+
+    @Override
+    protected void retirer(VilleIndexee ville) {
+        if (ville.getCle().isEmpty()) {
+            return;
+        }
+        Motif motif = new Motif(ville.getCle());
+        Noeud noeud = racine;
+        while (noeud != null) {
+            int d = motif.distance(noeud.cle);
+            if (d == 0) {
+                noeud.villes.removeIf(v -> v.getId() == ville.getId());
+                return;
+            }
+            noeud = d < noeud.enfants.length ? noeud.enfants[d] : null;
+        }
+    }
+
+    // ==================== CLASSES INTERNES ====================
+
+    /**
+     * Ville trouvée et sa distance d'édition à la saisie
+     */
+    public static final class VilleApprochee {
+        private final VilleIndexee ville;
+        private final int distance;
+
+        VilleApprochee(VilleIndexee ville, int distance) {
+            this.ville = ville;
+            this.distance = distance;
+        }
+
+        public VilleIndexee getVille() {
+            return ville;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    /**
+     * Clé comparée à celles des nœuds par la distance de Levenshtein
+     *
+     * Jusqu'à 64 caractères : algorithme bit-parallèle de Myers (une colonne de la matrice
+     * d'édition par mot de 64 bits, un pas par caractère de l'autre clé). Au-delà : calcul
+     * classique ligne par ligne.
+     */
+    static final class Motif {
+        private final char[] cle;
+        /**
+         * Positions de chaque caractère ASCII dans la clé (bit i : cle[i] == c)
+         */
+        private final long[] positions = new long[128];
+        private final int[][] lignes;
+
+        Motif(String cle) {
+            this.cle = cle.toCharArray();
+            if (this.cle.length <= Long.SIZE) {
+                for (int i = 0; i < this.cle.length; i++) {
+                    if (this.cle[i] < 128) {
+                        positions[this.cle[i]] |= 1L << i;
+                    }
+                }
+                lignes = null;
+            } else {
+                lignes = new int[2][this.cle.length + 1];
+            }
+        }
+
+        int distance(char[] autre) {
+            return lignes == null ? myers(autre) : lignes(autre);
+        }
+
+        private long positions(char c) {
+            if (c < 128) {
+                return positions[c];
+            }
+            long masque = 0;
+            for (int i = 0; i < cle.length; i++) {
+                if (cle[i] == c) {
+                    masque |= 1L << i;
+                }
+            }
+            return masque;
+        }
+
+        private int myers(char[] autre) {
+            int m = cle.length;
+            if (m == 0) {
+                return autre.length;
+            }
+            long dernier = 1L << (m - 1);
+            long pv = -1L;
+            long mv = 0L;
+            int score = m;
+            for (char c : autre) {
+                long eq = positions(c);
+                long xv = eq | mv;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                if ((ph & dernier) != 0) {
+                    score++;
+                } else if ((mh & dernier) != 0) {
+                    score--;
+                }
+                ph = (ph << 1) | 1L;
+                mh = mh << 1;
+                pv = mh | ~(xv | ph);
+                mv = ph & xv;
+            }
+            return score;
+        }
+
+        private int lignes(char[] autre) {
+            int[] precedente = lignes[0];
+            int[] courante = lignes[1];
+            for (int i = 0; i <= cle.length; i++) {
+                precedente[i] = i;
+            }
+            for (int j = 1; j <= autre.length; j++) {
+                courante[0] = j;
+                char c = autre[j - 1];
+                for (int i = 1; i <= cle.length; i++) {
+                    int cout = cle[i - 1] == c ? 0 : 1;
+                    courante[i] = Math.min(Math.min(courante[i - 1], precedente[i]) + 1, precedente[i - 1] + cout);
+                }
+                int[] echange = precedente;
+                precedente = courante;
+                courante = echange;
+            }
+            return precedente[cle.length];
+        }
+    }
+
+    private static final class Noeud {
+        private static final Noeud[] AUCUN = new Noeud[0];
+
+        private final char[] cle;
+        private final List<VilleIndexee> villes = new ArrayList<>(1);
+        /**
+         * Enfants par distance à cette clé (indice 0 inutilisé)
+         */
+        private Noeud[] enfants = AUCUN;
+
+        Noeud(char[] cle) {
+            this.cle = cle;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package fr.diginamic.hello.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index en mémoire des coordonnées des villes pour les recherches par distance
+ *
+ * Grille de cellules de 0,2° de côté (environ 22 km du nord au sud) : chaque cellule non vide
+ * porte ses villes, avec latitude et longitude en radians et cosinus de la latitude précalculés.
+ * Une recherche dans un rayon ne lit que les cellules du rectangle englobant le cercle (calcul
+ * exact sur la sphère, passage de l'antiméridien et des pôles compris), puis filtre les villes
+ * par la formule de haversine. Les plus proches voisins sont cherchés dans un rayon élargi
+ * (x4) jusqu'à en trouver assez : les k villes les plus proches sont alors toutes dans ce rayon.
+ *
+ * Seules les villes localisées (latitude et longitude renseignées) sont indexées.
+ * Construction et mises à jour : voir IndexMemoireVilles.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Component
+public class IndexGeographiqueVilles extends IndexMemoireVilles {
+
+    /**
+     * Rayon moyen de la Terre (km)
+     */
+    public static final double RAYON_TERRE_KM = 6371.0088;
+
+    /**
+     * Distance maximale entre deux points de la sphère (demi-circonférence, km)
+     */
+    private static final double DISTANCE_MAX_KM = Math.PI * RAYON_TERRE_KM;
+
+    /**
+     * Côté d'une cellule de la grille (degrés)
+     */
+    private static final double PAS_DEGRES = 0.2;
+
+    private static final int LIGNES = (int) Math.round(180 / PAS_DEGRES);
+    private static final int COLONNES = (int) Math.round(360 / PAS_DEGRES);
+
+    /**
+     * Premier rayon essayé par la recherche des plus proches voisins (km)
+     */
+    private static final double RAYON_INITIAL_KM = 10;
+
+    @Value("${ville.recherche-geographique.rayon-max-km:500}")
+    private double rayonMaxKm;
+
+    /**
+     * Villes localisées par cellule (ligne * COLONNES + colonne)
+     */
+    private final Map<Integer, List<Point>> cellules = new HashMap<>();
+
+    private int nombreLocalisees;
+
+    // ==================== RECHERCHE ====================
+
+    /**
+     * Les k villes les plus proches d'un point
+     * @param latitude latitude du point (degrés)
+     * @param longitude longitude du point (degrés)
+     * @param k nombre de villes
+     * @return villes par distance croissante, puis id
+     */
+    public List<VilleProche> plusProches(double latitude, double longitude, int k) {
+        return lire(() -> {
+            double rayon = nombreLocalisees <= k ? DISTANCE_MAX_KM : RAYON_INITIAL_KM;
+            while (true) {
+                List<Candidat> candidats = candidats(latitude, longitude, rayon);
+                if (candidats.size() >= k || rayon >= DISTANCE_MAX_KM) {
+                    return classer(candidats, k);
+                }
+                rayon = Math.min(rayon * 4, DISTANCE_MAX_KM);
+            }
+        });
+    }
+
+    /**
+     * Villes situées à au plus rayonKm d'un point
+     * @param latitude latitude du point (degrés)
+     * @param longitude longitude du point (degrés)
+     * @param rayonKm rayon (km)
+     * @param limite nombre maximal de villes
+     * @return villes par distance croissante, puis id
+     */
+    public List<VilleProche> dansRayon(double latitude, double longitude, double rayonKm, int limite) {
+        return lire(() -> classer(candidats(latitude, longitude, rayonKm), limite));
+    }
+
+    /**
+     * Rayon maximal accepté par la recherche dans un rayon
+     * @return rayon maximal (km)
+     */
+    public double getRayonMaxKm() {
+        return rayonMaxKm;
+    }
+
+    /**
+     * Villes de la grille à au plus rayonKm du point, avec leur haversine (verrou de lecture tenu)
+     */
+    private List<Candidat> candidats(double latitude, double longitude, double rayonKm) {
+        double angle = Math.min(rayonKm / RAYON_TERRE_KM, Math.PI);
+        double seuil = haversine(angle);
+        double phi = Math.toRadians(latitude);
+        double lambda = Math.toRadians(longitude);
+        double cosPhi = Math.cos(phi);
+
+        // Rectangle englobant : en latitude, l'angle ; en longitude, l'écart maximal à cette latitude
+        double angleDegres = Math.toDegrees(angle);
+        int ligneMin = ligne(latitude - angleDegres);
+        int ligneMax = ligne(latitude + angleDegres);
+        int colonneMin = 0;
+        int nombreColonnes = COLONNES;
+        if (latitude - angleDegres > -90 && latitude + angleDegres < 90) {
+            double ecart = Math.sin(angle) / cosPhi;
+            if (ecart < 1) {
+                double ecartDegres = Math.toDegrees(Math.asin(ecart));
+                colonneMin = colonne(longitude - ecartDegres);
+                nombreColonnes = Math.min(COLONNES,
+                        (int) Math.floor((longitude + ecartDegres + 180) / PAS_DEGRES)
+                                - (int) Math.floor((longitude - ecartDegres + 180) / PAS_DEGRES) + 1);
+            }
+        }
+
+        List<Candidat> candidats = new ArrayList<>();
+        long nombreCellules = (long) (ligneMax - ligneMin + 1) * nombreColonnes;
+        if (nombreCellules > cellules.size()) {
+            // Grand rectangle : parcours des seules cellules non vides
+            for (Map.Entry<Integer, List<Point>> cellule : cellules.entrySet()) {
+                int ligne = cellule.getKey() / COLONNES;
+                int colonne = cellule.getKey() % COLONNES;
+                if (ligne >= ligneMin && ligne <= ligneMax
+                        && Math.floorMod(colonne - colonneMin, COLONNES) < nombreColonnes) {
+                    filtrer(cellule.getValue(), phi, lambda, cosPhi, seuil, candidats);
+                }
+            }
+        } else {
+            for (int ligne = ligneMin; ligne <= ligneMax; ligne++) {
+                for (int i = 0; i < nombreColonnes; i++) {
+                    List<Point> points = cellules.get(ligne * COLONNES + (colonneMin + i) % COLONNES);
+                    if (points != null) {
+                        filtrer(points, phi, lambda, cosPhi, seuil, candidats);
+                    }
+                }
+            }
+        }
+        return candidats;
+    }
+
+    private static void filtrer(List<Point> points, double phi, double lambda, double cosPhi, double seuil,
+                                List<Candidat> candidats) {
+        for (Point point : points) {
+            double h = haversine(point.phi - phi) + cosPhi * point.cosPhi * haversine(point.lambda - lambda);
+            if (h <= seuil) {
+                candidats.add(new Candidat(point.ville, h));
+            }
+        }
+    }
+
+    private static List<VilleProche> classer(List<Candidat> candidats, int limite) {
+        candidats.sort(Comparator.comparingDouble((Candidat c) -> c.haversine)
+                .thenComparingLong(c -> c.ville.getId()));
+        List<VilleProche> villes = new ArrayList<>(Math.min(limite, candidats.size()));
+        for (Candidat candidat : candidats) {
+            if (villes.size() == limite) {
+                break;
+            }
+            double distance = 2 * RAYON_TERRE_KM * Math.asin(Math.sqrt(Math.min(1, candidat.haversine)));
+            villes.add(new VilleProche(candidat.ville, distance));
+        }
+        return villes;
+    }
+
+    /**
+     * sin²(angle / 2)
+     */
+    private static double haversine(double angle) {
+        double sinus = Math.sin(angle / 2);
+        return sinus * sinus;
+    }
+
+    // ==================== GRILLE ====================
+
+    @Override
+    protected void vider() {
+        cellules.clear();
+        nombreLocalisees = 0;
+    }
+
+    @Override
+    protected void ajouter(VilleIndexee ville, boolean construction) {
+        if (!ville.estLocalisee()) {
+            return;
+        }
+        cellules.computeIfAbsent(cellule(ville), c -> new ArrayList<>(2)).add(new Point(ville));
+        nombreLocalisees++;
+    }
+
+    @Override
+    protected void retirer(VilleIndexee ville) {
+        if (!ville.estLocalisee()) {
+            return;
+        }
+        int cellule = cellule(ville);
+        List<Point> points = cellules.get(cellule);
+        if (points != null && points.removeIf(p -> p.ville.getId() == ville.getId())) {
+            nombreLocalisees--;
+            if (points.isEmpty()) {
+                cellules.remove(cellule);
+            }
+        }
+    }
+
+    private static int cellule(VilleIndexee ville) {
+        return ligne(ville.getLatitude()) * COLONNES + colonne(ville.getLongitude());
+    }
+
+    private static int ligne(double latitude) {
+        return Math.max(0, Math.min(LIGNES - 1, (int) Math.floor((latitude + 90) / PAS_DEGRES)));
+    }
+
+    private static int colonne(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / PAS_DEGRES), COLONNES);
+    }
+
+    // ==================== CLASSES INTERNES ====================
+
+    /**
+     * Ville trouvée et sa distance au point de recherche
+     */
+    public static final class VilleProche {
+        private final VilleIndexee ville;
+        private final double distanceKm;
+
+        VilleProche(VilleIndexee ville, double distanceKm) {
+            this.ville = ville;
+            this.distanceKm = distanceKm;
+        }
+
+        public VilleIndexee getVille() {
+            return ville;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    /**
+     * Ville localisée, coordonnées en radians
+     */
+    private static final class Point {
+        private final VilleIndexee ville;
+        private final double phi;
+        private final double lambda;
+        private final double cosPhi;
+
+        Point(VilleIndexee ville) {
+            this.ville = ville;
+            this.phi = Math.toRadians(ville.getLatitude());
+            this.lambda = Math.toRadians(ville.getLongitude());
+            this.cosPhi = Math.cos(phi);
+        }
+    }
+
+    private static final class Candidat {
+        private final VilleIndexee ville;
+        private final double haversine;
+
+        Candidat(VilleIndexee ville, double haversine) {
+            this.ville = ville;
+            this.haversine = haversine;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package fr.diginamic.hello.services;
+
+import fr.diginamic.hello.models.Ville;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Base des index de villes tenus en mémoire (préfixes, trigrammes...)
+ *
+ * - construction en une requête au premier accès, sous le verrou d'écriture
+ * - lectures concurrentes sous le verrou de lecture
+ * - écritures de VilleService (création, modification, suppression) appliquées après
+ *   la validation de leur transaction, ville par ville (retrait puis ajout : idempotent)
+ * - écritures en masse (import) : invalidation, reconstruction au prochain accès
+ *
+ * Une mise à jour validée pendant la construction attend la fin de celle-ci puis s'applique ;
+ * une mise à jour validée avant la construction est vue par la requête de chargement.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public abstract class IndexMemoireVilles {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    private boolean construit;
+
+    /**
+     * Villes indexées par id (sous le verrou)
+     */
+    protected final Map<Long, VilleIndexee> villesParId = new HashMap<>();
+
+    // ==================== À IMPLÉMENTER ====================
+
+    /**
+     * Vide les structures de l'index (verrou d'écriture tenu)
+     */
+    protected abstract void vider();
+
+    /**
+     * Ajoute une ville (verrou d'écriture tenu)
+     * @param ville ville absente de l'index
+     * @param construction true pendant le chargement initial (voir terminerConstruction)
+     */
+    protected abstract void ajouter(VilleIndexee ville, boolean construction);
+
+    /**
+     * Retire une ville présente dans l'index (verrou d'écriture tenu)
+     * @param ville ville indexée
+     */
+    protected abstract void retirer(VilleIndexee ville);
+
+    /**
+     * Calculs différés à la fin du chargement initial (verrou d'écriture tenu)
+     */
+    protected void terminerConstruction() {
+    }
+
+    // ==================== LECTURE ====================
+
+    /**
+     * Exécute une lecture sous le verrou de lecture, après construction si nécessaire
+     * @param lecture lecture de l'index
+     * @return résultat de la lecture
+     */
+    protected <T> T lire(Supplier<T> lecture) {
+        while (true) {
+            verrou.readLock().lock();
+            try {
+                if (construit) {
+                    return lecture.get();
+                }
+            } finally {
+                verrou.readLock().unlock();
+            }
+            construire();
+        }
+    }
+
+    // ==================== MISES À JOUR ====================
+
+    /**
+     * Signale la création ou la modification d'une ville (appliquée après validation)
+     * @param ville ville enregistrée
+     */
+    public void villeEnregistree(Ville ville) {
+        VilleIndexee indexee = VilleIndexee.de(ville);
+        apresValidation(() -> {
+            if (construit) {
+                retirerSiPresente(indexee.getId());
+                villesParId.put(indexee.getId(), indexee);
+                ajouter(indexee, false);
+            }
+        });
+    }
+
+    /**
+     * Signale la suppression d'une ville (appliquée après validation)
+     * @param id identifiant de la ville
+     */
+    public void villeSupprimee(Long id) {
+        apresValidation(() -> {
+            if (construit) {
+                retirerSiPresente(id);
+            }
+        });
+    }
+
+    /**
+     * Invalide l'index après une écriture en masse : reconstruit au prochain accès
+     */
+    public void invalider() {
+        apresValidation(() -> {
+            construit = false;
+            villesParId.clear();
+            vider();
+        });
+    }
+
+    private void retirerSiPresente(Long id) {
+        VilleIndexee ancienne = villesParId.remove(id);
+        if (ancienne != null) {
+            retirer(ancienne);
+        }
+    }
+
+    /**
+     * Applique une mise à jour sous le verrou d'écriture, après validation de la transaction en cours
+     */
+    private void apresValidation(Runnable miseAJour) {
+        Runnable sousVerrou = () -> {
+            verrou.writeLock().lock();
+            try {
+                miseAJour.run();
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sousVerrou.run();
+                }
+            });
+        } else {
+            sousVerrou.run();
+        }
+    }
+
+    // ==================== CONSTRUCTION ====================
+
+    private void construire() {
+        verrou.writeLock().lock();
+        try {
+            if (construit) {
+                return;
+            }
+            long debut = System.currentTimeMillis();
+            vider();
+            villesParId.clear();
+            jdbcTemplate.query("SELECT id, nom, nb_habs, id_dept, nom_recherche, latitude, longitude FROM ville "
+                    + "ORDER BY id", rs -> {
+                VilleIndexee ville = new VilleIndexee(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getLong(4),
+                        rs.getString(5), coordonnee(rs, 6), coordonnee(rs, 7));
+                villesParId.put(ville.getId(), ville);
+                ajouter(ville, true);
+            });
+            terminerConstruction();
+            construit = true;
+            logger.info("Index construit : {} villes en {} ms", villesParId.size(), System.currentTimeMillis() - debut);
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Coordonnée lue dans la colonne, NaN si null
+     */
+    private static double coordonnee(ResultSet rs, int colonne) throws SQLException {
+        double valeur = rs.getDouble(colonne);
+        return rs.wasNull() ? Double.NaN : valeur;
+    }
+}
@@ -0,0 +1,94 @@
+package fr.diginamic.hello.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index en mémoire des clés phonétiques des noms de villes, pour la recherche par homophonie
+ *
+ * Table de hachage clé phonétique (ClePhonetique) → villes, les plus peuplées d'abord :
+ * une recherche code la saisie puis lit une seule entrée, sans parcourir les villes.
+ * La clé de chaque ville est calculée à son enregistrement (construction, puis mises à jour).
+ *
+ * Construction et mises à jour : voir IndexMemoireVilles.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Component
+public class IndexPhonetiqueVilles extends IndexMemoireVilles {
+
+    /**
+     * Ordre des villes d'une même clé : population décroissante, puis nom et id
+     */
+    private static final Comparator<VilleIndexee> PAR_POPULATION = Comparator
+            .comparingInt(VilleIndexee::getNbHabitants).reversed()
+            .thenComparing(VilleIndexee::getNom)
+            .thenComparingLong(VilleIndexee::getId);
+
+    private final Map<String, List<VilleIndexee>> villesParCle = new HashMap<>();
+
+    // ==================== RECHERCHE ====================
+
+    /**
+     * Villes dont le nom se prononce comme la saisie
+     * @param nom nom saisi (orthographe approximative)
+     * @param limite nombre maximal de villes
+     * @return villes par population décroissante
+     */
+    public List<VilleIndexee> rechercher(String nom, int limite) {
+        String cle = ClePhonetique.coder(nom);
+        if (cle.isEmpty()) {
+            return List.of();
+        }
+        return lire(() -> {
+            List<VilleIndexee> villes = villesParCle.getOrDefault(cle, List.of());
+            return List.copyOf(villes.subList(0, Math.min(limite, villes.size())));
+        });
+    }
+
+    // ==================== TABLE ====================
+
+    @Override
+    protected void vider() {
+        villesParCle.clear();
+    }
+
+    @Override
+    protected void ajouter(VilleIndexee ville, boolean construction) {
+        List<VilleIndexee> villes = villesParCle.computeIfAbsent(ClePhonetique.coder(ville.getNom()),
+                cle -> new ArrayList<>(1));
+        if (construction) {
+            villes.add(ville);
+        } else {
+            int position = 0;
+            while (position < villes.size() && PAR_POPULATION.compare(villes.get(position), ville) < 0) {
+                position++;
+            }
+            villes.add(position, ville);
+        }
+    }
+
+    @Override
+    protected void terminerConstruction() {
+        villesParCle.values().forEach(villes -> villes.sort(PAR_POPULATION));
+    }
+
+    @Override
+    protected void retirer(VilleIndexee ville) {
+        String cle = ClePhonetique.coder(ville.getNom());
+        List<VilleIndexee> villes = villesParCle.get(cle);
+        if (villes != null) {
+            villes.removeIf(v -> v.getId() == ville.getId());
+            if (villes.isEmpty()) {
+                villesParCle.remove(cle);
+            }
+        }
+    }
+}
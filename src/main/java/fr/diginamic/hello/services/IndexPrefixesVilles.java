@@ -0,0 +1,211 @@
+package fr.diginamic.hello.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Index en mémoire des préfixes de noms de villes, pour l'autocomplétion
+ *
+ * Arbre préfixe (trie) sur les clés de recherche des noms (CleRecherche). Chaque nœud garde
+ * les K villes les plus peuplées de son sous-arbre : une frappe coûte la descente sur le
+ * préfixe, sans parcours des villes correspondantes, et renvoie au plus K villes.
+ *
+ * Construction et mises à jour : voir IndexMemoireVilles. Une mise à jour ne recalcule que
+ * les nœuds du chemin de la ville, à partir des K meilleures villes de leurs enfants.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Component
+public class IndexPrefixesVilles extends IndexMemoireVilles {
+
+    private static final VilleIndexee[] AUCUNE = new VilleIndexee[0];
+
+    /**
+     * Ordre des résultats : population décroissante, puis nom et id
+     */
+    private static final Comparator<VilleIndexee> PAR_POPULATION = Comparator
+            .comparingInt(VilleIndexee::getNbHabitants).reversed()
+            .thenComparing(VilleIndexee::getNom)
+            .thenComparingLong(VilleIndexee::getId);
+
+    @Value("${ville.autocompletion.top-k:10}")
+    private int topK;
+
+    private Noeud racine = new Noeud();
+
+    // ==================== RECHERCHE ====================
+
+    /**
+     * Villes dont la clé de recherche commence par celle du préfixe
+     * @param prefixe saisie de l'utilisateur
+     * @param limite nombre maximal de villes (borné par la taille des listes précalculées)
+     * @return villes par population décroissante
+     */
+    public List<VilleIndexee> rechercher(String prefixe, int limite) {
+        String cle = CleRecherche.normaliserSaisie(prefixe);
+        return lire(() -> {
+            Noeud noeud = racine;
+            for (int i = 0; i < cle.length() && noeud != null; i++) {
+                noeud = noeud.enfant(cle.charAt(i));
+            }
+            if (noeud == null) {
+                return List.of();
+            }
+            return List.of(Arrays.copyOf(noeud.meilleures, Math.min(limite, noeud.meilleures.length)));
+        });
+    }
+
+    /**
+     * Nombre maximal de villes renvoyées par une recherche
+     * @return K
+     */
+    public int getTopK() {
+        return topK;
+    }
+
+    // ==================== ARBRE ====================
+
+    @Override
+    protected void vider() {
+        racine = new Noeud();
+    }
+
+    /**
+     * Ajoute une ville ; hors construction, recalcule les nœuds de son chemin
+     */
+    @Override
+    protected void ajouter(VilleIndexee ville, boolean construction) {
+        String cle = ville.getCle();
+        Noeud[] chemin = new Noeud[cle.length() + 1];
+        chemin[0] = racine;
+        for (int i = 0; i < cle.length(); i++) {
+            chemin[i + 1] = chemin[i].enfantOuCreer(cle.charAt(i));
+        }
+        Noeud terminal = chemin[chemin.length - 1];
+        terminal.villes = ajouterA(terminal.villes, ville);
+        if (!construction) {
+            for (int i = chemin.length - 1; i >= 0; i--) {
+                recalculer(chemin[i]);
+            }
+        }
+    }
+
+    /**
+     * Retire une ville, supprime les nœuds devenus vides et recalcule le chemin
+     */
+    @Override
+    protected void retirer(VilleIndexee ville) {
+        String cle = ville.getCle();
+        Noeud[] chemin = new Noeud[cle.length() + 1];
+        chemin[0] = racine;
+        for (int i = 0; i < cle.length(); i++) {
+            chemin[i + 1] = chemin[i].enfant(cle.charAt(i));
+            if (chemin[i + 1] == null) {
+                return;
+            }
+        }
+        Noeud terminal = chemin[chemin.length - 1];
+        terminal.villes = Arrays.stream(terminal.villes).filter(v -> v.getId() != ville.getId())
+                .toArray(VilleIndexee[]::new);
+        for (int i = chemin.length - 1; i >= 0; i--) {
+            if (i > 0 && chemin[i].villes.length == 0 && chemin[i].enfants.length == 0) {
+                chemin[i - 1].retirerEnfant(cle.charAt(i - 1));
+            } else {
+                recalculer(chemin[i]);
+            }
+        }
+    }
+
+    /**
+     * Calcule les listes de tous les nœuds, des feuilles vers la racine
+     */
+    @Override
+    protected void terminerConstruction() {
+        recalculerSousArbre(racine);
+    }
+
+    private void recalculerSousArbre(Noeud noeud) {
+        for (Noeud enfant : noeud.enfants) {
+            recalculerSousArbre(enfant);
+        }
+        recalculer(noeud);
+    }
+
+    /**
+     * K meilleures villes d'un nœud : ses propres villes et les K meilleures de chaque enfant
+     */
+    private void recalculer(Noeud noeud) {
+        List<VilleIndexee> candidates = new ArrayList<>(Arrays.asList(noeud.villes));
+        for (Noeud enfant : noeud.enfants) {
+            candidates.addAll(Arrays.asList(enfant.meilleures));
+        }
+        candidates.sort(PAR_POPULATION);
+        noeud.meilleures = candidates.subList(0, Math.min(topK, candidates.size())).toArray(AUCUNE);
+    }
+
+    private static VilleIndexee[] ajouterA(VilleIndexee[] villes, VilleIndexee ville) {
+        VilleIndexee[] resultat = Arrays.copyOf(villes, villes.length + 1);
+        resultat[villes.length] = ville;
+        return resultat;
+    }
+
+    // ==================== CLASSES INTERNES ====================
+
+    /**
+     * Nœud de l'arbre : enfants triés par caractère (recherche dichotomique),
+     * villes dont la clé s'arrête ici et K meilleures villes du sous-arbre
+     */
+    private static final class Noeud {
+        private char[] caracteres = new char[0];
+        private Noeud[] enfants = new Noeud[0];
+        private VilleIndexee[] villes = AUCUNE;
+        private VilleIndexee[] meilleures = AUCUNE;
+
+        Noeud enfant(char c) {
+            int position = Arrays.binarySearch(caracteres, c);
+            return position >= 0 ? enfants[position] : null;
+        }
+
+        Noeud enfantOuCreer(char c) {
+            int position = Arrays.binarySearch(caracteres, c);
+            if (position >= 0) {
+                return enfants[position];
+            }
+            int insertion = -position - 1;
+            Noeud enfant = new Noeud();
+            char[] nouveauxCaracteres = new char[caracteres.length + 1];
+            Noeud[] nouveauxEnfants = new Noeud[enfants.length + 1];
+            System.arraycopy(caracteres, 0, nouveauxCaracteres, 0, insertion);
+            System.arraycopy(enfants, 0, nouveauxEnfants, 0, insertion);
+            nouveauxCaracteres[insertion] = c;
+            nouveauxEnfants[insertion] = enfant;
+            System.arraycopy(caracteres, insertion, nouveauxCaracteres, insertion + 1, caracteres.length - insertion);
+            System.arraycopy(enfants, insertion, nouveauxEnfants, insertion + 1, enfants.length - insertion);
+            caracteres = nouveauxCaracteres;
+            enfants = nouveauxEnfants;
+            return enfant;
+        }
+
+        void retirerEnfant(char c) {
+            int position = Arrays.binarySearch(caracteres, c);
+            if (position < 0) {
+                return;
+            }
+            char[] nouveauxCaracteres = new char[caracteres.length - 1];
+            Noeud[] nouveauxEnfants = new Noeud[enfants.length - 1];
+            System.arraycopy(caracteres, 0, nouveauxCaracteres, 0, position);
+            System.arraycopy(enfants, 0, nouveauxEnfants, 0, position);
+            System.arraycopy(caracteres, position + 1, nouveauxCaracteres, position, caracteres.length - position - 1);
+            System.arraycopy(enfants, position + 1, nouveauxEnfants, position, enfants.length - position - 1);
+            caracteres = nouveauxCaracteres;
+            enfants = nouveauxEnfants;
+        }
+    }
+}
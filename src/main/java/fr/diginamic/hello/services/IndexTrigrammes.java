@@ -0,0 +1,167 @@
+package fr.diginamic.hello.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index inversé de trigrammes sur des clés de recherche (CleRecherche), pour la recherche
+ * de sous-chaînes sans parcourir toutes les clés
+ *
+ * Chaque trigramme (trois caractères consécutifs d'une clé) renvoie la liste triée des
+ * identifiants dont la clé le contient. Une recherche d'au moins trois caractères intersecte
+ * les listes de ses trigrammes, en partant de la plus courte : seuls ces candidats sont
+ * ensuite vérifiés (une clé peut contenir tous les trigrammes sans contenir la chaîne).
+ *
+ * Structure sans verrou : les appelants sérialisent les écritures et les lectures.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+final class IndexTrigrammes {
+
+    /**
+     * Longueur minimale d'une recherche servie par l'index
+     */
+    static final int LONGUEUR_MIN = 3;
+
+    private final Map<Long, Liste> listes = new HashMap<>();
+
+    // ==================== ÉCRITURE ====================
+
+    /**
+     * Indexe une clé ; les identifiants ajoutés par ordre croissant sont insérés en fin de liste
+     * @param id identifiant
+     * @param cle clé de recherche
+     */
+    void ajouter(long id, String cle) {
+        for (long trigramme : trigrammes(cle)) {
+            listes.computeIfAbsent(trigramme, t -> new Liste()).ajouter(id);
+        }
+    }
+
+    /**
+     * Retire une clé indexée
+     * @param id identifiant
+     * @param cle clé de recherche indexée pour cet identifiant
+     */
+    void retirer(long id, String cle) {
+        for (long trigramme : trigrammes(cle)) {
+            Liste liste = listes.get(trigramme);
+            if (liste != null) {
+                liste.retirer(id);
+                if (liste.taille == 0) {
+                    listes.remove(trigramme);
+                }
+            }
+        }
+    }
+
+    void vider() {
+        listes.clear();
+    }
+
+    // ==================== LECTURE ====================
+
+    /**
+     * Identifiants dont la clé contient tous les trigrammes de la recherche
+     * @param recherche clé de recherche d'au moins LONGUEUR_MIN caractères
+     * @return identifiants candidats, triés
+     */
+    long[] candidats(String recherche) {
+        List<Liste> aIntersecter = new ArrayList<>();
+        for (long trigramme : trigrammes(recherche)) {
+            Liste liste = listes.get(trigramme);
+            if (liste == null) {
+                return new long[0];
+            }
+            aIntersecter.add(liste);
+        }
+        aIntersecter.sort(Comparator.comparingInt(liste -> liste.taille));
+
+        Liste plusCourte = aIntersecter.get(0);
+        long[] resultat = new long[plusCourte.taille];
+        int nombre = 0;
+        candidat:
+        for (int i = 0; i < plusCourte.taille; i++) {
+            long id = plusCourte.ids[i];
+            for (int j = 1; j < aIntersecter.size(); j++) {
+                Liste autre = aIntersecter.get(j);
+                if (Arrays.binarySearch(autre.ids, 0, autre.taille, id) < 0) {
+                    continue candidat;
+                }
+            }
+            resultat[nombre++] = id;
+        }
+        return Arrays.copyOf(resultat, nombre);
+    }
+
+    /**
+     * Rang d'une correspondance, pour le classement des résultats
+     * @param cle clé de recherche d'un élément
+     * @param recherche clé de recherche de la saisie
+     * @return 0 clé identique, 1 début de clé, 2 début d'un mot, 3 ailleurs, -1 absente
+     */
+    static int rang(String cle, String recherche) {
+        if (cle.equals(recherche)) {
+            return 0;
+        }
+        if (cle.startsWith(recherche)) {
+            return 1;
+        }
+        if (cle.contains(" " + recherche)) {
+            return 2;
+        }
+        return cle.contains(recherche) ? 3 : -1;
+    }
+
+    /**
+     * Trigrammes distincts d'une clé, trois caractères 16 bits par long
+     */
+    private static Set<Long> trigrammes(String cle) {
+        Set<Long> trigrammes = new HashSet<>();
+        for (int i = 0; i + LONGUEUR_MIN <= cle.length(); i++) {
+            trigrammes.add(((long) cle.charAt(i) << 32) | ((long) cle.charAt(i + 1) << 16) | cle.charAt(i + 2));
+        }
+        return trigrammes;
+    }
+
+    // ==================== CLASSES INTERNES ====================
+
+    /**
+     * Liste triée d'identifiants, tableau à capacité doublée
+     */
+    private static final class Liste {
+        private long[] ids = new long[4];
+        private int taille;
+
+        void ajouter(long id) {
+            int position = taille > 0 && ids[taille - 1] < id
+                    ? -taille - 1 : Arrays.binarySearch(ids, 0, taille, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertion = -position - 1;
+            if (taille == ids.length) {
+                ids = Arrays.copyOf(ids, taille * 2);
+            }
+            System.arraycopy(ids, insertion, ids, insertion + 1, taille - insertion);
+            ids[insertion] = id;
+            taille++;
+        }
+
+        void retirer(long id) {
+            int position = Arrays.binarySearch(ids, 0, taille, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, taille - position - 1);
+                taille--;
+            }
+        }
+    }
+}
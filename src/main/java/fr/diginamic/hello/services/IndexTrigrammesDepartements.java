@@ -0,0 +1,178 @@
+package fr.diginamic.hello.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index en mémoire des trigrammes de noms de départements, pour la recherche par nom ou code
+ *
+ * Remplace les deux LIKE '%x%' de findByNomContainingOrCodeContainingIgnoreCase. Les noms
+ * passent par IndexTrigrammes ; les codes (trois caractères au plus) et les recherches de
+ * moins de trois caractères sont comparés directement, sur une centaine de départements.
+ *
+ * Classement : code ou nom identique, puis début, début d'un mot, ailleurs ; à rang égal,
+ * ordre des codes.
+ *
+ * L'index est construit en une requête au premier accès. Toute écriture sur les départements
+ * (DepartementService, création par l'import CSV) l'invalide après validation : il est
+ * reconstruit au prochain accès.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Component
+public class IndexTrigrammesDepartements {
+
+    // ==================== INJECTION DES DÉPENDANCES ====================
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // ==================== ÉTAT ====================
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    private final IndexTrigrammes trigrammes = new IndexTrigrammes();
+
+    /**
+     * Départements par id, dans l'ordre des codes ; null tant que l'index n'est pas construit
+     */
+    private Map<Long, DepartementIndexe> departements;
+
+    // ==================== RECHERCHE ====================
+
+    /**
+     * Identifiants des départements dont le nom ou le code contient la saisie, classés et paginés
+     * @param texte saisie de l'utilisateur
+     * @param pageable page et taille (le tri est celui du classement)
+     * @return Page<Long> identifiants
+     */
+    public Page<Long> rechercher(String texte, Pageable pageable) {
+        String recherche = CleRecherche.normaliserSaisie(texte);
+        if (recherche.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        while (true) {
+            verrou.readLock().lock();
+            try {
+                if (departements != null) {
+                    return rechercherSousVerrou(recherche, pageable);
+                }
+            } finally {
+                verrou.readLock().unlock();
+            }
+            construire();
+        }
+    }
+
+    private Page<Long> rechercherSousVerrou(String recherche, Pageable pageable) {
+        List<long[]> correspondances = new ArrayList<>();
+        if (recherche.length() >= IndexTrigrammes.LONGUEUR_MIN) {
+            for (long id : trigrammes.candidats(recherche)) {
+                retenir(departements.get(id), recherche, correspondances);
+            }
+        }
+        for (DepartementIndexe departement : departements.values()) {
+            if (recherche.length() < IndexTrigrammes.LONGUEUR_MIN || departement.code.contains(recherche)) {
+                retenir(departement, recherche, correspondances);
+            }
+        }
+        // rang, puis position du code, puis id ; un département retenu deux fois garde son meilleur rang
+        correspondances.sort(Comparator.<long[]>comparingLong(c -> c[0]).thenComparingLong(c -> c[1]));
+        Map<Long, Boolean> ids = new LinkedHashMap<>();
+        for (long[] correspondance : correspondances) {
+            ids.putIfAbsent(correspondance[2], Boolean.TRUE);
+        }
+        List<Long> classes = new ArrayList<>(ids.keySet());
+        int debut = (int) Math.min(pageable.getOffset(), classes.size());
+        int fin = Math.min(debut + pageable.getPageSize(), classes.size());
+        return new PageImpl<>(new ArrayList<>(classes.subList(debut, fin)), pageable, classes.size());
+    }
+
+    private static void retenir(DepartementIndexe departement, String recherche, List<long[]> correspondances) {
+        int rangNom = IndexTrigrammes.rang(departement.cle, recherche);
+        int rangCode = IndexTrigrammes.rang(departement.code, recherche);
+        int rang = rangNom < 0 ? rangCode : rangCode < 0 ? rangNom : Math.min(rangNom, rangCode);
+        if (rang >= 0) {
+            correspondances.add(new long[]{rang, departement.position, departement.id});
+        }
+    }
+
+    // ==================== INVALIDATION ====================
+
+    /**
+     * Invalide l'index après une écriture sur les départements (après validation de la transaction en cours)
+     */
+    public void invalider() {
+        Runnable vider = () -> {
+            verrou.writeLock().lock();
+            try {
+                departements = null;
+                trigrammes.vider();
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    vider.run();
+                }
+            });
+        } else {
+            vider.run();
+        }
+    }
+
+    private void construire() {
+        verrou.writeLock().lock();
+        try {
+            if (departements != null) {
+                return;
+            }
+            Map<Long, DepartementIndexe> charges = new LinkedHashMap<>();
+            trigrammes.vider();
+            jdbcTemplate.query("SELECT id, code, nom_recherche FROM departement ORDER BY code", rs -> {
+                DepartementIndexe departement = new DepartementIndexe(rs.getLong(1), rs.getString(2),
+                        rs.getString(3), charges.size());
+                charges.put(departement.id, departement);
+                trigrammes.ajouter(departement.id, departement.cle);
+            });
+            departements = charges;
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    // ==================== CLASSES INTERNES ====================
+
+    private static final class DepartementIndexe {
+        private final long id;
+        private final String code;
+        private final String cle;
+        private final int position;
+
+        DepartementIndexe(long id, String code, String cle, int position) {
+            this.id = id;
+            this.code = code.toLowerCase(Locale.ROOT);
+            this.cle = cle != null ? cle : "";
+            this.position = position;
+        }
+    }
+}
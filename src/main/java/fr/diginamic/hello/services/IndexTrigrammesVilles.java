@@ -0,0 +1,153 @@
+package fr.diginamic.hello.services;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Index en mémoire des trigrammes de noms de villes, pour la recherche par sous-chaîne
+ *
+ * Remplace le LIKE '%x%' (parcours complet de la table) : les candidats viennent de
+ * l'intersection des listes de trigrammes (IndexTrigrammes), puis sont vérifiés et classés.
+ * Les recherches de moins de trois caractères parcourent les clés en mémoire.
+ * idsContenant fournit les mêmes correspondances sous forme d'identifiants, pour le critère
+ * de nom de la recherche multi-critères (VilleService.rechercher).
+ *
+ * Classement : nom identique, puis début du nom, début d'un mot, ailleurs ; à rang égal,
+ * population décroissante, puis nom et id. Casse, accents et tirets sont ignorés.
+ *
+ * Construction et mises à jour : voir IndexMemoireVilles.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Component
+public class IndexTrigrammesVilles extends IndexMemoireVilles {
+
+    private final IndexTrigrammes trigrammes = new IndexTrigrammes();
+
+    // ==================== RECHERCHE ====================
+
+    /**
+     * Villes dont le nom contient la saisie, classées et paginées
+     * @param texte saisie de l'utilisateur
+     * @param pageable page et taille (le tri est celui du classement)
+     * @return Page<VilleIndexee>
+     */
+    public Page<VilleIndexee> rechercher(String texte, Pageable pageable) {
+        String recherche = CleRecherche.normaliserSaisie(texte);
+        if (recherche.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return lire(() -> {
+            List<Correspondance> correspondances = new ArrayList<>();
+            if (recherche.length() >= IndexTrigrammes.LONGUEUR_MIN) {
+                for (long id : trigrammes.candidats(recherche)) {
+                    retenir(villesParId.get(id), recherche, correspondances);
+                }
+            } else {
+                for (VilleIndexee ville : villesParId.values()) {
+                    retenir(ville, recherche, correspondances);
+                }
+            }
+            correspondances.sort(Correspondance.CLASSEMENT);
+            return page(correspondances, pageable);
+        });
+    }
+
+    /**
+     * Identifiants des villes dont le nom contient la saisie, pour restreindre une requête SQL
+     * à sa clé primaire au lieu d'un LIKE '%x%' sur toute la table
+     * @param texte saisie de l'utilisateur
+     * @param max nombre maximal d'identifiants
+     * @return identifiants (liste vide si aucune ville), ou Optional.empty() si la saisie est vide
+     *         ou correspond à plus de max villes (trop peu sélective pour une liste d'identifiants)
+     */
+    public Optional<List<Long>> idsContenant(String texte, int max) {
+        String recherche = CleRecherche.normaliserSaisie(texte);
+        if (recherche.isEmpty()) {
+            return Optional.empty();
+        }
+        return lire(() -> {
+            Collection<VilleIndexee> candidats = new ArrayList<>();
+            if (recherche.length() >= IndexTrigrammes.LONGUEUR_MIN) {
+                for (long id : trigrammes.candidats(recherche)) {
+                    candidats.add(villesParId.get(id));
+                }
+            } else {
+                candidats = villesParId.values();
+            }
+            List<Long> ids = new ArrayList<>();
+            for (VilleIndexee ville : candidats) {
+                if (IndexTrigrammes.rang(ville.getCle(), recherche) >= 0) {
+                    if (ids.size() == max) {
+                        return Optional.<List<Long>>empty();
+                    }
+                    ids.add(ville.getId());
+                }
+            }
+            return Optional.of(ids);
+        });
+    }
+
+    private static void retenir(VilleIndexee ville, String recherche, Collection<Correspondance> correspondances) {
+        int rang = IndexTrigrammes.rang(ville.getCle(), recherche);
+        if (rang >= 0) {
+            correspondances.add(new Correspondance(rang, ville));
+        }
+    }
+
+    private static Page<VilleIndexee> page(List<Correspondance> correspondances, Pageable pageable) {
+        int debut = (int) Math.min(pageable.getOffset(), correspondances.size());
+        int fin = Math.min(debut + pageable.getPageSize(), correspondances.size());
+        List<VilleIndexee> contenu = new ArrayList<>(fin - debut);
+        for (Correspondance correspondance : correspondances.subList(debut, fin)) {
+            contenu.add(correspondance.ville);
+        }
+        return new PageImpl<>(contenu, pageable, correspondances.size());
+    }
+
+    // ==================== INDEX ====================
+
+    @Override
+    protected void vider() {
+        trigrammes.vider();
+    }
+
+    @Override
+    protected void ajouter(VilleIndexee ville, boolean construction) {
+        trigrammes.ajouter(ville.getId(), ville.getCle());
+    }
+
+    @Override
+    protected void retirer(VilleIndexee ville) {
+        trigrammes.retirer(ville.getId(), ville.getCle());
+    }
+
+    // ==================== CLASSES INTERNES ====================
+
+    private static final class Correspondance {
+
+        private static final Comparator<Correspondance> CLASSEMENT = Comparator
+                .comparingInt((Correspondance c) -> c.rang)
+                .thenComparing(c -> c.ville.getNbHabitants(), Comparator.reverseOrder())
+                .thenComparing(c -> c.ville.getNom())
+                .thenComparingLong(c -> c.ville.getId());
+
+        private final int rang;
+        private final VilleIndexee ville;
+
+        Correspondance(int rang, VilleIndexee ville) {
+            this.rang = rang;
+            this.ville = ville;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package fr.diginamic.hello.services;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.diginamic.hello.dto.VilleDTO;
+import fr.diginamic.hello.services.ImportVillesService.LigneIllisibleException;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lecture incrémentale de villes JSON avec l'API streaming de Jackson
+ *
+ * Accepte un tableau JSON de villes ou une suite d'objets (NDJSON), compressé
+ * en gzip ou non (détection sur les premiers octets). Une seule ville est
+ * désérialisée à la fois : la mémoire ne dépend pas de la taille du flux.
+ *
+ * Une ville mal formée (type incorrect...) lève LigneIllisibleException pour cette seule
+ * ligne ; un JSON syntaxiquement invalide lève UncheckedIOException et termine la lecture.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public class LecteurVillesJson implements Iterator<VilleDTO>, Closeable {
+
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private final JsonToken fin;
+    private JsonToken courant;
+
+    /**
+     * Ouvre la lecture sur un flux JSON (gzip détecté automatiquement)
+     * @param objectMapper mapper Jackson de l'application
+     * @param entree flux d'entrée (fermé par close)
+     * @throws IOException si le flux est illisible ou ne commence ni par un tableau ni par un objet
+     */
+    public LecteurVillesJson(ObjectMapper objectMapper, InputStream entree) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(decompresserSiBesoin(entree));
+
+        JsonToken premier = parser.nextToken();
+        if (premier == JsonToken.START_ARRAY) {
+            this.fin = JsonToken.END_ARRAY;
+            this.courant = parser.nextToken();
+        } else if (premier == JsonToken.START_OBJECT || premier == null) {
+            this.fin = null;
+            this.courant = premier;
+        } else {
+            throw new JsonParseException(parser, "Un tableau ou des objets JSON sont attendus");
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return courant != null && courant != fin;
+    }
+
+    @Override
+    public VilleDTO next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            if (courant != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                avancer();
+                throw new LigneIllisibleException("Un objet ville est attendu");
+            }
+            JsonNode noeud = parser.readValueAsTree();
+            avancer();
+            try {
+                return objectMapper.treeToValue(noeud, VilleDTO.class);
+            } catch (JsonProcessingException e) {
+                throw new LigneIllisibleException("Ville illisible : " + e.getOriginalMessage());
+            }
+        } catch (IOException e) {
+            courant = null;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private void avancer() throws IOException {
+        courant = parser.nextToken();
+    }
+
+    /**
+     * Enveloppe le flux dans un GZIPInputStream s'il commence par l'en-tête gzip (1f 8b)
+     */
+    private static InputStream decompresserSiBesoin(InputStream entree) throws IOException {
+        BufferedInputStream tampon = new BufferedInputStream(entree, 65536);
+        tampon.mark(2);
+        int b1 = tampon.read();
+        int b2 = tampon.read();
+        tampon.reset();
+        if (b1 == 0x1f && b2 == 0x8b) {
+            return new GZIPInputStream(tampon, 65536);
+        }
+        return tampon;
+    }
+}
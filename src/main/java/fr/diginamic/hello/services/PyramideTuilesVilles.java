@@ -0,0 +1,224 @@
+package fr.diginamic.hello.services;
+
+import fr.diginamic.hello.dto.TuileVillesDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pyramide de tuiles en mémoire : nombre de villes et population par cellule, pour la carte
+ *
+ * Tuiles z/x/y de la projection Web Mercator (celles des fonds de carte OpenStreetMap),
+ * découpées en 8 x 8 cellules. Pour chaque zoom de 0 à ZOOM_MAX_PRECALCULE, chaque cellule non
+ * vide porte le nombre de villes, la somme des populations et la somme des coordonnées (position
+ * moyenne des villes, où dessiner le groupe). Une tuile se lit donc en 64 accès, sans parcourir
+ * les villes. Au-delà de ZOOM_MAX_PRECALCULE (cellules d'environ 3 km en France), la tuile
+ * reprend les cellules du zoom le plus fin dont la position moyenne tombe dans la tuile.
+ *
+ * Une pyramide pour toutes les villes, une par département (carte filtrée). Une ville ajoutée ou
+ * retirée met à jour une cellule par zoom dans chacune des deux : un changement de population ou
+ * de département (retrait puis ajout, voir IndexMemoireVilles) est répercuté à tous les zooms.
+ * Seules les villes localisées sont comptées.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Component
+public class PyramideTuilesVilles extends IndexMemoireVilles {
+
+    /**
+     * Zoom le plus fin précalculé
+     */
+    public static final int ZOOM_MAX_PRECALCULE = 10;
+
+    /**
+     * Zoom maximal accepté
+     */
+    public static final int ZOOM_MAX = 20;
+
+    /**
+     * Cellules par côté de tuile (2^3)
+     */
+    private static final int BITS_CELLULES = 3;
+
+    /**
+     * Cellules par côté du monde au zoom le plus fin (2^13)
+     */
+    private static final int BITS_FIN = ZOOM_MAX_PRECALCULE + BITS_CELLULES;
+
+    /**
+     * Latitude limite de la projection Web Mercator (monde carré)
+     */
+    private static final double LATITUDE_MAX = 85.05112878;
+
+    private final Pyramide toutes = new Pyramide();
+
+    private final Map<Long, Pyramide> parDepartement = new HashMap<>();
+
+    // ==================== LECTURE ====================
+
+    /**
+     * Groupes de villes d'une tuile
+     * @param z zoom (0 à ZOOM_MAX)
+     * @param x colonne de la tuile (0 à 2^z - 1)
+     * @param y ligne de la tuile (0 à 2^z - 1, 0 au nord)
+     * @param departementId département (null pour toutes les villes)
+     * @return TuileVillesDTO (sans groupe si la tuile est vide)
+     */
+    public TuileVillesDTO tuile(int z, int x, int y, Long departementId) {
+        return lire(() -> {
+            TuileVillesDTO tuile = new TuileVillesDTO(z, x, y);
+            Pyramide pyramide = departementId == null ? toutes : parDepartement.get(departementId);
+            if (pyramide == null) {
+                return tuile;
+            }
+            if (z <= ZOOM_MAX_PRECALCULE) {
+                Map<Long, Cellule> niveau = pyramide.niveaux[z];
+                int cx = x << BITS_CELLULES;
+                int cy = y << BITS_CELLULES;
+                for (int j = 0; j < 1 << BITS_CELLULES; j++) {
+                    for (int i = 0; i < 1 << BITS_CELLULES; i++) {
+                        Cellule cellule = niveau.get(cle(cx + i, cy + j));
+                        if (cellule != null) {
+                            tuile.ajouterGroupe(cellule.groupe());
+                        }
+                    }
+                }
+            } else {
+                // Cellules du zoom le plus fin qui recouvrent la tuile (une seule au-delà du zoom 13)
+                Map<Long, Cellule> niveau = pyramide.niveaux[ZOOM_MAX_PRECALCULE];
+                int ecart = z - ZOOM_MAX_PRECALCULE - BITS_CELLULES;
+                int debutX = ecart >= 0 ? x >> ecart : x << -ecart;
+                int debutY = ecart >= 0 ? y >> ecart : y << -ecart;
+                int cote = ecart >= 0 ? 1 : 1 << -ecart;
+                double echelle = 1 << z;
+                for (int j = 0; j < cote; j++) {
+                    for (int i = 0; i < cote; i++) {
+                        Cellule cellule = niveau.get(cle(debutX + i, debutY + j));
+                        if (cellule == null) {
+                            continue;
+                        }
+                        TuileVillesDTO.GroupeVillesDTO groupe = cellule.groupe();
+                        if ((int) (mercatorX(groupe.getLongitude()) * echelle) == x
+                                && (int) (mercatorY(groupe.getLatitude()) * echelle) == y) {
+                            tuile.ajouterGroupe(groupe);
+                        }
+                    }
+                }
+            }
+            return tuile;
+        });
+    }
+
+    // ==================== PYRAMIDE ====================
+
+    @Override
+    protected void vider() {
+        toutes.vider();
+        parDepartement.clear();
+    }
+
+    @Override
+    protected void ajouter(VilleIndexee ville, boolean construction) {
+        if (ville.estLocalisee()) {
+            toutes.appliquer(ville, 1);
+            parDepartement.computeIfAbsent(ville.getDepartementId(), id -> new Pyramide()).appliquer(ville, 1);
+        }
+    }
+
+    @Override
+    protected void retirer(VilleIndexee ville) {
+        if (ville.estLocalisee()) {
+            toutes.appliquer(ville, -1);
+            Pyramide pyramide = parDepartement.get(ville.getDepartementId());
+            if (pyramide != null) {
+                pyramide.appliquer(ville, -1);
+            }
+        }
+    }
+
+    private static long cle(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    /**
+     * Abscisse Web Mercator de 0 (antiméridien ouest) à 1
+     */
+    private static double mercatorX(double longitude) {
+        return (longitude + 180) / 360;
+    }
+
+    /**
+     * Ordonnée Web Mercator de 0 (nord) à 1 (sud)
+     */
+    private static double mercatorY(double latitude) {
+        double phi = Math.toRadians(Math.max(-LATITUDE_MAX, Math.min(LATITUDE_MAX, latitude)));
+        return (1 - Math.log(Math.tan(phi) + 1 / Math.cos(phi)) / Math.PI) / 2;
+    }
+
+    private static int celluleFine(double mercator) {
+        int cote = 1 << BITS_FIN;
+        return Math.max(0, Math.min(cote - 1, (int) Math.floor(mercator * cote)));
+    }
+
+    // ==================== CLASSES INTERNES ====================
+
+    /**
+     * Cellules non vides de chaque zoom, par (colonne, ligne) de cellule
+     */
+    private static final class Pyramide {
+        @SuppressWarnings("unchecked")
+        private final Map<Long, Cellule>[] niveaux = new Map[ZOOM_MAX_PRECALCULE + 1];
+
+        Pyramide() {
+            vider();
+        }
+
+        void vider() {
+            for (int z = 0; z <= ZOOM_MAX_PRECALCULE; z++) {
+                niveaux[z] = new HashMap<>();
+            }
+        }
+
+        /**
+         * Ajoute (sens 1) ou retire (sens -1) une ville de sa cellule à chaque zoom
+         */
+        void appliquer(VilleIndexee ville, int sens) {
+            int fx = celluleFine(mercatorX(ville.getLongitude()));
+            int fy = celluleFine(mercatorY(ville.getLatitude()));
+            for (int z = 0; z <= ZOOM_MAX_PRECALCULE; z++) {
+                int decalage = ZOOM_MAX_PRECALCULE - z;
+                long cle = cle(fx >> decalage, fy >> decalage);
+                Cellule cellule = niveaux[z].get(cle);
+                if (cellule == null) {
+                    if (sens < 0) {
+                        continue;
+                    }
+                    cellule = new Cellule();
+                    niveaux[z].put(cle, cellule);
+                }
+                cellule.nombre += sens;
+                cellule.population += (long) sens * ville.getNbHabitants();
+                cellule.sommeLatitudes += sens * ville.getLatitude();
+                cellule.sommeLongitudes += sens * ville.getLongitude();
+                if (cellule.nombre <= 0) {
+                    niveaux[z].remove(cle);
+                }
+            }
+        }
+    }
+
+    private static final class Cellule {
+        private int nombre;
+        private long population;
+        private double sommeLatitudes;
+        private double sommeLongitudes;
+
+        TuileVillesDTO.GroupeVillesDTO groupe() {
+            return new TuileVillesDTO.GroupeVillesDTO(sommeLatitudes / nombre, sommeLongitudes / nombre,
+                    nombre, population);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package fr.diginamic.hello.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tâche planifiée de réparation des compteurs dénormalisés des départements
+ *
+ * Les compteurs nombre_villes et population_totale sont maintenus à chaque écriture
+ * par VilleService ; cette tâche les recalcule périodiquement depuis la table ville
+ * pour corriger toute dérive (modification SQL directe, import hors application...).
+ *
+ * Planification configurable via la propriété departement.compteurs.recalcul.cron
+ * (désactivable avec la valeur "-").
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Component
+public class RecalculCompteursJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecalculCompteursJob.class);
+
+    @Autowired
+    private DepartementService departementService;
+
+    /**
+     * Recalcule les compteurs de tous les départements
+     */
+    @Scheduled(cron = "${departement.compteurs.recalcul.cron:0 0 3 * * *}")
+    public void recalculer() {
+        int nombre = departementService.recalculerCompteurs();
+        LOGGER.info("Compteurs recalculés pour {} département(s)", nombre);
+    }
+}
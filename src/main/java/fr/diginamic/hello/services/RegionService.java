@@ -0,0 +1,93 @@
+package fr.diginamic.hello.services;
+
+import fr.diginamic.hello.dto.DepartementResumeDTO;
+import fr.diginamic.hello.dto.RegionDTO;
+import fr.diginamic.hello.dto.TotauxFranceDTO;
+import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
+import fr.diginamic.hello.models.ZoneRegion;
+import fr.diginamic.hello.repositories.DepartementRepository;
+import fr.diginamic.hello.repositories.RegionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service des régions et des totaux nationaux
+ *
+ * Toutes les lectures portent sur des compteurs persistés (region, departement), tenus à
+ * jour par delta à chaque écriture sur ville : leur coût ne dépend pas du nombre de villes.
+ * Les totaux nationaux en sont la somme, sans ligne nationale unique que toutes les
+ * écritures sur ville se disputeraient. Les compteurs sont écrits par DepartementRepository et lus
+ * hors cache de second niveau (CompteursRegion, CompteursDepartement).
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Service
+@Transactional
+public class RegionService {
+
+    // ==================== INJECTION DES DÉPENDANCES ====================
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private DepartementRepository departementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // ==================== LECTURES ====================
+
+    /**
+     * Récupère toutes les régions, ou celles d'une zone, avec leurs compteurs, triées par code
+     * @param zone zone géographique (null : toutes)
+     * @return List<RegionDTO>
+     */
+    @Transactional(readOnly = true)
+    public List<RegionDTO> findAll(ZoneRegion zone) {
+        return zone != null ? regionRepository.findDtosByZone(zone) : regionRepository.findDtos();
+    }
+
+    /**
+     * Récupère une région et ses compteurs par son code INSEE
+     * @param code code de la région
+     * @return RegionDTO
+     */
+    @Transactional(readOnly = true)
+    public RegionDTO findByCode(String code) {
+        return regionRepository.findDtoByCode(code)
+                .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Région", code));
+    }
+
+    /**
+     * Résumés des départements d'une région (compteurs persistés), triés par code
+     * @param code code INSEE de la région
+     * @return List<DepartementResumeDTO>
+     */
+    @Transactional(readOnly = true)
+    public List<DepartementResumeDTO> findDepartements(String code) {
+        findByCode(code);
+        return departementRepository.findResumesByRegionCode(code);
+    }
+
+    /**
+     * Totaux nationaux : somme des compteurs des 18 régions et de ceux des départements sans
+     * région (code hors de region_departement), ces derniers lus par idx_departement_region
+     * @return TotauxFranceDTO
+     */
+    @Transactional(readOnly = true)
+    public TotauxFranceDTO getTotauxFrance() {
+        return jdbcTemplate.queryForObject(
+                "SELECT (SELECT COALESCE(SUM(nombre_villes), 0) FROM region)"
+                        + " + (SELECT COALESCE(SUM(nombre_villes), 0) FROM departement WHERE id_region IS NULL),"
+                        + " (SELECT COALESCE(SUM(population_totale), 0) FROM region)"
+                        + " + (SELECT COALESCE(SUM(population_totale), 0) FROM departement WHERE id_region IS NULL)",
+                (rs, ligne) -> new TotauxFranceDTO(rs.getLong(1), rs.getLong(2)));
+    }
+}
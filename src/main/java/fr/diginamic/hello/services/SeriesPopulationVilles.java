@@ -0,0 +1,251 @@
+package fr.diginamic.hello.services;
+
+import fr.diginamic.hello.dto.SeriePopulationDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Historique des populations en mémoire, stocké en colonnes pour les agrégats entre années
+ *
+ * Chaque ville a une position ; chaque année de recensement est une colonne int[] indexée par
+ * position (ABSENTE si la ville n'a pas de valeur cette année-là), et le département de chaque
+ * position est un int[] d'indices denses. Un agrégat sur toutes les villes (croissance par
+ * département entre deux années) est ainsi une boucle sur trois tableaux de primitives, sans
+ * objet par ville ni requête.
+ *
+ * Construction : villes (voir IndexMemoireVilles) puis la table ville_population_history en
+ * une requête. Une ville modifiée garde sa position et ses valeurs (changement de département
+ * compris) ; une ville supprimée sort des agrégats. Un import d'historique invalide le stockage.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Component
+public class SeriesPopulationVilles extends IndexMemoireVilles {
+
+    /**
+     * Valeur d'une ville sans population connue pour une année
+     */
+    private static final int ABSENTE = -1;
+
+    /**
+     * Département d'une position libérée (ville supprimée)
+     */
+    private static final int SANS_DEPARTEMENT = -1;
+
+    private static final int CAPACITE_INITIALE = 1024;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    private int[] departements = new int[CAPACITE_INITIALE];
+
+    private int nombrePositions;
+
+    private final Map<Long, Integer> indicesDepartements = new HashMap<>();
+
+    private final List<Long> departementIds = new ArrayList<>();
+
+    /**
+     * Années connues, croissantes, et colonne de chacune (même ordre)
+     */
+    private int[] annees = new int[0];
+
+    private int[][] colonnes = new int[0][];
+
+    // ==================== LECTURE ====================
+
+    /**
+     * Années pour lesquelles au moins une population est connue
+     * @return années croissantes
+     */
+    public int[] annees() {
+        return lire(() -> annees.clone());
+    }
+
+    /**
+     * Série d'une ville
+     * @param villeId identifiant de la ville
+     * @return SeriePopulationDTO (sans valeur si aucune n'est connue), null si la ville n'existe pas
+     */
+    public SeriePopulationDTO serie(long villeId) {
+        return lire(() -> {
+            Integer position = positions.get(villeId);
+            if (position == null || departements[position] == SANS_DEPARTEMENT) {
+                return null;
+            }
+            Map<Integer, Integer> serie = new TreeMap<>();
+            for (int a = 0; a < annees.length; a++) {
+                int valeur = colonnes[a][position];
+                if (valeur != ABSENTE) {
+                    serie.put(annees[a], valeur);
+                }
+            }
+            return new SeriePopulationDTO(villeId, villesParId.get(villeId).getNom(), serie);
+        });
+    }
+
+    /**
+     * Populations de deux années sommées par département, sur les villes connues les deux années
+     * @param anneeDebut première année
+     * @param anneeFin seconde année
+     * @return un agrégat par département ayant au moins une telle ville, null si une année est inconnue
+     */
+    public List<Croissance> croissanceParDepartement(int anneeDebut, int anneeFin) {
+        return lire(() -> {
+            int debut = Arrays.binarySearch(annees, anneeDebut);
+            int fin = Arrays.binarySearch(annees, anneeFin);
+            if (debut < 0 || fin < 0) {
+                return null;
+            }
+            int[] valeursDebut = colonnes[debut];
+            int[] valeursFin = colonnes[fin];
+            int nombreDepartements = departementIds.size();
+            int[] nombres = new int[nombreDepartements];
+            long[] sommesDebut = new long[nombreDepartements];
+            long[] sommesFin = new long[nombreDepartements];
+            for (int p = 0; p < nombrePositions; p++) {
+                int departement = departements[p];
+                int a = valeursDebut[p];
+                int b = valeursFin[p];
+                if (departement != SANS_DEPARTEMENT && a != ABSENTE && b != ABSENTE) {
+                    nombres[departement]++;
+                    sommesDebut[departement] += a;
+                    sommesFin[departement] += b;
+                }
+            }
+            List<Croissance> resultat = new ArrayList<>();
+            for (int d = 0; d < nombreDepartements; d++) {
+                if (nombres[d] > 0) {
+                    resultat.add(new Croissance(departementIds.get(d), nombres[d], sommesDebut[d], sommesFin[d]));
+                }
+            }
+            return resultat;
+        });
+    }
+
+    // ==================== STOCKAGE ====================
+
+    @Override
+    protected void vider() {
+        positions.clear();
+        departements = new int[CAPACITE_INITIALE];
+        nombrePositions = 0;
+        indicesDepartements.clear();
+        departementIds.clear();
+        annees = new int[0];
+        colonnes = new int[0][];
+    }
+
+    @Override
+    protected void ajouter(VilleIndexee ville, boolean construction) {
+        Integer position = positions.get(ville.getId());
+        if (position == null) {
+            position = nouvellePosition(ville.getId());
+        }
+        departements[position] = indiceDepartement(ville.getDepartementId());
+    }
+
+    @Override
+    protected void retirer(VilleIndexee ville) {
+        // Les valeurs restent : une modification (retrait puis ajout) retrouve la même position
+        Integer position = positions.get(ville.getId());
+        if (position != null) {
+            departements[position] = SANS_DEPARTEMENT;
+        }
+    }
+
+    /**
+     * Chargement de l'historique, une colonne par année, après celui des villes
+     */
+    @Override
+    protected void terminerConstruction() {
+        annees = jdbcTemplate.queryForList("SELECT DISTINCT annee FROM ville_population_history ORDER BY annee",
+                Integer.class).stream().mapToInt(Integer::intValue).toArray();
+        colonnes = new int[annees.length][];
+        for (int a = 0; a < annees.length; a++) {
+            colonnes[a] = colonneVide(departements.length);
+        }
+        jdbcTemplate.query("SELECT annee, id_ville, nb_habs FROM ville_population_history", rs -> {
+            int colonne = Arrays.binarySearch(annees, rs.getInt(1));
+            Integer position = positions.get(rs.getLong(2));
+            if (colonne >= 0 && position != null) {
+                colonnes[colonne][position] = rs.getInt(3);
+            }
+        });
+    }
+
+    private int nouvellePosition(long villeId) {
+        if (nombrePositions == departements.length) {
+            int capacite = departements.length * 2;
+            departements = Arrays.copyOf(departements, capacite);
+            for (int a = 0; a < colonnes.length; a++) {
+                int ancienne = colonnes[a].length;
+                colonnes[a] = Arrays.copyOf(colonnes[a], capacite);
+                Arrays.fill(colonnes[a], ancienne, capacite, ABSENTE);
+            }
+        }
+        int position = nombrePositions++;
+        positions.put(villeId, position);
+        return position;
+    }
+
+    private int indiceDepartement(long departementId) {
+        return indicesDepartements.computeIfAbsent(departementId, id -> {
+            departementIds.add(id);
+            return departementIds.size() - 1;
+        });
+    }
+
+    private static int[] colonneVide(int taille) {
+        int[] colonne = new int[taille];
+        Arrays.fill(colonne, ABSENTE);
+        return colonne;
+    }
+
+    // ==================== CLASSES INTERNES ====================
+
+    /**
+     * Populations d'un département aux deux années comparées
+     */
+    public static final class Croissance {
+        private final long departementId;
+        private final int nombreVilles;
+        private final long populationDebut;
+        private final long populationFin;
+
+        Croissance(long departementId, int nombreVilles, long populationDebut, long populationFin) {
+            this.departementId = departementId;
+            this.nombreVilles = nombreVilles;
+            this.populationDebut = populationDebut;
+            this.populationFin = populationFin;
+        }
+
+        public long getDepartementId() {
+            return departementId;
+        }
+
+        public int getNombreVilles() {
+            return nombreVilles;
+        }
+
+        public long getPopulationDebut() {
+            return populationDebut;
+        }
+
+        public long getPopulationFin() {
+            return populationFin;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package fr.diginamic.hello.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteurs de version des données, source des ETag des réponses GET
+ *
+ * - version globale : incrémentée à chaque écriture (listes, recherches, statistiques)
+ * - version par département : incrémentée par les écritures sur le département ou ses villes
+ * - version "tous départements" : écritures en masse (recalcul des compteurs, import CSV),
+ *   invalide d'un coup les versions de chaque département
+ *
+ * Les incréments ont lieu après la validation de la transaction : une lecture concurrente
+ * peut renvoyer des données récentes avec l'ancienne version (simple 200 au passage suivant),
+ * jamais des données anciennes avec la nouvelle. L'ETag contient l'instant de démarrage,
+ * pour qu'un redémarrage (compteurs remis à zéro) ne valide pas un ancien ETag.
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+@Component
+public class VersionsDonnees {
+
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong versionGlobale = new AtomicLong();
+
+    private final AtomicLong versionTousDepartements = new AtomicLong();
+
+    private final ConcurrentHashMap<Long, AtomicLong> versionsDepartements = new ConcurrentHashMap<>();
+
+    // ==================== INCRÉMENTS ====================
+
+    /**
+     * Signale une écriture sur un département ou l'une de ses villes
+     * @param departementId identifiant du département (ignoré si null)
+     */
+    public void departementModifie(Long departementId) {
+        apresValidation(() -> {
+            if (departementId != null) {
+                versionsDepartements.computeIfAbsent(departementId, id -> new AtomicLong()).incrementAndGet();
+            }
+            versionGlobale.incrementAndGet();
+        });
+    }
+
+    /**
+     * Signale une écriture touchant potentiellement tous les départements
+     */
+    public void tousDepartementsModifies() {
+        apresValidation(() -> {
+            versionTousDepartements.incrementAndGet();
+            versionGlobale.incrementAndGet();
+        });
+    }
+
+    private void apresValidation(Runnable increment) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    increment.run();
+                }
+            });
+        } else {
+            increment.run();
+        }
+    }
+
+    // ==================== ETAG ====================
+
+    /**
+     * ETag fort des réponses qui dépendent de l'ensemble des données
+     * @return ETag entre guillemets
+     */
+    public String etagGlobal() {
+        return "\"" + instance + "-" + versionGlobale.get() + "\"";
+    }
+
+    /**
+     * ETag fort des réponses limitées à un département
+     * @param departementId identifiant du département
+     * @return ETag entre guillemets
+     */
+    public String etagDepartement(Long departementId) {
+        AtomicLong version = versionsDepartements.get(departementId);
+        return "\"" + instance + "-" + versionTousDepartements.get() + "-d" + departementId
+                + "-" + (version != null ? version.get() : 0) + "\"";
+    }
+}
@@ -0,0 +1,94 @@
+package fr.diginamic.hello.services;
+
+import fr.diginamic.hello.models.Ville;
+
+/**
+ * Ville telle que la voient les index en mémoire : valeurs copiées à l'enregistrement,
+ * département par identifiant (résolu à la lecture par DepartementCacheService),
+ * coordonnées NaN si inconnues
+ *
+ * @author Votre nom
+ * @version 1.0
+ * @since 2.0
+ */
+public final class VilleIndexee {
+
+    private final long id;
+    private final String nom;
+    private final int nbHabitants;
+    private final long departementId;
+    private final String cle;
+    private final double latitude;
+    private final double longitude;
+
+    public VilleIndexee(long id, String nom, int nbHabitants, long departementId, String cle,
+                        double latitude, double longitude) {
+        this.id = id;
+        this.nom = nom;
+        this.nbHabitants = nbHabitants;
+        this.departementId = departementId;
+        this.cle = cle;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * Copie des valeurs d'une ville enregistrée
+     * @param ville ville (département renseigné)
+     * @return VilleIndexee
+     */
+    public static VilleIndexee de(Ville ville) {
+        return new VilleIndexee(ville.getId(), ville.getNom(), ville.getNbHabitants(), ville.getDepartement().getId(),
+                CleRecherche.normaliser(ville.getNom()),
+                ville.getLatitude() != null ? ville.getLatitude() : Double.NaN,
+                ville.getLongitude() != null ? ville.getLongitude() : Double.NaN);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public int getNbHabitants() {
+        return nbHabitants;
+    }
+
+    public long getDepartementId() {
+        return departementId;
+    }
+
+    /**
+     * Clé de recherche du nom (colonne nom_recherche, CleRecherche)
+     * @return clé normalisée
+     */
+    public String getCle() {
+        return cle;
+    }
+
+    /**
+     * Latitude en degrés
+     * @return latitude, NaN si inconnue
+     */
+    public double getLatitude() {
+        return latitude;
+    }
+
+    /**
+     * Longitude en degrés
+     * @return longitude, NaN si inconnue
+     */
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Indique si la ville est localisée (latitude et longitude connues)
+     * @return true si les deux coordonnées sont renseignées
+     */
+    public boolean estLocalisee() {
+        return !Double.isNaN(latitude) && !Double.isNaN(longitude);
+    }
+}
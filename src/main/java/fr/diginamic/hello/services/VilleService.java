@@ -1,20 +1,37 @@
 package fr.diginamic.hello.services;
 
+import fr.diginamic.hello.dto.CroissanceDepartementDTO;
+import fr.diginamic.hello.dto.PageCurseurDTO;
+import fr.diginamic.hello.dto.SeriePopulationDTO;
+import fr.diginamic.hello.dto.StatistiquesDepartementDTO;
+import fr.diginamic.hello.dto.TuileVillesDTO;
+import fr.diginamic.hello.dto.VilleDTO;
+import fr.diginamic.hello.dto.VilleProcheDTO;
 import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
 import fr.diginamic.hello.models.Departement;
 import fr.diginamic.hello.models.Ville;
 import fr.diginamic.hello.repositories.DepartementRepository;
 import fr.diginamic.hello.repositories.VilleRepository;
 import fr.diginamic.hello.repositories.VilleRepositoryHelper;
+import fr.diginamic.hello.repositories.VilleSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service gérant la logique métier des villes
@@ -27,6 +44,10 @@ import java.util.Optional;
  * - Gère les transactions avec @Transactional
  * - Effectue les validations métier avant persistance
  * - Utilise les repositories pour l'accès aux données
+ * - Maintient les compteurs dénormalisés du département et de sa région
+ *   (nombre de villes, population totale) dans la même transaction que chaque écriture
+ * - Signale chaque écriture à VersionsDonnees (ETag des réponses GET)
+ *   et aux index en mémoire (IndexMemoireVilles : autocomplétion, sous-chaînes)
  *
  * @author Votre nom
  * @version 2.0 - Migration vers Spring Data JPA Repositories
@@ -47,6 +68,36 @@ public class VilleService {
     @Autowired
     private VilleRepositoryHelper repositoryHelper;
 
+    @Autowired
+    private DepartementCacheService departementCacheService;
+
+    @Autowired
+    private VersionsDonnees versionsDonnees;
+
+    @Autowired
+    private IndexPrefixesVilles indexPrefixes;
+
+    @Autowired
+    private IndexTrigrammesVilles indexTrigrammes;
+
+    @Autowired
+    private IndexApprocheVilles indexApproche;
+
+    @Autowired
+    private IndexPhonetiqueVilles indexPhonetique;
+
+    @Autowired
+    private IndexGeographiqueVilles indexGeographique;
+
+    @Autowired
+    private PyramideTuilesVilles pyramideTuiles;
+
+    @Autowired
+    private SeriesPopulationVilles seriesPopulation;
+
+    @Autowired
+    private List<IndexMemoireVilles> indexMemoire;
+
     // ==================== MÉTHODES CRUD DE BASE ====================
 
     /**
@@ -80,6 +131,115 @@ public class VilleService {
         return villeRepository.findAll(pageable);
     }
 
+    // ==================== PAGINATION PAR CURSEUR ====================
+
+    /**
+     * Taille maximale d'une tranche paginée par curseur
+     */
+    public static final int TAILLE_MAX_TRANCHE = 500;
+
+    /**
+     * Récupère une tranche de villes paginée par curseur (keyset)
+     * @param tri critère de tri (id, nom ou nbHabitants)
+     * @param curseur curseur reçu de la tranche précédente (null ou vide pour la première)
+     * @param size taille de la tranche
+     * @return PageCurseurDTO<Ville>
+     */
+    @Transactional(readOnly = true)
+    public PageCurseurDTO<Ville> findTranche(String tri, String curseur, int size) {
+        CurseurVille position = validerTranche(tri, curseur, size);
+        Pageable limite = limiteTranche(tri, position, size);
+
+        List<Ville> villes;
+        if (position == null) {
+            villes = villeRepository.findPremiereTranche(limite);
+        } else {
+            villes = switch (tri) {
+                case "nom" -> villeRepository.findTrancheApresNom(position.getNom(), position.getId(), limite);
+                case "nbHabitants" -> villeRepository.findTrancheApresNbHabitants(
+                        position.getNbHabitants(), position.getId(), limite);
+                default -> villeRepository.findTrancheApresId(position.getId(), limite);
+            };
+        }
+        return construireTranche(villes, tri, size);
+    }
+
+    /**
+     * Récupère une tranche des villes d'un département paginée par curseur (keyset)
+     * @param departementId identifiant du département
+     * @param tri critère de tri (id, nom ou nbHabitants)
+     * @param curseur curseur reçu de la tranche précédente (null ou vide pour la première)
+     * @param size taille de la tranche
+     * @return PageCurseurDTO<Ville>
+     */
+    @Transactional(readOnly = true)
+    public PageCurseurDTO<Ville> findTrancheByDepartement(Long departementId, String tri, String curseur, int size) {
+        CurseurVille position = validerTranche(tri, curseur, size);
+        Pageable limite = limiteTranche(tri, position, size);
+
+        List<Ville> villes;
+        if (position == null) {
+            villes = villeRepository.findPremiereTrancheByDepartementId(departementId, limite);
+        } else {
+            villes = switch (tri) {
+                case "nom" -> villeRepository.findTrancheByDepartementIdApresNom(
+                        departementId, position.getNom(), position.getId(), limite);
+                case "nbHabitants" -> villeRepository.findTrancheByDepartementIdApresNbHabitants(
+                        departementId, position.getNbHabitants(), position.getId(), limite);
+                default -> villeRepository.findTrancheByDepartementIdApresId(departementId, position.getId(), limite);
+            };
+        }
+        return construireTranche(villes, tri, size);
+    }
+
+    /**
+     * Valide les paramètres d'une tranche et décode le curseur
+     * @return position de départ, ou null pour la première tranche
+     */
+    private CurseurVille validerTranche(String tri, String curseur, int size) {
+        if (!CurseurVille.TRIS.contains(tri)) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Tri non supporté pour la pagination par curseur : " + tri + " (id, nom, nbHabitants)");
+        }
+        if (size < 1 || size > TAILLE_MAX_TRANCHE) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "La taille de tranche doit être comprise entre 1 et " + TAILLE_MAX_TRANCHE);
+        }
+        if (curseur == null || curseur.isBlank()) {
+            return null;
+        }
+        CurseurVille position = CurseurVille.decoder(curseur);
+        if (!position.getTri().equals(tri)) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Le curseur a été émis pour le tri '" + position.getTri() + "', pas '" + tri + "'");
+        }
+        return position;
+    }
+
+    /**
+     * Limite de lecture : une ligne de plus que la tranche pour savoir s'il en reste
+     * La première tranche porte le tri (clé, id) ; les suivantes ont leur ORDER BY en JPQL
+     */
+    private Pageable limiteTranche(String tri, CurseurVille position, int size) {
+        if (position != null) {
+            return PageRequest.of(0, size + 1);
+        }
+        Sort ordre = "id".equals(tri) ? Sort.by("id") : Sort.by(tri, "id");
+        return PageRequest.of(0, size + 1, ordre);
+    }
+
+    /**
+     * Construit la tranche et le curseur suivant à partir des lignes lues
+     */
+    private PageCurseurDTO<Ville> construireTranche(List<Ville> villes, String tri, int size) {
+        if (villes.size() <= size) {
+            return new PageCurseurDTO<>(villes, tri, size, null);
+        }
+        List<Ville> contenu = villes.subList(0, size);
+        String suivant = CurseurVille.apres(contenu.get(size - 1), tri).encoder();
+        return new PageCurseurDTO<>(contenu, tri, size, suivant);
+    }
+
     /**
      * Recherche une ville par son ID
      * @param id identifiant de la ville
@@ -98,7 +258,27 @@ public class VilleService {
     public Ville save(Ville ville) {
         // Validations métier
         validateVille(ville);
-        return villeRepository.save(ville);
+
+        // État précédent (mise à jour) lu avant la fusion pour calculer les deltas de compteurs
+        Optional<Ville> ancienne = ville.getId() != null ? villeRepository.findById(ville.getId()) : Optional.empty();
+        Long ancienDepartementId = ancienne.map(v -> v.getDepartement().getId()).orElse(null);
+        int ancienNbHabitants = ancienne.map(Ville::getNbHabitants).orElse(0);
+
+        Ville villeSauvegardee = villeRepository.save(ville);
+        Long departementId = villeSauvegardee.getDepartement().getId();
+
+        if (ancienDepartementId == null) {
+            appliquerDeltaCompteurs(departementId, 1, villeSauvegardee.getNbHabitants());
+        } else if (ancienDepartementId.equals(departementId)) {
+            appliquerDeltaCompteurs(departementId, 0, (long) villeSauvegardee.getNbHabitants() - ancienNbHabitants);
+        } else {
+            appliquerDeltaCompteurs(ancienDepartementId, -1, -ancienNbHabitants);
+            appliquerDeltaCompteurs(departementId, 1, villeSauvegardee.getNbHabitants());
+            versionsDonnees.departementModifie(ancienDepartementId);
+        }
+        versionsDonnees.departementModifie(departementId);
+        indexMemoire.forEach(index -> index.villeEnregistree(villeSauvegardee));
+        return villeSauvegardee;
     }
 
     /**
@@ -106,42 +286,253 @@ public class VilleService {
      * @param id identifiant de la ville
      */
     public void deleteById(Long id) {
-        if (!villeRepository.existsById(id)) {
-            throw ExceptionFonctionnelle.ressourceNonTrouvee("Ville", id);
-        }
-        villeRepository.deleteById(id);
+        Ville ville = villeRepository.findById(id)
+                .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Ville", id));
+        villeRepository.delete(ville);
+        appliquerDeltaCompteurs(ville.getDepartement().getId(), -1, -ville.getNbHabitants());
+        versionsDonnees.departementModifie(ville.getDepartement().getId());
+        indexMemoire.forEach(index -> index.villeSupprimee(id));
     }
 
     // ==================== MÉTHODES DE RECHERCHE SPÉCIALISÉES ====================
 
     /**
-     * Recherche une ville par nom exact
+     * Recherche une ville par nom, sans tenir compte de la casse, des accents, des tirets
+     * ni de l'abréviation "St" (clé de recherche indexée) ; la plus peuplée en cas d'homonymes
      * @param nom nom de la ville
      * @return Optional<Ville>
      */
     @Transactional(readOnly = true)
     public Optional<Ville> findByNom(String nom) {
-        return villeRepository.findByNom(nom);
+        String cle = CleRecherche.normaliser(nom);
+        if (cle.isEmpty()) {
+            return Optional.empty();
+        }
+        return villeRepository.findFirstByNomRechercheOrderByNbHabitantsDesc(cle);
     }
 
     /**
-     * Recherche des villes par nom partiel (insensible à la casse)
+     * Recherche des villes par nom partiel (index de trigrammes en mémoire,
+     * insensible à la casse, aux accents et aux tirets)
      * @param nom nom partiel de la ville
-     * @return List<Ville>
+     * @param page numéro de page (commence à 0)
+     * @param size taille de la page (1 à TAILLE_MAX_RECHERCHE)
+     * @return Page<VilleDTO> classée : nom identique, début du nom, début d'un mot, ailleurs,
+     *         puis population décroissante
+     * @throws ExceptionFonctionnelle si la pagination est invalide
      */
     @Transactional(readOnly = true)
-    public List<Ville> findByNomContaining(String nom) {
-        return villeRepository.findByNomContainingIgnoreCase(nom);
+    public Page<VilleDTO> findByNomContaining(String nom, int page, int size) {
+        if (page < 0 || size < 1 || size > TAILLE_MAX_RECHERCHE) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Pagination invalide : page >= 0 et taille comprise entre 1 et " + TAILLE_MAX_RECHERCHE);
+        }
+        return indexTrigrammes.rechercher(nom, PageRequest.of(page, size)).map(this::versDTO);
     }
 
     /**
-     * Recherche des villes dont le nom commence par un préfixe
+     * Autocomplétion : villes dont le nom commence par un préfixe (index en mémoire,
+     * insensible à la casse, aux accents et aux tirets)
      * @param prefix préfixe du nom
-     * @return List<Ville> triée par nom
+     * @param limite nombre maximal de villes (1 à IndexPrefixesVilles.getTopK())
+     * @return List<VilleDTO> les plus peuplées d'abord
+     * @throws ExceptionFonctionnelle si la limite est hors bornes
+     */
+    @Transactional(readOnly = true)
+    public List<VilleDTO> findByNomStartingWith(String prefix, int limite) {
+        if (limite < 1 || limite > indexPrefixes.getTopK()) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Le nombre de villes doit être compris entre 1 et " + indexPrefixes.getTopK());
+        }
+        return indexPrefixes.rechercher(prefix, limite).stream().map(this::versDTO).toList();
+    }
+
+    /**
+     * Recherche approchée : villes dont le nom est à au plus "distance" fautes de frappe
+     * (insertions, suppressions, substitutions) du nom saisi, sur la clé de recherche
+     * @param nom nom saisi
+     * @param distance distance d'édition maximale (0 à IndexApprocheVilles.getDistanceMax())
+     * @param limite nombre maximal de villes (1 à TAILLE_MAX_RECHERCHE)
+     * @return List<VilleDTO> par distance croissante, puis population décroissante
+     * @throws ExceptionFonctionnelle si la distance ou la limite est hors bornes
+     */
+    @Transactional(readOnly = true)
+    public List<VilleDTO> findByNomApproche(String nom, int distance, int limite) {
+        if (distance < 0 || distance > indexApproche.getDistanceMax()) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "La distance doit être comprise entre 0 et " + indexApproche.getDistanceMax());
+        }
+        if (limite < 1 || limite > TAILLE_MAX_RECHERCHE) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Le nombre de villes doit être compris entre 1 et " + TAILLE_MAX_RECHERCHE);
+        }
+        return indexApproche.rechercher(nom, distance, limite).stream()
+                .map(trouvee -> versDTO(trouvee.getVille())).toList();
+    }
+
+    /**
+     * Recherche phonétique : villes dont le nom se prononce comme la saisie (ClePhonetique),
+     * par lecture d'une entrée de l'index phonétique en mémoire
+     * @param nom nom saisi tel qu'entendu
+     * @param limite nombre maximal de villes (1 à TAILLE_MAX_RECHERCHE)
+     * @return List<VilleDTO> les plus peuplées d'abord
+     * @throws ExceptionFonctionnelle si la limite est hors bornes
+     */
+    @Transactional(readOnly = true)
+    public List<VilleDTO> findByNomPhonetique(String nom, int limite) {
+        if (limite < 1 || limite > TAILLE_MAX_RECHERCHE) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Le nombre de villes doit être compris entre 1 et " + TAILLE_MAX_RECHERCHE);
+        }
+        return indexPhonetique.rechercher(nom, limite).stream().map(this::versDTO).toList();
+    }
+
+    // ==================== RECHERCHE GÉOGRAPHIQUE ====================
+
+    /**
+     * Nombre maximal de villes renvoyées par la recherche dans un rayon
+     */
+    public static final int TAILLE_MAX_RAYON = 1000;
+
+    /**
+     * Les k villes localisées les plus proches d'un point, lues dans l'index géographique en mémoire
+     * @param latitude latitude du point (-90 à 90 degrés)
+     * @param longitude longitude du point (-180 à 180 degrés)
+     * @param k nombre de villes (1 à TAILLE_MAX_RECHERCHE)
+     * @return List<VilleProcheDTO> par distance croissante
+     * @throws ExceptionFonctionnelle si le point ou k est hors bornes
+     */
+    @Transactional(readOnly = true)
+    public List<VilleProcheDTO> findPlusProches(double latitude, double longitude, int k) {
+        verifierPoint(latitude, longitude);
+        if (k < 1 || k > TAILLE_MAX_RECHERCHE) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Le nombre de villes doit être compris entre 1 et " + TAILLE_MAX_RECHERCHE);
+        }
+        return indexGeographique.plusProches(latitude, longitude, k).stream()
+                .map(proche -> new VilleProcheDTO(proche.getDistanceKm(), versDTO(proche.getVille()))).toList();
+    }
+
+    /**
+     * Villes localisées à au plus rayonKm d'un point, lues dans l'index géographique en mémoire
+     * @param latitude latitude du point (-90 à 90 degrés)
+     * @param longitude longitude du point (-180 à 180 degrés)
+     * @param rayonKm rayon (0 à IndexGeographiqueVilles.getRayonMaxKm())
+     * @param limite nombre maximal de villes (1 à TAILLE_MAX_RAYON)
+     * @return List<VilleProcheDTO> par distance croissante
+     * @throws ExceptionFonctionnelle si le point, le rayon ou la limite est hors bornes
+     */
+    @Transactional(readOnly = true)
+    public List<VilleProcheDTO> findDansRayon(double latitude, double longitude, double rayonKm, int limite) {
+        verifierPoint(latitude, longitude);
+        if (!(rayonKm >= 0 && rayonKm <= indexGeographique.getRayonMaxKm())) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Le rayon doit être compris entre 0 et " + indexGeographique.getRayonMaxKm() + " km");
+        }
+        if (limite < 1 || limite > TAILLE_MAX_RAYON) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Le nombre de villes doit être compris entre 1 et " + TAILLE_MAX_RAYON);
+        }
+        return indexGeographique.dansRayon(latitude, longitude, rayonKm, limite).stream()
+                .map(proche -> new VilleProcheDTO(proche.getDistanceKm(), versDTO(proche.getVille()))).toList();
+    }
+
+    /**
+     * Tuile de carte z/x/y (Web Mercator) : villes localisées regroupées par cellule, avec leur
+     * nombre et leur population, lues dans la pyramide précalculée en mémoire
+     * @param z zoom (0 à PyramideTuilesVilles.ZOOM_MAX)
+     * @param x colonne de la tuile (0 à 2^z - 1)
+     * @param y ligne de la tuile (0 à 2^z - 1, 0 au nord)
+     * @param codeDepartement code du département (null pour toutes les villes)
+     * @return TuileVillesDTO
+     * @throws ExceptionFonctionnelle si la tuile n'existe pas ou si le département est inconnu
+     */
+    @Transactional(readOnly = true)
+    public TuileVillesDTO getTuile(int z, int x, int y, String codeDepartement) {
+        if (z < 0 || z > PyramideTuilesVilles.ZOOM_MAX) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Le zoom doit être compris entre 0 et " + PyramideTuilesVilles.ZOOM_MAX);
+        }
+        if (x < 0 || y < 0 || x >= 1 << z || y >= 1 << z) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Tuile inexistante au zoom " + z + " : x et y doivent être compris entre 0 et " + ((1 << z) - 1));
+        }
+        Long departementId = null;
+        if (codeDepartement != null) {
+            departementId = departementCacheService.findByCode(codeDepartement)
+                    .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Département", codeDepartement))
+                    .getId();
+        }
+        return pyramideTuiles.tuile(z, x, y, departementId);
+    }
+
+    /**
+     * Historique des populations d'une ville, lu dans le stockage en colonnes
+     * @param id identifiant de la ville
+     * @return SeriePopulationDTO (population par année croissante)
+     * @throws ExceptionFonctionnelle si la ville n'existe pas
+     */
+    @Transactional(readOnly = true)
+    public SeriePopulationDTO getSeriePopulation(Long id) {
+        SeriePopulationDTO serie = seriesPopulation.serie(id);
+        if (serie == null) {
+            throw ExceptionFonctionnelle.ressourceNonTrouvee("Ville", id);
+        }
+        return serie;
+    }
+
+    /**
+     * Évolution de la population de chaque département entre deux années de recensement,
+     * sur les villes connues aux deux années, par code de département
+     * @param anneeDebut première année
+     * @param anneeFin seconde année (postérieure)
+     * @return List<CroissanceDepartementDTO>
+     * @throws ExceptionFonctionnelle si les années sont inversées ou sans données
      */
     @Transactional(readOnly = true)
-    public List<Ville> findByNomStartingWith(String prefix) {
-        return villeRepository.findByNomStartingWithIgnoreCaseOrderByNom(prefix);
+    public List<CroissanceDepartementDTO> getCroissanceParDepartement(int anneeDebut, int anneeFin) {
+        if (anneeDebut >= anneeFin) {
+            throw ExceptionFonctionnelle.donneesInvalides("L'année de début doit précéder l'année de fin");
+        }
+        List<SeriesPopulationVilles.Croissance> croissances = seriesPopulation.croissanceParDepartement(anneeDebut, anneeFin);
+        if (croissances == null) {
+            throw ExceptionFonctionnelle.donneesInvalides("Aucune population connue pour l'une des années "
+                    + anneeDebut + " et " + anneeFin + " (années disponibles : "
+                    + Arrays.toString(seriesPopulation.annees()) + ")");
+        }
+        List<CroissanceDepartementDTO> resultat = new ArrayList<>(croissances.size());
+        for (SeriesPopulationVilles.Croissance croissance : croissances) {
+            VilleDTO.DepartementSimplifieDTO departement = departementCacheService.findById(croissance.getDepartementId())
+                    .map(d -> new VilleDTO.DepartementSimplifieDTO(d.getId(), d.getCode(), d.getNom()))
+                    .orElse(new VilleDTO.DepartementSimplifieDTO(croissance.getDepartementId(), null, null));
+            resultat.add(new CroissanceDepartementDTO(departement, anneeDebut, anneeFin, croissance.getNombreVilles(),
+                    croissance.getPopulationDebut(), croissance.getPopulationFin()));
+        }
+        resultat.sort(Comparator.comparing(c -> c.getDepartement().getCode(),
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return resultat;
+    }
+
+    private static void verifierPoint(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Coordonnées invalides : latitude entre -90 et 90, longitude entre -180 et 180");
+        }
+    }
+
+    /**
+     * DTO d'une ville lue dans un index en mémoire, département résolu par le cache
+     */
+    private VilleDTO versDTO(VilleIndexee ville) {
+        VilleDTO.DepartementSimplifieDTO departement = departementCacheService.findById(ville.getDepartementId())
+                .map(d -> new VilleDTO.DepartementSimplifieDTO(d.getId(), d.getCode(), d.getNom()))
+                .orElse(null);
+        VilleDTO dto = new VilleDTO(ville.getId(), ville.getNom(), ville.getNbHabitants(), departement);
+        if (ville.estLocalisee()) {
+            dto.setLatitude(ville.getLatitude());
+            dto.setLongitude(ville.getLongitude());
+        }
+        return dto;
     }
 
     // ==================== MÉTHODES DE RECHERCHE PAR POPULATION ====================
@@ -170,14 +561,22 @@ public class VilleService {
     // ==================== MÉTHODES DE RECHERCHE PAR DÉPARTEMENT ====================
 
     /**
-     * Recherche des villes d'un département avec population minimum
+     * Recherche des villes d'un département par population décroissante, au plus limite
      * @param codeDepartement code du département
-     * @param minPopulation population minimum
+     * @param minPopulation population minimum (null : les plus peuplées, sans minimum)
+     * @param limite nombre maximum de villes (1 à TAILLE_MAX_TRANCHE)
      * @return List<Ville>
+     * @throws ExceptionFonctionnelle si le département n'existe pas ou si la limite est hors bornes
      */
     @Transactional(readOnly = true)
-    public List<Ville> findByDepartementAndMinPopulation(String codeDepartement, Integer minPopulation) {
-        return repositoryHelper.findVillesByCodeDepartementAndMinPopulation(codeDepartement, minPopulation);
+    public List<Ville> findByDepartementAndMinPopulation(String codeDepartement, Integer minPopulation, int limite) {
+        if (limite < 1 || limite > TAILLE_MAX_TRANCHE) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Le nombre de villes doit être compris entre 1 et " + TAILLE_MAX_TRANCHE);
+        }
+        Departement departement = departementCacheService.findByCode(codeDepartement)
+                .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Département", codeDepartement));
+        return repositoryHelper.findVillesByDepartementAndMinPopulation(departement, minPopulation, limite);
     }
 
     /**
@@ -206,6 +605,127 @@ public class VilleService {
         return repositoryHelper.findTopNVillesByCodeDepartement(codeDepartement, n);
     }
 
+    /**
+     * Nombre maximal de villes par département pour le top N de tous les départements
+     */
+    public static final int TOP_MAX_PAR_DEPARTEMENT = 100;
+
+    /**
+     * Recherche des N villes les plus peuplées de chaque département (une seule requête)
+     * @param n nombre de villes par département (1 à TOP_MAX_PAR_DEPARTEMENT)
+     * @param codes codes des départements (tous si null ou vide)
+     * @return Map code du département → villes par population décroissante
+     * @throws ExceptionFonctionnelle si n est hors bornes
+     */
+    @Transactional(readOnly = true)
+    public Map<String, List<VilleDTO>> findTopNVillesParDepartement(int n, List<String> codes) {
+        if (n < 1 || n > TOP_MAX_PAR_DEPARTEMENT) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "Le nombre de villes par département doit être compris entre 1 et " + TOP_MAX_PAR_DEPARTEMENT);
+        }
+        return repositoryHelper.findTopNVillesParDepartement(n, codes);
+    }
+
+    // ==================== RECHERCHE MULTI-CRITÈRES ====================
+
+    /**
+     * Taille maximale d'une page de recherche multi-critères
+     */
+    public static final int TAILLE_MAX_RECHERCHE = 100;
+
+    /**
+     * Nombre maximal de résultats accessibles par la recherche multi-critères (page × taille)
+     */
+    public static final int RESULTATS_MAX_RECHERCHE = 1000;
+
+    /**
+     * Critères de tri de la recherche multi-critères
+     */
+    public static final Set<String> TRIS_RECHERCHE = Set.of("id", "nom", "nbHabitants");
+
+    /**
+     * Nombre maximal d'identifiants du critère de nom de la recherche multi-critères ; au-delà,
+     * la saisie est trop peu sélective et le critère devient un LIKE sur nom_recherche
+     */
+    public static final int IDS_MAX_CRITERE_NOM = 5000;
+
+    /**
+     * Recherche multi-critères paginée : tous les critères fournis sont combinés en une seule requête
+     * @param nom texte contenu dans le nom (optionnel, insensible à la casse), résolu par l'index
+     *            des trigrammes en identifiants de villes (LIKE sur nom_recherche au-delà de
+     *            IDS_MAX_CRITERE_NOM villes)
+     * @param minPopulation population minimum (optionnelle)
+     * @param maxPopulation population maximum (optionnelle)
+     * @param codeDepartement code du département (optionnel)
+     * @param page numéro de page (commence à 0)
+     * @param size taille de la page (1 à TAILLE_MAX_RECHERCHE)
+     * @param tri critère de tri (id, nom, nbHabitants), départage par id
+     * @param direction sens du tri (asc ou desc)
+     * @return Slice<Ville> (vide si le département n'existe pas)
+     * @throws ExceptionFonctionnelle si un paramètre est invalide ou si la page dépasse RESULTATS_MAX_RECHERCHE
+     */
+    @Transactional(readOnly = true)
+    public Slice<Ville> rechercher(String nom, Integer minPopulation, Integer maxPopulation, String codeDepartement,
+                                   int page, int size, String tri, String direction) {
+        Pageable pageable = validerRecherche(minPopulation, maxPopulation, page, size, tri, direction);
+
+        List<Specification<Ville>> criteres = new ArrayList<>();
+        if (nom != null && !nom.isBlank()) {
+            // Nom contenu : identifiants de l'index des trigrammes (clé primaire) plutôt qu'un
+            // LIKE '%x%' qui parcourt la table, sauf saisie trop peu sélective
+            Optional<List<Long>> ids = indexTrigrammes.idsContenant(nom.trim(), IDS_MAX_CRITERE_NOM);
+            if (ids.isEmpty()) {
+                criteres.add(VilleSpecifications.nomContient(nom.trim()));
+            } else if (ids.get().isEmpty()) {
+                return new SliceImpl<>(List.of(), pageable, false);
+            } else {
+                criteres.add(VilleSpecifications.idParmi(ids.get()));
+            }
+        }
+        if (minPopulation != null) {
+            criteres.add(VilleSpecifications.populationMin(minPopulation));
+        }
+        if (maxPopulation != null) {
+            criteres.add(VilleSpecifications.populationMax(maxPopulation));
+        }
+        if (codeDepartement != null && !codeDepartement.isBlank()) {
+            Optional<Departement> departement = departementCacheService.findByCode(codeDepartement.trim());
+            if (departement.isEmpty()) {
+                return new SliceImpl<>(List.of(), pageable, false);
+            }
+            criteres.add(VilleSpecifications.departement(departement.get().getId()));
+        }
+        return villeRepository.rechercher(Specification.allOf(criteres), pageable);
+    }
+
+    /**
+     * Valide les paramètres de la recherche multi-critères et construit la page demandée
+     */
+    private Pageable validerRecherche(Integer minPopulation, Integer maxPopulation,
+                                      int page, int size, String tri, String direction) {
+        if (!TRIS_RECHERCHE.contains(tri)) {
+            throw ExceptionFonctionnelle.donneesInvalides("Tri non supporté : " + tri + " (id, nom, nbHabitants)");
+        }
+        if (!"asc".equalsIgnoreCase(direction) && !"desc".equalsIgnoreCase(direction)) {
+            throw ExceptionFonctionnelle.donneesInvalides("Sens de tri non supporté : " + direction + " (asc, desc)");
+        }
+        if (size < 1 || size > TAILLE_MAX_RECHERCHE) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "La taille de page doit être comprise entre 1 et " + TAILLE_MAX_RECHERCHE);
+        }
+        if (page < 0 || (long) (page + 1) * size > RESULTATS_MAX_RECHERCHE) {
+            throw ExceptionFonctionnelle.donneesInvalides("La recherche est limitée aux "
+                    + RESULTATS_MAX_RECHERCHE + " premiers résultats : préciser les critères");
+        }
+        if (minPopulation != null && maxPopulation != null && minPopulation > maxPopulation) {
+            throw ExceptionFonctionnelle.donneesInvalides(
+                    "La population minimum doit être inférieure ou égale à la population maximum");
+        }
+        Sort.Direction sens = Sort.Direction.fromString(direction);
+        Sort ordre = "id".equals(tri) ? Sort.by(sens, "id") : Sort.by(sens, tri).and(Sort.by("id"));
+        return PageRequest.of(page, size, ordre);
+    }
+
     // ==================== MÉTHODES STATISTIQUES ====================
 
     /**
@@ -218,15 +738,39 @@ public class VilleService {
     }
 
     /**
-     * Récupère les statistiques complètes d'un département
+     * Récupère les statistiques complètes d'un département (une seule requête)
      * @param codeDepartement code du département
-     * @return DepartementStats statistiques du département
+     * @return StatistiquesDepartementDTO, ou null si le département n'existe pas
      */
     @Transactional(readOnly = true)
-    public VilleRepositoryHelper.DepartementStats getDepartementStats(String codeDepartement) {
+    public StatistiquesDepartementDTO getDepartementStats(String codeDepartement) {
         return repositoryHelper.getDepartementStats(codeDepartement);
     }
 
+    /**
+     * Récupère les statistiques de tous les départements (une seule requête)
+     * @param tri critère de tri (code, nom, nombreVilles, populationTotale, populationMoyenne, populationMediane)
+     * @param direction sens du tri (asc ou desc)
+     * @param minVilles nombre minimum de villes (optionnel)
+     * @param minPopulation population totale minimum (optionnelle)
+     * @param maxPopulation population totale maximum (optionnelle)
+     * @return List<StatistiquesDepartementDTO>
+     * @throws ExceptionFonctionnelle si le tri ou le sens n'est pas supporté
+     */
+    @Transactional(readOnly = true)
+    public List<StatistiquesDepartementDTO> getStatistiquesDepartements(String tri, String direction,
+            Long minVilles, Long minPopulation, Long maxPopulation) {
+        if (!VilleRepositoryHelper.TRIS_STATISTIQUES.containsKey(tri)) {
+            throw ExceptionFonctionnelle.donneesInvalides("Tri non supporté : " + tri
+                    + " (code, nom, nombreVilles, populationTotale, populationMoyenne, populationMediane)");
+        }
+        if (!"asc".equalsIgnoreCase(direction) && !"desc".equalsIgnoreCase(direction)) {
+            throw ExceptionFonctionnelle.donneesInvalides("Sens de tri non supporté : " + direction + " (asc, desc)");
+        }
+        return repositoryHelper.getStatistiquesDepartements(tri, "desc".equalsIgnoreCase(direction),
+                minVilles, minPopulation, maxPopulation);
+    }
+
     /**
      * Recherche la ville la plus peuplée d'un département
      * @param codeDepartement code du département
@@ -234,7 +778,7 @@ public class VilleService {
      */
     @Transactional(readOnly = true)
     public Optional<Ville> findMostPopulatedVilleInDepartement(String codeDepartement) {
-        Optional<Departement> departement = departementRepository.findByCode(codeDepartement);
+        Optional<Departement> departement = departementCacheService.findByCode(codeDepartement);
         if (departement.isPresent()) {
             return villeRepository.findMostPopulatedVilleInDepartement(departement.get());
         }
@@ -261,24 +805,41 @@ public class VilleService {
             throw ExceptionFonctionnelle.contrainteViolee("nombre_habitants_positif", ville.getNbHabitants());
         }
 
+        if ((ville.getLatitude() == null) != (ville.getLongitude() == null)) {
+            throw ExceptionFonctionnelle.donneesInvalides("La latitude et la longitude vont ensemble : renseigner les deux ou aucune");
+        }
+
         if (ville.getDepartement() == null) {
             throw ExceptionFonctionnelle.donneesInvalides("Le département est obligatoire");
         }
 
         // Vérification que le département existe
-        if (!departementRepository.existsById(ville.getDepartement().getId())) {
-            throw ExceptionFonctionnelle.ressourceNonTrouvee("Département", ville.getDepartement().getId());
+        Long departementId = ville.getDepartement().getId();
+        if (departementId == null || departementCacheService.findById(departementId).isEmpty()) {
+            throw ExceptionFonctionnelle.ressourceNonTrouvee("Département", departementId);
         }
 
-        // Vérification de l'unicité du nom dans le département (optionnel)
-        if (ville.getId() == null) { // Nouveau ville
-            Optional<Ville> existingVille = villeRepository.findByNom(ville.getNom());
-            if (existingVille.isPresent()) {
-                throw ExceptionFonctionnelle.ressourceDejaExistante("Ville", "nom", ville.getNom());
-            }
+        // Unicité du nom normalisé dans le département, comme à l'import (homonymes
+        // autorisés d'un département à l'autre : Saint-Denis 93 et 974)
+        if (ville.getId() == null
+                && villeRepository.existsByDepartementIdAndNomRecherche(departementId, CleRecherche.normaliser(ville.getNom()))) {
+            throw ExceptionFonctionnelle.ressourceDejaExistante("Ville", "nom", ville.getNom());
         }
     }
 
+    /**
+     * Applique une variation aux compteurs persistés d'un département et de sa région
+     * @param departementId identifiant du département
+     * @param deltaVilles variation du nombre de villes
+     * @param deltaPopulation variation de la population totale
+     */
+    private void appliquerDeltaCompteurs(Long departementId, long deltaVilles, long deltaPopulation) {
+        if (departementId == null || (deltaVilles == 0 && deltaPopulation == 0)) {
+            return;
+        }
+        departementRepository.incrementerCompteurs(departementId, deltaVilles, deltaPopulation);
+    }
+
     // ==================== MÉTHODES DE CRÉATION RAPIDE ====================
 
     /**
@@ -290,7 +851,7 @@ public class VilleService {
      */
     public Ville createVille(String nom, Integer nbHabitants, String codeDepartement) {
         // Recherche du département
-        Departement departement = departementRepository.findByCode(codeDepartement)
+        Departement departement = departementCacheService.findByCode(codeDepartement)
                 .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Département", codeDepartement));
 
         // Création de la ville
@@ -313,37 +874,12 @@ public class VilleService {
             throw ExceptionFonctionnelle.contrainteViolee("nombre_habitants_positif", nouveauNbHabitants);
         }
 
+        int ancienNbHabitants = ville.getNbHabitants();
         ville.setNbHabitants(nouveauNbHabitants);
-        return villeRepository.save(ville);
-    }
-
-    // ==================== MÉTHODES D'IMPORT/EXPORT ====================
-
-    /**
-     * Importe une liste de villes en lot
-     * @param villes liste des villes à importer
-     * @return List<Ville> villes importées
-     */
-    public List<Ville> importVilles(List<Ville> villes) {
-        // Validation de chaque ville
-        for (Ville ville : villes) {
-            validateVille(ville);
-        }
-
-        // Sauvegarde en lot
-        return villeRepository.saveAll(villes);
-    }
-
-    /**
-     * Exporte toutes les villes d'un département
-     * @param codeDepartement code du département
-     * @return List<Ville>
-     */
-    @Transactional(readOnly = true)
-    public List<Ville> exportVillesByDepartement(String codeDepartement) {
-        Departement departement = departementRepository.findByCode(codeDepartement)
-                .orElseThrow(() -> ExceptionFonctionnelle.ressourceNonTrouvee("Département", codeDepartement));
-
-        return villeRepository.findByDepartement(departement, Pageable.unpaged()).getContent();
+        Ville villeSauvegardee = villeRepository.save(ville);
+        appliquerDeltaCompteurs(ville.getDepartement().getId(), 0, (long) nouveauNbHabitants - ancienNbHabitants);
+        versionsDonnees.departementModifie(ville.getDepartement().getId());
+        indexMemoire.forEach(index -> index.villeEnregistree(villeSauvegardee));
+        return villeSauvegardee;
     }
 }
\ No newline at end of file
@@ -1,12 +1,6 @@
 -- Script de peuplement de la base de données avec les départements et villes françaises
 -- Données factuelles et géographiquement correctes
-
--- ========================================
--- NETTOYAGE INITIAL
--- ========================================
-
-DELETE FROM ville;
-DELETE FROM departement;
+-- Migration appliquée une seule fois ; absente des tests (spring.flyway.locations)
 
 -- ========================================
 -- DÉPARTEMENTS FRANÇAIS
@@ -32,8 +26,8 @@ INSERT INTO departement (code, nom) VALUES
 ('17', 'Charente-Maritime'),
 ('18', 'Cher'),
 ('19', 'Corrèze'),
-('21', 'Côte-d\'Or'),
-('22', 'Côtes-d\'Armor'),
+('21', 'Côte-d''Or'),
+('22', 'Côtes-d''Armor'),
 ('23', 'Creuse'),
 ('24', 'Dordogne'),
 ('25', 'Doubs'),
@@ -106,7 +100,7 @@ INSERT INTO departement (code, nom) VALUES
 ('92', 'Hauts-de-Seine'),
 ('93', 'Seine-Saint-Denis'),
 ('94', 'Val-de-Marne'),
-('95', 'Val-d\'Oise'),
+('95', 'Val-d''Oise'),
 ('971', 'Guadeloupe'),
 ('972', 'Martinique'),
 ('973', 'Guyane'),
@@ -206,7 +200,7 @@ INSERT INTO ville (id, nom, id_dept, nb_habs) VALUES
 (13403,'Levallois-Perret',(SELECT id FROM departement WHERE code = '92'),63462),
 (13404,'Quimper',(SELECT id FROM departement WHERE code = '29'),63405),
 (13405,'Valence',(SELECT id FROM departement WHERE code = '26'),62477),
-(13406,'Villeneuve-d\'Ascq',(SELECT id FROM departement WHERE code = '59'),62358),
+(13406,'Villeneuve-d''Ascq',(SELECT id FROM departement WHERE code = '59'),62358),
 (13407,'Antony',(SELECT id FROM departement WHERE code = '92'),62210),
 (13408,'Pessac',(SELECT id FROM departement WHERE code = '33'),61859),
 (13409,'Ivry-sur-Seine',(SELECT id FROM departement WHERE code = '94'),60771),
@@ -300,4 +294,8 @@ INSERT INTO ville (id, nom, id_dept, nb_habs) VALUES
 (13497,'Bourg-en-Bresse',(SELECT id FROM departement WHERE code = '01'),41365),
 (13498,'Wattrelos',(SELECT id FROM departement WHERE code = '59'),41341),
 (13499,'Castres',(SELECT id FROM departement WHERE code = '81'),41338),
-(13500,'Bron',(SELECT id FROM departement WHERE code = '69'),41060);
\ No newline at end of file
+(13500,'Bron',(SELECT id FROM departement WHERE code = '69'),41060);
+
+-- Initialisation des compteurs dénormalisés des départements
+UPDATE departement d SET nombre_villes = (SELECT COUNT(*) FROM ville v WHERE v.id_dept = d.id),
+    population_totale = (SELECT COALESCE(SUM(v.nb_habs), 0) FROM ville v WHERE v.id_dept = d.id);
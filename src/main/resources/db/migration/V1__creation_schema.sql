@@ -0,0 +1,24 @@
+-- ========================================
+-- SCHÉMA INITIAL : DÉPARTEMENTS ET VILLES
+-- ========================================
+-- SQL commun à MySQL et H2 (tests). Les compteurs dénormalisés du département
+-- valent 0 à l'insertion : ils sont tenus à jour par l'application.
+
+CREATE TABLE departement (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    code VARCHAR(3) NOT NULL,
+    nom VARCHAR(100),
+    nombre_villes BIGINT DEFAULT 0 NOT NULL,
+    population_totale BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_departement_code UNIQUE (code)
+);
+
+CREATE TABLE ville (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    nom VARCHAR(100) NOT NULL,
+    nb_habs INT NOT NULL,
+    id_dept BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_ville_departement FOREIGN KEY (id_dept) REFERENCES departement (id)
+);
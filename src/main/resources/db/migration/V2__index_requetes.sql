@@ -0,0 +1,26 @@
+-- ========================================
+-- INDEX DES REQUÊTES FRÉQUENTES
+-- ========================================
+-- Chaque index de ville contient les quatre colonnes de la table (InnoDB ajoute l'id
+-- aux index secondaires) : les lectures qu'il sert n'accèdent pas à la table.
+-- Vérifiés par SchemaMigrationsTest (plans d'exécution).
+
+-- Recherche par nom (exact, préfixe), tri et pagination par curseur sur (nom, id)
+CREATE INDEX idx_ville_nom ON ville (nom, nb_habs, id_dept);
+
+-- Plages et seuils de population, tri et pagination par curseur sur (nb_habs, id)
+CREATE INDEX idx_ville_nb_habs ON ville (nb_habs, nom, id_dept);
+
+-- Villes d'un département par nom : pagination par curseur, doublons à l'import
+-- (sert aussi la clé étrangère id_dept)
+CREATE INDEX idx_ville_dept_nom ON ville (id_dept, nom, nb_habs);
+
+-- Villes d'un département par population : top N, plus peuplée, seuils et plages,
+-- nombre et somme par département, statistiques (fonctions de fenêtre)
+CREATE INDEX idx_ville_dept_nb_habs ON ville (id_dept, nb_habs, nom);
+
+-- Départements : recherche et tri par nom, filtres et tris sur les compteurs
+-- (le code est déjà indexé par uk_departement_code)
+CREATE INDEX idx_departement_nom ON departement (nom);
+CREATE INDEX idx_departement_nombre_villes ON departement (nombre_villes);
+CREATE INDEX idx_departement_population_totale ON departement (population_totale);
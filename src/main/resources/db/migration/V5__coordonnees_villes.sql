@@ -0,0 +1,11 @@
+-- ========================================
+-- COORDONNÉES GÉOGRAPHIQUES DES VILLES
+-- ========================================
+-- Latitude et longitude en degrés décimaux (WGS 84), renseignées par l'import
+-- (colonnes CSV latitude/longitude, champs JSON latitude/longitude) ; null pour
+-- une ville sans coordonnées, absente de la recherche géographique.
+-- Pas d'index SQL : les recherches par distance sont servies par l'index en
+-- mémoire IndexGeographiqueVilles (grille de cellules).
+
+ALTER TABLE ville ADD COLUMN latitude DOUBLE NULL;
+ALTER TABLE ville ADD COLUMN longitude DOUBLE NULL;
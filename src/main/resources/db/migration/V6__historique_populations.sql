@@ -0,0 +1,18 @@
+-- ========================================
+-- HISTORIQUE DES POPULATIONS
+-- ========================================
+-- Une ligne par ville et par année de recensement. ville.nb_habs reste la
+-- population courante ; cette table porte les valeurs passées (et peut aussi
+-- contenir l'année courante), importées en masse par POST /villes/populations/import/csv.
+-- La clé primaire (id_ville, annee) sert la série d'une ville et la clé étrangère ;
+-- les agrégats entre années (croissance par département) ne lisent pas la table
+-- mais le stockage en colonnes de SeriesPopulationVilles, chargé en une requête.
+-- Les valeurs d'une ville supprimée sont supprimées avec elle.
+
+CREATE TABLE ville_population_history (
+    id_ville BIGINT NOT NULL,
+    annee SMALLINT NOT NULL,
+    nb_habs INT NOT NULL,
+    PRIMARY KEY (id_ville, annee),
+    CONSTRAINT fk_population_history_ville FOREIGN KEY (id_ville) REFERENCES ville (id) ON DELETE CASCADE
+);
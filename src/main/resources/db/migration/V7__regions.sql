@@ -0,0 +1,86 @@
+-- ========================================
+-- RÉGIONS
+-- ========================================
+-- Niveau région au-dessus du département (région → département → ville) : les 18
+-- régions administratives (codes INSEE) et leur zone (métropole, Corse, outre-mer),
+-- qui remplace les préfixes de code ('97%', '2%', 2A/2B) des requêtes par zone.
+-- Les compteurs de la région (nombre de villes, population) sont dénormalisés comme ceux
+-- du département : mis à jour par delta dans la transaction de chaque écriture sur ville
+-- (DepartementRepository.incrementerCompteurs), recalculés par
+-- DepartementRepository.recalculerCompteurs. Les totaux nationaux sont la somme des régions
+-- et des départements sans région (id_region null, code absent de region_departement) :
+-- pas de ligne nationale unique, mise à jour par toutes les écritures.
+
+CREATE TABLE region (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    code VARCHAR(3) NOT NULL,
+    nom VARCHAR(100) NOT NULL,
+    zone VARCHAR(20) NOT NULL,
+    nombre_villes BIGINT DEFAULT 0 NOT NULL,
+    population_totale BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_region_code UNIQUE (code)
+);
+
+INSERT INTO region (code, nom, zone) VALUES
+('01', 'Guadeloupe', 'OUTRE_MER'),
+('02', 'Martinique', 'OUTRE_MER'),
+('03', 'Guyane', 'OUTRE_MER'),
+('04', 'La Réunion', 'OUTRE_MER'),
+('06', 'Mayotte', 'OUTRE_MER'),
+('11', 'Île-de-France', 'METROPOLE'),
+('24', 'Centre-Val de Loire', 'METROPOLE'),
+('27', 'Bourgogne-Franche-Comté', 'METROPOLE'),
+('28', 'Normandie', 'METROPOLE'),
+('32', 'Hauts-de-France', 'METROPOLE'),
+('44', 'Grand Est', 'METROPOLE'),
+('52', 'Pays de la Loire', 'METROPOLE'),
+('53', 'Bretagne', 'METROPOLE'),
+('75', 'Nouvelle-Aquitaine', 'METROPOLE'),
+('76', 'Occitanie', 'METROPOLE'),
+('84', 'Auvergne-Rhône-Alpes', 'METROPOLE'),
+('93', 'Provence-Alpes-Côte d''Azur', 'METROPOLE'),
+('94', 'Corse', 'CORSE');
+
+-- Clé étrangère indexée : départements d'une région, agrégats par région.
+-- L'index est créé avant la contrainte, qui le réutilise (MySQL comme H2).
+ALTER TABLE departement ADD COLUMN id_region BIGINT NULL;
+CREATE INDEX idx_departement_region ON departement (id_region);
+ALTER TABLE departement ADD CONSTRAINT fk_departement_region FOREIGN KEY (id_region) REFERENCES region (id);
+
+-- Correspondance code département → région : référence unique du rattachement, utilisée
+-- ici pour les départements existants puis à chaque création de département (création par
+-- l'API sans région, départements absents créés par l'import CSV).
+CREATE TABLE region_departement (
+    code_departement VARCHAR(3) NOT NULL,
+    code_region VARCHAR(3) NOT NULL,
+    PRIMARY KEY (code_departement),
+    CONSTRAINT fk_region_departement_region FOREIGN KEY (code_region) REFERENCES region (code)
+);
+
+INSERT INTO region_departement (code_departement, code_region) VALUES
+('971', '01'),
+('972', '02'),
+('973', '03'),
+('974', '04'),
+('976', '06'),
+('75', '11'), ('77', '11'), ('78', '11'), ('91', '11'), ('92', '11'), ('93', '11'), ('94', '11'), ('95', '11'),
+('18', '24'), ('28', '24'), ('36', '24'), ('37', '24'), ('41', '24'), ('45', '24'),
+('21', '27'), ('25', '27'), ('39', '27'), ('58', '27'), ('70', '27'), ('71', '27'), ('89', '27'), ('90', '27'),
+('14', '28'), ('27', '28'), ('50', '28'), ('61', '28'), ('76', '28'),
+('02', '32'), ('59', '32'), ('60', '32'), ('62', '32'), ('80', '32'),
+('08', '44'), ('10', '44'), ('51', '44'), ('52', '44'), ('54', '44'), ('55', '44'), ('57', '44'), ('67', '44'), ('68', '44'), ('88', '44'),
+('44', '52'), ('49', '52'), ('53', '52'), ('72', '52'), ('85', '52'),
+('22', '53'), ('29', '53'), ('35', '53'), ('56', '53'),
+('16', '75'), ('17', '75'), ('19', '75'), ('23', '75'), ('24', '75'), ('33', '75'), ('40', '75'), ('47', '75'), ('64', '75'), ('79', '75'), ('86', '75'), ('87', '75'),
+('09', '76'), ('11', '76'), ('12', '76'), ('30', '76'), ('31', '76'), ('32', '76'), ('34', '76'), ('46', '76'), ('48', '76'), ('65', '76'), ('66', '76'), ('81', '76'), ('82', '76'),
+('01', '84'), ('03', '84'), ('07', '84'), ('15', '84'), ('26', '84'), ('38', '84'), ('42', '84'), ('43', '84'), ('63', '84'), ('69', '84'), ('73', '84'), ('74', '84'),
+('04', '93'), ('05', '93'), ('06', '93'), ('13', '93'), ('83', '93'), ('84', '93'),
+('2A', '94'), ('2B', '94');
+
+-- Rattachement des départements existants (aucun dans une base vide)
+UPDATE departement d SET id_region = (SELECT r.id FROM region_departement rd JOIN region r ON r.code = rd.code_region
+                                      WHERE rd.code_departement = d.code);
+
+UPDATE region r SET nombre_villes = (SELECT COALESCE(SUM(d.nombre_villes), 0) FROM departement d WHERE d.id_region = r.id),
+    population_totale = (SELECT COALESCE(SUM(d.population_totale), 0) FROM departement d WHERE d.id_region = r.id);
@@ -117,7 +117,9 @@ const I18N_EMBED = {
     "hello.success": "Hello: {msg}",
     "hello.error": "Erreur hello: {message}",
     "validation.required": "Ce champ est requis",
-    "validation.required.multiple": "Tous les champs sont requis"
+    "validation.required.multiple": "Tous les champs sont requis",
+    "map.summary": "{count} villes localisées, {population} habitants dans la vue",
+    "map.error": "Impossible de charger la carte : {message}"
   },
   en: {
     "http.error": "HTTP error: {status}",
@@ -156,7 +158,9 @@ const I18N_EMBED = {
     "error.unexpected": "An unexpected error occurred",
     "error.app": "An application error occurred",
     "hello.success": "Hello: {msg}",
-    "hello.error": "Hello error: {message}"
+    "hello.error": "Hello error: {message}",
+    "map.summary": "{count} located cities, {population} inhabitants in view",
+    "map.error": "Unable to load the map: {message}"
   },
   de: {
     "http.error": "HTTP-Fehler: {status}",
@@ -195,7 +199,9 @@ const I18N_EMBED = {
     "error.unexpected": "Ein unerwarteter Fehler ist aufgetreten",
     "error.app": "Ein Anwendungsfehler ist aufgetreten",
     "hello.success": "Hallo: {msg}",
-    "hello.error": "Hallo-Fehler: {message}"
+    "hello.error": "Hallo-Fehler: {message}",
+    "map.summary": "{count} verortete Städte, {population} Einwohner im Ausschnitt",
+    "map.error": "Karte kann nicht geladen werden: {message}"
   }
 };
 
@@ -312,6 +318,10 @@ function switchTab(tabName) {
     } else if (tabName === 'departements') {
         loadDepartements();
         updateStats();
+    } else if (tabName === 'carte') {
+        carte.tuiles.clear(); // les villes ont pu changer depuis le dernier affichage
+        initCarte();
+        dessinerCarte();
     }
 }
 
@@ -1110,7 +1120,7 @@ async function performVilleSearch() {
                 const response = await fetchWithLang(url);
                 if (response.ok) {
                     const results = await response.json();
-                    currentVilles = results;
+                    currentVilles = results.content;
                     renderVilles();
                     document.getElementById('villes-pagination').innerHTML = '';
                     return;
@@ -1205,7 +1215,7 @@ async function filterDepartements() {
             }
             
             const departements = await response.json();
-            renderFilteredDepartements(departements);
+            renderFilteredDepartements(departements.content);
         } catch (error) {
             console.error('Erreur lors de la recherche de départements:', error);
             showMessage(t('error.search.departments'), 'error');
@@ -1727,3 +1737,127 @@ Object.assign(window, {
     depCount, depStatsByCode, depPopulationTotaleByCode, depNombreVillesByCode,
     depCreationRapide, depUpdateNomByCode, depUpdateNomsManquants, depExistsByCode,
 });
+
+// ==========================================================================
+// CARTE DES VILLES (TUILES)
+// ==========================================================================
+
+// Tuiles Web Mercator de 256 px, groupes de villes servis par GET /villes/tuiles/{z}/{x}/{y}
+const TAILLE_TUILE = 256;
+const ZOOM_CARTE_MAX = 20;
+
+// Centre en coordonnées Mercator (0..1), initialement sur la France métropolitaine
+const carte = { z: 5, centreX: 0.5069, centreY: 0.3534, departement: '', tuiles: new Map(), initialisee: false };
+
+function initCarte() {
+    const select = document.getElementById('carte-departement');
+    select.innerHTML = `<option value="">${t('departments.all')}</option>` + allDepartements.map(dept =>
+        `<option value="${dept.code}">${dept.code} - ${dept.nom}</option>`
+    ).join('');
+    select.value = carte.departement;
+    if (carte.initialisee) return;
+    carte.initialisee = true;
+
+    const canvas = document.getElementById('carte-canvas');
+    let glisser = null;
+    canvas.addEventListener('mousedown', e => { glisser = { x: e.clientX, y: e.clientY }; });
+    window.addEventListener('mouseup', () => { glisser = null; });
+    window.addEventListener('mousemove', e => {
+        if (!glisser) return;
+        const monde = TAILLE_TUILE * Math.pow(2, carte.z);
+        carte.centreX -= (e.clientX - glisser.x) / monde;
+        carte.centreY = Math.min(1, Math.max(0, carte.centreY - (e.clientY - glisser.y) / monde));
+        glisser = { x: e.clientX, y: e.clientY };
+        dessinerCarte();
+    });
+    canvas.addEventListener('wheel', e => {
+        e.preventDefault();
+        zoomerCarte(e.deltaY < 0 ? 1 : -1);
+    }, { passive: false });
+}
+
+function zoomerCarte(sens) {
+    const z = Math.min(ZOOM_CARTE_MAX, Math.max(0, carte.z + sens));
+    if (z === carte.z) return;
+    carte.z = z;
+    dessinerCarte();
+}
+
+function changerDepartementCarte() {
+    carte.departement = document.getElementById('carte-departement').value;
+    carte.tuiles.clear();
+    dessinerCarte();
+}
+
+function chargerTuile(z, x, y) {
+    const cle = `${carte.departement}/${z}/${x}/${y}`;
+    if (!carte.tuiles.has(cle)) {
+        const filtre = carte.departement ? `?departement=${encodeURIComponent(carte.departement)}` : '';
+        const promesse = apiFetch(`${API_ENDPOINTS.villes}/tuiles/${z}/${x}/${y}${filtre}`);
+        promesse.catch(() => carte.tuiles.delete(cle));
+        carte.tuiles.set(cle, promesse);
+    }
+    return carte.tuiles.get(cle);
+}
+
+async function dessinerCarte() {
+    const canvas = document.getElementById('carte-canvas');
+    const resume = document.getElementById('carte-resume');
+    const { z } = carte;
+    const nombre = Math.pow(2, z);
+    const monde = TAILLE_TUILE * nombre;
+    const origineX = carte.centreX * monde - canvas.width / 2;
+    const origineY = carte.centreY * monde - canvas.height / 2;
+
+    // Tuiles visibles (la colonne fait le tour du monde, la ligne est bornée)
+    const demandes = [];
+    const xMin = Math.floor(origineX / TAILLE_TUILE), xMax = Math.floor((origineX + canvas.width) / TAILLE_TUILE);
+    const yMin = Math.max(0, Math.floor(origineY / TAILLE_TUILE));
+    const yMax = Math.min(nombre - 1, Math.floor((origineY + canvas.height) / TAILLE_TUILE));
+    for (let y = yMin; y <= yMax; y++) {
+        for (let x = xMin; x <= Math.min(xMax, xMin + nombre - 1); x++) {
+            demandes.push({ decalage: x - ((x % nombre) + nombre) % nombre, promesse: chargerTuile(z, ((x % nombre) + nombre) % nombre, y) });
+        }
+    }
+
+    let tuiles;
+    try {
+        tuiles = await Promise.all(demandes.map(d => d.promesse.then(tuile => ({ tuile, decalage: d.decalage }))));
+    } catch (e) {
+        resume.textContent = t('map.error', { message: e.message });
+        return;
+    }
+    // Une vue plus récente a pu être demandée pendant le chargement
+    if (z !== carte.z) return;
+
+    const ctx = canvas.getContext('2d');
+    ctx.clearRect(0, 0, canvas.width, canvas.height);
+    ctx.textAlign = 'center';
+    ctx.textBaseline = 'middle';
+    ctx.font = '11px sans-serif';
+    let villes = 0, population = 0;
+    tuiles.forEach(({ tuile, decalage }) => {
+        tuile.groupes.forEach(groupe => {
+            const px = (groupe.longitude + 180) / 360 * monde + decalage * TAILLE_TUILE - origineX;
+            const phi = groupe.latitude * Math.PI / 180;
+            const py = (1 - Math.log(Math.tan(phi) + 1 / Math.cos(phi)) / Math.PI) / 2 * monde - origineY;
+            if (px < 0 || py < 0 || px > canvas.width || py > canvas.height) return;
+            villes += groupe.nombreVilles;
+            population += groupe.population;
+            const rayon = Math.min(40, 2 + Math.sqrt(groupe.population) / 60);
+            ctx.beginPath();
+            ctx.arc(px, py, rayon, 0, 2 * Math.PI);
+            ctx.fillStyle = 'rgba(37, 99, 235, 0.45)';
+            ctx.fill();
+            ctx.strokeStyle = '#1d4ed8';
+            ctx.stroke();
+            if (groupe.nombreVilles > 1 && rayon >= 8) {
+                ctx.fillStyle = '#1e293b';
+                ctx.fillText(groupe.nombreVilles, px, py);
+            }
+        });
+    });
+    resume.textContent = t('map.summary', { count: villes, population: formatPopulation(population) });
+}
+
+Object.assign(window, { zoomerCarte, changerDepartementCarte });
@@ -0,0 +1,165 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.config.CacheConfig;
+import fr.diginamic.hello.dto.RapportImportDTO;
+import fr.diginamic.hello.models.Departement;
+import fr.diginamic.hello.repositories.DepartementRepository;
+import fr.diginamic.hello.services.ChargeurCsvInsee;
+import fr.diginamic.hello.services.DepartementCacheService;
+import fr.diginamic.hello.services.ImportVillesService;
+import fr.diginamic.hello.services.IndexPrefixesVilles;
+import fr.diginamic.hello.services.IndexTrigrammesDepartements;
+import fr.diginamic.hello.services.VersionsDonnees;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le chargement des CSV INSEE projetés en mémoire et analysés par tranches parallèles
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureJson
+@Import({CacheConfig.class, ChargeurCsvInsee.class, ImportVillesService.class, DepartementCacheService.class, VersionsDonnees.class,
+        IndexPrefixesVilles.class, IndexTrigrammesDepartements.class})
+class ChargeurCsvInseeTest {
+
+    private static final String ENTETE = "Code région;Nom de la région;Code département;Code arrondissement;"
+            + "Code canton;Code commune;Nom de la commune;Population municipale;Population comptée à part;"
+            + "Population totale";
+
+    @TempDir
+    Path dossier;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ChargeurCsvInsee chargeurCsvInsee;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DepartementRepository departementRepository;
+
+    @BeforeEach
+    void setup() {
+        em.persist(new Departement("34", "Hérault"));
+        em.flush();
+    }
+
+    @Test
+    void chargerFormatInsee() throws Exception {
+        Path fichier = dossier.resolve("recensement.csv");
+        Files.writeString(fichier, "﻿" + ENTETE + "\r\n"
+                + "76;Occitanie;34;3;99;172;Montpellier;285 121;10 421;295 542\r\n"
+                + "76;Occitanie;34;2;99;301;\"Sète; la singulière\";43 229;800;44 029\r\n"
+                + "76;Occitanie;30;3;99;189;Nîmes;148 104;457;148 561\r\n"
+                + "76;Occitanie;30;1;99;7;Alès;n/a;0;n/a\r\n", StandardCharsets.UTF_8);
+
+        RapportImportDTO rapport = chargeurCsvInsee.charger(fichier);
+
+        assertThat(rapport.getLignesLues()).isEqualTo(4);
+        assertThat(rapport.getVillesImportees()).isEqualTo(3);
+        assertThat(rapport.getErreurs()).singleElement()
+                .satisfies(erreur -> assertThat(erreur.getLigne()).isEqualTo(4));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT nb_habs FROM ville WHERE nom = 'Sète; la singulière'", Integer.class)).isEqualTo(44029);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT nombre_villes FROM departement WHERE code = '30'", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void chargerDepartementsManquants_rattachesALeurRegion() throws Exception {
+        Path fichier = dossier.resolve("communes-regions.csv");
+        Files.writeString(fichier, ENTETE + "\n"
+                + "76;Occitanie;30;3;99;189;Nîmes;148 104;457;148 561\n"
+                + "94;Corse;2B;2;99;33;Bastia;48 503;1 000;49 503\n", StandardCharsets.UTF_8);
+
+        chargeurCsvInsee.charger(fichier);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT r.code FROM departement d JOIN region r ON r.id = d.id_region "
+                + "WHERE d.code = '30'", String.class)).isEqualTo("76");
+        assertThat(departementRepository.findDepartementsMetropolitains()).extracting(Departement::getCode)
+                .containsExactly("30");
+        assertThat(departementRepository.findDepartementsCorse()).extracting(Departement::getCode)
+                .containsExactly("2B");
+        assertThat(jdbcTemplate.queryForObject("SELECT nombre_villes FROM region WHERE code = '94'", Long.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void chargerCodesInvalides_lignesRejeteesSansCreerDeDepartement() throws Exception {
+        Path fichier = dossier.resolve("codes-invalides.csv");
+        Files.writeString(fichier, ENTETE + "\n"
+                + "00;Inconnue;99;1;99;1;Nulle part;100;0;100\n"
+                + "94;Corse;20;1;99;2;Ancienne Corse;100;0;100\n"
+                + "00;Inconnue;XX;1;99;3;Ailleurs;100;0;100\n"
+                + "00;Inconnue;1A;1;99;4;Autre part;100;0;100\n"
+                + "94;Corse;2a;1;99;4;Ajaccio;70 000;0;70 000\n", StandardCharsets.UTF_8);
+
+        RapportImportDTO rapport = chargeurCsvInsee.charger(fichier);
+
+        assertThat(rapport.getVillesImportees()).isEqualTo(1);
+        assertThat(rapport.getErreurs()).extracting(erreur -> erreur.getLigne()).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(jdbcTemplate.queryForList("SELECT code FROM departement ORDER BY code", String.class))
+                .containsExactly("2A", "34");
+        assertThat(jdbcTemplate.queryForObject("SELECT nom FROM departement WHERE code = '2A'", String.class))
+                .isEqualTo("Corse-du-Sud");
+    }
+
+    @Test
+    void chargerCoordonnees() throws Exception {
+        Path fichier = dossier.resolve("communes-localisees.csv");
+        Files.writeString(fichier, "codeDepartement;nom;nbHabitants;latitude;longitude\n"
+                + "34;Montpellier;295542;43.6108;3.8767\n"
+                + "34;Sète;44029;43,4028;3,6967\n"
+                + "34;Lodève;7500;;\n"
+                + "34;Agde;29000;43.31;\n"
+                + "34;Béziers;78000;nord;3.21\n", StandardCharsets.UTF_8);
+
+        RapportImportDTO rapport = chargeurCsvInsee.charger(fichier);
+
+        assertThat(rapport.getVillesImportees()).isEqualTo(3);
+        assertThat(rapport.getErreurs()).extracting(erreur -> erreur.getLigne()).containsExactly(4L, 5L);
+        assertThat(jdbcTemplate.queryForObject("SELECT longitude FROM ville WHERE nom = 'Sète'", Double.class))
+                .isEqualTo(3.6967);
+        assertThat(jdbcTemplate.queryForObject("SELECT latitude FROM ville WHERE nom = 'Lodève'", Double.class))
+                .isNull();
+    }
+
+    @Test
+    void chargerGrosFichier_tranchesParalleles() throws Exception {
+        int nombre = 40000;
+        Path fichier = dossier.resolve("communes.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+            writer.write(ENTETE + "\n");
+            for (int i = 0; i < nombre; i++) {
+                writer.write("76;Occitanie de la région numéro " + (i % 13) + ";" + (i % 2 == 0 ? "34" : "30")
+                        + ";1;99;" + i + ";Commune numéro " + i + ";" + (100 + i) + ";0;" + (100 + i) + "\n");
+            }
+        }
+
+        RapportImportDTO rapport = chargeurCsvInsee.charger(fichier);
+
+        assertThat(rapport.getLignesRejetees()).isZero();
+        assertThat(rapport.getVillesImportees()).isEqualTo(nombre);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT nom) FROM ville", Long.class)).isEqualTo(nombre);
+    }
+}
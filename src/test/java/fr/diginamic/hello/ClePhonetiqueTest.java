@@ -0,0 +1,37 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.services.ClePhonetique;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie la clé phonétique : mêmes clés pour des graphies homophones de noms de communes,
+ * clés différentes pour des noms qui se prononcent différemment.
+ */
+class ClePhonetiqueTest {
+
+    @Test
+    void homophones_memeCle() {
+        String[][] homophones = {
+                {"Marseille", "Marsseil"}, {"Bordeaux", "Bordo"}, {"Cergy", "Sergi"}, {"Nîmes", "Nime"},
+                {"Besançon", "Bezanson"}, {"Chambéry", "Shambéri"}, {"Reims", "Rins"}, {"Troyes", "Troie"},
+                {"Versailles", "Versaille"}, {"Angers", "Angé"}, {"Nice", "Nisse"}, {"Paris", "pari"},
+                {"Saint-Étienne", "St Etiene"}, {"Villeurbanne", "Vileurbane"}, {"Strasbourg", "Strasbour"},
+                {"Fontainebleau", "Fontènebleau"}, {"Montélimar", "Montelimard"}, {"Lyon", "Lion"}
+        };
+        for (String[] paire : homophones) {
+            assertThat(ClePhonetique.coder(paire[1])).as(paire[1]).isEqualTo(ClePhonetique.coder(paire[0]));
+        }
+        assertThat(ClePhonetique.coder("Saint-Ouen")).isEqualTo("S1U2");
+    }
+
+    @Test
+    void prononciationsDifferentes_clesDifferentes() {
+        assertThat(ClePhonetique.coder("Lyon")).isNotEqualTo(ClePhonetique.coder("Laon"));
+        assertThat(ClePhonetique.coder("Lille")).isNotEqualTo(ClePhonetique.coder("Lens"));
+        assertThat(ClePhonetique.coder("Sète")).isNotEqualTo(ClePhonetique.coder("Sées"));
+        assertThat(ClePhonetique.coder("Nantes")).isNotEqualTo(ClePhonetique.coder("Nancy"));
+        assertThat(ClePhonetique.coder("  ")).isEmpty();
+    }
+}
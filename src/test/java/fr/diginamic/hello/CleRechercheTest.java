@@ -0,0 +1,33 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.services.CleRecherche;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie la clé de recherche des noms : casse, accents, ligatures, séparateurs
+ * et abréviations "St"/"Ste", développées sauf sur le dernier mot d'une saisie en cours.
+ */
+class CleRechercheTest {
+
+    @Test
+    void normaliser_variantesDUnMemeNom() {
+        assertThat(CleRecherche.normaliser("Saint-Étienne")).isEqualTo("saint etienne");
+        assertThat(CleRecherche.normaliser("SAINT ETIENNE")).isEqualTo("saint etienne");
+        assertThat(CleRecherche.normaliser("St-Étienne")).isEqualTo("saint etienne");
+        assertThat(CleRecherche.normaliser("Ste-Foy-lès-Lyon")).isEqualTo("sainte foy les lyon");
+        assertThat(CleRecherche.normaliser("L'Haÿ-les-Roses")).isEqualTo("l hay les roses");
+        assertThat(CleRecherche.normaliser("Œuilly")).isEqualTo("oeuilly");
+        assertThat(CleRecherche.normaliser("Strasbourg")).isEqualTo("strasbourg");
+        assertThat(CleRecherche.normaliser(null)).isEmpty();
+    }
+
+    @Test
+    void normaliserSaisie_dernierMotNonDeveloppe() {
+        assertThat(CleRecherche.normaliserSaisie("st")).isEqualTo("st");
+        assertThat(CleRecherche.normaliserSaisie("st-")).isEqualTo("saint");
+        assertThat(CleRecherche.normaliserSaisie("St É")).isEqualTo("saint e");
+        assertThat(CleRecherche.normaliserSaisie("  ")).isEmpty();
+    }
+}
@@ -0,0 +1,161 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.config.CacheConfig;
+import fr.diginamic.hello.models.Departement;
+import fr.diginamic.hello.repositories.DepartementRepository;
+import fr.diginamic.hello.repositories.RegionRepository;
+import fr.diginamic.hello.services.DepartementCacheService;
+import fr.diginamic.hello.services.DepartementService;
+import fr.diginamic.hello.services.IndexTrigrammesDepartements;
+import fr.diginamic.hello.services.VersionsDonnees;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le cache des départements : succès/échecs comptés, absents non mis en cache,
+ * invalidation par les écritures de DepartementService, cache de second niveau Hibernate
+ * (non invalidé par la mise à jour des compteurs)
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import({CacheConfig.class, DepartementCacheService.class, DepartementService.class, VersionsDonnees.class,
+        IndexTrigrammesDepartements.class})
+class DepartementCacheServiceTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private DepartementCacheService departementCacheService;
+
+    @Autowired
+    private DepartementService departementService;
+
+    @Autowired
+    private DepartementRepository departementRepository;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Departement herault;
+
+    @BeforeEach
+    void setup() {
+        herault = em.persist(new Departement("34", "Hérault"));
+        em.flush();
+        departementCacheService.invalider();
+    }
+
+    @Test
+    void findByCode_secondAppelServiParLeCache() {
+        Departement premier = departementCacheService.findByCode("34").orElseThrow();
+        Departement second = departementCacheService.findByCode("34").orElseThrow();
+
+        assertThat(second).isSameAs(premier);
+        assertThat(second.getId()).isEqualTo(herault.getId());
+        Map<String, Object> stats = departementCacheService.statistiques().get(DepartementCacheService.CACHE_PAR_CODE);
+        assertThat(stats.get("taille")).isEqualTo(1L);
+        assertThat((long) stats.get("succes")).isGreaterThanOrEqualTo(1L);
+    }
+
+    @Test
+    void departementAbsent_nonMisEnCache() {
+        assertThat(departementCacheService.findByCode("99")).isEmpty();
+
+        em.persist(new Departement("99", null));
+        em.flush();
+
+        assertThat(departementCacheService.findByCode("99")).isPresent();
+    }
+
+    @Test
+    void updateNom_invalideLeCache() {
+        departementCacheService.findByCode("34");
+        departementCacheService.findById(herault.getId());
+
+        departementService.updateNom("34", "Herault");
+
+        assertThat(departementCacheService.findByCode("34").orElseThrow().getNom()).isEqualTo("Herault");
+        assertThat(departementCacheService.findById(herault.getId()).orElseThrow().getNom()).isEqualTo("Herault");
+    }
+
+    @Test
+    void secondNiveau_codeEtRequetesParRegionSansRequeteSql() {
+        Departement corseDuSud = new Departement("2A", "Corse-du-Sud");
+        corseDuSud.setRegion(regionRepository.findByCode("94").orElseThrow());
+        em.persist(corseDuSud);
+        em.flush();
+        // Le cache de second niveau n'est alimenté qu'après validation de la transaction
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            departementRepository.findByCodeNaturalId("34");
+            departementRepository.findDepartementsCorse();
+
+            Statistics statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            long requetes = statistiques.getPrepareStatementCount();
+
+            assertThat(departementRepository.findByCodeNaturalId("34")).get()
+                    .extracting(Departement::getNom).isEqualTo("Hérault");
+            assertThat(departementRepository.findDepartementsCorse())
+                    .extracting(Departement::getCode).containsExactly("2A");
+            assertThat(statistiques.getPrepareStatementCount()).isEqualTo(requetes);
+        } finally {
+            departementRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void secondNiveau_compteursModifiesSansInvaliderLeDepartementNiLesRequetes() {
+        Departement corseDuSud = new Departement("2A", "Corse-du-Sud");
+        corseDuSud.setRegion(regionRepository.findByCode("94").orElseThrow());
+        em.persist(corseDuSud);
+        em.flush();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            departementRepository.findByCodeNaturalId("2A");
+            departementRepository.findDepartementsCorse();
+
+            // Écriture sur ville : mise à jour native des compteurs (département, région, France)
+            TestTransaction.start();
+            departementRepository.incrementerCompteurs(corseDuSud.getId(), 1, 73000);
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+
+            Statistics statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            long requetes = statistiques.getPrepareStatementCount();
+
+            assertThat(departementRepository.findByCodeNaturalId("2A")).isPresent();
+            assertThat(departementRepository.findDepartementsCorse())
+                    .extracting(Departement::getCode).containsExactly("2A");
+            assertThat(statistiques.getPrepareStatementCount()).isEqualTo(requetes);
+
+            // Les compteurs, hors cache, sont lus en base
+            assertThat(departementService.countVillesById(corseDuSud.getId())).isEqualTo(1L);
+            assertThat(departementService.getTotalPopulationById(corseDuSud.getId())).isEqualTo(73000L);
+        } finally {
+            departementRepository.deleteAll();
+        }
+    }
+}
@@ -3,25 +3,34 @@ package fr.diginamic.hello;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.diginamic.hello.controlers.DepartementController;
 import fr.diginamic.hello.dto.DepartementDTO;
+import fr.diginamic.hello.dto.DepartementResumeDTO;
+import fr.diginamic.hello.dto.PageCurseurDTO;
+import fr.diginamic.hello.dto.StatistiquesDepartementDTO;
 import fr.diginamic.hello.dto.VilleDTO;
 import fr.diginamic.hello.mappers.DepartementMapper;
 import fr.diginamic.hello.mappers.VilleMapper;
 import fr.diginamic.hello.models.Departement;
 import fr.diginamic.hello.models.Ville;
+import fr.diginamic.hello.services.DepartementCacheService;
 import fr.diginamic.hello.services.DepartementService;
+import fr.diginamic.hello.services.VersionsDonnees;
 import fr.diginamic.hello.services.VilleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +44,12 @@ class DepartementControllerRoutesTest {
     @MockBean
     private DepartementService departementService;
 
+    @MockBean
+    private DepartementCacheService departementCacheService;
+
+    @MockBean
+    private VersionsDonnees versionsDonnees;
+
     @MockBean
     private VilleService villeService;
 
@@ -76,11 +91,25 @@ class DepartementControllerRoutesTest {
 
     @Test
     void getAll_ok() throws Exception {
-        when(departementService.findAll()).thenReturn(List.of(dep));
-        when(departementMapper.toDTOList(anyList())).thenReturn(List.of(depDTO));
+        DepartementResumeDTO resume = new DepartementResumeDTO(1L, "34", "Hérault", 10L, 1_000_000L);
+        when(departementService.findResumesWithSort(0, 20, "nom")).thenReturn(new PageImpl<>(List.of(resume)));
         mockMvc.perform(get("/departements"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].code").value("34"));
+                .andExpect(jsonPath("$.content[0].code").value("34"))
+                .andExpect(jsonPath("$.content[0].nombreVilles").value(10))
+                .andExpect(jsonPath("$.content[0].villes").doesNotExist());
+        mockMvc.perform(get("/departements").param("avecVilles", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].villes").doesNotExist());
+    }
+
+    @Test
+    void getAll_avecVilles_ok() throws Exception {
+        when(departementService.findAllWithSort(0, 20, "nom")).thenReturn(new PageImpl<>(List.of(dep)));
+        when(departementMapper.toDTO(dep)).thenReturn(depDTO);
+        mockMvc.perform(get("/departements").param("avecVilles", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].code").value("34"));
     }
 
     @Test
@@ -106,7 +135,7 @@ class DepartementControllerRoutesTest {
     @Test
     void create_ok() throws Exception {
         when(departementMapper.toEntity(any(DepartementDTO.class))).thenReturn(dep);
-        when(departementService.save(dep)).thenReturn(dep);
+        when(departementService.save(dep, null)).thenReturn(dep);
         when(departementMapper.toDTO(dep)).thenReturn(depDTO);
 
         String body = objectMapper.writeValueAsString(depDTO);
@@ -119,7 +148,7 @@ class DepartementControllerRoutesTest {
     void update_ok_and_notFound() throws Exception {
         when(departementService.findById(1L)).thenReturn(Optional.of(dep));
         when(departementMapper.toEntity(any(DepartementDTO.class))).thenReturn(dep);
-        when(departementService.save(dep)).thenReturn(dep);
+        when(departementService.save(dep, null)).thenReturn(dep);
         when(departementMapper.toDTO(dep)).thenReturn(depDTO);
         String body = objectMapper.writeValueAsString(depDTO);
         mockMvc.perform(put("/departements/1").contentType(MediaType.APPLICATION_JSON).content(body))
@@ -143,6 +172,16 @@ class DepartementControllerRoutesTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void search_partielle_pagine_ok() throws Exception {
+        when(departementService.searchDepartements("hera", 0, 20)).thenReturn(new PageImpl<>(List.of(dep)));
+        when(departementMapper.toDTO(dep)).thenReturn(depDTO);
+        mockMvc.perform(get("/departements/search").param("q", "hera"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].code").value("34"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
     @Test
     void with_nom_ok() throws Exception {
         when(departementService.findDepartementsWithNom()).thenReturn(List.of(dep));
@@ -203,22 +242,38 @@ class DepartementControllerRoutesTest {
     @Test
     void villes_by_departement() throws Exception {
         when(departementService.findById(1L)).thenReturn(Optional.of(dep));
-        when(villeService.exportVillesByDepartement("34")).thenReturn(List.of(ville));
-        when(villeMapper.toDTOList(anyList())).thenReturn(List.of(villeDTO));
-        mockMvc.perform(get("/departements/1/villes")).andExpect(status().isOk());
+        when(villeService.findTrancheByDepartement(1L, "nom", null, 50))
+                .thenReturn(new PageCurseurDTO<>(List.of(ville), "nom", 50, "c2"));
+        when(villeMapper.toDTO(ville)).thenReturn(villeDTO);
+        mockMvc.perform(get("/departements/1/villes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenu[0].nom").value(villeDTO.getNom()))
+                .andExpect(jsonPath("$.curseurSuivant").value("c2"));
+
+        when(villeService.findTrancheByDepartement(1L, "nbHabitants", "c2", 10))
+                .thenReturn(new PageCurseurDTO<>(List.of(), "nbHabitants", 10, null));
+        mockMvc.perform(get("/departements/1/villes").param("sort", "nbHabitants")
+                        .param("size", "10").param("curseur", "c2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.curseurSuivant").doesNotExist());
     }
 
     @Test
     void villes_by_departement_code() throws Exception {
-        when(villeService.exportVillesByDepartement("34")).thenReturn(List.of(ville));
-        when(villeMapper.toDTOList(anyList())).thenReturn(List.of(villeDTO));
-        mockMvc.perform(get("/departements/code/34/villes")).andExpect(status().isOk());
+        when(departementCacheService.findByCode("34")).thenReturn(Optional.of(dep));
+        when(villeService.findTrancheByDepartement(dep.getId(), "nom", null, 50))
+                .thenReturn(new PageCurseurDTO<>(List.of(ville), "nom", 50, "c2"));
+        when(villeMapper.toDTO(ville)).thenReturn(villeDTO);
+        mockMvc.perform(get("/departements/code/34/villes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenu[0].nom").value(villeDTO.getNom()))
+                .andExpect(jsonPath("$.curseurSuivant").value("c2"));
     }
 
     @Test
     void villes_top_population_filters() throws Exception {
         when(villeService.findTopNVillesByDepartement("34", 3)).thenReturn(List.of(ville));
-        when(villeService.findByDepartementAndMinPopulation("34", 1000)).thenReturn(List.of(ville));
+        when(villeService.findByDepartementAndMinPopulation("34", 1000, 50)).thenReturn(List.of(ville));
         when(villeService.findByDepartementAndPopulationRange("34", 1000, 300000)).thenReturn(List.of(ville));
         when(villeMapper.toDTOList(anyList())).thenReturn(List.of(villeDTO));
 
@@ -238,14 +293,14 @@ class DepartementControllerRoutesTest {
         when(departementService.getTotalPopulationById(1L)).thenReturn(1_000_000L);
         mockMvc.perform(get("/departements/1/stats")).andExpect(status().isOk());
 
-        when(villeService.getDepartementStats("34")).thenReturn(
-                new fr.diginamic.hello.repositories.VilleRepositoryHelper.DepartementStats(
-                        dep, 10L, 1_000_000L, ville
-                )
-        );
+        StatistiquesDepartementDTO stats = new StatistiquesDepartementDTO();
+        stats.setDepartement(new VilleDTO.DepartementSimplifieDTO(1L, "34", "Hérault"));
+        stats.setNombreVilles(10L);
+        stats.setPopulationTotale(1_000_000L);
+        when(villeService.getDepartementStats("34")).thenReturn(stats);
         mockMvc.perform(get("/departements/code/34/stats")).andExpect(status().isOk());
 
-        when(departementService.findByCode("34")).thenReturn(Optional.of(dep));
+        when(departementCacheService.findByCode("34")).thenReturn(Optional.of(dep));
         when(departementService.getTotalPopulationById(1L)).thenReturn(1_000_000L);
         mockMvc.perform(get("/departements/code/34/population-totale")).andExpect(status().isOk());
 
@@ -253,6 +308,72 @@ class DepartementControllerRoutesTest {
         mockMvc.perform(get("/departements/code/34/nombre-villes")).andExpect(status().isOk());
     }
 
+    @Test
+    void statsTousDepartements_ok() throws Exception {
+        StatistiquesDepartementDTO stats = new StatistiquesDepartementDTO();
+        stats.setDepartement(new VilleDTO.DepartementSimplifieDTO(1L, "34", "Hérault"));
+        stats.setPopulationMediane(3500.0);
+        when(villeService.getStatistiquesDepartements("populationTotale", "desc", 10L, null, null))
+                .thenReturn(List.of(stats));
+
+        mockMvc.perform(get("/departements/stats")
+                        .param("sort", "populationTotale").param("direction", "desc").param("minVilles", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].departement.code").value("34"))
+                .andExpect(jsonPath("$[0].populationMediane").value(3500.0));
+    }
+
+    @Test
+    void topVillesParDepartement_ok() throws Exception {
+        VilleDTO montpellier = new VilleDTO(10L, "Montpellier", 290000,
+                new VilleDTO.DepartementSimplifieDTO(1L, "34", "Hérault"));
+        when(villeService.findTopNVillesParDepartement(1, List.of("34", "30")))
+                .thenReturn(java.util.Map.of("34", List.of(montpellier)));
+
+        mockMvc.perform(get("/departements/villes/top").param("n", "1").param("codes", "34,30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['34'][0].nom").value("Montpellier"));
+    }
+
+    @Test
+    void getConditionnel_etagPuis304SansAppelDuService() throws Exception {
+        when(versionsDonnees.etagGlobal()).thenReturn("\"v-3\"");
+        when(departementService.count()).thenReturn(101L);
+
+        mockMvc.perform(get("/departements/count"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v-3\""))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+        mockMvc.perform(get("/departements/count").header("If-None-Match", "\"v-3\""))
+                .andExpect(status().isNotModified());
+
+        verify(departementService, times(1)).count();
+    }
+
+    @Test
+    void getConditionnel_erreurSansEtagNi304() throws Exception {
+        when(versionsDonnees.etagGlobal()).thenReturn("\"v-3\"");
+
+        // Réponse d'erreur : pas d'ETag, le client n'a aucune version à revalider
+        mockMvc.perform(get("/departements/abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(header().doesNotExist("Cache-Control"));
+        // Département inconnu : ni ETag ni 304
+        mockMvc.perform(get("/departements/code/ZZ/villes/top").header("If-None-Match", "\"v-3\""))
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(result -> assertThat(result.getResponse().getStatus()).isNotEqualTo(304));
+    }
+
+    @Test
+    void cacheStats_ok() throws Exception {
+        when(departementCacheService.statistiques()).thenReturn(
+                java.util.Map.of("departementsParCode", java.util.Map.of("succes", 3L, "echecs", 1L)));
+        mockMvc.perform(get("/departements/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.departementsParCode.succes").value(3));
+    }
+
     @Test
     void gestion_avancee_ok() throws Exception {
         when(departementService.createDepartement("99", null)).thenReturn(dep);
@@ -267,6 +388,11 @@ class DepartementControllerRoutesTest {
 
         mockMvc.perform(put("/departements/update-noms-manquants")).andExpect(status().isOk());
 
+        when(departementService.recalculerCompteurs()).thenReturn(101);
+        mockMvc.perform(put("/departements/recalcul-compteurs"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Compteurs recalculés pour 101 département(s)"));
+
         when(departementService.existsByCode("34")).thenReturn(true);
         mockMvc.perform(get("/departements/exists/code/34")).andExpect(status().isOk()).andExpect(content().string("true"));
     }
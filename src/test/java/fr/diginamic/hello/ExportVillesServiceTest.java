@@ -0,0 +1,89 @@
+package fr.diginamic.hello;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.diginamic.hello.models.Departement;
+import fr.diginamic.hello.models.Ville;
+import fr.diginamic.hello.services.ExportVillesService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le contenu des exports de villes en flux (NDJSON, CSV, gzip)
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "ville.export.fetch-size=100"
+})
+@AutoConfigureJson
+@Import(ExportVillesService.class)
+class ExportVillesServiceTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ExportVillesService exportVillesService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setup() {
+        Departement herault = em.persist(new Departement("34", "Hérault"));
+        Departement gard = em.persist(new Departement("30", "Gard"));
+        Ville montpellier = new Ville("Montpellier", 295542, herault);
+        montpellier.setLatitude(43.6108);
+        montpellier.setLongitude(3.8767);
+        em.persist(montpellier);
+        em.persist(new Ville("Sète; \"l'île singulière\"", 44000, herault));
+        em.persist(new Ville("Nîmes", 148561, gard));
+        em.flush();
+    }
+
+    @Test
+    void exportNdjson_unObjetParLigne() throws Exception {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+
+        long nombre = exportVillesService.exporter(null, ExportVillesService.Format.NDJSON, false, sortie);
+
+        String[] lignes = sortie.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(nombre).isEqualTo(3);
+        assertThat(lignes).hasSize(3);
+        JsonNode premiere = objectMapper.readTree(lignes[0]);
+        assertThat(premiere.get("nom").asText()).isEqualTo("Montpellier");
+        assertThat(premiere.get("departement").get("code").asText()).isEqualTo("34");
+        assertThat(premiere.get("latitude").asDouble()).isEqualTo(43.6108);
+        assertThat(premiere.get("longitude").asDouble()).isEqualTo(3.8767);
+        assertThat(objectMapper.readTree(lignes[2]).get("nom").asText()).isEqualTo("Nîmes");
+        assertThat(objectMapper.readTree(lignes[2]).get("latitude").isNull()).isTrue();
+    }
+
+    @Test
+    void exportCsvGzip_departement() throws Exception {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+
+        long nombre = exportVillesService.exporter("34", ExportVillesService.Format.CSV, true, sortie);
+
+        byte[] decompresse = new GZIPInputStream(new ByteArrayInputStream(sortie.toByteArray())).readAllBytes();
+        String[] lignes = new String(decompresse, StandardCharsets.UTF_8).split("\n");
+        assertThat(nombre).isEqualTo(2);
+        assertThat(lignes[0]).isEqualTo("id;nom;nbHabitants;latitude;longitude;departementId;departementCode;departementNom");
+        assertThat(lignes[1]).contains(";Montpellier;295542;43.6108;3.8767;").endsWith(";34;Hérault");
+        assertThat(lignes[2]).contains(";\"Sète; \"\"l'île singulière\"\"\";44000;;;");
+    }
+}
@@ -1,7 +1,9 @@
 package fr.diginamic.hello;
 
 import fr.diginamic.hello.controlers.HelloController;
+import fr.diginamic.hello.services.DepartementCacheService;
 import fr.diginamic.hello.services.HelloService;
+import fr.diginamic.hello.services.VersionsDonnees;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -22,6 +24,13 @@ class HelloControllerTest {
     @MockBean
     private HelloService helloService;
 
+    // Dépendances de l'intercepteur ETag (EtagConfig), chargé par @WebMvcTest
+    @MockBean
+    private VersionsDonnees versionsDonnees;
+
+    @MockBean
+    private DepartementCacheService departementCacheService;
+
     @Test
     void getHello_returnsSalutation() throws Exception {
         when(helloService.salutation()).thenReturn("Bonjour !");
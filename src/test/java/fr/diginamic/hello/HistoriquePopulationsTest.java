@@ -0,0 +1,140 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.dto.CroissanceDepartementDTO;
+import fr.diginamic.hello.dto.RapportImportDTO;
+import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
+import fr.diginamic.hello.models.Ville;
+import fr.diginamic.hello.services.ImportPopulationsService;
+import fr.diginamic.hello.services.VilleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie l'historique des populations : import CSV (villes par id ou par département et nom,
+ * lignes rejetées, valeurs remplacées), série d'une ville et croissance par département lues
+ * dans le stockage en colonnes, et mises à jour après validation des écritures de VilleService
+ * (d'où l'absence de transaction de test).
+ */
+@TestServicesVilles
+@TestPropertySource(properties = "ville.import.taille-lot=2")
+class HistoriquePopulationsTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NettoyageDonnees nettoyage;
+
+    @Autowired
+    private VilleService villeService;
+
+    @Autowired
+    private ImportPopulationsService importPopulationsService;
+
+    private Long montpellier;
+
+    @BeforeEach
+    void setup() throws IOException {
+        jdbcTemplate.update("INSERT INTO departement (code, nom) VALUES ('34', 'Hérault'), ('01', 'Ain')");
+        jdbcTemplate.update("INSERT INTO ville (nom, nom_recherche, nb_habs, id_dept) VALUES "
+                + "('Montpellier', 'montpellier', 299096, (SELECT id FROM departement WHERE code = '34')), "
+                + "('Béziers', 'beziers', 78683, (SELECT id FROM departement WHERE code = '34')), "
+                + "('Sète', 'sete', 44558, (SELECT id FROM departement WHERE code = '34')), "
+                + "('Bourg-en-Bresse', 'bourg en bresse', 41248, (SELECT id FROM departement WHERE code = '01'))");
+        montpellier = jdbcTemplate.queryForObject("SELECT id FROM ville WHERE nom = 'Montpellier'", Long.class);
+
+        RapportImportDTO rapport = importer("""
+                Code département;Nom de la commune;PMUN2010;PMUN2015;PMUN2021
+                34;Montpellier;257351;277639;302454
+                34;"Beziers";71428;76493;79041
+                34;Sète;;43620;44270
+                1;Bourg-en-Bresse;39586;41527;41224
+                34;Lunel;25000;26000;27000
+                34;Agde;abc;;
+                """);
+        assertThat(rapport.getLignesLues()).isEqualTo(6);
+        assertThat(rapport.getVillesImportees()).isEqualTo(4);
+        assertThat(rapport.getLots()).isEqualTo(2);
+        assertThat(rapport.getErreurs()).extracting(RapportImportDTO.ErreurLigneDTO::getLigne).containsExactly(5L, 6L);
+    }
+
+    @AfterEach
+    void nettoyage() {
+        nettoyage.vider();
+    }
+
+    @Test
+    void serieDUneVille() {
+        assertThat(villeService.getSeriePopulation(montpellier).getPopulations())
+                .containsExactly(Map.entry(2010, 257351), Map.entry(2015, 277639), Map.entry(2021, 302454));
+        Long sete = jdbcTemplate.queryForObject("SELECT id FROM ville WHERE nom = 'Sète'", Long.class);
+        assertThat(villeService.getSeriePopulation(sete).getPopulations()).containsOnlyKeys(2015, 2021);
+        assertThatThrownBy(() -> villeService.getSeriePopulation(-1L)).isInstanceOf(ExceptionFonctionnelle.class);
+    }
+
+    @Test
+    void croissanceParDepartement_surLesVillesConnuesAuxDeuxAnnees() {
+        List<CroissanceDepartementDTO> croissances = villeService.getCroissanceParDepartement(2010, 2021);
+        assertThat(croissances).extracting(c -> c.getDepartement().getCode()).containsExactly("01", "34");
+        CroissanceDepartementDTO herault = croissances.get(1);
+        assertThat(herault.getNombreVilles()).isEqualTo(2);
+        assertThat(herault.getPopulationDebut()).isEqualTo(257351L + 71428);
+        assertThat(herault.getPopulationFin()).isEqualTo(302454L + 79041);
+        assertThat(herault.getEvolutionPourcent()).isEqualTo(16.03);
+        assertThat(herault.getTauxAnnuelMoyenPourcent()).isEqualTo(1.36);
+
+        assertThatThrownBy(() -> villeService.getCroissanceParDepartement(2021, 2010))
+                .isInstanceOf(ExceptionFonctionnelle.class);
+        assertThatThrownBy(() -> villeService.getCroissanceParDepartement(2010, 2020))
+                .isInstanceOf(ExceptionFonctionnelle.class);
+    }
+
+    @Test
+    void importParIdentifiant_remplaceLesValeurs() throws IOException {
+        RapportImportDTO rapport = importer("id;2021;2022\n" + montpellier + ";302455;305000\n999999;1;2\n");
+        assertThat(rapport.getVillesImportees()).isEqualTo(1);
+        assertThat(rapport.getLignesRejetees()).isEqualTo(1);
+        assertThat(villeService.getSeriePopulation(montpellier).getPopulations())
+                .containsEntry(2021, 302455).containsEntry(2022, 305000).hasSize(4);
+
+        assertThatThrownBy(() -> importer("nom;population\nMontpellier;1\n")).isInstanceOf(ExceptionFonctionnelle.class);
+    }
+
+    @Test
+    void misesAJourDesVilles() {
+        // Rattachement à un autre département : la série suit la ville ; suppression : elle sort des agrégats
+        Long beziers = jdbcTemplate.queryForObject("SELECT id FROM ville WHERE nom = 'Béziers'", Long.class);
+        Ville rattachee = villeService.findById(montpellier).orElseThrow();
+        rattachee.setDepartement(villeService.findById(
+                jdbcTemplate.queryForObject("SELECT id FROM ville WHERE nom = 'Bourg-en-Bresse'", Long.class))
+                .orElseThrow().getDepartement());
+        villeService.save(rattachee);
+        villeService.deleteById(beziers);
+
+        List<CroissanceDepartementDTO> croissances = villeService.getCroissanceParDepartement(2010, 2021);
+        assertThat(croissances).singleElement().satisfies(ain -> {
+            assertThat(ain.getDepartement().getCode()).isEqualTo("01");
+            assertThat(ain.getNombreVilles()).isEqualTo(2);
+            assertThat(ain.getPopulationFin()).isEqualTo(41224L + 302454);
+        });
+        assertThat(villeService.getSeriePopulation(montpellier).getPopulations()).hasSize(3);
+        assertThatThrownBy(() -> villeService.getSeriePopulation(beziers)).isInstanceOf(ExceptionFonctionnelle.class);
+    }
+
+    private RapportImportDTO importer(String csv) throws IOException {
+        return importPopulationsService.importerCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+}
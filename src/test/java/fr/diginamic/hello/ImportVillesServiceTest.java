@@ -0,0 +1,123 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.dto.RapportImportDTO;
+import fr.diginamic.hello.dto.VilleDTO;
+import fr.diginamic.hello.models.Departement;
+import fr.diginamic.hello.models.Ville;
+import fr.diginamic.hello.services.ImportVillesService;
+import fr.diginamic.hello.services.IndexPrefixesVilles;
+import fr.diginamic.hello.services.VersionsDonnees;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie l'import par lots : validation ensembliste, doublons, rapport d'erreurs ligne à ligne
+ * et lecture JSON en flux (gzip, NDJSON, flux tronqué)
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "ville.import.taille-lot=2"
+})
+@AutoConfigureJson
+@Import({ImportVillesService.class, VersionsDonnees.class, IndexPrefixesVilles.class})
+class ImportVillesServiceTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ImportVillesService importVillesService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Departement herault;
+
+    @BeforeEach
+    void setup() {
+        herault = em.persist(new Departement("34", "Hérault"));
+        em.persist(new Departement("30", "Gard"));
+        em.persist(new Ville("Montpellier", 295542, herault));
+        em.flush();
+    }
+
+    @Test
+    void importParLots_rapportLigneALigne() {
+        List<VilleDTO> villes = List.of(
+                ville("Sète", 44000, herault.getId(), null),
+                ville("Montpellier", 295542, null, "34"),    // déjà en base
+                ville("Nîmes", 148561, null, "30"),
+                ville("Alès", 0, null, "30"),                // population invalide
+                ville("Sète", 44000, null, "34"),            // doublon d'un lot précédent
+                ville("Bastia", 48000, null, "2B"),          // département inconnu
+                ville("Uzès", 8500, null, "30"));
+
+        RapportImportDTO rapport = importVillesService.importer(villes.iterator());
+
+        assertThat(rapport.getLignesLues()).isEqualTo(7);
+        assertThat(rapport.getVillesImportees()).isEqualTo(3);
+        assertThat(rapport.getLignesRejetees()).isEqualTo(4);
+        assertThat(rapport.getErreurs()).extracting(RapportImportDTO.ErreurLigneDTO::getLigne)
+                .containsExactlyInAnyOrder(2L, 4L, 5L, 6L);
+
+        Long nombreGard = jdbcTemplate.queryForObject(
+                "SELECT nombre_villes FROM departement WHERE code = '30'", Long.class);
+        Long populationGard = jdbcTemplate.queryForObject(
+                "SELECT population_totale FROM departement WHERE code = '30'", Long.class);
+        assertThat(nombreGard).isEqualTo(2);
+        assertThat(populationGard).isEqualTo(148561 + 8500);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ville", Long.class)).isEqualTo(4);
+    }
+
+    @Test
+    void importJsonGzip_lectureEnFlux() throws Exception {
+        String json = "[{\"nom\":\"Nîmes\",\"nbHabitants\":148561,\"departement\":{\"code\":\"30\"}},"
+                + "{\"nom\":\"Alès\",\"nbHabitants\":\"beaucoup\",\"departement\":{\"code\":\"30\"}},"
+                + "{\"nom\":\"Uzès\",\"nbHabitants\":8500,\"departement\":{\"code\":\"30\"}}]";
+        ByteArrayOutputStream compresse = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compresse)) {
+            gzip.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        RapportImportDTO rapport = importVillesService.importerJson(new ByteArrayInputStream(compresse.toByteArray()));
+
+        assertThat(rapport.getLignesLues()).isEqualTo(3);
+        assertThat(rapport.getVillesImportees()).isEqualTo(2);
+        assertThat(rapport.getErreurs()).singleElement()
+                .satisfies(erreur -> assertThat(erreur.getLigne()).isEqualTo(2));
+    }
+
+    @Test
+    void importNdjsonTronque_conserveLesLignesLues() {
+        String ndjson = "{\"nom\":\"Nîmes\",\"nbHabitants\":148561,\"departement\":{\"code\":\"30\"}}\n"
+                + "{\"nom\":\"Uzès\",\"nbHabitants\":8500,\"departement\":{\"code\":\"30\"}}\n"
+                + "{\"nom\":\"Alès\",\"nbHab";
+
+        RapportImportDTO rapport = importVillesService.importerJson(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(rapport.getVillesImportees()).isEqualTo(2);
+        assertThat(rapport.getErreurs()).singleElement()
+                .satisfies(erreur -> assertThat(erreur.getMessage()).startsWith("Lecture interrompue"));
+    }
+
+    private static VilleDTO ville(String nom, int nbHabitants, Long departementId, String code) {
+        return new VilleDTO(null, nom, nbHabitants, new VilleDTO.DepartementSimplifieDTO(departementId, code, null));
+    }
+}
@@ -0,0 +1,108 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.dto.VilleDTO;
+import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
+import fr.diginamic.hello.models.Ville;
+import fr.diginamic.hello.services.VilleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie l'autocomplétion par l'index des préfixes : normalisation de la saisie,
+ * villes les plus peuplées d'abord, limite, et mises à jour incrémentales après
+ * validation des écritures de VilleService (d'où l'absence de transaction de test).
+ */
+@TestServicesVilles
+@TestPropertySource(properties = "ville.autocompletion.top-k=3")
+class IndexPrefixesVillesTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NettoyageDonnees nettoyage;
+
+    @Autowired
+    private VilleService villeService;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.update("INSERT INTO departement (code, nom) VALUES ('42', 'Loire'), ('76', 'Seine-Maritime'), "
+                + "('93', 'Seine-Saint-Denis'), ('69', 'Rhône'), ('34', 'Hérault')");
+        jdbcTemplate.update("INSERT INTO ville (nom, nom_recherche, nb_habs, id_dept) VALUES "
+                + "('Saint-Étienne', 'saint etienne', 172565, (SELECT id FROM departement WHERE code = '42')), "
+                + "('Saint-Étienne-du-Rouvray', 'saint etienne du rouvray', 28000, (SELECT id FROM departement WHERE code = '76')), "
+                + "('Saint-Denis', 'saint denis', 113000, (SELECT id FROM departement WHERE code = '93')), "
+                + "('Sainte-Foy-lès-Lyon', 'sainte foy les lyon', 22000, (SELECT id FROM departement WHERE code = '69')), "
+                + "('Sète', 'sete', 44000, (SELECT id FROM departement WHERE code = '34'))");
+    }
+
+    @AfterEach
+    void nettoyage() {
+        nettoyage.vider();
+    }
+
+    @Test
+    void saisieNormaliseeEtPlusPeupleesDAbord() {
+        assertThat(villeService.findByNomStartingWith("SAINT-É", 3))
+                .extracting(VilleDTO::getNom).containsExactly("Saint-Étienne", "Saint-Étienne-du-Rouvray");
+        assertThat(villeService.findByNomStartingWith("saint", 3))
+                .extracting(VilleDTO::getNom).containsExactly("Saint-Étienne", "Saint-Denis", "Saint-Étienne-du-Rouvray");
+        assertThat(villeService.findByNomStartingWith("sainte foy les", 3))
+                .extracting(VilleDTO::getNom).containsExactly("Sainte-Foy-lès-Lyon");
+        assertThat(villeService.findByNomStartingWith("s", 1))
+                .singleElement().satisfies(ville -> {
+                    assertThat(ville.getNom()).isEqualTo("Saint-Étienne");
+                    assertThat(ville.getDepartement().getCode()).isEqualTo("42");
+                });
+        assertThat(villeService.findByNomStartingWith("lyon", 3)).isEmpty();
+    }
+
+    @Test
+    void limiteHorsBornes() {
+        assertThatThrownBy(() -> villeService.findByNomStartingWith("s", 4))
+                .isInstanceOf(ExceptionFonctionnelle.class);
+    }
+
+    @Test
+    void homonymesAutorisesDansUnAutreDepartement() {
+        // Même règle que l'import : unicité du nom normalisé par département
+        villeService.createVille("Saint-Denis", 1000, "34");
+        assertThat(villeService.findByNomStartingWith("saint denis", 3)).hasSize(2);
+        assertThatThrownBy(() -> villeService.createVille("SAINT DENIS", 1000, "93"))
+                .isInstanceOf(ExceptionFonctionnelle.class);
+    }
+
+    @Test
+    void misesAJourIncrementales() {
+        assertThat(villeService.findByNomStartingWith("saint", 3)).hasSize(3);
+        Long saintDenis = jdbcTemplate.queryForObject("SELECT id FROM ville WHERE nom = 'Saint-Denis'", Long.class);
+        Long saintEtienne = jdbcTemplate.queryForObject("SELECT id FROM ville WHERE nom = 'Saint-Étienne'", Long.class);
+
+        villeService.createVille("Saint-Chamond", 35000, "42");
+        assertThat(villeService.findByNomStartingWith("saint c", 3))
+                .extracting(VilleDTO::getNom).containsExactly("Saint-Chamond");
+
+        villeService.updatePopulation(saintDenis, 500000);
+        assertThat(villeService.findByNomStartingWith("saint", 3))
+                .extracting(VilleDTO::getNom).containsExactly("Saint-Denis", "Saint-Étienne", "Saint-Chamond");
+
+        villeService.deleteById(saintEtienne);
+        assertThat(villeService.findByNomStartingWith("saint e", 3))
+                .extracting(VilleDTO::getNom).containsExactly("Saint-Étienne-du-Rouvray");
+
+        Ville renommee = villeService.findById(saintDenis).orElseThrow();
+        renommee.setNom("Denis-le-Saint");
+        villeService.save(renommee);
+        assertThat(villeService.findByNomStartingWith("saint d", 3)).isEmpty();
+        assertThat(villeService.findByNomStartingWith("denis", 3))
+                .extracting(VilleDTO::getNbHabitants).containsExactly(500000);
+    }
+}
@@ -0,0 +1,43 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.services.DepartementCacheService;
+import fr.diginamic.hello.services.IndexMemoireVilles;
+import fr.diginamic.hello.services.IndexTrigrammesDepartements;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Remise à zéro des données entre deux tests sans transaction de test (TestServicesVilles)
+ *
+ * Supprime villes, historiques et départements, remet à zéro les compteurs des régions,
+ * puis vide les caches et les index en mémoire construits sur ces données.
+ */
+public class NettoyageDonnees {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DepartementCacheService departementCacheService;
+
+    @Autowired
+    private List<IndexMemoireVilles> indexMemoire;
+
+    @Autowired
+    private IndexTrigrammesDepartements indexDepartements;
+
+    /**
+     * Vide les tables et les caches alimentés par le test
+     */
+    public void vider() {
+        jdbcTemplate.update("DELETE FROM ville_population_history");
+        jdbcTemplate.update("DELETE FROM ville");
+        jdbcTemplate.update("DELETE FROM departement");
+        jdbcTemplate.update("UPDATE region SET nombre_villes = 0, population_totale = 0");
+        departementCacheService.invalider();
+        indexMemoire.forEach(IndexMemoireVilles::invalider);
+        indexDepartements.invalider();
+    }
+}
@@ -0,0 +1,98 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.dto.VilleDTO;
+import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
+import fr.diginamic.hello.services.VilleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie la recherche approchée par le BK-tree : fautes de frappe tolérées jusqu'à la distance
+ * demandée, classement par distance puis population, bornes, et mises à jour après validation
+ * des écritures de VilleService (d'où l'absence de transaction de test) ; ainsi que la
+ * recherche phonétique (homophones, plus peuplées d'abord).
+ */
+@TestServicesVilles
+class RechercheApprocheeTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NettoyageDonnees nettoyage;
+
+    @Autowired
+    private VilleService villeService;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.update("INSERT INTO departement (code, nom) VALUES ('34', 'Hérault'), ('82', 'Tarn-et-Garonne'), "
+                + "('26', 'Drôme'), ('03', 'Allier')");
+        jdbcTemplate.update("INSERT INTO ville (nom, nom_recherche, nb_habs, id_dept) VALUES "
+                + "('Montpellier', 'montpellier', 285121, (SELECT id FROM departement WHERE code = '34')), "
+                + "('Montauban', 'montauban', 60810, (SELECT id FROM departement WHERE code = '82')), "
+                + "('Montélimar', 'montelimar', 39000, (SELECT id FROM departement WHERE code = '26')), "
+                + "('Montluçon', 'montlucon', 34000, (SELECT id FROM departement WHERE code = '03')), "
+                + "('Moulins', 'moulins', 19000, (SELECT id FROM departement WHERE code = '03')), "
+                + "('Moulin', 'moulin', 500, (SELECT id FROM departement WHERE code = '34'))");
+    }
+
+    @AfterEach
+    void nettoyage() {
+        nettoyage.vider();
+    }
+
+    @Test
+    void fautesDeFrappe_classeesParDistancePuisPopulation() {
+        assertThat(villeService.findByNomApproche("MONTPELIER", 2, 10))
+                .extracting(VilleDTO::getNom).containsExactly("Montpellier");
+        assertThat(villeService.findByNomApproche("montelimard", 1, 10))
+                .singleElement().satisfies(ville -> {
+                    assertThat(ville.getNom()).isEqualTo("Montélimar");
+                    assertThat(ville.getDepartement().getCode()).isEqualTo("26");
+                });
+        assertThat(villeService.findByNomApproche("moulinz", 1, 10))
+                .extracting(VilleDTO::getNom).containsExactly("Moulins", "Moulin");
+        assertThat(villeService.findByNomApproche("moulin", 2, 10))
+                .extracting(VilleDTO::getNom).containsExactly("Moulin", "Moulins");
+        assertThat(villeService.findByNomApproche("moulin", 2, 1)).hasSize(1);
+        assertThat(villeService.findByNomApproche("montpeliier", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void bornesEtMisesAJour() {
+        assertThatThrownBy(() -> villeService.findByNomApproche("moulin", 3, 10))
+                .isInstanceOf(ExceptionFonctionnelle.class);
+        assertThatThrownBy(() -> villeService.findByNomApproche("moulin", 1, 0))
+                .isInstanceOf(ExceptionFonctionnelle.class);
+
+        Long moulin = jdbcTemplate.queryForObject("SELECT id FROM ville WHERE nom = 'Moulin'", Long.class);
+        villeService.deleteById(moulin);
+        villeService.createVille("Moulis", 700, "34");
+        assertThat(villeService.findByNomApproche("moulin", 1, 10))
+                .extracting(VilleDTO::getNom).containsExactly("Moulins", "Moulis");
+    }
+
+    @Test
+    void homophones_plusPeupleesDAbord() {
+        assertThat(villeService.findByNomPhonetique("Montpelié", 10))
+                .extracting(VilleDTO::getNom).containsExactly("Montpellier");
+        assertThat(villeService.findByNomPhonetique("Montoben", 10))
+                .extracting(VilleDTO::getNom).containsExactly("Montauban");
+        assertThat(villeService.findByNomPhonetique("MOULAIN", 10))
+                .extracting(VilleDTO::getNom).containsExactly("Moulins", "Moulin");
+        assertThat(villeService.findByNomPhonetique("Moulin", 1)).hasSize(1);
+        assertThat(villeService.findByNomPhonetique("Mantes", 10)).isEmpty();
+
+        villeService.createVille("Moulins-Engilbert", 1500, "34");
+        villeService.createVille("Mou-Lins", 40000, "82");
+        assertThat(villeService.findByNomPhonetique("moulin", 10))
+                .extracting(VilleDTO::getNom).containsExactly("Mou-Lins", "Moulins", "Moulin");
+    }
+}
@@ -0,0 +1,166 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.dto.TuileVillesDTO;
+import fr.diginamic.hello.dto.VilleProcheDTO;
+import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
+import fr.diginamic.hello.models.Ville;
+import fr.diginamic.hello.services.VilleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Vérifie les recherches par distance de l'index géographique : plus proches voisins, rayon,
+ * passage de l'antiméridien, villes sans coordonnées ignorées, bornes, et mises à jour après
+ * validation des écritures de VilleService (d'où l'absence de transaction de test) ; ainsi que
+ * les tuiles de la carte (groupes par cellule, filtre par département, mises à jour).
+ */
+@TestServicesVilles
+class RechercheGeographiqueTest {
+
+    private static final double PARIS_LAT = 48.8566;
+    private static final double PARIS_LON = 2.3522;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NettoyageDonnees nettoyage;
+
+    @Autowired
+    private VilleService villeService;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.update("INSERT INTO departement (code, nom) VALUES ('75', 'Paris'), ('92', 'Hauts-de-Seine'), "
+                + "('78', 'Yvelines'), ('69', 'Rhône'), ('986', 'Wallis-et-Futuna')");
+        jdbcTemplate.update("INSERT INTO ville (nom, nom_recherche, nb_habs, id_dept, latitude, longitude) VALUES "
+                + "('Paris', 'paris', 2133111, (SELECT id FROM departement WHERE code = '75'), 48.8566, 2.3522), "
+                + "('Boulogne-Billancourt', 'boulogne billancourt', 121334, (SELECT id FROM departement WHERE code = '92'), 48.8397, 2.2399), "
+                + "('Versailles', 'versailles', 83918, (SELECT id FROM departement WHERE code = '78'), 48.8049, 2.1204), "
+                + "('Lyon', 'lyon', 522250, (SELECT id FROM departement WHERE code = '69'), 45.7640, 4.8357), "
+                + "('Villeurbanne', 'villeurbanne', 156928, (SELECT id FROM departement WHERE code = '69'), 45.7719, 4.8902), "
+                + "('Mata-Utu', 'mata utu', 1000, (SELECT id FROM departement WHERE code = '986'), -13.2825, -176.1736), "
+                + "('Nanterre', 'nanterre', 96000, (SELECT id FROM departement WHERE code = '92'), NULL, NULL)");
+    }
+
+    @AfterEach
+    void nettoyage() {
+        nettoyage.vider();
+    }
+
+    @Test
+    void plusProches_parDistanceCroissante() {
+        List<VilleProcheDTO> proches = villeService.findPlusProches(PARIS_LAT, PARIS_LON, 3);
+        assertThat(proches).extracting(p -> p.getVille().getNom())
+                .containsExactly("Paris", "Boulogne-Billancourt", "Versailles");
+        assertThat(proches.get(1).getDistanceKm()).isCloseTo(8.429, within(0.001));
+        assertThat(proches.get(1).getVille().getLatitude()).isEqualTo(48.8397);
+        assertThat(proches.get(1).getVille().getDepartement().getCode()).isEqualTo("92");
+
+        assertThat(villeService.findPlusProches(45.76, 4.84, 2)).extracting(p -> p.getVille().getNom())
+                .containsExactly("Lyon", "Villeurbanne");
+        // Rayon élargi jusqu'à l'autre bout du monde ; la ville sans coordonnées n'est pas indexée
+        assertThat(villeService.findPlusProches(PARIS_LAT, PARIS_LON, 10)).extracting(p -> p.getVille().getNom())
+                .containsExactly("Paris", "Boulogne-Billancourt", "Versailles", "Lyon", "Villeurbanne", "Mata-Utu");
+    }
+
+    @Test
+    void dansRayon_etAntimeridien() {
+        assertThat(villeService.findDansRayon(PARIS_LAT, PARIS_LON, 10, 100)).extracting(p -> p.getVille().getNom())
+                .containsExactly("Paris", "Boulogne-Billancourt");
+        assertThat(villeService.findDansRayon(PARIS_LAT, PARIS_LON, 20, 2)).hasSize(2);
+        assertThat(villeService.findDansRayon(PARIS_LAT, PARIS_LON, 20, 100)).hasSize(3);
+
+        assertThat(villeService.findDansRayon(-13.28, 179.5, 500, 100)).singleElement().satisfies(proche -> {
+            assertThat(proche.getVille().getNom()).isEqualTo("Mata-Utu");
+            assertThat(proche.getDistanceKm()).isCloseTo(468.2, within(0.1));
+        });
+        assertThat(villeService.findDansRayon(-13.28, 179.5, 450, 100)).isEmpty();
+    }
+
+    @Test
+    void parametresHorsBornes() {
+        assertThatThrownBy(() -> villeService.findPlusProches(91, 0, 10)).isInstanceOf(ExceptionFonctionnelle.class);
+        assertThatThrownBy(() -> villeService.findPlusProches(0, Double.NaN, 10)).isInstanceOf(ExceptionFonctionnelle.class);
+        assertThatThrownBy(() -> villeService.findPlusProches(0, 0, 0)).isInstanceOf(ExceptionFonctionnelle.class);
+        assertThatThrownBy(() -> villeService.findDansRayon(0, 0, 501, 10)).isInstanceOf(ExceptionFonctionnelle.class);
+        assertThatThrownBy(() -> villeService.findDansRayon(0, 0, 10, 1001)).isInstanceOf(ExceptionFonctionnelle.class);
+    }
+
+    @Test
+    void misesAJourIncrementales() {
+        assertThat(villeService.findDansRayon(PARIS_LAT, PARIS_LON, 12, 100)).hasSize(2);
+        Long boulogne = jdbcTemplate.queryForObject("SELECT id FROM ville WHERE nom = 'Boulogne-Billancourt'", Long.class);
+        Long nanterre = jdbcTemplate.queryForObject("SELECT id FROM ville WHERE nom = 'Nanterre'", Long.class);
+
+        Ville meudon = new Ville("Meudon", 46000);
+        meudon.setDepartement(villeService.findById(boulogne).orElseThrow().getDepartement());
+        meudon.setLatitude(48.8124);
+        meudon.setLongitude(2.2386);
+        villeService.save(meudon);
+        villeService.deleteById(boulogne);
+        Ville localisee = villeService.findById(nanterre).orElseThrow();
+        localisee.setLatitude(48.8924);
+        localisee.setLongitude(2.2071);
+        villeService.save(localisee);
+
+        assertThat(villeService.findDansRayon(PARIS_LAT, PARIS_LON, 12, 100)).extracting(p -> p.getVille().getNom())
+                .containsExactly("Paris", "Meudon", "Nanterre");
+
+        Ville sansCoordonnees = villeService.findById(nanterre).orElseThrow();
+        sansCoordonnees.setLongitude(null);
+        assertThatThrownBy(() -> villeService.save(sansCoordonnees)).isInstanceOf(ExceptionFonctionnelle.class);
+    }
+
+    @Test
+    void tuiles_groupesParCellule() {
+        TuileVillesDTO monde = villeService.getTuile(0, 0, 0, null);
+        assertThat(monde.getNombreVilles()).isEqualTo(6);
+        assertThat(monde.getPopulation()).isEqualTo(2133111L + 121334 + 83918 + 522250 + 156928 + 1000);
+        assertThat(monde.getGroupes()).extracting(TuileVillesDTO.GroupeVillesDTO::getNombreVilles)
+                .containsExactlyInAnyOrder(5, 1);
+
+        TuileVillesDTO paris = villeService.getTuile(10, 518, 352, null);
+        assertThat(paris.getGroupes()).hasSize(3);
+        assertThat(paris.getNombreVilles()).isEqualTo(3);
+        // Au-delà du zoom précalculé : cellule du zoom le plus fin, placée sur la ville
+        assertThat(villeService.getTuile(15, 16598, 11273, null).getGroupes()).singleElement().satisfies(groupe -> {
+            assertThat(groupe.getLatitude()).isCloseTo(PARIS_LAT, within(1e-9));
+            assertThat(groupe.getPopulation()).isEqualTo(2133111);
+        });
+        assertThat(villeService.getTuile(15, 16599, 11273, null).getGroupes()).isEmpty();
+
+        assertThat(villeService.getTuile(0, 0, 0, "92").getNombreVilles()).isEqualTo(1);
+        assertThatThrownBy(() -> villeService.getTuile(0, 1, 0, null)).isInstanceOf(ExceptionFonctionnelle.class);
+        assertThatThrownBy(() -> villeService.getTuile(21, 0, 0, null)).isInstanceOf(ExceptionFonctionnelle.class);
+        assertThatThrownBy(() -> villeService.getTuile(0, 0, 0, "00")).isInstanceOf(ExceptionFonctionnelle.class);
+    }
+
+    @Test
+    void tuiles_populationEtDepartementMisAJour() {
+        assertThat(villeService.getTuile(0, 0, 0, "75").getNombreVilles()).isEqualTo(1);
+        Long paris = jdbcTemplate.queryForObject("SELECT id FROM ville WHERE nom = 'Paris'", Long.class);
+        Long boulogne = jdbcTemplate.queryForObject("SELECT id FROM ville WHERE nom = 'Boulogne-Billancourt'", Long.class);
+
+        villeService.updatePopulation(paris, 2000000);
+        Ville rattachee = villeService.findById(boulogne).orElseThrow();
+        rattachee.setDepartement(villeService.findById(paris).orElseThrow().getDepartement());
+        villeService.save(rattachee);
+
+        TuileVillesDTO departement = villeService.getTuile(10, 518, 352, "75");
+        assertThat(departement.getNombreVilles()).isEqualTo(2);
+        assertThat(departement.getPopulation()).isEqualTo(2000000L + 121334);
+        assertThat(villeService.getTuile(0, 0, 0, "92").getGroupes()).isEmpty();
+        assertThat(villeService.getTuile(0, 0, 0, null).getPopulation())
+                .isEqualTo(2000000L + 121334 + 83918 + 522250 + 156928 + 1000);
+    }
+}
@@ -0,0 +1,124 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.dto.VilleDTO;
+import fr.diginamic.hello.models.Departement;
+import fr.diginamic.hello.models.Ville;
+import fr.diginamic.hello.services.DepartementService;
+import fr.diginamic.hello.services.VilleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie la recherche par sous-chaîne des index de trigrammes : classement (exact, début,
+ * début d'un mot, ailleurs, puis population ou code), pagination, recherches courtes,
+ * et prise en compte des écritures validées (d'où l'absence de transaction de test) ;
+ * le critère de nom de la recherche multi-critères, résolu par l'index ; ainsi que la
+ * recherche exacte sur la clé normalisée nom_recherche.
+ */
+@TestServicesVilles
+class RechercheSousChainesTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NettoyageDonnees nettoyage;
+
+    @Autowired
+    private VilleService villeService;
+
+    @Autowired
+    private DepartementService departementService;
+
+    @BeforeEach
+    void setup() {
+        jdbcTemplate.update("INSERT INTO departement (code, nom, nom_recherche) VALUES "
+                + "('13', 'Bouches-du-Rhône', 'bouches du rhone'), ('69', 'Rhône', 'rhone'), ('26', 'Drôme', 'drome'), "
+                + "('93', 'Seine-Saint-Denis', 'seine saint denis'), ('2A', 'Corse-du-Sud', 'corse du sud')");
+        jdbcTemplate.update("INSERT INTO ville (nom, nom_recherche, nb_habs, id_dept) VALUES "
+                + "('Marseille', 'marseille', 862211, (SELECT id FROM departement WHERE code = '13')), "
+                + "('Lyon', 'lyon', 513275, (SELECT id FROM departement WHERE code = '69')), "
+                + "('Sainte-Foy-lès-Lyon', 'sainte foy les lyon', 22000, (SELECT id FROM departement WHERE code = '69')), "
+                + "('Lyons-la-Forêt', 'lyons la foret', 750, (SELECT id FROM departement WHERE code = '26')), "
+                + "('Villeurbanne', 'villeurbanne', 147712, (SELECT id FROM departement WHERE code = '69')), "
+                + "('Saint-Denis', 'saint denis', 113000, (SELECT id FROM departement WHERE code = '93'))");
+    }
+
+    @AfterEach
+    void nettoyage() {
+        nettoyage.vider();
+    }
+
+    @Test
+    void villes_classementEtPagination() {
+        Page<VilleDTO> lyon = villeService.findByNomContaining("LYON", 0, 20);
+        assertThat(lyon.getContent()).extracting(VilleDTO::getNom)
+                .containsExactly("Lyon", "Lyons-la-Forêt", "Sainte-Foy-lès-Lyon");
+        assertThat(lyon.getContent().get(0).getDepartement().getCode()).isEqualTo("69");
+
+        Page<VilleDTO> deuxieme = villeService.findByNomContaining("lyon", 1, 2);
+        assertThat(deuxieme.getTotalElements()).isEqualTo(3);
+        assertThat(deuxieme.getContent()).extracting(VilleDTO::getNom).containsExactly("Sainte-Foy-lès-Lyon");
+
+        assertThat(villeService.findByNomContaining("urba", 0, 20).getContent())
+                .extracting(VilleDTO::getNom).containsExactly("Villeurbanne");
+        assertThat(villeService.findByNomContaining("ly", 0, 20).getTotalElements()).isEqualTo(3);
+        assertThat(villeService.findByNomContaining("lyonnais", 0, 20)).isEmpty();
+    }
+
+    @Test
+    void villes_ecrituresPrisesEnCompte() {
+        assertThat(villeService.findByNomContaining("denis", 0, 20)).hasSize(1);
+
+        villeService.createVille("Denis-sur-Lyon", 1000, "69");
+        Long saintDenis = jdbcTemplate.queryForObject("SELECT id FROM ville WHERE nom = 'Saint-Denis'", Long.class);
+        villeService.deleteById(saintDenis);
+
+        assertThat(villeService.findByNomContaining("denis", 0, 20).getContent())
+                .extracting(VilleDTO::getNom).containsExactly("Denis-sur-Lyon");
+        assertThat(villeService.findByNomContaining("lyon", 0, 20).getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void rechercheMultiCriteres_nomResoluParLIndex() {
+        assertThat(villeService.rechercher("LYON", 1000, null, "69", 0, 20, "nom", "asc").getContent())
+                .extracting(Ville::getNom).containsExactly("Lyon", "Sainte-Foy-lès-Lyon");
+        assertThat(villeService.rechercher("ly", null, null, null, 0, 20, "nbHabitants", "desc").getContent())
+                .extracting(Ville::getNom).containsExactly("Lyon", "Sainte-Foy-lès-Lyon", "Lyons-la-Forêt");
+        assertThat(villeService.rechercher("lyonnais", null, null, null, 0, 20, "id", "asc")).isEmpty();
+    }
+
+    @Test
+    void rechercheExacteSurLaCleNormalisee() {
+        assertThat(villeService.findByNom("st-denis")).get().extracting(v -> v.getNom()).isEqualTo("Saint-Denis");
+        assertThat(villeService.findByNom("SAINTE FOY LES LYON")).isPresent();
+        assertThat(villeService.findByNom("Lyon-la-Forêt")).isEmpty();
+        assertThat(departementService.findByNom("bouches du rhone")).get()
+                .extracting(Departement::getCode).isEqualTo("13");
+
+        villeService.createVille("Saint-Étienne", 172565, "69");
+        assertThat(villeService.findByNom("ST ETIENNE")).get().extracting(v -> v.getNomRecherche())
+                .isEqualTo("saint etienne");
+        assertThat(villeService.findByNomContaining("st d", 0, 20).getContent())
+                .extracting(VilleDTO::getNom).containsExactly("Saint-Denis");
+    }
+
+    @Test
+    void departements_nomEtCode() {
+        assertThat(departementService.searchDepartements("rhone", 0, 20).getContent())
+                .extracting(Departement::getCode).containsExactly("69", "13");
+        assertThat(departementService.searchDepartements("2a", 0, 20).getContent())
+                .extracting(Departement::getNom).containsExactly("Corse-du-Sud");
+        assertThat(departementService.searchDepartements("du", 0, 1).getTotalElements()).isEqualTo(2);
+
+        departementService.updateNom("26", "Drôme provençale");
+        assertThat(departementService.searchDepartements("provenc", 0, 20).getContent())
+                .extracting(Departement::getCode).containsExactly("26");
+    }
+}
@@ -0,0 +1,138 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.dto.DepartementResumeDTO;
+import fr.diginamic.hello.dto.RegionDTO;
+import fr.diginamic.hello.exceptions.ExceptionFonctionnelle;
+import fr.diginamic.hello.models.Departement;
+import fr.diginamic.hello.models.Ville;
+import fr.diginamic.hello.models.ZoneRegion;
+import fr.diginamic.hello.services.DepartementService;
+import fr.diginamic.hello.services.RegionService;
+import fr.diginamic.hello.services.VilleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie le niveau région : rattachement des départements, compteurs des régions et de la
+ * France tenus par les écritures de VilleService, transfert lors d'un changement de région,
+ * recalcul, et requêtes par zone (départements 21 à 29 compris en métropole)
+ */
+@TestServicesVilles
+class RegionsTest {
+
+    @Autowired
+    private NettoyageDonnees nettoyage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VilleService villeService;
+
+    @Autowired
+    private DepartementService departementService;
+
+    @Autowired
+    private RegionService regionService;
+
+    private Departement herault;
+
+    @BeforeEach
+    void setup() {
+        herault = departementService.save(new Departement("34", "Hérault"), "76");
+        departementService.save(new Departement("21", "Côte-d'Or"), "27");
+        departementService.save(new Departement("2A", "Corse-du-Sud"), "94");
+        departementService.save(new Departement("971", "Guadeloupe"), "01");
+
+        villeService.createVille("Montpellier", 299096, "34");
+        villeService.createVille("Béziers", 78683, "34");
+        villeService.createVille("Dijon", 159346, "21");
+        villeService.createVille("Ajaccio", 73000, "2A");
+    }
+
+    @AfterEach
+    void nettoyage() {
+        nettoyage.vider();
+    }
+
+    @Test
+    void compteursRegionEtFrance_suiventLesEcrituresDeVilles() {
+        Ville beziers = villeService.findByNom("Béziers").orElseThrow();
+        villeService.updatePopulation(beziers.getId(), 80000);
+        villeService.deleteById(villeService.findByNom("Dijon").orElseThrow().getId());
+
+        assertRegion("76", 2, 299096L + 80000);
+        assertRegion("27", 0, 0);
+        assertRegion("94", 1, 73000);
+        assertThat(regionService.getTotauxFrance().getNombreVilles()).isEqualTo(3);
+        assertThat(regionService.getTotauxFrance().getPopulationTotale()).isEqualTo(299096L + 80000 + 73000);
+        assertThat(regionService.findDepartements("76")).extracting(DepartementResumeDTO::getCode).containsExactly("34");
+    }
+
+    @Test
+    void changementDeRegion_transfereLesCompteurs() {
+        // Mise à jour sans région (PUT sans codeRegion) : la région est conservée
+        Departement renomme = new Departement("34", "Herault");
+        renomme.setId(herault.getId());
+        departementService.save(renomme, null);
+        assertRegion("76", 2, 299096L + 78683);
+
+        Departement deplace = new Departement("34", "Herault");
+        deplace.setId(herault.getId());
+        departementService.save(deplace, "93");
+        assertRegion("76", 0, 0);
+        assertRegion("93", 2, 299096L + 78683);
+
+        assertThatThrownBy(() -> departementService.save(new Departement("99", "Inconnu"), "00"))
+                .isInstanceOf(ExceptionFonctionnelle.class);
+    }
+
+    @Test
+    void departementSansRegionDesignee_rattacheParSonCode() {
+        departementService.createDepartement("30", "Gard");
+        departementService.createDepartement("975", "Saint-Pierre-et-Miquelon");
+        villeService.createVille("Nîmes", 148561, "30");
+        villeService.createVille("Saint-Pierre", 5500, "975");
+
+        assertThat(departementService.findDepartementsMetropolitains())
+                .extracting(Departement::getCode).containsExactlyInAnyOrder("34", "21", "30");
+        assertRegion("76", 3, 299096L + 78683 + 148561);
+        // Code hors correspondance : sans région, compté dans les seuls totaux nationaux
+        assertThat(regionService.getTotauxFrance().getNombreVilles()).isEqualTo(6);
+        assertThat(regionService.getTotauxFrance().getPopulationTotale())
+                .isEqualTo(299096L + 78683 + 159346 + 73000 + 148561 + 5500);
+    }
+
+    @Test
+    void recalcul_corrigeLesDerives() {
+        jdbcTemplate.update("INSERT INTO ville (nom, nom_recherche, nb_habs, id_dept) VALUES ('Sète', 'sete', 44558, ?)",
+                herault.getId());
+
+        departementService.recalculerCompteurs();
+
+        assertRegion("76", 3, 299096L + 78683 + 44558);
+        assertThat(regionService.getTotauxFrance().getNombreVilles()).isEqualTo(5);
+    }
+
+    @Test
+    void requetesParZone() {
+        assertThat(departementService.findDepartementsMetropolitains())
+                .extracting(Departement::getCode).containsExactlyInAnyOrder("34", "21");
+        assertThat(departementService.findDepartementsCorse()).extracting(Departement::getCode).containsExactly("2A");
+        assertThat(departementService.findDepartementsOutreMer()).extracting(Departement::getCode).containsExactly("971");
+        assertThat(regionService.findAll(ZoneRegion.OUTRE_MER)).hasSize(5);
+        assertThatThrownBy(() -> regionService.findByCode("00")).isInstanceOf(ExceptionFonctionnelle.class);
+    }
+
+    private void assertRegion(String code, long nombreVilles, long population) {
+        RegionDTO region = regionService.findByCode(code);
+        assertThat(region.getNombreVilles()).as("villes " + code).isEqualTo(nombreVilles);
+        assertThat(region.getPopulationTotale()).as("population " + code).isEqualTo(population);
+    }
+}
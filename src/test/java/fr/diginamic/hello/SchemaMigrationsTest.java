@@ -0,0 +1,126 @@
+package fr.diginamic.hello;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le schéma créé par les migrations Flyway : migrations appliquées, schéma accepté
+ * par la validation Hibernate (contexte démarré) et plans d'exécution des requêtes fréquentes
+ * de VilleRepository et DepartementRepository servis par les index de V2__index_requetes.sql
+ * et V4__cles_recherche.
+ * Les plans sont ceux de H2 (EXPLAIN) : mêmes index, mêmes colonnes qu'en MySQL.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+class SchemaMigrationsTest {
+
+    private static final int NB_DEPARTEMENTS = 20;
+
+    private static final int VILLES_PAR_DEPARTEMENT = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setup() {
+        List<Object[]> departements = new ArrayList<>();
+        for (int d = 1; d <= NB_DEPARTEMENTS; d++) {
+            departements.add(new Object[]{String.format("%02d", d), "Departement " + d, "departement " + d});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO departement (code, nom, nom_recherche) VALUES (?, ?, ?)", departements);
+
+        List<Object[]> villes = new ArrayList<>();
+        for (int d = 1; d <= NB_DEPARTEMENTS; d++) {
+            Long idDept = jdbcTemplate.queryForObject("SELECT id FROM departement WHERE code = ?",
+                    Long.class, String.format("%02d", d));
+            for (int v = 0; v < VILLES_PAR_DEPARTEMENT; v++) {
+                villes.add(new Object[]{"Ville " + d + "-" + v, "ville " + d + " " + v, 1000 + d * 100 + v, idDept});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO ville (nom, nom_recherche, nb_habs, id_dept) VALUES (?, ?, ?, ?)", villes);
+    }
+
+    @Test
+    void migrationsAppliquees() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"",
+                String.class);
+        assertThat(versions).containsExactly("1", "2", "4", "5", "6", "7");
+    }
+
+    // ==================== VILLES ====================
+
+    @Test
+    void rechercheParNomEtPrefixe_idxVilleNom() {
+        assertPlanUtilise("idx_ville_nom", "SELECT id, nom, nb_habs, id_dept FROM ville WHERE nom = 'Ville 3-7'");
+        assertPlanUtilise("idx_ville_nom", "SELECT id, nom, nb_habs, id_dept FROM ville WHERE nom LIKE 'Ville 3%' ORDER BY nom");
+        assertPlanUtilise("idx_ville_nom", "SELECT id, nom, nb_habs, id_dept FROM ville "
+                + "WHERE nom > 'Ville 5' OR (nom = 'Ville 5' AND id > 10) ORDER BY nom, id LIMIT 20");
+    }
+
+    @Test
+    void rechercheParCleNormalisee_idxVilleNomRecherche() {
+        assertPlanUtilise("idx_ville_nom_recherche", "SELECT id, nom, nb_habs, id_dept FROM ville "
+                + "WHERE nom_recherche = 'ville 3 7' ORDER BY nb_habs DESC LIMIT 1");
+        assertPlanUtilise("idx_ville_nom_recherche", "SELECT id_dept, nom_recherche FROM ville "
+                + "WHERE nom_recherche IN ('ville 3 7', 'ville 4 2')");
+        assertPlanUtilise("idx_departement_nom_recherche",
+                "SELECT id, code, nom FROM departement WHERE nom_recherche = 'departement 4'");
+    }
+
+    @Test
+    void seuilsDePopulation_idxVilleNbHabs() {
+        assertPlanUtilise("idx_ville_nb_habs", "SELECT id, nom, nb_habs, id_dept FROM ville "
+                + "WHERE nb_habs > 2500 ORDER BY nb_habs DESC");
+        assertPlanUtilise("idx_ville_nb_habs", "SELECT id, nom, nb_habs, id_dept FROM ville "
+                + "WHERE nb_habs BETWEEN 2000 AND 2010 ORDER BY nb_habs DESC");
+    }
+
+    @Test
+    void villesDUnDepartementParPopulation_idxVilleDeptNbHabs() {
+        assertPlanUtilise("idx_ville_dept_nb_habs", "SELECT id, nom, nb_habs, id_dept FROM ville "
+                + "WHERE id_dept = 3 AND nb_habs > 1320 ORDER BY nb_habs DESC LIMIT 10");
+        // Agrégats sans tri : les deux index (id_dept, ...) couvrent la requête
+        assertPlanUtilise("idx_ville_dept_", "SELECT id_dept, COUNT(*), SUM(nb_habs) FROM ville "
+                + "WHERE id_dept = 3 GROUP BY id_dept");
+    }
+
+    @Test
+    void villesDUnDepartementParNom_idxVilleDeptNom() {
+        assertPlanUtilise("idx_ville_dept_nom", "SELECT id, nom, nb_habs, id_dept FROM ville "
+                + "WHERE id_dept = 3 AND nom = 'Ville 3-7'");
+        assertPlanUtilise("idx_ville_dept_nom", "SELECT id, nom, nb_habs, id_dept FROM ville "
+                + "WHERE id_dept = 3 AND nom > 'Ville 3-2' ORDER BY nom, id LIMIT 10");
+    }
+
+    // ==================== DÉPARTEMENTS ====================
+
+    @Test
+    void departements_codeNomEtCompteurs() {
+        assertPlanUtilise("uk_departement_code", "SELECT id, code, nom FROM departement WHERE code = '13'");
+        assertPlanUtilise("idx_departement_nom", "SELECT id, code, nom FROM departement WHERE nom = 'Departement 4'");
+        assertPlanUtilise("idx_departement_nombre_villes", "SELECT id, code FROM departement WHERE nombre_villes >= 40");
+        assertPlanUtilise("idx_departement_population_totale",
+                "SELECT id, code FROM departement WHERE population_totale >= 1000000");
+        assertPlanUtilise("idx_departement_region", "SELECT id, code FROM departement WHERE id_region = 3");
+    }
+
+    // ==================== UTILITAIRES ====================
+
+    private void assertPlanUtilise(String index, String requete) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + requete, String.class);
+        assertThat(plan).as(requete).containsIgnoringCase(index);
+    }
+}
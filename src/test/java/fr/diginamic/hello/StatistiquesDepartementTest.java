@@ -0,0 +1,117 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.config.CacheConfig;
+import fr.diginamic.hello.dto.StatistiquesDepartementDTO;
+import fr.diginamic.hello.dto.VilleDTO;
+import fr.diginamic.hello.models.Departement;
+import fr.diginamic.hello.models.Ville;
+import fr.diginamic.hello.repositories.VilleRepositoryHelper;
+import fr.diginamic.hello.services.DepartementCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie la requête unique des statistiques par département : agrégats, médiane,
+ * ville la plus peuplée (départage par id), département sans ville, code inconnu,
+ * tri et filtres de la version tous départements, top N de chaque département
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import({CacheConfig.class, DepartementCacheService.class, VilleRepositoryHelper.class})
+class StatistiquesDepartementTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private VilleRepositoryHelper repositoryHelper;
+
+    private Ville montpellier;
+
+    @BeforeEach
+    void setup() {
+        Departement herault = em.persist(new Departement("34", "Hérault"));
+        Departement gard = em.persist(new Departement("30", "Gard"));
+        em.persist(new Departement("48", "Lozère"));
+
+        em.persist(new Ville("Sète", 44000, herault));
+        montpellier = em.persist(new Ville("Montpellier", 290000, herault));
+        em.persist(new Ville("Béziers", 77000, herault));
+        em.persist(new Ville("Montpellier Bis", 290000, herault));
+        em.persist(new Ville("Nîmes", 150000, gard));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void agregatsEtVilleLaPlusPeuplee() {
+        StatistiquesDepartementDTO stats = repositoryHelper.getDepartementStats("34");
+
+        assertThat(stats.getDepartement().getCode()).isEqualTo("34");
+        assertThat(stats.getDepartement().getNom()).isEqualTo("Hérault");
+        assertThat(stats.getNombreVilles()).isEqualTo(4L);
+        assertThat(stats.getPopulationTotale()).isEqualTo(701000L);
+        assertThat(stats.getPopulationMin()).isEqualTo(44000);
+        assertThat(stats.getPopulationMax()).isEqualTo(290000);
+        assertThat(stats.getPopulationMoyenne()).isEqualTo(175250.0);
+        assertThat(stats.getPopulationMediane()).isEqualTo(183500.0);
+        assertThat(stats.getVilleLaPlusPeuplee().getId()).isEqualTo(montpellier.getId());
+        assertThat(stats.getVilleLaPlusPeuplee().getNbHabitants()).isEqualTo(290000);
+    }
+
+    @Test
+    void departementSansVille() {
+        StatistiquesDepartementDTO stats = repositoryHelper.getDepartementStats("48");
+
+        assertThat(stats.getDepartement().getNom()).isEqualTo("Lozère");
+        assertThat(stats.getNombreVilles()).isZero();
+        assertThat(stats.getPopulationTotale()).isZero();
+        assertThat(stats.getPopulationMin()).isNull();
+        assertThat(stats.getPopulationMoyenne()).isNull();
+        assertThat(stats.getVilleLaPlusPeuplee()).isNull();
+    }
+
+    @Test
+    void tousLesDepartements_trisEtFiltres() {
+        List<StatistiquesDepartementDTO> parPopulation =
+                repositoryHelper.getStatistiquesDepartements("populationTotale", true, null, null, null);
+        assertThat(parPopulation).extracting(s -> s.getDepartement().getCode()).containsExactly("34", "30", "48");
+        assertThat(parPopulation.get(1).getPopulationMediane()).isEqualTo(150000.0);
+        assertThat(parPopulation.get(1).getVilleLaPlusPeuplee().getNom()).isEqualTo("Nîmes");
+
+        List<StatistiquesDepartementDTO> filtres =
+                repositoryHelper.getStatistiquesDepartements("code", false, 1L, null, 200000L);
+        assertThat(filtres).extracting(s -> s.getDepartement().getCode()).containsExactly("30");
+    }
+
+    @Test
+    void topNParDepartement_uneRequetePourTousOuUneListeDeCodes() {
+        Map<String, List<VilleDTO>> tous = repositoryHelper.findTopNVillesParDepartement(2, null);
+        assertThat(tous).containsOnlyKeys("30", "34");
+        assertThat(tous.get("34")).extracting(VilleDTO::getNom).containsExactly("Montpellier", "Montpellier Bis");
+        assertThat(tous.get("30")).extracting(VilleDTO::getNom).containsExactly("Nîmes");
+
+        Map<String, List<VilleDTO>> herault = repositoryHelper.findTopNVillesParDepartement(3, List.of("34", "99"));
+        assertThat(herault).containsOnlyKeys("34");
+        assertThat(herault.get("34")).extracting(VilleDTO::getNbHabitants).containsExactly(290000, 290000, 77000);
+    }
+
+    @Test
+    void codeInconnu() {
+        assertThat(repositoryHelper.getDepartementStats("99")).isNull();
+    }
+}
@@ -0,0 +1,59 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.config.CacheConfig;
+import fr.diginamic.hello.repositories.VilleRepositoryHelper;
+import fr.diginamic.hello.services.DepartementCacheService;
+import fr.diginamic.hello.services.DepartementService;
+import fr.diginamic.hello.services.ImportPopulationsService;
+import fr.diginamic.hello.services.IndexApprocheVilles;
+import fr.diginamic.hello.services.IndexGeographiqueVilles;
+import fr.diginamic.hello.services.IndexPhonetiqueVilles;
+import fr.diginamic.hello.services.IndexPrefixesVilles;
+import fr.diginamic.hello.services.IndexTrigrammesDepartements;
+import fr.diginamic.hello.services.IndexTrigrammesVilles;
+import fr.diginamic.hello.services.PyramideTuilesVilles;
+import fr.diginamic.hello.services.RegionService;
+import fr.diginamic.hello.services.SeriesPopulationVilles;
+import fr.diginamic.hello.services.VersionsDonnees;
+import fr.diginamic.hello.services.VilleService;
+import org.springframework.boot.autoconfigure.cache.CacheType;
+import org.springframework.boot.test.autoconfigure.core.AutoConfigureCache;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Contexte commun des tests de services de villes (index en mémoire, départements, régions)
+ *
+ * Base H2 créée par les migrations Flyway, cache applicatif Caffeine, sans cache de second
+ * niveau, et tous les services de villes. Les tests s'exécutent sans transaction de test :
+ * les index en mémoire ne voient que les écritures validées. Chaque classe vide donc la base
+ * après chaque test par NettoyageDonnees.vider().
+ *
+ * Toutes les classes annotées partagent le même contexte Spring (mis en cache entre classes) ;
+ * une propriété propre à une classe s'ajoute par @TestPropertySource.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@AutoConfigureCache(cacheProvider = CacheType.CAFFEINE)
+@Import({CacheConfig.class, DepartementCacheService.class, VilleRepositoryHelper.class, VersionsDonnees.class,
+        IndexPrefixesVilles.class, IndexTrigrammesVilles.class, IndexApprocheVilles.class, IndexPhonetiqueVilles.class,
+        IndexGeographiqueVilles.class, PyramideTuilesVilles.class, SeriesPopulationVilles.class, VilleService.class,
+        IndexTrigrammesDepartements.class, DepartementService.class, RegionService.class,
+        ImportPopulationsService.class, NettoyageDonnees.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public @interface TestServicesVilles {
+}
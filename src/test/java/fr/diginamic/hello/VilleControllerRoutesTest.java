@@ -2,11 +2,22 @@ package fr.diginamic.hello;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.diginamic.hello.controlers.VilleController;
+import fr.diginamic.hello.dto.CroissanceDepartementDTO;
+import fr.diginamic.hello.dto.PageCurseurDTO;
+import fr.diginamic.hello.dto.RapportImportDTO;
+import fr.diginamic.hello.dto.StatistiquesDepartementDTO;
+import fr.diginamic.hello.dto.TuileVillesDTO;
 import fr.diginamic.hello.dto.VilleDTO;
+import fr.diginamic.hello.dto.VilleProcheDTO;
 import fr.diginamic.hello.mappers.VilleMapper;
 import fr.diginamic.hello.models.Departement;
 import fr.diginamic.hello.models.Ville;
-import fr.diginamic.hello.repositories.VilleRepositoryHelper;
+import fr.diginamic.hello.services.ChargeurCsvInsee;
+import fr.diginamic.hello.services.DepartementCacheService;
+import fr.diginamic.hello.services.ExportVillesService;
+import fr.diginamic.hello.services.ImportPopulationsService;
+import fr.diginamic.hello.services.ImportVillesService;
+import fr.diginamic.hello.services.VersionsDonnees;
 import fr.diginamic.hello.services.VilleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,14 +26,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,12 +54,30 @@ class VilleControllerRoutesTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private DepartementCacheService departementCacheService;
+
+    @MockBean
+    private VersionsDonnees versionsDonnees;
+
     @MockBean
     private VilleService villeService;
 
     @MockBean
     private VilleMapper villeMapper;
 
+    @MockBean
+    private ExportVillesService exportVillesService;
+
+    @MockBean
+    private ImportVillesService importVillesService;
+
+    @MockBean
+    private ChargeurCsvInsee chargeurCsvInsee;
+
+    @MockBean
+    private ImportPopulationsService importPopulationsService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -85,6 +124,19 @@ class VilleControllerRoutesTest {
                 .andExpect(jsonPath("$.content[0].nom").value("Montpellier"));
     }
 
+    @Test
+    void getAllVillesCurseur_ok() throws Exception {
+        when(villeService.findTranche("nom", "", 2))
+                .thenReturn(new PageCurseurDTO<>(List.of(sampleVille), "nom", 2, "abc"));
+        when(villeMapper.toDTO(any(Ville.class))).thenReturn(sampleVilleDTO);
+
+        mockMvc.perform(get("/villes").param("sort", "nom").param("size", "2").param("curseur", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contenu[0].nom").value("Montpellier"))
+                .andExpect(jsonPath("$.tri").value("nom"))
+                .andExpect(jsonPath("$.curseurSuivant").value("abc"));
+    }
+
     @Test
     void getVilleById_found() throws Exception {
         when(villeService.findById(10L)).thenReturn(Optional.of(sampleVille));
@@ -155,26 +207,79 @@ class VilleControllerRoutesTest {
 
     @Test
     void findByNomContaining_ok() throws Exception {
-        when(villeService.findByNomContaining("Mont"))
-                .thenReturn(List.of(sampleVille));
-        when(villeMapper.toDTOList(anyList())).thenReturn(List.of(sampleVilleDTO));
+        when(villeService.findByNomContaining("Mont", 0, 20))
+                .thenReturn(new PageImpl<>(List.of(sampleVilleDTO), PageRequest.of(0, 20), 1));
 
         mockMvc.perform(get("/villes/search/nom-contient").param("nom", "Mont"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].nom").value("Montpellier"));
+                .andExpect(jsonPath("$.content[0].nom").value("Montpellier"))
+                .andExpect(jsonPath("$.totalElements").value(1));
     }
 
     @Test
     void findByNomStartingWith_ok() throws Exception {
-        when(villeService.findByNomStartingWith("Mon"))
-                .thenReturn(List.of(sampleVille));
-        when(villeMapper.toDTOList(anyList())).thenReturn(List.of(sampleVilleDTO));
+        when(villeService.findByNomStartingWith("Mon", 10))
+                .thenReturn(List.of(sampleVilleDTO));
 
         mockMvc.perform(get("/villes/search/nom-commence").param("prefix", "Mon"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].nom").value("Montpellier"));
     }
 
+    @Test
+    void findByNomApproche_ok() throws Exception {
+        when(villeService.findByNomApproche("Montpelier", 2, 10))
+                .thenReturn(List.of(sampleVilleDTO));
+
+        mockMvc.perform(get("/villes/search/nom-approche").param("nom", "Montpelier"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nom").value("Montpellier"));
+    }
+
+    @Test
+    void findByNomPhonetique_ok() throws Exception {
+        when(villeService.findByNomPhonetique("Monpelier", 10))
+                .thenReturn(List.of(sampleVilleDTO));
+
+        mockMvc.perform(get("/villes/search/nom-phonetique").param("nom", "Monpelier"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nom").value("Montpellier"));
+    }
+
+    @Test
+    void findPlusProches_ok() throws Exception {
+        when(villeService.findPlusProches(43.61, 3.88, 5))
+                .thenReturn(List.of(new VilleProcheDTO(1.2345, sampleVilleDTO)));
+
+        mockMvc.perform(get("/villes/search/proches").param("lat", "43.61").param("lon", "3.88").param("k", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].distanceKm").value(1.235))
+                .andExpect(jsonPath("$[0].ville.nom").value("Montpellier"));
+    }
+
+    @Test
+    void getTuile_ok() throws Exception {
+        TuileVillesDTO tuile = new TuileVillesDTO(5, 16, 11);
+        tuile.ajouterGroupe(new TuileVillesDTO.GroupeVillesDTO(43.6, 3.9, 12, 400000));
+        when(villeService.getTuile(5, 16, 11, "34")).thenReturn(tuile);
+
+        mockMvc.perform(get("/villes/tuiles/5/16/11").param("departement", "34"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombreVilles").value(12))
+                .andExpect(jsonPath("$.groupes[0].population").value(400000));
+    }
+
+    @Test
+    void croissanceParDepartement_ok() throws Exception {
+        when(villeService.getCroissanceParDepartement(2010, 2021)).thenReturn(List.of(new CroissanceDepartementDTO(
+                new VilleDTO.DepartementSimplifieDTO(1L, "34", "Hérault"), 2010, 2021, 2, 328779, 381495)));
+
+        mockMvc.perform(get("/villes/populations/croissance").param("debut", "2010").param("fin", "2021"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].departement.code").value("34"))
+                .andExpect(jsonPath("$[0].evolutionPourcent").value(16.03));
+    }
+
     @Test
     void populationMin_ok() throws Exception {
         when(villeService.findByPopulationGreaterThan(100000))
@@ -199,7 +304,7 @@ class VilleControllerRoutesTest {
 
     @Test
     void departementMin_ok() throws Exception {
-        when(villeService.findByDepartementAndMinPopulation("34", 10000))
+        when(villeService.findByDepartementAndMinPopulation("34", 10000, 50))
                 .thenReturn(List.of(sampleVille));
         when(villeMapper.toDTOList(anyList())).thenReturn(List.of(sampleVilleDTO));
 
@@ -209,11 +314,11 @@ class VilleControllerRoutesTest {
 
     @Test
     void departementSansMin_ok() throws Exception {
-        when(villeService.exportVillesByDepartement("34"))
+        when(villeService.findByDepartementAndMinPopulation("34", null, 20))
                 .thenReturn(List.of(sampleVille));
         when(villeMapper.toDTOList(anyList())).thenReturn(List.of(sampleVilleDTO));
 
-        mockMvc.perform(get("/villes/departement/34"))
+        mockMvc.perform(get("/villes/departement/34").param("size", "20"))
                 .andExpect(status().isOk());
     }
 
@@ -250,7 +355,10 @@ class VilleControllerRoutesTest {
 
     @Test
     void departementStats_ok_or_404() throws Exception {
-        VilleRepositoryHelper.DepartementStats stats = new VilleRepositoryHelper.DepartementStats(sampleDept, 50L, 1000000L, sampleVille);
+        StatistiquesDepartementDTO stats = new StatistiquesDepartementDTO();
+        stats.setDepartement(new VilleDTO.DepartementSimplifieDTO(1L, "34", "Hérault"));
+        stats.setNombreVilles(50L);
+        stats.setPopulationTotale(1000000L);
         when(villeService.getDepartementStats("34")).thenReturn(stats);
 
         mockMvc.perform(get("/villes/departement/34/stats"))
@@ -298,36 +406,93 @@ class VilleControllerRoutesTest {
 
     @Test
     void importVilles_ok() throws Exception {
-        when(villeMapper.toEntityList(anyList())).thenReturn(List.of(sampleVille));
-        when(villeService.importVilles(anyList())).thenReturn(List.of(sampleVille));
-        when(villeMapper.toDTOList(anyList())).thenReturn(List.of(sampleVilleDTO));
+        RapportImportDTO rapport = new RapportImportDTO();
+        rapport.ligneLue();
+        rapport.ligneLue();
+        rapport.lotImporte(1);
+        rapport.rejeter(2, "X", "Le nom de la ville doit contenir entre 2 et 100 caractères");
+        when(importVillesService.importerJson(any())).thenReturn(rapport);
 
         String body = objectMapper.writeValueAsString(Collections.singletonList(sampleVilleDTO));
 
         mockMvc.perform(post("/villes/import").contentType(MediaType.APPLICATION_JSON).content(body))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].nom").value("Montpellier"));
+                .andExpect(jsonPath("$.villesImportees").value(1))
+                .andExpect(jsonPath("$.lignesRejetees").value(1))
+                .andExpect(jsonPath("$.erreurs[0].ligne").value(2));
+    }
+
+    @Test
+    void importVillesCsv_ok() throws Exception {
+        RapportImportDTO rapport = new RapportImportDTO();
+        rapport.ligneLue();
+        rapport.lotImporte(1);
+        when(chargeurCsvInsee.charger(any())).thenReturn(rapport);
+
+        MockMultipartFile fichier = new MockMultipartFile("fichier", "recensement.csv", "text/csv",
+                "Code département;Nom de la commune;Population totale\n34;Montpellier;295542\n"
+                        .getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/villes/import/csv").file(fichier))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.villesImportees").value(1));
     }
 
     @Test
     void exportByDepartement_ok() throws Exception {
-        when(villeService.exportVillesByDepartement("34")).thenReturn(List.of(sampleVille));
-        when(villeMapper.toDTOList(anyList())).thenReturn(List.of(sampleVilleDTO));
+        doAnswer(invocation -> {
+            OutputStream sortie = invocation.getArgument(3);
+            sortie.write("{\"nom\":\"Montpellier\"}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(exportVillesService).exporter(eq("34"), eq(ExportVillesService.Format.NDJSON), eq(false), any());
 
-        mockMvc.perform(get("/villes/export/departement/34"))
-                .andExpect(status().isOk());
+        MvcResult resultat = mockMvc.perform(get("/villes/export/departement/34"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultat))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(content().string("{\"nom\":\"Montpellier\"}\n"));
+        verify(exportVillesService).verifierPerimetre("34");
+        verifyNoInteractions(villeService);
+    }
+
+    @Test
+    void exportFlux_csv_gzip() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream sortie = invocation.getArgument(3);
+            sortie.write("id;nom\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(exportVillesService).exporter(eq("34"), eq(ExportVillesService.Format.CSV), eq(true), any());
+
+        MvcResult resultat = mockMvc.perform(get("/villes/export")
+                        .param("format", "csv").param("departement", "34").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultat))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition", containsString("villes-34.csv")))
+                .andExpect(content().string("id;nom\n"));
+        verify(exportVillesService).verifierPerimetre("34");
     }
 
     @Test
     void rechercheAvancee_ok() throws Exception {
-        when(villeService.findByDepartementAndPopulationRange("34", 1000, 300000))
-                .thenReturn(List.of(sampleVille));
-        when(villeMapper.toDTOList(anyList())).thenReturn(List.of(sampleVilleDTO));
+        when(villeService.rechercher("mont", 1000, 300000, "34", 0, 20, "nom", "asc"))
+                .thenReturn(new SliceImpl<>(List.of(sampleVille), PageRequest.of(0, 20), false));
+        when(villeMapper.toDTO(sampleVille)).thenReturn(sampleVilleDTO);
 
         mockMvc.perform(get("/villes/search/avancee")
+                        .param("nom", "mont")
                         .param("dept", "34")
                         .param("minPop", "1000")
                         .param("maxPop", "300000"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].nom").value(sampleVilleDTO.getNom()))
+                .andExpect(jsonPath("$.last").value(true));
     }
 }
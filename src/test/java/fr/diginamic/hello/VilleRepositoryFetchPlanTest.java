@@ -0,0 +1,158 @@
+package fr.diginamic.hello;
+
+import fr.diginamic.hello.dto.VilleDTO;
+import fr.diginamic.hello.mappers.VilleMapper;
+import fr.diginamic.hello.models.Departement;
+import fr.diginamic.hello.models.Ville;
+import fr.diginamic.hello.repositories.VilleRepository;
+import fr.diginamic.hello.repositories.VilleSpecifications;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie que les lectures de villes converties en VilleDTO exécutent un nombre
+ * borné de requêtes SQL, quel que soit le nombre de villes (pas de N+1 sur le département).
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class VilleRepositoryFetchPlanTest {
+
+    private static final int NB_DEPARTEMENTS = 30;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private VilleRepository villeRepository;
+
+    private final VilleMapper villeMapper = new VilleMapper();
+
+    private final List<Departement> departements = new ArrayList<>();
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        for (int i = 0; i < NB_DEPARTEMENTS; i++) {
+            Departement dep = em.persist(new Departement(String.format("%02d", i + 1), "Departement " + i));
+            departements.add(dep);
+            em.persist(new Ville("Ville " + i, 1000 + i, dep));
+            em.persist(new Ville("Saint Ville " + i, 50000 + i, dep));
+        }
+        em.flush();
+        em.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllPaged_boundedStatements() {
+        assertBounded(2, () -> villeMapper.toDTOList(
+                villeRepository.findAll(PageRequest.of(0, 40, Sort.by("nom"))).getContent()));
+    }
+
+    @Test
+    void findAll_boundedStatements() {
+        assertBounded(1, () -> villeMapper.toDTOList(villeRepository.findAll()));
+    }
+
+    @Test
+    void rechercheParNom_boundedStatements() {
+        assertBounded(1, () -> villeMapper.toDTOList(villeRepository.findByNomRechercheContaining("ville")));
+        assertBounded(1, () -> villeMapper.toDTOList(villeRepository.findByNomRechercheStartingWithOrderByNomRecherche("saint")));
+        assertBounded(1, () -> List.of(villeMapper.toDTO(villeRepository.findFirstByNomRechercheOrderByNbHabitantsDesc("ville 3").orElseThrow())));
+    }
+
+    @Test
+    void rechercheParPopulation_boundedStatements() {
+        assertBounded(1, () -> villeMapper.toDTOList(
+                villeRepository.findByNbHabitantsGreaterThanOrderByNbHabitantsDesc(0)));
+        assertBounded(1, () -> villeMapper.toDTOList(
+                villeRepository.findByNbHabitantsBetweenOrderByNbHabitantsDesc(0, 100000)));
+    }
+
+    @Test
+    void rechercheParDepartement_boundedStatements() {
+        Departement dep = departements.get(0);
+        assertBounded(1, () -> villeMapper.toDTOList(
+                villeRepository.findByDepartementAndNbHabitantsGreaterThanOrderByNbHabitantsDesc(dep, 0, PageRequest.of(0, 50))));
+        assertBounded(1, () -> villeMapper.toDTOList(
+                villeRepository.findByDepartementAndNbHabitantsBetweenOrderByNbHabitantsDesc(dep, 0, 100000)));
+        assertBounded(1, () -> villeMapper.toDTOList(
+                villeRepository.findTopNVillesByCodeDepartement(dep.getCode(), PageRequest.of(0, 5))));
+        assertBounded(1, () -> villeMapper.toDTOList(
+                villeRepository.findByDepartement(dep, PageRequest.of(0, 20)).getContent()));
+    }
+
+    @Test
+    void rechercheMultiCriteres_uneRequeteSansCount() {
+        Specification<Ville> criteres = Specification.allOf(
+                VilleSpecifications.nomContient("saint"),
+                VilleSpecifications.populationMin(50005),
+                VilleSpecifications.populationMax(50020));
+        List<Slice<Ville>> pages = new ArrayList<>();
+        assertBounded(1, () -> {
+            Slice<Ville> page = villeRepository.rechercher(criteres, PageRequest.of(0, 10, Sort.by("nbHabitants")));
+            pages.add(page);
+            return villeMapper.toDTOList(page.getContent());
+        });
+        assertThat(pages.get(0).getContent()).extracting(Ville::getNbHabitants).startsWith(50005, 50006);
+        assertThat(pages.get(0).hasNext()).isTrue();
+
+        Long depId = departements.get(3).getId();
+        Slice<Ville> departement = villeRepository.rechercher(Specification.allOf(
+                VilleSpecifications.departement(depId), VilleSpecifications.nomContient("VILLE")), PageRequest.of(0, 10));
+        assertThat(departement.getContent()).hasSize(2);
+        assertThat(departement.hasNext()).isFalse();
+    }
+
+    @Test
+    void trancheParCurseur_boundedStatements() {
+        Long depId = departements.get(0).getId();
+        assertBounded(1, () -> villeMapper.toDTOList(
+                villeRepository.findPremiereTranche(PageRequest.of(0, 10, Sort.by("nom", "id")))));
+        assertBounded(1, () -> villeMapper.toDTOList(
+                villeRepository.findTrancheApresNom("Ville 1", 0L, PageRequest.of(0, 10))));
+        assertBounded(1, () -> villeMapper.toDTOList(
+                villeRepository.findTrancheApresNbHabitants(1000, 0L, PageRequest.of(0, 10))));
+        assertBounded(1, () -> villeMapper.toDTOList(
+                villeRepository.findTrancheByDepartementIdApresId(depId, 0L, PageRequest.of(0, 10))));
+    }
+
+    /**
+     * Exécute la lecture + conversion en DTO et vérifie le nombre de requêtes préparées
+     */
+    private void assertBounded(long maxRequetes, Supplier<List<VilleDTO>> lecture) {
+        em.clear();
+        statistics.clear();
+
+        List<VilleDTO> dtos = lecture.get();
+
+        assertThat(dtos).isNotEmpty();
+        assertThat(dtos).allSatisfy(dto -> assertThat(dto.getDepartement().getCode()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(maxRequetes);
+    }
+}